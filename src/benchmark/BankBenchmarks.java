@@ -0,0 +1,554 @@
+package benchmark;
+
+import model.*;
+import exceptions.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Casos de medicion de las operaciones mas usadas del paquete model: transferencias entre cuentas, consultas
+ * por rango de saldo, imposiciones, registro de transacciones y validacion de numeros de cuenta, ademas de la
+ * memoria que ocupan las cuentas en el banco y sus historiales comparada con las estructuras anteriores
+ * (HashMap por numero de cuenta y listas de Transaction). Las cuentas de prueba se alternan entre corrientes y
+ * de ahorro, con saldos al azar lo bastante altos para que las transferencias nunca se rechacen por saldo.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class BankBenchmarks {
+
+	private static final long INITIAL_BALANCE = 1L << 40;		//Saldo base de las cuentas de prueba.
+	private static final int RANK_WIDTH = 1000;					//Cuentas que abarca en promedio una consulta por rango.
+	private static final int NUMBERS = 1024;					//Numeros de cuenta distintos que se validan (potencia de 2).
+
+	/**
+	 * @return casos de medicion del paquete model.
+	 * */
+	public static ArrayList<BenchmarkCase> cases() {
+		ArrayList<BenchmarkCase> cases = new ArrayList<BenchmarkCase>();
+
+		cases.add(new Transfer());
+		cases.add(new BalanceRank());
+		cases.add(new Impositions());
+		cases.add(new AddTransaction());
+		cases.add(new IsValidLegacy());
+		cases.add(new IsValid());
+		cases.add(new IsValidBytes());
+		cases.add(new Footprint());
+		cases.add(new FootprintHashMap());
+		cases.add(new HistoryFootprint());
+		cases.add(new HistoryFootprintList());
+
+		return cases;
+	}
+
+	/**
+	 * Crea un banco con la cantidad de cuentas ingresada.
+	 * @return numeros de cuenta del banco, en el orden en que se agregaron.
+	 * */
+	private static String[] fill(Bank bank, int accounts) throws WrongAccountNumber {
+		String[] accountNumbers = new String[accounts];
+		Account[] created = newAccounts(accounts);
+
+		for(int i = 0; i < accounts; ++i) {
+			accountNumbers[i] = created[i].getAccountNumber();
+			bank.addAccount(created[i]);
+		}
+
+		return accountNumbers;
+	}
+
+	/**
+	 * @return cuentas de prueba, sin agregarlas a un banco.
+	 * */
+	private static Account[] newAccounts(int accounts) throws WrongAccountNumber {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Account[] created = new Account[accounts];
+
+		for(int i = 0; i < accounts; ++i) {
+			String accountNumber = Account.decode(10 * (i + 1) + 1 + (i & 1));
+
+			long balance = INITIAL_BALANCE + random.nextInt(1_000_000_000);
+			if((i & 1) == 0)
+				created[i] = new CurrentAccount(balance, accountNumber, 5_000);
+			else
+				created[i] = new SavingAccount(balance, accountNumber, 0.01);
+		}
+
+		return created;
+	}
+
+	/**
+	 * @return cuentas de prueba con historiales de la capacidad ingresada, la capacidad por defecto se restablece
+	 * al terminar.
+	 * */
+	private static Account[] newAccounts(int accounts, int historyCapacity) throws WrongAccountNumber {
+		CurrentAccount.setHistoryCapacity(historyCapacity);
+		SavingAccount.setHistoryCapacity(historyCapacity);
+
+		try {
+			return newAccounts(accounts);
+		} finally {
+			CurrentAccount.setHistoryCapacity(Account.DEFAULT_HISTORY_CAPACITY);
+			SavingAccount.setHistoryCapacity(Account.DEFAULT_HISTORY_CAPACITY);
+		}
+	}
+
+	/**
+	 * @return bytes ocupados del heap despues de recolectar la basura, varias veces para que los objetos
+	 * liberados por finalizacion o referencias debiles tambien se recolecten.
+	 * */
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+
+		for(int i = 0; i < 4; ++i) {
+			System.gc();
+			Thread.sleep(50);
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Transferencia entre dos cuentas al azar con Bank.transactionBetweenAccounts.
+	 * */
+	private static class Transfer extends BenchmarkCase {
+
+		private Bank bank;							//Banco de prueba.
+		private String[] accountNumbers;			//Numeros de cuenta del banco.
+
+		Transfer() {
+			super("bank.transactionBetweenAccounts", true, false);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) throws Exception {
+			this.bank = new Bank();
+			this.accountNumbers = fill(this.bank, accounts);
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) throws Exception {
+			String origin = this.accountNumbers[random.nextInt(this.accountNumbers.length)];
+			String destiny = this.accountNumbers[random.nextInt(this.accountNumbers.length)];
+
+			return this.bank.transactionBetweenAccounts(origin, destiny, 1 + random.nextInt(1000)) ? 1 : 0;
+		}
+
+		@Override
+		public void teardown() {
+			this.bank = null;
+			this.accountNumbers = null;
+		}
+	}
+
+	/**
+	 * Consulta de las cuentas con saldo dentro de un rango al azar con Bank.getAccountBalanceRank, el rango
+	 * abarca en promedio RANK_WIDTH cuentas.
+	 * */
+	private static class BalanceRank extends BenchmarkCase {
+
+		private Bank bank;							//Banco de prueba.
+		private long width;							//Ancho del rango de saldo consultado.
+
+		BalanceRank() {
+			super("bank.getAccountBalanceRank", true, false);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) throws Exception {
+			this.bank = new Bank();
+			fill(this.bank, accounts);
+			this.width = 1_000_000_000L * Math.min(RANK_WIDTH, accounts) / accounts;
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			long lower = INITIAL_BALANCE + random.nextLong(1_000_000_000L - this.width + 1);
+
+			return this.bank.getAccountBalanceRank(lower, lower + this.width).size();
+		}
+
+		@Override
+		public void teardown() {
+			this.bank = null;
+		}
+	}
+
+	/**
+	 * Ronda de imposiciones de todas las cuentas con Bank.makeImpositions.
+	 * */
+	private static class Impositions extends BenchmarkCase {
+
+		private Bank bank;							//Banco de prueba.
+
+		Impositions() {
+			super("bank.makeImpositions", true, false);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) throws Exception {
+			this.bank = new Bank();
+			fill(this.bank, accounts);
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			this.bank.makeImpositions();
+			return this.bank.getAccountCount();
+		}
+
+		@Override
+		public void teardown() {
+			this.bank = null;
+		}
+	}
+
+	/**
+	 * Registro de una transaccion en el historial con Account.addTransaction, cada hilo usa su propia cuenta
+	 * (el banco lo llama con el candado de la cuenta tomado).
+	 * */
+	private static class AddTransaction extends BenchmarkCase {
+
+		private Account[] accounts;					//Cuenta de cada hilo.
+		private Account counterparty;				//Cuenta asociada a las transacciones.
+
+		AddTransaction() {
+			super("account.addTransaction", false, false);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) throws Exception {
+			this.accounts = new Account[threads];
+			for(int i = 0; i < threads; ++i)
+				this.accounts[i] = new CurrentAccount(INITIAL_BALANCE, Account.decode(10 * (i + 1) + 1), 5_000);
+
+			this.counterparty = new SavingAccount(INITIAL_BALANCE, "99999999-2", 0.01);
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			int amount = random.nextInt(1_000_000);
+
+			this.accounts[thread].addTransaction(amount, this.counterparty);
+			return amount;
+		}
+
+		@Override
+		public void teardown() {
+			this.accounts = null;
+		}
+	}
+
+	/**
+	 * Validacion de numeros de cuenta escritos como String con la version anterior de Account.isValid (ver
+	 * isValidLegacy), la referencia con que se comparan account.isValid y account.isValidBytes.
+	 * */
+	private static class IsValidLegacy extends BenchmarkCase {
+
+		private String[] numbers;					//Numeros de cuenta a validar.
+
+		IsValidLegacy() {
+			super("account.isValidLegacy", false, false);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) {
+			this.numbers = numbers();
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			return isValidLegacy(this.numbers[random.nextInt() & (NUMBERS - 1)]) ? 1 : 0;
+		}
+	}
+
+	/**
+	 * Validacion de numeros de cuenta escritos como String con Account.isValid, la mitad de ellos no validos.
+	 * */
+	private static class IsValid extends BenchmarkCase {
+
+		private String[] numbers;					//Numeros de cuenta a validar.
+
+		IsValid() {
+			super("account.isValid", false, false);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) {
+			this.numbers = numbers();
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			return Account.isValid(this.numbers[random.nextInt() & (NUMBERS - 1)]) ? 1 : 0;
+		}
+	}
+
+	/**
+	 * Validacion de numeros de cuenta escritos como bytes ASCII con Account.isValid(byte[], int), como en la
+	 * importacion de archivos y el protocolo binario.
+	 * */
+	private static class IsValidBytes extends BenchmarkCase {
+
+		private byte[] numbers;						//Numeros de cuenta a validar, 10 bytes cada uno.
+
+		IsValidBytes() {
+			super("account.isValidBytes", false, false);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) {
+			String[] numbers = numbers();
+
+			this.numbers = new byte[10 * NUMBERS];
+			for(int i = 0; i < NUMBERS; ++i) {
+				for(int j = 0; j < 10; ++j)
+					this.numbers[10 * i + j] = (byte) numbers[i].charAt(j);
+			}
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			return Account.isValid(this.numbers, 10 * (random.nextInt() & (NUMBERS - 1))) ? 1 : 0;
+		}
+	}
+
+	/**
+	 * Memoria que ocupa el banco por cuenta (mapa de cuentas, indice de saldos y versiones), sin contar las
+	 * cuentas, que se crean antes de medir y con historial de una transaccion para que quepan 10 millones en el
+	 * heap. La operacion medida es la busqueda de una cuenta al azar con Bank.getAccount por numero codificado.
+	 * Se compara con bank.footprintHashMap, que mide solo el mapa: la diferencia incluye tambien el indice de
+	 * saldos, las versiones de los saldos y el conjunto de cuentas modificadas desde el ultimo punto de control.
+	 * */
+	private static class Footprint extends BenchmarkCase {
+
+		private Bank bank;							//Banco de prueba.
+		private int[] keys;							//Numeros de cuenta codificados del banco.
+
+		Footprint() {
+			super("bank.footprint", true, false);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) throws Exception {
+			Account[] created = newAccounts(accounts, 1);
+
+			this.keys = new int[accounts];
+			for(int i = 0; i < accounts; ++i)
+				this.keys[i] = created[i].getAccountKey();
+
+			long before = usedHeap();
+			this.bank = new Bank();
+			for(Account account : created)
+				this.bank.addAccount(account);
+
+			setBytesPerAccount((double) (usedHeap() - before) / accounts);
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			return (this.bank.getAccount(this.keys[random.nextInt(this.keys.length)]) != null) ? 1 : 0;
+		}
+
+		@Override
+		public void teardown() {
+			this.bank = null;
+			this.keys = null;
+		}
+	}
+
+	/**
+	 * Memoria por cuenta de un HashMap por numero de cuenta, como guardaba las cuentas el banco antes de
+	 * AccountMap, con las mismas cuentas que bank.footprint. La operacion medida es la busqueda de una cuenta al
+	 * azar por su numero de cuenta.
+	 * */
+	private static class FootprintHashMap extends BenchmarkCase {
+
+		private HashMap<String, Account> accounts;	//Cuentas por numero de cuenta.
+		private String[] accountNumbers;			//Numeros de cuenta guardados.
+
+		FootprintHashMap() {
+			super("bank.footprintHashMap", true, false);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) throws Exception {
+			Account[] created = newAccounts(accounts, 1);
+
+			this.accountNumbers = new String[accounts];
+			for(int i = 0; i < accounts; ++i)
+				this.accountNumbers[i] = created[i].getAccountNumber();
+
+			long before = usedHeap();
+			this.accounts = new HashMap<String, Account>();
+			for(Account account : created)
+				this.accounts.put(account.getAccountNumber(), account);
+
+			setBytesPerAccount((double) (usedHeap() - before) / accounts);
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			return (this.accounts.get(this.accountNumbers[random.nextInt(this.accountNumbers.length)]) != null) ? 1 : 0;
+		}
+
+		@Override
+		public void teardown() {
+			this.accounts = null;
+			this.accountNumbers = null;
+		}
+	}
+
+	/**
+	 * Memoria por cuenta de las cuentas con el historial lleno (Account.DEFAULT_HISTORY_CAPACITY transacciones
+	 * en el buffer circular), incluida la cuenta. La operacion medida es sumar los montos del historial de una
+	 * cuenta al azar. Se compara con account.historyFootprintList.
+	 * */
+	private static class HistoryFootprint extends BenchmarkCase {
+
+		private Account[] accounts;					//Cuentas de prueba.
+
+		HistoryFootprint() {
+			super("account.historyFootprint", true, false);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) throws Exception {
+			Account counterparty = new SavingAccount(INITIAL_BALANCE, "99999999-2", 0.01);
+
+			long before = usedHeap();
+			this.accounts = newAccounts(accounts);
+			for(Account account : this.accounts) {
+				for(int i = 0; i < Account.DEFAULT_HISTORY_CAPACITY; ++i)
+					account.addTransaction(1 + i, counterparty);
+			}
+
+			setBytesPerAccount((double) (usedHeap() - before) / accounts);
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			TransactionHistory history = this.accounts[random.nextInt(this.accounts.length)].getTransactionHistory();
+			long sum = 0;
+
+			for(int i = 0; i < history.size(); ++i)
+				sum += history.getAmount(i);
+
+			return sum;
+		}
+
+		@Override
+		public void teardown() {
+			this.accounts = null;
+		}
+	}
+
+	/**
+	 * Memoria por cuenta de las cuentas con el historial guardado como antes del buffer circular: una lista
+	 * enlazada de Account.DEFAULT_HISTORY_CAPACITY objetos Transaction, cada uno con su fecha. Las cuentas se
+	 * crean con historial de una transaccion, que se cuenta igual. La operacion medida es sumar los montos de la
+	 * lista de una cuenta al azar.
+	 * */
+	private static class HistoryFootprintList extends BenchmarkCase {
+
+		private Account[] accounts;					//Cuentas de prueba.
+		private ArrayList<LinkedList<Transaction>> histories;	//Historial de cada cuenta.
+
+		HistoryFootprintList() {
+			super("account.historyFootprintList", true, false);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) throws Exception {
+			Account counterparty = new SavingAccount(INITIAL_BALANCE, "99999999-2", 0.01);
+			this.histories = new ArrayList<LinkedList<Transaction>>(accounts);
+
+			long before = usedHeap();
+			this.accounts = newAccounts(accounts, 1);
+			for(int i = 0; i < accounts; ++i) {
+				LinkedList<Transaction> history = new LinkedList<Transaction>();
+
+				for(int j = 0; j < Account.DEFAULT_HISTORY_CAPACITY; ++j)
+					history.add(new Transaction(1 + j, counterparty));
+
+				this.histories.add(history);
+			}
+
+			setBytesPerAccount((double) (usedHeap() - before) / accounts);
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			long sum = 0;
+
+			for(Transaction transaction : this.histories.get(random.nextInt(this.histories.size())))
+				sum += transaction.getAmount();
+
+			return sum;
+		}
+
+		@Override
+		public void teardown() {
+			this.accounts = null;
+			this.histories = null;
+		}
+	}
+
+	/**
+	 * Copia de Account.isValid(String) antes de validar con Account.encode: comprueba el largo, el guion, el tipo de
+	 * cuenta (como el anterior Account.getTypeAccount(String)) y que los primeros 8 caracteres sean digitos
+	 * segun Character.isDigit.
+	 * @return true si el numero de cuenta es valido.
+	 * */
+	private static boolean isValidLegacy(String accountNumber) {
+		boolean isValid = true;
+
+		if(accountNumber.length() != 10) {
+			isValid = false;
+		}
+		else if(accountNumber.charAt(8) != '-') {
+			isValid = false;
+		}
+		else if((accountNumber.charAt(9) != '1') && (accountNumber.charAt(9) != '2')) {
+			isValid = false;
+		}
+		else {
+			for(int i = 0; i < 8; ++i) {
+				if(!Character.isDigit(accountNumber.charAt(i))) {
+					isValid = false;
+					break;
+				}
+			}
+		}
+
+		return isValid;
+	}
+
+	/**
+	 * @return NUMBERS numeros de cuenta de 10 caracteres, los pares validos y los impares con un error: tipo de
+	 * cuenta inexistente, sin guion o con una letra.
+	 * */
+	private static String[] numbers() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String[] numbers = new String[NUMBERS];
+
+		for(int i = 0; i < NUMBERS; ++i) {
+			String valid = Account.decode(10 * (1 + random.nextInt(99_999_999)) + 1 + (i & 2) / 2);
+
+			switch(i & 7)
+			{
+				case 1 : numbers[i] = valid.substring(0, 9) + "3"; break;
+				case 3 : numbers[i] = valid.substring(0, 8) + "0" + valid.charAt(9); break;
+				case 5 : numbers[i] = "A" + valid.substring(1); break;
+				case 7 : numbers[i] = valid.substring(0, 4) + "x" + valid.substring(5); break;
+				default : numbers[i] = valid; break;
+			}
+		}
+
+		return numbers;
+	}
+}
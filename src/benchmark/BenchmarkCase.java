@@ -0,0 +1,90 @@
+package benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Clase abstracta que modela un caso de medicion: prepara su estado una vez por combinacion de parametros y
+ * define la operacion que se mide, que los hilos de la medicion llaman repetidamente. La operacion retorna un
+ * valor que el ejecutor acumula, para que la JVM no pueda eliminar el trabajo como codigo sin efecto.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public abstract class BenchmarkCase {
+
+	private String name;							//Nombre del caso, con el grupo como prefijo (por ejemplo "bank.transfer").
+	private boolean usesAccounts;					//Indica si el caso depende de la cantidad de cuentas.
+	private boolean usesPayload;					//Indica si el caso depende del tamaño del texto.
+	private double bytesPerAccount;					//Memoria por cuenta medida en la preparacion, 0 si el caso no la mide.
+
+	/**
+	 * Constructor, establece el nombre del caso y los parametros de los que depende.
+	 * @param name nombre del caso.
+	 * @param usesAccounts true si el caso se mide con cada cantidad de cuentas.
+	 * @param usesPayload true si el caso se mide con cada tamaño de texto.
+	 * */
+	protected BenchmarkCase(String name, boolean usesAccounts, boolean usesPayload) {
+		this.name = name;
+		this.usesAccounts = usesAccounts;
+		this.usesPayload = usesPayload;
+	}
+
+	/**
+	 * Prepara el estado del caso antes de medir una combinacion de parametros.
+	 * @param accounts cantidad de cuentas del banco (0 si el caso no depende de ella).
+	 * @param threads cantidad de hilos que llamaran a la operacion a la vez.
+	 * @param payload tamaño del texto en caracteres (0 si el caso no depende de el).
+	 * */
+	public abstract void setup(int accounts, int threads, int payload) throws Exception;
+
+	/**
+	 * Realiza la operacion medida una vez.
+	 * @param thread indice del hilo que llama, de 0 a la cantidad de hilos menos uno.
+	 * @param random generador de numeros al azar del hilo.
+	 * @return valor que depende del resultado de la operacion.
+	 * */
+	public abstract long operation(int thread, ThreadLocalRandom random) throws Exception;
+
+	/**
+	 * Libera el estado del caso despues de medir una combinacion de parametros.
+	 * */
+	public void teardown() {
+	}
+
+	/**
+	 * Establece la memoria por cuenta medida al preparar el caso, el ejecutor la agrega al resultado.
+	 * @param bytesPerAccount bytes por cuenta.
+	 * */
+	protected void setBytesPerAccount(double bytesPerAccount) {
+		this.bytesPerAccount = bytesPerAccount;
+	}
+
+	/**
+	 * @return nombre del caso.
+	 * */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return true si el caso se mide con cada cantidad de cuentas.
+	 * */
+	public boolean usesAccounts() {
+		return this.usesAccounts;
+	}
+
+	/**
+	 * @return true si el caso se mide con cada tamaño de texto.
+	 * */
+	public boolean usesPayload() {
+		return this.usesPayload;
+	}
+
+	/**
+	 * @return bytes por cuenta medidos en la ultima preparacion, 0 si el caso no mide memoria.
+	 * */
+	public double getBytesPerAccount() {
+		return this.bytesPerAccount;
+	}
+}
@@ -0,0 +1,350 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Ejecuta los casos de medicion de BankBenchmarks y CipherBenchmarks, al estilo de JMH en modo de rendimiento:
+ * cada combinacion de parametros (cuentas, hilos y tamaño de texto, segun los que use el caso) se prepara una
+ * vez, se ejecuta durante varias iteraciones de calentamiento que no se cuentan y luego durante las iteraciones
+ * de medicion. En cada iteracion todos los hilos llaman a la operacion del caso durante el tiempo indicado, y se
+ * calcula el total de operaciones por segundo. Los casos que miden memoria agregan los bytes por cuenta que
+ * midieron al prepararse (por ejemplo bank.footprint, conviene ejecutarlo con un -Xmx amplio y --threads 1).
+ *
+ * Los resultados se escriben en JSON (un objeto por linea dentro de un arreglo) o CSV, con una fila por
+ * combinacion y en un orden fijo, para poder comparar con diff los resultados de dos versiones del codigo. El
+ * avance se muestra por la salida de error.
+ *
+ * Uso: java benchmark.BenchmarkRunner [opciones]
+ *   --include regex			casos a ejecutar, por nombre (por defecto todos)
+ *   --accounts 1000,100000		cantidades de cuentas
+ *   --threads 1,4				cantidades de hilos
+ *   --payload 16,256,4096		tamaños de texto en caracteres
+ *   --warmup 3					iteraciones de calentamiento
+ *   --iterations 5				iteraciones de medicion
+ *   --time 1000				milisegundos de cada iteracion
+ *   --format json|csv			formato de los resultados
+ *   --out archivo				archivo de resultados (por defecto la salida estandar)
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class BenchmarkRunner {
+
+	private static volatile long sink;				//Acumula los valores de las operaciones para que no se eliminen.
+
+	private Pattern include;						//Casos a ejecutar.
+	private int[] accounts;							//Cantidades de cuentas.
+	private int[] threads;							//Cantidades de hilos.
+	private int[] payloads;							//Tamaños de texto.
+	private int warmup;								//Iteraciones de calentamiento.
+	private int iterations;							//Iteraciones de medicion.
+	private long timeMillis;						//Milisegundos de cada iteracion.
+
+	public static void main(String args[]) throws Exception {
+		BenchmarkRunner runner = new BenchmarkRunner();
+		String format = "json";
+		String out = null;
+
+		for(int i = 0; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+
+			switch(args[i])
+			{
+				case "--include" : runner.include = Pattern.compile(value); break;
+				case "--accounts" : runner.accounts = ints(value); break;
+				case "--threads" : runner.threads = ints(value); break;
+				case "--payload" : runner.payloads = ints(value); break;
+				case "--warmup" : runner.warmup = Integer.parseInt(value); break;
+				case "--iterations" : runner.iterations = Integer.parseInt(value); break;
+				case "--time" : runner.timeMillis = Long.parseLong(value); break;
+				case "--format" : format = value; break;
+				case "--out" : out = value; break;
+				default : throw new IllegalArgumentException("Opcion desconocida: " + args[i]);
+			}
+		}
+
+		if(!format.equals("json") && !format.equals("csv"))
+			throw new IllegalArgumentException("Formato desconocido: " + format);
+
+		ArrayList<BenchmarkCase> cases = new ArrayList<BenchmarkCase>();
+		cases.addAll(BankBenchmarks.cases());
+		cases.addAll(CipherBenchmarks.cases());
+
+		ArrayList<Result> results = runner.run(cases);
+
+		try(PrintStream output = (out != null) ? new PrintStream(Files.newOutputStream(Paths.get(out)), false, "UTF-8") : null) {
+			write((output != null) ? output : System.out, results, format.equals("json"));
+		}
+	}
+
+	/**
+	 * Constructor, establece los parametros por defecto.
+	 * */
+	private BenchmarkRunner() {
+		this.include = Pattern.compile(".*");
+		this.accounts = new int[] {1_000, 100_000};
+		this.threads = new int[] {1, Runtime.getRuntime().availableProcessors()};
+		this.payloads = new int[] {16, 256, 4096};
+		this.warmup = 3;
+		this.iterations = 5;
+		this.timeMillis = 1000;
+
+		if(this.threads[1] == 1)
+			this.threads = new int[] {1};
+	}
+
+	/**
+	 * Ejecuta los casos que coinciden con el filtro con todas sus combinaciones de parametros.
+	 * @return resultado de cada combinacion, en el orden de ejecucion.
+	 * */
+	private ArrayList<Result> run(ArrayList<BenchmarkCase> cases) throws Exception {
+		ArrayList<Result> results = new ArrayList<Result>();
+
+		for(BenchmarkCase benchmark : cases) {
+			if(!this.include.matcher(benchmark.getName()).find())
+				continue;
+
+			int[] accounts = benchmark.usesAccounts() ? this.accounts : new int[] {0};
+			int[] payloads = benchmark.usesPayload() ? this.payloads : new int[] {0};
+
+			for(int accountCount : accounts) {
+				for(int payload : payloads) {
+					for(int threadCount : this.threads)
+						results.add(measure(benchmark, accountCount, threadCount, payload));
+				}
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Mide una combinacion de parametros de un caso.
+	 * @return resultado de la medicion.
+	 * */
+	private Result measure(BenchmarkCase benchmark, int accountCount, int threadCount, int payload) throws Exception {
+		Result result = new Result(benchmark.getName(), accountCount, threadCount, payload, this.iterations);
+
+		System.err.printf(Locale.ROOT, "%s cuentas=%d hilos=%d texto=%d%n", benchmark.getName(), accountCount, threadCount, payload);
+		benchmark.setup(accountCount, threadCount, payload);
+		result.bytesPerAccount = benchmark.getBytesPerAccount();
+
+		if(result.bytesPerAccount > 0)
+			System.err.printf(Locale.ROOT, "  memoria: %.1f bytes por cuenta%n", result.bytesPerAccount);
+
+		try {
+			for(int i = 0; i < this.warmup; ++i)
+				System.err.printf(Locale.ROOT, "  calentamiento %d: %.1f ops/s%n", i + 1, iteration(benchmark, threadCount));
+
+			for(int i = 0; i < this.iterations; ++i) {
+				result.scores[i] = iteration(benchmark, threadCount);
+				System.err.printf(Locale.ROOT, "  iteracion %d: %.1f ops/s%n", i + 1, result.scores[i]);
+			}
+		} finally {
+			benchmark.teardown();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Ejecuta una iteracion: los hilos comienzan a la vez, llaman a la operacion hasta que se cumple el tiempo
+	 * y se suman sus operaciones. Se cuenta el tiempo real que tardaron todos los hilos en detenerse, asi las
+	 * operaciones largas no inflan el resultado.
+	 * @return operaciones por segundo de todos los hilos.
+	 * */
+	private double iteration(BenchmarkCase benchmark, int threadCount) throws Exception {
+		CountDownLatch ready = new CountDownLatch(threadCount);
+		CountDownLatch start = new CountDownLatch(1);
+		Worker[] workers = new Worker[threadCount];
+
+		for(int t = 0; t < threadCount; ++t) {
+			workers[t] = new Worker(benchmark, t, ready, start);
+			workers[t].start();
+		}
+
+		ready.await();
+		long begin = System.nanoTime();
+		start.countDown();
+		Thread.sleep(this.timeMillis);
+
+		for(Worker worker : workers)
+			worker.running = false;
+
+		long operations = 0;
+		for(Worker worker : workers) {
+			worker.join();
+
+			if(worker.failure != null)
+				throw new IllegalStateException("Fallo el caso " + benchmark.getName(), worker.failure);
+
+			operations += worker.operations;
+		}
+
+		return operations * 1e9 / (System.nanoTime() - begin);
+	}
+
+	/**
+	 * Hilo que llama repetidamente a la operacion de un caso durante una iteracion.
+	 * */
+	private static class Worker extends Thread {
+
+		private BenchmarkCase benchmark;			//Caso medido.
+		private int index;							//Indice del hilo en la iteracion.
+		private CountDownLatch ready;				//Se descuenta cuando el hilo esta listo para comenzar.
+		private CountDownLatch start;				//Se libera cuando todos los hilos pueden comenzar.
+		volatile boolean running;					//Indica si el hilo debe seguir llamando a la operacion.
+		long operations;							//Operaciones realizadas.
+		Exception failure;							//Excepcion de la operacion, si ocurrio alguna.
+
+		Worker(BenchmarkCase benchmark, int index, CountDownLatch ready, CountDownLatch start) {
+			super("benchmark-" + index);
+			this.benchmark = benchmark;
+			this.index = index;
+			this.ready = ready;
+			this.start = start;
+			this.running = true;
+		}
+
+		@Override
+		public void run() {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			long accumulated = 0;
+			long operations = 0;
+
+			try {
+				this.ready.countDown();
+				this.start.await();
+
+				while(this.running) {
+					accumulated += this.benchmark.operation(this.index, random);
+					++operations;
+				}
+			} catch (Exception e) {
+				this.failure = e;
+			}
+
+			this.operations = operations;
+			sink ^= accumulated;
+		}
+	}
+
+	/**
+	 * Clase que guarda el resultado de la medicion de una combinacion de parametros.
+	 * */
+	private static class Result {
+
+		private String name;						//Nombre del caso.
+		private int accounts;						//Cantidad de cuentas, 0 si el caso no depende de ella.
+		private int threads;						//Cantidad de hilos.
+		private int payload;						//Tamaño del texto, 0 si el caso no depende de el.
+		private double[] scores;					//Operaciones por segundo de cada iteracion de medicion.
+		private double bytesPerAccount;				//Memoria por cuenta medida por el caso, 0 si no la mide.
+
+		Result(String name, int accounts, int threads, int payload, int iterations) {
+			this.name = name;
+			this.accounts = accounts;
+			this.threads = threads;
+			this.payload = payload;
+			this.scores = new double[iterations];
+		}
+
+		/**
+		 * @return promedio de las operaciones por segundo.
+		 * */
+		double mean() {
+			double sum = 0;
+			for(double score : this.scores)
+				sum += score;
+
+			return (this.scores.length == 0) ? 0 : sum / this.scores.length;
+		}
+
+		/**
+		 * @return desviacion estandar de las operaciones por segundo entre iteraciones.
+		 * */
+		double deviation() {
+			if(this.scores.length < 2)
+				return 0;
+
+			double mean = mean();
+			double sum = 0;
+			for(double score : this.scores)
+				sum += (score - mean) * (score - mean);
+
+			return Math.sqrt(sum / (this.scores.length - 1));
+		}
+
+		/**
+		 * @return menor o mayor cantidad de operaciones por segundo de una iteracion.
+		 * */
+		double bound(boolean max) {
+			double bound = max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+			for(double score : this.scores)
+				bound = max ? Math.max(bound, score) : Math.min(bound, score);
+
+			return (this.scores.length == 0) ? 0 : bound;
+		}
+
+		/**
+		 * @return nanosegundos promedio de una operacion en cada hilo.
+		 * */
+		double nanosPerOperation() {
+			double mean = mean();
+			return (mean == 0) ? 0 : this.threads * 1e9 / mean;
+		}
+	}
+
+	/**
+	 * Escribe los resultados en el formato ingresado.
+	 * @param json true para JSON, false para CSV.
+	 * */
+	private static void write(PrintStream output, ArrayList<Result> results, boolean json) throws IOException {
+		if(json) {
+			output.println("[");
+			for(int i = 0; i < results.size(); ++i) {
+				Result result = results.get(i);
+
+				output.printf(Locale.ROOT, "{\"benchmark\":\"%s\",\"accounts\":%d,\"threads\":%d,\"payload\":%d,\"iterations\":%d,"
+							  + "\"opsPerSecond\":%.3f,\"deviation\":%.3f,\"min\":%.3f,\"max\":%.3f,\"nsPerOp\":%.3f,\"bytesPerAccount\":%.1f}%s%n",
+							  result.name, result.accounts, result.threads, result.payload, result.scores.length,
+							  result.mean(), result.deviation(), result.bound(false), result.bound(true),
+							  result.nanosPerOperation(), result.bytesPerAccount, (i + 1 < results.size()) ? "," : "");
+			}
+			output.println("]");
+		}
+		else {
+			output.println("benchmark,accounts,threads,payload,iterations,opsPerSecond,deviation,min,max,nsPerOp,bytesPerAccount");
+			for(Result result : results) {
+				output.printf(Locale.ROOT, "%s,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.1f%n",
+							  result.name, result.accounts, result.threads, result.payload, result.scores.length,
+							  result.mean(), result.deviation(), result.bound(false), result.bound(true),
+							  result.nanosPerOperation(), result.bytesPerAccount);
+			}
+		}
+
+		output.flush();
+	}
+
+	/**
+	 * @return enteros de una lista separada por comas.
+	 * */
+	private static int[] ints(String list) {
+		String[] parts = list.split(",");
+		int[] values = new int[parts.length];
+
+		for(int i = 0; i < parts.length; ++i)
+			values[i] = Integer.parseInt(parts[i].trim());
+
+		return values;
+	}
+}
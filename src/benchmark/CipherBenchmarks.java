@@ -0,0 +1,93 @@
+package benchmark;
+
+import cipherer.*;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Casos de medicion del cifrador: Cipher.cifrate y Cipher.decifrate con la clave ya establecida, sobre textos
+ * al azar del tamaño indicado por el parametro payload.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class CipherBenchmarks {
+
+	private static final String KEY = "clave-de-medicion-16";		//Clave de los casos, al menos 16 caracteres.
+
+	/**
+	 * @return casos de medicion del paquete cipherer.
+	 * */
+	public static ArrayList<BenchmarkCase> cases() {
+		ArrayList<BenchmarkCase> cases = new ArrayList<BenchmarkCase>();
+
+		cases.add(new Cifrate());
+		cases.add(new Decifrate());
+
+		return cases;
+	}
+
+	/**
+	 * @return texto al azar de caracteres imprimibles con el largo ingresado.
+	 * */
+	private static String text(int length) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		char[] text = new char[length];
+
+		for(int i = 0; i < length; ++i)
+			text[i] = (char) (' ' + random.nextInt(95));
+
+		return new String(text);
+	}
+
+	/**
+	 * Cifrado de un texto con Cipher.cifrate.
+	 * */
+	private static class Cifrate extends BenchmarkCase {
+
+		private Cipher cipher;						//Cifrador con la clave establecida.
+		private String text;						//Texto a cifrar.
+
+		Cifrate() {
+			super("cipher.cifrate", false, true);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) {
+			this.cipher = Cipher.getInstance();
+			this.cipher.setKey(KEY);
+			this.text = text(payload);
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			return this.cipher.cifrate(this.text).length();
+		}
+	}
+
+	/**
+	 * Decifrado con Cipher.decifrate de un texto cifrado en la preparacion.
+	 * */
+	private static class Decifrate extends BenchmarkCase {
+
+		private Cipher cipher;						//Cifrador con la clave establecida.
+		private String cifrated;					//Texto cifrado a decifrar.
+
+		Decifrate() {
+			super("cipher.decifrate", false, true);
+		}
+
+		@Override
+		public void setup(int accounts, int threads, int payload) {
+			this.cipher = Cipher.getInstance();
+			this.cipher.setKey(KEY);
+			this.cifrated = this.cipher.cifrate(text(payload));
+		}
+
+		@Override
+		public long operation(int thread, ThreadLocalRandom random) {
+			return this.cipher.decifrate(this.cifrated).length();
+		}
+	}
+}
@@ -55,27 +55,36 @@ public class Cipher {
 	 * @return texto cifrado con la clave ingresada.
 	 * */
 	public String cifrate(String text, String key) {
-		if(key != null)
-			setKey(key);
+		CipherEvent event = new CipherEvent();
+		String result = null;
 
-		char states[][][] = expandBlocks(text, CIFRATE_MODE);
+		event.begin();
+		try {
+			if(key != null)
+				setKey(key);
 
-		for(char state[][] : states) {
-			addRoundKey(state, 0);
+			char states[][][] = expandBlocks(text, CIFRATE_MODE);
+
+			for(char state[][] : states) {
+				addRoundKey(state, 0);
+
+				for(int round = 1; round < CANTS_ROUNDS; ++round) {
+					subBytes(state);
+					shiftRows(state);
+					mixColumns(state);
+					addRoundKey(state, round);
+				}
 
-			for(int round = 1; round < CANTS_ROUNDS; ++round) {
 				subBytes(state);
 				shiftRows(state);
-				mixColumns(state);
-				addRoundKey(state, round);
+				addRoundKey(state, CANTS_ROUNDS);
 			}
 
-			subBytes(state);
-			shiftRows(state);
-			addRoundKey(state, CANTS_ROUNDS);
+			result = getText(states, CIFRATE_MODE);
+			return result;
+		} finally {
+			event.finish("cifrate", text, result);
 		}
-
-		return getText(states, CIFRATE_MODE);
 	}
 
 	/**
@@ -94,27 +103,36 @@ public class Cipher {
 	 * @return texto decifrado con la clave ingresada.
 	 * */
 	public String decifrate(String text, String key) {
-		if(key != null)
-			setKey(key);
+		CipherEvent event = new CipherEvent();
+		String result = null;
 
-		char states[][][] = expandBlocks(text, DECIFRATE_MODE);
+		event.begin();
+		try {
+			if(key != null)
+				setKey(key);
 
-		for(char state[][] : states) {
-			addRoundKey(state, CANTS_ROUNDS);
-			invShiftRows(state);
-			invSubBytes(state);
+			char states[][][] = expandBlocks(text, DECIFRATE_MODE);
 
-			for(int round = CANTS_ROUNDS - 1; round > 0; --round) {
-				addRoundKey(state, round);
-				invMixColumns(state);
+			for(char state[][] : states) {
+				addRoundKey(state, CANTS_ROUNDS);
 				invShiftRows(state);
 				invSubBytes(state);
+
+				for(int round = CANTS_ROUNDS - 1; round > 0; --round) {
+					addRoundKey(state, round);
+					invMixColumns(state);
+					invShiftRows(state);
+					invSubBytes(state);
+				}
+
+				addRoundKey(state, 0);
 			}
 
-			addRoundKey(state, 0);
+			result = getText(states, DECIFRATE_MODE);
+			return result;
+		} finally {
+			event.finish("decifrate", text, result);
 		}
-
-		return getText(states, DECIFRATE_MODE);
 	}
 
 	/**
@@ -0,0 +1,53 @@
+package cipherer;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JDK Flight Recorder de un cifrado o decifrado (Cipher.cifrate y Cipher.decifrate), con el largo del
+ * texto de entrada y de salida. Cada caracter del texto ocupa un byte del bloque AES.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+@Name("bankapp.Cipher")
+@Label("Cifrado")
+@Category({"BankApp", "Cifrador"})
+@Description("Cifrado o decifrado AES de un texto")
+@StackTrace(false)
+final class CipherEvent extends Event {
+
+	@Label("Operacion")
+	@Description("cifrate o decifrate")
+	String operation;							//Operacion realizada.
+
+	@Label("Bytes de entrada")
+	@DataAmount
+	long inputBytes;							//Largo del texto ingresado.
+
+	@Label("Bytes de salida")
+	@DataAmount
+	long outputBytes;							//Largo del texto obtenido, 0 si la operacion fallo.
+
+	/**
+	 * Termina el evento y lo guarda si corresponde.
+	 * @param operation operacion realizada.
+	 * @param input texto ingresado.
+	 * @param output texto obtenido, null si la operacion fallo.
+	 * */
+	void finish(String operation, String input, String output) {
+		if(!shouldCommit())
+			return;
+
+		this.operation = operation;
+		this.inputBytes = (input != null) ? input.length() : 0;
+		this.outputBytes = (output != null) ? output.length() : 0;
+		commit();
+	}
+}
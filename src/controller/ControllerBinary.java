@@ -0,0 +1,576 @@
+package controller;
+import model.*;
+import exceptions.*;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Clase correspondiente a un controlador binario del banco para clientes automaticos (por ejemplo un switch de
+ * pagos), sobre un servidor NIO con selectores. Un hilo acepta las conexiones y las reparte entre varios hilos
+ * trabajadores, cada uno con su propio selector; cada conexion se atiende siempre en el mismo trabajador.
+ * Un cliente puede enviar muchas solicitudes seguidas por la misma conexion sin esperar las respuestas
+ * (pipelining): las solicitudes se procesan en orden y cada respuesta lleva la etiqueta de su solicitud.
+ * Cada conexion tiene un buffer de entrada y uno de salida que se reutilizan para todos los mensajes.
+ *
+ * Los trabajadores nunca esperan al banco: las transferencias (que esperan a que su registro se guarde) se
+ * entregan a un pool de hilos aparte, que realiza en orden las solicitudes pendientes de cada conexion y avisa al
+ * trabajador cuando terminan. Las consultas de saldo se responden de inmediato si la conexion no tiene
+ * solicitudes pendientes, y si tiene se realizan en el pool despues de ellas, asi ven sus cambios. Cuando una
+ * conexion tiene MAX_PENDING solicitudes pendientes se deja de leer de ella hasta que terminen.
+ *
+ * Formato (enteros en big-endian, numeros de cuenta codificados con Account.encode):
+ * Solicitud: largo (int, bytes que siguen), etiqueta (int), operacion (byte) y los datos de la operacion:
+ *   BALANCE:  numero de cuenta (int).
+ *   TRANSFER: cuenta de origen (int), cuenta destino (int), monto (int).
+ * Respuesta: largo (int, siempre 13), etiqueta (int), estado (byte) y valor (long): el saldo de la cuenta en
+ * BALANCE, y el saldo de la cuenta de origen justo despues de la transferencia en TRANSFER (0 si no se realizo).
+ * Una transferencia por menos de Transfer.MIN_AMOUNT se responde con BAD_REQUEST.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class ControllerBinary implements AutoCloseable {
+
+	public static final byte BALANCE = 1;				//Operacion: consulta de saldo.
+	public static final byte TRANSFER = 2;				//Operacion: transferencia entre cuentas.
+
+	public static final byte OK = 0;					//Estado: operacion realizada.
+	public static final byte ACCOUNT_NOT_FOUND = 1;		//Estado: alguna cuenta no existe.
+	public static final byte EXCESSIVE_AMOUNT = 2;		//Estado: el monto excede el saldo de la cuenta de origen.
+	public static final byte BAD_REQUEST = 3;			//Estado: operacion desconocida o datos no validos.
+	public static final byte ERROR = 4;					//Estado: error inesperado al realizar la operacion.
+
+	public static final int RESPONSE_BYTES = 17;		//Bytes de una respuesta, incluyendo el largo.
+
+	private static final int MAX_REQUEST = 64;			//Largo maximo de una solicitud, sin contar el largo.
+	private static final int BUFFER_BYTES = 64 * 1024;	//Capacidad de los buffers de cada conexion.
+	private static final int MAX_PENDING = 1024;		//Solicitudes pendientes de una conexion antes de dejar de leerla.
+	private static final int MUTATION_THREADS = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());	//Hilos del pool de solicitudes.
+
+	/**
+	 * Clase que guarda una solicitud ya leida y, al realizarla, su respuesta.
+	 * */
+	private static final class Request {
+		int tag;										//Etiqueta de la solicitud.
+		byte operation;									//Operacion, 0 si la solicitud no es valida.
+		int first;										//Cuenta consultada, o cuenta de origen de la transferencia.
+		int second;										//Cuenta destino de la transferencia.
+		int amount;										//Monto de la transferencia.
+		byte status;									//Estado de la respuesta.
+		long value;										//Valor de la respuesta.
+	}
+
+	/**
+	 * Clase que guarda los buffers de una conexion, se reutilizan para todos sus mensajes, y sus solicitudes
+	 * pendientes en el pool. Las solicitudes respondidas vuelven a una reserva de la conexion, asi las solicitudes
+	 * en cadena no crean objetos nuevos.
+	 * */
+	private final class Connection implements Runnable {
+		final SocketChannel channel;					//Canal de la conexion.
+		final Worker worker;							//Trabajador que atiende la conexion.
+		final ByteBuffer input;							//Bytes leidos que aun no se procesan (modo escritura).
+		final ByteBuffer output;						//Respuestas que aun no se envian (modo escritura).
+		final Request scratch;							//Solicitud que se responde de inmediato, se reutiliza.
+		final ConcurrentLinkedQueue<Request> requests;	//Solicitudes por realizar en el pool, en orden.
+		final ConcurrentLinkedQueue<Request> completed;	//Solicitudes realizadas, en orden, por responder.
+		final ArrayDeque<Request> free;					//Solicitudes respondidas que se pueden reutilizar (solo el trabajador).
+		final AtomicBoolean scheduled;					//Indica si hay una tarea del pool realizando las solicitudes.
+		SelectionKey key;								//Llave de la conexion en el selector del trabajador.
+		int pending;									//Solicitudes entregadas al pool aun no respondidas (solo el trabajador).
+
+		Connection(SocketChannel channel, Worker worker) {
+			this.channel = channel;
+			this.worker = worker;
+			this.input = ByteBuffer.allocateDirect(BUFFER_BYTES);
+			this.output = ByteBuffer.allocateDirect(BUFFER_BYTES);
+			this.scratch = new Request();
+			this.requests = new ConcurrentLinkedQueue<Request>();
+			this.completed = new ConcurrentLinkedQueue<Request>();
+			this.free = new ArrayDeque<Request>();
+			this.scheduled = new AtomicBoolean();
+		}
+
+		/**
+		 * Obtiene una solicitud de la reserva de la conexion, o una nueva si esta vacia. Solo la llama el trabajador.
+		 * */
+		Request obtain() {
+			Request request = this.free.poll();
+
+			return (request != null) ? request : new Request();
+		}
+
+		/**
+		 * Entrega las solicitudes pendientes al pool, si no hay ya una tarea realizandolas.
+		 * */
+		void schedule() {
+			if(this.scheduled.compareAndSet(false, true))
+				mutations.execute(this);
+		}
+
+		/**
+		 * Tarea del pool: realiza en orden las solicitudes pendientes y avisa al trabajador.
+		 * */
+		@Override
+		public void run() {
+			do {
+				Request request;
+
+				while((request = this.requests.poll()) != null) {
+					try {
+						execute(request);
+					} catch (RuntimeException e) {
+						request.status = ERROR;
+						request.value = 0;
+					}
+					this.completed.add(request);
+				}
+
+				this.worker.ready(this);
+				this.scheduled.set(false);
+
+				//Si llego otra solicitud despues de vaciar la cola y nadie la tomo, se sigue con ella
+			} while(!this.requests.isEmpty() && this.scheduled.compareAndSet(false, true));
+		}
+	}
+
+	/**
+	 * Clase que modela un hilo trabajador, atiende las conexiones registradas en su selector.
+	 * */
+	private final class Worker implements Runnable {
+		final Selector selector;						//Selector de las conexiones del trabajador.
+		final ConcurrentLinkedQueue<SocketChannel> pending;	//Conexiones aceptadas que aun no se registran.
+		final ConcurrentLinkedQueue<Connection> ready;	//Conexiones con solicitudes realizadas por responder.
+
+		Worker() throws IOException {
+			this.selector = Selector.open();
+			this.pending = new ConcurrentLinkedQueue<SocketChannel>();
+			this.ready = new ConcurrentLinkedQueue<Connection>();
+		}
+
+		/**
+		 * Entrega una conexion aceptada al trabajador.
+		 * */
+		void assign(SocketChannel channel) {
+			this.pending.add(channel);
+			this.selector.wakeup();
+		}
+
+		/**
+		 * Avisa al trabajador que el pool termino solicitudes de una conexion.
+		 * */
+		void ready(Connection connection) {
+			this.ready.add(connection);
+			this.selector.wakeup();
+		}
+
+		@Override
+		public void run() {
+			try {
+				while(running) {
+					this.selector.select();
+					registerPending();
+					resumeReady();
+
+					Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+					while(keys.hasNext()) {
+						SelectionKey key = keys.next();
+						keys.remove();
+
+						try {
+							serve(key);
+						} catch (IOException e) {
+							closeConnection(key);
+						}
+					}
+				}
+			} catch (IOException e) {
+				//Fallo el selector, se termina el trabajador
+			} finally {
+				//Al detener el servidor, el trabajador cierra sus propias conexiones
+				for(SelectionKey key : this.selector.keys())
+					closeConnection(key);
+
+				try {
+					this.selector.close();
+				} catch (IOException e) {
+					//El selector ya estaba cerrado
+				}
+			}
+		}
+
+		/**
+		 * Registra en el selector las conexiones aceptadas.
+		 * */
+		private void registerPending() throws IOException {
+			SocketChannel channel;
+
+			while((channel = this.pending.poll()) != null) {
+				Connection connection = new Connection(channel, this);
+
+				channel.configureBlocking(false);
+				connection.key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+			}
+		}
+
+		/**
+		 * Responde las solicitudes que termino el pool y sigue atendiendo esas conexiones.
+		 * */
+		private void resumeReady() {
+			Connection connection;
+
+			while((connection = this.ready.poll()) != null) {
+				if(!connection.key.isValid())
+					continue;
+
+				try {
+					pump(connection);
+				} catch (IOException e) {
+					closeConnection(connection.key);
+				}
+			}
+		}
+	}
+
+	private Bank bank;									//Modelo compartido por todas las conexiones.
+	private ExecutorService mutations;					//Pool que realiza las solicitudes pendientes de las conexiones.
+	private ServerSocketChannel server;					//Canal que acepta las conexiones.
+	private Worker[] workers;							//Trabajadores que atienden las conexiones.
+	private Thread[] threads;							//Hilos del aceptador y de los trabajadores.
+	private volatile boolean running;					//Indica si el servidor sigue activo.
+
+	/**
+	 * Constructor, crea el servidor con un trabajador por procesador, aun sin iniciarlo.
+	 * @param bank banco compartido por todas las conexiones.
+	 * @param port puerto del servidor, 0 para elegir uno libre.
+	 * */
+	public ControllerBinary(Bank bank, int port) throws IOException {
+		this(bank, port, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor, crea el servidor, aun sin iniciarlo.
+	 * @param bank banco compartido por todas las conexiones.
+	 * @param port puerto del servidor, 0 para elegir uno libre.
+	 * @param workerCount cantidad de hilos trabajadores.
+	 * */
+	public ControllerBinary(Bank bank, int port, int workerCount) throws IOException {
+		this.bank = bank;
+		this.server = ServerSocketChannel.open();
+		this.server.bind(new InetSocketAddress(port));
+		this.workers = new Worker[Math.max(1, workerCount)];
+
+		for(int i = 0; i < this.workers.length; ++i)
+			this.workers[i] = new Worker();
+
+		AtomicInteger threadCount = new AtomicInteger();
+		this.mutations = Executors.newFixedThreadPool(MUTATION_THREADS, task -> {
+			Thread thread = new Thread(task, "bank-binary-mutation-" + threadCount.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Inicia el hilo aceptador y los hilos trabajadores.
+	 * */
+	public void start() {
+		this.running = true;
+		this.threads = new Thread[this.workers.length + 1];
+
+		for(int i = 0; i < this.workers.length; ++i)
+			this.threads[i] = new Thread(this.workers[i], "bank-binary-" + i);
+
+		this.threads[this.workers.length] = new Thread(this::accept, "bank-binary-accept");
+
+		for(Thread thread : this.threads) {
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * @return puerto en el que escucha el servidor.
+	 * */
+	public int getPort() throws IOException {
+		return ((InetSocketAddress) this.server.getLocalAddress()).getPort();
+	}
+
+	/**
+	 * Detiene el servidor y cierra todas las conexiones.
+	 * */
+	@Override
+	public void close() throws IOException {
+		this.running = false;
+		this.server.close();
+
+		//Si el servidor no se inicio, no hay trabajadores que cierren sus selectores
+		for(Worker worker : this.workers) {
+			if(this.threads == null)
+				worker.selector.close();
+			else
+				worker.selector.wakeup();
+		}
+
+		if(this.threads != null) {
+			for(Thread thread : this.threads) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		//Las solicitudes que aun se realizan terminan, pero sus conexiones ya estan cerradas
+		this.mutations.shutdown();
+	}
+
+	/**
+	 * Metodo del hilo aceptador, acepta las conexiones y las reparte entre los trabajadores por turnos.
+	 * */
+	private void accept() {
+		int next = 0;
+
+		while(this.running) {
+			try {
+				SocketChannel channel = this.server.accept();
+				channel.socket().setTcpNoDelay(true);
+
+				this.workers[next].assign(channel);
+				next = (next + 1) % this.workers.length;
+			} catch (IOException e) {
+				//El canal se cerro al detener el servidor, o fallo una conexion en particular
+			}
+		}
+	}
+
+	/**
+	 * Atiende una conexion lista: envia las respuestas pendientes, lee las solicitudes nuevas y las procesa.
+	 * */
+	private void serve(SelectionKey key) throws IOException {
+		Connection connection = (Connection) key.attachment();
+
+		if(key.isWritable() && !flush(connection))
+			return;
+
+		if(key.isReadable() && (connection.channel.read(connection.input) < 0)) {
+			closeConnection(key);
+			return;
+		}
+
+		pump(connection);
+	}
+
+	/**
+	 * Responde las solicitudes realizadas y procesa las leidas hasta agotarlas, hasta que el canal no acepte mas
+	 * respuestas o hasta que la conexion tenga MAX_PENDING solicitudes pendientes.
+	 * */
+	private void pump(Connection connection) throws IOException {
+		boolean flushed;
+		boolean progress;
+
+		do {
+			respondCompleted(connection);
+			progress = process(connection);
+			respondCompleted(connection);
+			flushed = flush(connection);
+		} while(flushed && progress && hasRequest(connection.input));
+
+		//Si quedaron respuestas sin enviar, se deja de leer hasta poder enviarlas, y si hay demasiadas
+		//solicitudes pendientes, hasta que el pool avise que termino alguna
+		if(!flushed)
+			connection.key.interestOps(SelectionKey.OP_WRITE);
+		else if(connection.pending >= MAX_PENDING)
+			connection.key.interestOps(0);
+		else
+			connection.key.interestOps(SelectionKey.OP_READ);
+	}
+
+	/**
+	 * Procesa las solicitudes completas del buffer de entrada mientras quepan sus respuestas en el buffer de
+	 * salida; las solicitudes incompletas quedan al inicio del buffer de entrada. Las consultas de saldo y las
+	 * solicitudes no validas se responden de inmediato si no hay solicitudes pendientes, el resto se entrega al pool.
+	 * @return true si se proceso al menos una solicitud.
+	 * */
+	private boolean process(Connection connection) throws IOException {
+		ByteBuffer input = connection.input;
+		ByteBuffer output = connection.output;
+		boolean progress = false;
+		boolean delegated = false;
+
+		input.flip();
+		while((input.remaining() >= 4) && (output.remaining() >= RESPONSE_BYTES) && (connection.pending < MAX_PENDING)) {
+			int length = input.getInt(input.position());
+
+			if((length < 5) || (length > MAX_REQUEST))
+				throw new IOException("Largo de solicitud no valido: " + length);
+
+			if(input.remaining() < 4 + length)
+				break;
+
+			int start = input.position() + 4;
+			byte operation = input.get(start + 4);
+			boolean immediate = (connection.pending == 0) && (operation != TRANSFER);
+			Request request = immediate ? connection.scratch : connection.obtain();
+
+			request.tag = input.getInt(start);
+			if((operation == BALANCE) && (length == 9)) {
+				request.operation = BALANCE;
+				request.first = input.getInt(start + 5);
+			}
+			else if((operation == TRANSFER) && (length == 17)) {
+				request.operation = TRANSFER;
+				request.first = input.getInt(start + 5);
+				request.second = input.getInt(start + 9);
+				request.amount = input.getInt(start + 13);
+			}
+			else {
+				request.operation = 0;
+			}
+
+			if(immediate) {
+				execute(request);
+				respond(request, output);
+			}
+			else {
+				connection.requests.add(request);
+				++connection.pending;
+				delegated = true;
+			}
+
+			input.position(start + length);
+			progress = true;
+		}
+		input.compact();
+
+		if(delegated)
+			connection.schedule();
+
+		return progress;
+	}
+
+	/**
+	 * Escribe en el buffer de salida las respuestas de las solicitudes que termino el pool, en orden.
+	 * */
+	private static void respondCompleted(Connection connection) {
+		ByteBuffer output = connection.output;
+		Request request;
+
+		while((output.remaining() >= RESPONSE_BYTES) && ((request = connection.completed.poll()) != null)) {
+			respond(request, output);
+			connection.free.push(request);
+			--connection.pending;
+		}
+	}
+
+	/**
+	 * Escribe la respuesta de una solicitud en el buffer de salida.
+	 * */
+	private static void respond(Request request, ByteBuffer output) {
+		output.putInt(RESPONSE_BYTES - 4).putInt(request.tag).put(request.status).putLong(request.value);
+	}
+
+	/**
+	 * @param input buffer de entrada, en modo escritura.
+	 * @return true si el buffer contiene al menos una solicitud completa.
+	 * */
+	private static boolean hasRequest(ByteBuffer input) {
+		return (input.position() >= 4) && (input.position() >= 4 + input.getInt(0));
+	}
+
+	/**
+	 * Realiza una solicitud y deja en ella el estado y el valor de su respuesta.
+	 * */
+	private void execute(Request request) {
+		if(request.operation == BALANCE)
+			balance(request);
+		else if(request.operation == TRANSFER)
+			transfer(request);
+		else
+			answer(request, BAD_REQUEST, 0);
+	}
+
+	/**
+	 * Obtiene el estado y el saldo de una cuenta.
+	 * */
+	private void balance(Request request) {
+		Account account = this.bank.getAccount(request.first);
+
+		if(account == null)
+			answer(request, ACCOUNT_NOT_FOUND, 0);
+		else
+			answer(request, OK, account.getBalance());
+	}
+
+	/**
+	 * Realiza una transferencia y obtiene su estado y el saldo de la cuenta de origen justo despues de ella, leido
+	 * por el banco con los candados de la transferencia tomados. Espera a que el registro de la transferencia se
+	 * guarde, por lo que solo se llama desde el pool.
+	 * */
+	private void transfer(Request request) {
+		if(request.amount < Transfer.MIN_AMOUNT) {
+			answer(request, BAD_REQUEST, 0);
+			return;
+		}
+
+		try {
+			long balance = this.bank.transferAndGetBalance(request.first, request.second, request.amount);
+
+			if(balance != Bank.NO_TRANSFER)
+				answer(request, OK, balance);
+			else
+				answer(request, ACCOUNT_NOT_FOUND, 0);
+		} catch (ExcessiveTransactionAmount e) {
+			answer(request, EXCESSIVE_AMOUNT, 0);
+		}
+	}
+
+	/**
+	 * Establece la respuesta de una solicitud.
+	 * */
+	private static void answer(Request request, byte status, long value) {
+		request.status = status;
+		request.value = value;
+	}
+
+	/**
+	 * Envia las respuestas del buffer de salida.
+	 * @return true si se enviaron todas, false si el canal no acepto mas bytes.
+	 * */
+	private static boolean flush(Connection connection) throws IOException {
+		ByteBuffer output = connection.output;
+
+		output.flip();
+		connection.channel.write(output);
+		boolean done = !output.hasRemaining();
+		output.compact();
+
+		return done;
+	}
+
+	/**
+	 * Cierra una conexion.
+	 * */
+	private static void closeConnection(SelectionKey key) {
+		key.cancel();
+
+		try {
+			key.channel().close();
+		} catch (IOException e) {
+			//La conexion ya estaba cerrada
+		}
+	}
+}
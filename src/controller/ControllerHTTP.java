@@ -0,0 +1,651 @@
+package controller;
+import model.*;
+import view.StatementWriter;
+import exceptions.*;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clase correspondiente a un controlador HTTP/JSON del banco, usando el servidor HTTP incluido en el JDK.
+ * Ofrece las mismas operaciones que ControllerTUI sobre un banco compartido: busqueda de cuentas, busqueda por
+ * rango de saldo, transferencias, destinatarios e imposiciones. Las solicitudes se atienden en un pool acotado de
+ * MAX_WORKERS hilos (virtuales si la JVM los tiene, desde Java 21) con una cola de QUEUE_CAPACITY solicitudes;
+ * si ambos se llenan, el hilo del servidor atiende la solicitud el mismo y deja de aceptar conexiones mientras
+ * tanto, asi una rafaga de solicitudes no crea hilos sin limite.
+ *
+ * Se recomienda iniciar la JVM con -Dsun.net.httpserver.nodelay=true (BankApp --http lo establece al iniciar):
+ * sin TCP_NODELAY las respuestas cortas esperan el ACK retardado del cliente, unos 40 ms por solicitud.
+ *
+ * Los parametros se leen de la URL (?clave=valor) y, en POST y PUT, de un cuerpo JSON plano
+ * ({"clave": valor, ...}). Las respuestas son JSON.
+ *
+ * Rutas:
+ * GET    /accounts/{numero}                      cuenta con su tipo y saldo.
+ * GET    /accounts?min=&max=[&descending=true]   cuentas con saldo dentro del rango.
+ * POST   /accounts {accountNumber}               agrega una cuenta.
+ * DELETE /accounts/{numero}                      elimina una cuenta.
+ * POST   /transfers {origin, destiny, amount[, requestId]}   realiza una transferencia; con requestId (o la
+ *                                                cabecera Idempotency-Key) un reintento no mueve el dinero otra vez.
+ * GET    /addressees[?favorites=true]            destinatarios del cliente.
+ * POST   /addressees {accountNumber, name[, favorite]}       agrega un destinatario.
+ * PUT    /addressees/{numero} {name, favorite}   edita un destinatario.
+ * DELETE /addressees/{numero}                    elimina un destinatario.
+ * POST   /impositions                            realiza las imposiciones de todas las cuentas.
+ * GET    /statements/{numero}[?format=csv|json]  cartola de la cuenta con su historial completo, se envia a
+ *                                                medida que se genera (por defecto en JSON).
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class ControllerHTTP implements AutoCloseable {
+
+	private static final int MAX_WORKERS = Math.max(64, 8 * Runtime.getRuntime().availableProcessors());	//Solicitudes atendidas a la vez.
+	private static final int QUEUE_CAPACITY = 4096;	//Solicitudes que esperan un hilo libre.
+
+	private Bank bank;								//Modelo compartido por todas las solicitudes.
+	private HttpServer server;						//Servidor HTTP.
+	private ExecutorService executor;				//Ejecutor de las solicitudes.
+	private ConcurrentLinkedQueue<StatementWriter> statementWriters;	//Escritores de cartolas libres, se reutilizan.
+
+	/**
+	 * Clase que representa una respuesta con error, con su codigo HTTP.
+	 * */
+	private static class HttpError extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		private int status;							//Codigo HTTP de la respuesta.
+
+		HttpError(int status, String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+
+	/**
+	 * Constructor, crea el servidor en el puerto ingresado, aun sin iniciarlo.
+	 * @param bank banco compartido por todas las solicitudes.
+	 * @param port puerto del servidor, 0 para elegir uno libre.
+	 * */
+	public ControllerHTTP(Bank bank, int port) throws IOException {
+		this.bank = bank;
+		this.server = HttpServer.create(new InetSocketAddress(port), 0);
+		this.executor = newRequestExecutor();
+		this.statementWriters = new ConcurrentLinkedQueue<StatementWriter>();
+
+		this.server.createContext("/accounts", exchange -> handle(exchange, this::accounts));
+		this.server.createContext("/transfers", exchange -> handle(exchange, this::transfers));
+		this.server.createContext("/addressees", exchange -> handle(exchange, this::addressees));
+		this.server.createContext("/impositions", exchange -> handle(exchange, this::impositions));
+		this.server.createContext("/statements", this::statements);
+		this.server.setExecutor(this.executor);
+	}
+
+	/**
+	 * Inicia el servidor.
+	 * */
+	public void start() {
+		this.server.start();
+	}
+
+	/**
+	 * @return puerto en el que escucha el servidor.
+	 * */
+	public int getPort() {
+		return this.server.getAddress().getPort();
+	}
+
+	/**
+	 * Detiene el servidor, esperando hasta un segundo a que terminen las solicitudes en curso.
+	 * */
+	@Override
+	public void close() {
+		this.server.stop(1);
+		this.executor.shutdown();
+	}
+
+	/**
+	 * Crea el ejecutor de las solicitudes: un pool de a lo mas MAX_WORKERS hilos, que se cierran tras un minuto
+	 * sin uso, con una cola acotada. Cuando la cola se llena la solicitud la atiende el hilo que la entrega.
+	 * */
+	private static ExecutorService newRequestExecutor() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_WORKERS, MAX_WORKERS, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY), newThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * @return fabrica de hilos virtuales si la JVM los tiene (Java 21 o superior), o la fabrica predeterminada.
+	 * */
+	private static ThreadFactory newThreadFactory() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException e) {
+			return Executors.defaultThreadFactory();
+		}
+	}
+
+	/**
+	 * Interfaz de las operaciones de cada ruta.
+	 * */
+	private interface Route {
+		/**
+		 * @param method metodo HTTP de la solicitud.
+		 * @param id segmento de la ruta despues del prefijo (por ejemplo el numero de cuenta), null si no hay.
+		 * @param params parametros de la URL y del cuerpo.
+		 * @return cuerpo JSON de la respuesta.
+		 * */
+		String serve(String method, String id, HashMap<String, String> params) throws HttpError;
+	}
+
+	/**
+	 * Atiende una solicitud: lee sus parametros, ejecuta la operacion de la ruta y escribe la respuesta.
+	 * */
+	private void handle(HttpExchange exchange, Route route) throws IOException {
+		int status = 200;
+		String body;
+
+		try {
+			String path = exchange.getRequestURI().getPath();
+			String prefix = exchange.getHttpContext().getPath();
+			String id = (path.length() > prefix.length() + 1) ? path.substring(prefix.length() + 1) : null;
+			HashMap<String, String> params = new HashMap<String, String>();
+
+			parseQuery(exchange.getRequestURI().getRawQuery(), params);
+			parseJson(exchange.getRequestBody(), params);
+
+			String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+			if((idempotencyKey != null) && !params.containsKey("requestId"))
+				params.put("requestId", idempotencyKey);
+
+			body = route.serve(exchange.getRequestMethod(), id, params);
+		} catch (HttpError e) {
+			status = e.status;
+			body = "{\"error\":" + quote(e.getMessage()) + "}";
+		} catch (RuntimeException e) {
+			status = 500;
+			body = "{\"error\":" + quote(String.valueOf(e.getMessage())) + "}";
+		}
+
+		send(exchange, status, body);
+	}
+
+	/**
+	 * Escribe una respuesta JSON completa.
+	 * */
+	private static void send(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+
+		try(OutputStream output = exchange.getResponseBody()) {
+			output.write(bytes);
+		}
+	}
+
+	/**
+	 * Atiende la ruta /statements: escribe la cartola de la cuenta a medida que se genera, sin largo conocido
+	 * (respuesta por partes), usando un escritor de la lista de escritores libres.
+	 * */
+	private void statements(HttpExchange exchange) throws IOException {
+		Account account;
+		boolean csv;
+
+		try {
+			if(!exchange.getRequestMethod().equals("GET"))
+				throw new HttpError(405, "Metodo no permitido");
+
+			String path = exchange.getRequestURI().getPath();
+			String prefix = exchange.getHttpContext().getPath();
+			String id = (path.length() > prefix.length() + 1) ? path.substring(prefix.length() + 1) : null;
+			HashMap<String, String> params = new HashMap<String, String>();
+
+			parseQuery(exchange.getRequestURI().getRawQuery(), params);
+			account = this.bank.getAccount(validAccountNumber(requiredId(id)));
+
+			if(account == null)
+				throw new HttpError(404, "No existe una cuenta con el numero de cuenta ingresado");
+
+			String format = params.getOrDefault("format", "json");
+			if(!format.equals("csv") && !format.equals("json"))
+				throw new HttpError(400, "Formato no valido, debe ser csv o json");
+
+			csv = format.equals("csv");
+		} catch (HttpError e) {
+			send(exchange, e.status, "{\"error\":" + quote(e.getMessage()) + "}");
+			return;
+		}
+
+		StatementWriter writer = this.statementWriters.poll();
+		if(writer == null)
+			writer = new StatementWriter();
+
+		exchange.getResponseHeaders().set("Content-Type", csv ? "text/csv; charset=us-ascii" : "application/json; charset=us-ascii");
+		exchange.sendResponseHeaders(200, 0);
+
+		try(WritableByteChannel channel = Channels.newChannel(exchange.getResponseBody())) {
+			if(csv)
+				writer.writeCsv(account, channel);
+			else
+				writer.writeJson(account, channel);
+		} finally {
+			this.statementWriters.offer(writer);
+		}
+	}
+
+	/**
+	 * Operaciones de la ruta /accounts.
+	 * */
+	private String accounts(String method, String id, HashMap<String, String> params) throws HttpError {
+		switch(method)
+		{
+			case "GET" : {
+				if(id != null) {
+					Account account = this.bank.getAccount(validAccountNumber(id));
+
+					if(account == null)
+						throw new HttpError(404, "No existe una cuenta con el numero de cuenta ingresado");
+
+					return accountJson(account);
+				}
+
+				long lowerLimit = longParam(params, "min");
+				long upperLimit = longParam(params, "max");
+
+				if(upperLimit < lowerLimit)
+					throw new HttpError(400, "Rango ingresado no valido");
+
+				ArrayList<Account> accounts = this.bank.getAccountBalanceRank(lowerLimit, upperLimit, "true".equals(params.get("descending")));
+				StringBuilder json = new StringBuilder("[");
+
+				for(Account account : accounts) {
+					if(json.length() > 1)
+						json.append(',');
+					json.append(accountJson(account));
+				}
+
+				return json.append(']').toString();
+			}
+			case "POST" : {
+				String accountNumber = validAccountNumber(requiredParam(params, "accountNumber"));
+
+				if(this.bank.existsAccount(accountNumber))
+					throw new HttpError(409, "Ya existe una cuenta con el numero de cuenta ingresado");
+
+				try {
+					if(Account.getTypeAccount(accountNumber) == TypeAccount.RUT_ACCOUNT)
+						this.bank.addAccount(new CurrentAccount(accountNumber));
+					else
+						this.bank.addAccount(new SavingAccount(accountNumber));
+				} catch (WrongAccountNumber e) {
+					throw new HttpError(400, "Numero de cuenta ingresado no valido");
+				}
+
+				return accountJson(this.bank.getAccount(accountNumber));
+			}
+			case "DELETE" : {
+				String accountNumber = validAccountNumber(requiredId(id));
+
+				if(!this.bank.existsAccount(accountNumber))
+					throw new HttpError(404, "No existe una cuenta con el numero de cuenta ingresado");
+
+				this.bank.removeAccount(accountNumber);
+				return "{\"accountNumber\":" + quote(accountNumber) + "}";
+			}
+			default : throw new HttpError(405, "Metodo no permitido");
+		}
+	}
+
+	/**
+	 * Operaciones de la ruta /transfers.
+	 * */
+	private String transfers(String method, String id, HashMap<String, String> params) throws HttpError {
+		if(!method.equals("POST"))
+			throw new HttpError(405, "Metodo no permitido");
+
+		String origin = validAccountNumber(requiredParam(params, "origin"));
+		String destiny = validAccountNumber(requiredParam(params, "destiny"));
+		long requested = longParam(params, "amount");
+
+		if(requested > Integer.MAX_VALUE)
+			throw new HttpError(400, "Monto ingresado no valido");
+		if(requested < Transfer.MIN_AMOUNT)
+			throw new HttpError(400, "Monto ingresado no valido (tiene que ser mayor a " + Transfer.MIN_AMOUNT + ")");
+
+		int amount = (int) requested;
+		TransferStatus status;
+		try {
+			if(this.bank.transactionBetweenAccounts(params.get("requestId"), origin, destiny, amount))
+				status = TransferStatus.DONE;
+			else
+				status = TransferStatus.ACCOUNT_NOT_FOUND;
+		} catch (ExcessiveTransactionAmount e) {
+			status = TransferStatus.EXCESSIVE_AMOUNT;
+		}
+
+		if(status == TransferStatus.ACCOUNT_NOT_FOUND)
+			throw new HttpError(404, "No se encontro una cuenta asociada al numero de cuenta ingresado");
+		if(status == TransferStatus.EXCESSIVE_AMOUNT)
+			throw new HttpError(422, "El monto ingresado excede el saldo contable actual de la cuenta");
+
+		return "{\"status\":\"" + status + "\",\"origin\":" + quote(origin) + ",\"destiny\":" + quote(destiny) + ",\"amount\":" + amount + "}";
+	}
+
+	/**
+	 * Operaciones de la ruta /addressees. El cliente no es seguro entre hilos, por lo que se usa con su
+	 * monitor tomado.
+	 * */
+	private String addressees(String method, String id, HashMap<String, String> params) throws HttpError {
+		Client client = this.bank.getClient();
+
+		synchronized(client) {
+			switch(method)
+			{
+				case "GET" : {
+					boolean onlyFavorites = "true".equals(params.get("favorites"));
+					StringBuilder json = new StringBuilder("[");
+
+					for(Addressee addressee : client.getAddressees()) {
+						if(onlyFavorites && !addressee.isFavorite())
+							continue;
+
+						if(json.length() > 1)
+							json.append(',');
+						json.append(addresseeJson(addressee));
+					}
+
+					return json.append(']').toString();
+				}
+				case "POST" : {
+					String accountNumber = validAccountNumber(requiredParam(params, "accountNumber"));
+					String name = requiredParam(params, "name");
+
+					if(!this.bank.existsAccount(accountNumber))
+						throw new HttpError(404, "No existe una cuenta con el numero de cuenta ingresado");
+					if(client.existsAddressee(accountNumber))
+						throw new HttpError(409, "Ya existe un destinatario con el numero de cuenta ingresado");
+
+					Addressee addressee = new Addressee(this.bank.getAccount(accountNumber), name, "true".equals(params.get("favorite")));
+					client.addAddressee(addressee);
+					return addresseeJson(addressee);
+				}
+				case "PUT" : {
+					Addressee addressee = client.getAddressee(validAccountNumber(requiredId(id)));
+
+					if(addressee == null)
+						throw new HttpError(404, "No existe un destinatario con el numero de cuenta ingresado");
+
+					if(params.containsKey("name"))
+						addressee.setName(params.get("name"));
+					if(params.containsKey("favorite"))
+						addressee.setFavorite("true".equals(params.get("favorite")));
+
+					return addresseeJson(addressee);
+				}
+				case "DELETE" : {
+					String accountNumber = validAccountNumber(requiredId(id));
+
+					if(!client.existsAddressee(accountNumber))
+						throw new HttpError(404, "No existe un destinatario con el numero de cuenta ingresado");
+
+					client.removeAddressee(accountNumber);
+					return "{\"accountNumber\":" + quote(accountNumber) + "}";
+				}
+				default : throw new HttpError(405, "Metodo no permitido");
+			}
+		}
+	}
+
+	/**
+	 * Operaciones de la ruta /impositions.
+	 * */
+	private String impositions(String method, String id, HashMap<String, String> params) throws HttpError {
+		if(!method.equals("POST"))
+			throw new HttpError(405, "Metodo no permitido");
+
+		ImpositionReport report = this.bank.makeImpositionsParallel();
+
+		return "{\"rutAccounts\":" + report.getCount(TypeAccount.RUT_ACCOUNT)
+			 + ",\"savingAccounts\":" + report.getCount(TypeAccount.SAVING_ACCOUNT)
+			 + ",\"elapsedNanos\":" + report.getElapsedNanos() + "}";
+	}
+
+	/**
+	 * @return representacion JSON de la cuenta.
+	 * */
+	private static String accountJson(Account account) {
+		return "{\"accountNumber\":" + quote(account.getAccountNumber()) + ",\"type\":\"" + account.getTypeAccount()
+			 + "\",\"balance\":" + account.getBalance() + "}";
+	}
+
+	/**
+	 * @return representacion JSON del destinatario.
+	 * */
+	private static String addresseeJson(Addressee addressee) {
+		return "{\"accountNumber\":" + quote(addressee.getAccountNumber()) + ",\"name\":" + quote(addressee.getName())
+			 + ",\"favorite\":" + addressee.isFavorite() + "}";
+	}
+
+	/**
+	 * Comprueba que el numero de cuenta sea valido.
+	 * @return el numero de cuenta ingresado.
+	 * */
+	private static String validAccountNumber(String accountNumber) throws HttpError {
+		if(!Account.isValid(accountNumber))
+			throw new HttpError(400, "Numero de cuenta ingresado no valido");
+
+		return accountNumber;
+	}
+
+	/**
+	 * @return segmento de la ruta, si no hay responde con un error.
+	 * */
+	private static String requiredId(String id) throws HttpError {
+		if(id == null)
+			throw new HttpError(400, "Falta el numero de cuenta en la ruta");
+
+		return id;
+	}
+
+	/**
+	 * @return valor del parametro, si no esta responde con un error.
+	 * */
+	private static String requiredParam(HashMap<String, String> params, String name) throws HttpError {
+		String value = params.get(name);
+
+		if(value == null)
+			throw new HttpError(400, "Falta el parametro " + name);
+
+		return value;
+	}
+
+	/**
+	 * @return valor numerico del parametro, si no esta o no es un numero responde con un error.
+	 * */
+	private static long longParam(HashMap<String, String> params, String name) throws HttpError {
+		try {
+			return Long.parseLong(requiredParam(params, name));
+		} catch (NumberFormatException e) {
+			throw new HttpError(400, "El parametro " + name + " debe ser un numero entero");
+		}
+	}
+
+	/**
+	 * Lee los parametros de la URL (clave=valor separados por &).
+	 * */
+	private static void parseQuery(String query, HashMap<String, String> params) {
+		if(query == null)
+			return;
+
+		for(String pair : query.split("&")) {
+			int equals = pair.indexOf('=');
+
+			if(equals > 0)
+				params.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+						   URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Lee un cuerpo JSON plano: un objeto cuyos valores son textos, numeros, true, false o null. Los valores se
+	 * guardan como texto; null no se guarda.
+	 * */
+	private static void parseJson(InputStream input, HashMap<String, String> params) throws IOException, HttpError {
+		String json = new String(input.readAllBytes(), StandardCharsets.UTF_8).trim();
+
+		if(json.isEmpty())
+			return;
+
+		if(!json.startsWith("{") || !json.endsWith("}"))
+			throw new HttpError(400, "El cuerpo debe ser un objeto JSON");
+
+		int[] position = {1};
+		skipBlanks(json, position);
+
+		while(json.charAt(position[0]) != '}') {
+			String key = readString(json, position);
+
+			skipBlanks(json, position);
+			expect(json, position, ':');
+			skipBlanks(json, position);
+
+			String value;
+			if(json.charAt(position[0]) == '"') {
+				value = readString(json, position);
+			}
+			else {
+				int start = position[0];
+
+				while((position[0] < json.length() - 1) && (",} \t\r\n".indexOf(json.charAt(position[0])) < 0))
+					++position[0];
+
+				value = json.substring(start, position[0]);
+				if(value.isEmpty())
+					throw new HttpError(400, "JSON no valido");
+			}
+
+			if(!value.equals("null") || (json.charAt(position[0] - 1) == '"'))
+				params.put(key, value);
+
+			skipBlanks(json, position);
+			if(json.charAt(position[0]) == ',') {
+				++position[0];
+				skipBlanks(json, position);
+			}
+			else if(json.charAt(position[0]) != '}') {
+				throw new HttpError(400, "JSON no valido");
+			}
+		}
+	}
+
+	/**
+	 * Lee un texto JSON desde la posicion actual, que debe ser una comilla.
+	 * */
+	private static String readString(String json, int[] position) throws HttpError {
+		expect(json, position, '"');
+		StringBuilder value = new StringBuilder();
+
+		while(position[0] < json.length() - 1) {
+			char character = json.charAt(position[0]++);
+
+			if(character == '"')
+				return value.toString();
+
+			if(character == '\\') {
+				char escaped = json.charAt(position[0]++);
+
+				switch(escaped)
+				{
+					case 'n' : value.append('\n'); break;
+					case 't' : value.append('\t'); break;
+					case 'r' : value.append('\r'); break;
+					case 'b' : value.append('\b'); break;
+					case 'f' : value.append('\f'); break;
+					case 'u' : {
+						if(position[0] + 4 > json.length() - 1)
+							throw new HttpError(400, "JSON no valido");
+						try {
+							value.append((char) Integer.parseInt(json.substring(position[0], position[0] + 4), 16));
+						} catch (NumberFormatException e) {
+							throw new HttpError(400, "JSON no valido");
+						}
+						position[0] += 4;
+						break;
+					}
+					default : value.append(escaped);
+				}
+			}
+			else {
+				value.append(character);
+			}
+		}
+
+		throw new HttpError(400, "JSON no valido");
+	}
+
+	/**
+	 * Comprueba que en la posicion actual este el caracter ingresado y avanza.
+	 * */
+	private static void expect(String json, int[] position, char expected) throws HttpError {
+		if(json.charAt(position[0]) != expected)
+			throw new HttpError(400, "JSON no valido");
+
+		++position[0];
+	}
+
+	/**
+	 * Avanza la posicion hasta el siguiente caracter que no sea un espacio.
+	 * */
+	private static void skipBlanks(String json, int[] position) {
+		while(Character.isWhitespace(json.charAt(position[0])))
+			++position[0];
+	}
+
+	/**
+	 * @return texto entre comillas, con los caracteres especiales escapados para JSON.
+	 * */
+	private static String quote(String value) {
+		StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+
+		for(int i = 0; i < value.length(); ++i) {
+			char character = value.charAt(i);
+
+			switch(character)
+			{
+				case '"'  : quoted.append("\\\""); break;
+				case '\\' : quoted.append("\\\\"); break;
+				case '\n' : quoted.append("\\n"); break;
+				case '\r' : quoted.append("\\r"); break;
+				case '\t' : quoted.append("\\t"); break;
+				default   : {
+					if(character < 0x20)
+						quoted.append(String.format("\\u%04x", (int) character));
+					else
+						quoted.append(character);
+				}
+			}
+		}
+
+		return quoted.append('"').toString();
+	}
+}
@@ -3,6 +3,7 @@ import view.*;
 import model.*;
 import java.util.ArrayList;
 import exceptions.*;
+import metrics.*;
 
 /**
  * Clase correspondiente al controlador del patron MVC
@@ -10,8 +11,23 @@ import exceptions.*;
 
 public class ControllerTUI {
 
+	//Tiempos de los comandos de la consola, sin la espera de los datos ingresados por el usuario (ver Metrics)
+	private static final OperationStats SEARCH_NUMBER = Metrics.operation("ControllerTUI", "searchNumberAccount");
+	private static final OperationStats SEARCH_RANK = Metrics.operation("ControllerTUI", "searchRankAccount");
+	private static final OperationStats IMPOSITIONS = Metrics.operation("ControllerTUI", "makeImpositions");
+	private static final OperationStats ADD_ACCOUNT = Metrics.operation("ControllerTUI", "addAccount");
+	private static final OperationStats REMOVE_ACCOUNT = Metrics.operation("ControllerTUI", "removeAccount");
+	private static final OperationStats ADD_ADDRESSEE = Metrics.operation("ControllerTUI", "addAddressee");
+	private static final OperationStats EDIT_ADDRESSEE = Metrics.operation("ControllerTUI", "editAddressee");
+	private static final OperationStats SHOW_ADDRESSEES = Metrics.operation("ControllerTUI", "showAddressees");
+	private static final OperationStats SHOW_FAVORITES = Metrics.operation("ControllerTUI", "showFavoritesAddressees");
+	private static final OperationStats REMOVE_ADDRESSEE = Metrics.operation("ControllerTUI", "removeAddressee");
+	private static final OperationStats TRANSFER = Metrics.operation("ControllerTUI", "makeTransfer");
+	private static final OperationStats SHOW_ACCOUNT = Metrics.operation("ControllerTUI", "showAccount");
+
 	private ViewTUI viewTUI;					//Vista del patron MVC a ser controlada.
 	private Bank bank;							//Modelo del patron MVC a controlar.
+	private long waiting;						//Tiempo esperando datos del usuario en el comando actual, en nanosegundos.
 	
 	/**
 	 * Contructor, establece los atributos de la clase
@@ -46,19 +62,24 @@ public class ControllerTUI {
 	 * guardadas en el sistema.
 	 * */
 	public void searchNumberAccount() {
-		String accountNumber;
-		Account account;
-		
-		this.viewTUI.setOutput("Ingrese el numero de cuenta a buscar: ");
-		accountNumber = this.viewTUI.getInput();
-		
-		account = this.bank.getAccount(accountNumber);
-		
-		if(null == account) {
-			this.viewTUI.setOutput("No existe una cuenta con el numero de cuenta ingresado.\n");
-		}
-		else {
-			account.showInfo();
+		long start = startCommand();
+		try {
+			String accountNumber;
+			Account account;
+			
+			this.viewTUI.setOutput("Ingrese el numero de cuenta a buscar: ");
+			accountNumber = input();
+			
+			account = this.bank.getAccount(accountNumber);
+			
+			if(null == account) {
+				this.viewTUI.setOutput("No existe una cuenta con el numero de cuenta ingresado.\n");
+			}
+			else {
+				account.showInfo();
+			}
+		} finally {
+			SEARCH_NUMBER.stop(start + this.waiting);
 		}
 	}
 	
@@ -68,25 +89,30 @@ public class ControllerTUI {
 	 * que entren en ese rango
 	 * */
 	public void searchRankAccount() {
-		int lowerLimit;
-		int upperLimit;
-		
-		this.viewTUI.setOutput("Ingrese el rango inferior: ");
-		lowerLimit = Integer.parseInt(this.viewTUI.getInput());
-		
-		this.viewTUI.setOutput("Ingrese el rango superior: ");
-		upperLimit = Integer.parseInt(this.viewTUI.getInput());
-		
-		if(upperLimit < lowerLimit) {
-			this.viewTUI.setOutput("Rango ingresado no valido");
-		}
-		else {
-			ArrayList<Account> accounts = this.bank.getAccountBalanceRank(lowerLimit, upperLimit);
+		long start = startCommand();
+		try {
+			long lowerLimit;
+			long upperLimit;
 			
-			for(Account account : accounts) {
-				account.showInfo();
-				this.viewTUI.setOutput("\n");
+			this.viewTUI.setOutput("Ingrese el rango inferior: ");
+			lowerLimit = Long.parseLong(input());
+			
+			this.viewTUI.setOutput("Ingrese el rango superior: ");
+			upperLimit = Long.parseLong(input());
+			
+			if(upperLimit < lowerLimit) {
+				this.viewTUI.setOutput("Rango ingresado no valido");
 			}
+			else {
+				ArrayList<Account> accounts = this.bank.getAccountBalanceRank(lowerLimit, upperLimit);
+				
+				for(Account account : accounts) {
+					account.showInfo();
+					this.viewTUI.setOutput("\n");
+				}
+			}
+		} finally {
+			SEARCH_RANK.stop(start + this.waiting);
 		}
 	}
 	
@@ -94,39 +120,49 @@ public class ControllerTUI {
 	 * Realiza las imposiciones de todas las cuentas del sistema
 	 * */
 	public void makeImpositions() {
-		this.bank.makeImpositions();
+		long start = startCommand();
+		try {
+			this.bank.makeImpositions();
+		} finally {
+			IMPOSITIONS.stop(start + this.waiting);
+		}
 	}
 
 	/**
 	 * Agrega una nueva cuenta al sistema, valida que no exista una cuenta con el numero de cuenta ingresado.
 	 * */
 	public void addAccount() {
-		String accountNumber;
-		
-		this.viewTUI.setOutput("Ingrese el nuevo numero de la cuenta: ");
-		accountNumber = this.viewTUI.getInput();
-		
-		
-		if(!Account.isValid(accountNumber)) {
-			this.viewTUI.setOutput("Numero de cuenta ingresado no valido.\n");
-		}	
-		else if(this.bank.existsAccount(accountNumber)) {
-			this.viewTUI.setOutput("Ya existe una cuenta con el numero de cuenta ingresado.\n");
-		}
-		else {
-			Account newAccount;
+		long start = startCommand();
+		try {
+			String accountNumber;
+			
+			this.viewTUI.setOutput("Ingrese el nuevo numero de la cuenta: ");
+			accountNumber = input();
+			
+			
+			if(!Account.isValid(accountNumber)) {
+				this.viewTUI.setOutput("Numero de cuenta ingresado no valido.\n");
+			}	
+			else if(this.bank.existsAccount(accountNumber)) {
+				this.viewTUI.setOutput("Ya existe una cuenta con el numero de cuenta ingresado.\n");
+			}
+			else {
+				Account newAccount;
+						
+				try {
+					if(Account.getTypeAccount(accountNumber) == TypeAccount.RUT_ACCOUNT)
+						newAccount = new CurrentAccount(accountNumber);
+					else
+						newAccount = new SavingAccount(accountNumber);
 					
-			try {
-				if(Account.getTypeAccount(accountNumber) == TypeAccount.RUT_ACCOUNT)
-					newAccount = new CurrentAccount(accountNumber);
-				else
-					newAccount = new SavingAccount(accountNumber);
-				
-				this.bank.addAccount(newAccount);
-				this.viewTUI.setOutput("Cuenta con numero (" + accountNumber + ") agregador correctamente.\n");
-			} catch (WrongAccountNumber e) {
-				this.viewTUI.setOutput("Numero de cuenta ingresado no valido\n");
+					this.bank.addAccount(newAccount);
+					this.viewTUI.setOutput("Cuenta con numero (" + accountNumber + ") agregador correctamente.\n");
+				} catch (WrongAccountNumber e) {
+					this.viewTUI.setOutput("Numero de cuenta ingresado no valido\n");
+				}
 			}
+		} finally {
+			ADD_ACCOUNT.stop(start + this.waiting);
 		}
 	}
 	
@@ -134,17 +170,22 @@ public class ControllerTUI {
 	 * Elimina una cuenta del sistema, valida que exista una cuenta con el numero de cuenta ingresado.
 	 * */
 	public void removeAccount() {
-		String accountNumber;
-		
-		this.viewTUI.setOutput("Ingrese el nuevo numero de la cuenta: ");
-		accountNumber = this.viewTUI.getInput();
-		
-		if(this.bank.existsAccount(accountNumber)) {
-			this.bank.removeAccount(accountNumber);
-			this.viewTUI.setOutput("Cuenta con numero (" + accountNumber + ") agregador correctamente.\n");
-		}
-		else {
-			this.viewTUI.setOutput("No existe una cuenta con el numero de cuenta ingresado.\n");
+		long start = startCommand();
+		try {
+			String accountNumber;
+			
+			this.viewTUI.setOutput("Ingrese el nuevo numero de la cuenta: ");
+			accountNumber = input();
+			
+			if(this.bank.existsAccount(accountNumber)) {
+				this.bank.removeAccount(accountNumber);
+				this.viewTUI.setOutput("Cuenta con numero (" + accountNumber + ") agregador correctamente.\n");
+			}
+			else {
+				this.viewTUI.setOutput("No existe una cuenta con el numero de cuenta ingresado.\n");
+			}
+		} finally {
+			REMOVE_ACCOUNT.stop(start + this.waiting);
 		}
 	}
 	
@@ -153,32 +194,37 @@ public class ControllerTUI {
 	 * los destinatarios guardados del cliente.
 	 * */
 	public void addAddressee() {
-		String name;
-		String accountNumber;
-		boolean isFavorite;
+		long start = startCommand();
+		try {
+			String name;
+			String accountNumber;
+			boolean isFavorite;
 
-		this.viewTUI.setOutput("Nombre: ");
-		name = this.viewTUI.getInput();
+			this.viewTUI.setOutput("Nombre: ");
+			name = input();
 
-		this.viewTUI.setOutput("Numero de cuenta: ");
-		accountNumber = this.viewTUI.getInput();
+			this.viewTUI.setOutput("Numero de cuenta: ");
+			accountNumber = input();
 
-		this.viewTUI.setOutput("Guardarlo como favorito (1 - si, 2 - no): ");
-		isFavorite = (this.viewTUI.getInput().equals("1")) ? true : false;
-		
-		Client client = this.bank.getClient();
-		if(!Account.isValid(accountNumber)) {
-			this.viewTUI.setOutput("Numero de cuenta ingresado no valido\n");
-		}
-		else if(!this.bank.existsAccount(accountNumber)) {
-			this.viewTUI.setOutput("No existe una cuenta con el numero de cuenta ingresado\n");
-		}
-		else if(client.existsAddressee(accountNumber)) {
-			this.viewTUI.setOutput("Ya existe un destinatario con el numero de cuenta ingresado\n");
-		}
-		else {
-			client.addAddressee(new Addressee(this.bank.getAccount(accountNumber), name, isFavorite));
-			this.viewTUI.setOutput("Destinatario guardado correctamente\n");
+			this.viewTUI.setOutput("Guardarlo como favorito (1 - si, 2 - no): ");
+			isFavorite = (input().equals("1")) ? true : false;
+			
+			Client client = this.bank.getClient();
+			if(!Account.isValid(accountNumber)) {
+				this.viewTUI.setOutput("Numero de cuenta ingresado no valido\n");
+			}
+			else if(!this.bank.existsAccount(accountNumber)) {
+				this.viewTUI.setOutput("No existe una cuenta con el numero de cuenta ingresado\n");
+			}
+			else if(client.existsAddressee(accountNumber)) {
+				this.viewTUI.setOutput("Ya existe un destinatario con el numero de cuenta ingresado\n");
+			}
+			else {
+				client.addAddressee(new Addressee(this.bank.getAccount(accountNumber), name, isFavorite));
+				this.viewTUI.setOutput("Destinatario guardado correctamente\n");
+			}
+		} finally {
+			ADD_ADDRESSEE.stop(start + this.waiting);
 		}
 	}
 	
@@ -186,35 +232,40 @@ public class ControllerTUI {
 	 * Edita los atributos editables de un destinatario
 	 * */
 	public void editAddressee() {
-		//Numero de cuenta del destinatario a editar
-		String accountNumber;
-		Client client = this.bank.getClient();
+		long start = startCommand();
+		try {
+			//Numero de cuenta del destinatario a editar
+			String accountNumber;
+			Client client = this.bank.getClient();
 
-		this.viewTUI.setOutput("Numero de cuenta del destinatario a editar: ");
-		accountNumber = this.viewTUI.getInput();
+			this.viewTUI.setOutput("Numero de cuenta del destinatario a editar: ");
+			accountNumber = input();
 
-		if(!Account.isValid(accountNumber)) {
-			this.viewTUI.setOutput("Numero de cuenta ingresado no valido\n");
-		}
-		else if(!client.existsAddressee(accountNumber)) {
-			this.viewTUI.setOutput("No existe un destinatario con el numero de cuenta ingresado\\n");
-		}
-		else {
-			Addressee addressee = client.getAddressee(accountNumber);
-			
-			String name;
-			boolean isFavorite;
+			if(!Account.isValid(accountNumber)) {
+				this.viewTUI.setOutput("Numero de cuenta ingresado no valido\n");
+			}
+			else if(!client.existsAddressee(accountNumber)) {
+				this.viewTUI.setOutput("No existe un destinatario con el numero de cuenta ingresado\\n");
+			}
+			else {
+				Addressee addressee = client.getAddressee(accountNumber);
+				
+				String name;
+				boolean isFavorite;
 
-			this.viewTUI.setOutput("Nombre: ");
-			name = this.viewTUI.getInput();
+				this.viewTUI.setOutput("Nombre: ");
+				name = input();
 
-			this.viewTUI.setOutput("Guardarlo como favorito (1 - si, 2 - no): ");
-			isFavorite = (this.viewTUI.getInput().equals("1")) ? true : false;
-			
-			addressee.setName(name);
-			addressee.setFavorite(isFavorite);
-			
-			this.viewTUI.setOutput("Destinatario modificado correctamente\n");
+				this.viewTUI.setOutput("Guardarlo como favorito (1 - si, 2 - no): ");
+				isFavorite = (input().equals("1")) ? true : false;
+				
+				addressee.setName(name);
+				addressee.setFavorite(isFavorite);
+				
+				this.viewTUI.setOutput("Destinatario modificado correctamente\n");
+			}
+		} finally {
+			EDIT_ADDRESSEE.stop(start + this.waiting);
 		}
 	}
 	
@@ -222,10 +273,15 @@ public class ControllerTUI {
 	 * Muestra los destinatarios guardados por el cliente.
 	 * */
 	public void showAddressees() {
-		ArrayList<Addressee> addressees = this.bank.getClient().getAddressees();
-		
-		for(Addressee addressee : addressees) {
-			this.viewTUI.setOutput("Nombre: " + addressee.getName() + " - Numero de cuenta: " + addressee.getAccountNumber() + '\n');
+		long start = startCommand();
+		try {
+			ArrayList<Addressee> addressees = this.bank.getClient().getAddressees();
+			
+			for(Addressee addressee : addressees) {
+				this.viewTUI.setOutput("Nombre: " + addressee.getName() + " - Numero de cuenta: " + addressee.getAccountNumber() + '\n');
+			}
+		} finally {
+			SHOW_ADDRESSEES.stop(start + this.waiting);
 		}
 	}
 	
@@ -233,11 +289,16 @@ public class ControllerTUI {
 	 * Muestra los destinatarios guardados como favoritos por el cliente.
 	 * */
 	public void showFavoritesAddressees() {
-		ArrayList<Addressee> addressees = this.bank.getClient().getAddressees();
-		
-		for(Addressee addressee : addressees) {
-			if(addressee.isFavorite())
-				this.viewTUI.setOutput("Nombre: " + addressee.getName() + " - Numero de cuenta: " + addressee.getAccountNumber() + '\n');
+		long start = startCommand();
+		try {
+			ArrayList<Addressee> addressees = this.bank.getClient().getAddressees();
+			
+			for(Addressee addressee : addressees) {
+				if(addressee.isFavorite())
+					this.viewTUI.setOutput("Nombre: " + addressee.getName() + " - Numero de cuenta: " + addressee.getAccountNumber() + '\n');
+			}
+		} finally {
+			SHOW_FAVORITES.stop(start + this.waiting);
 		}
 	}
 	
@@ -245,21 +306,26 @@ public class ControllerTUI {
 	 * Obtiene los datos del destinatario a eliminar, valida que exista y lo elimina.
 	 * */
 	public void removeAddressee() {
-		String accountNumber;
+		long start = startCommand();
+		try {
+			String accountNumber;
 
-		this.viewTUI.setOutput("Numero de cuenta del destinatario a eliminar: ");
-		accountNumber = this.viewTUI.getInput();
+			this.viewTUI.setOutput("Numero de cuenta del destinatario a eliminar: ");
+			accountNumber = input();
 
-		Client client = this.bank.getClient();
-		if(!Account.isValid(accountNumber)) {
-			this.viewTUI.setOutput("Numero de cuenta ingresado no valido\n");
-		}
-		else if(client.existsAddressee(accountNumber)) {
-			client.removeAddressee(accountNumber);
-			this.viewTUI.setOutput("Destinatario eliminado correctamente\n");
-		}
-		else {
-			this.viewTUI.setOutput("No existe un destinatario con el numero de cuenta ingresado\\n");
+			Client client = this.bank.getClient();
+			if(!Account.isValid(accountNumber)) {
+				this.viewTUI.setOutput("Numero de cuenta ingresado no valido\n");
+			}
+			else if(client.existsAddressee(accountNumber)) {
+				client.removeAddressee(accountNumber);
+				this.viewTUI.setOutput("Destinatario eliminado correctamente\n");
+			}
+			else {
+				this.viewTUI.setOutput("No existe un destinatario con el numero de cuenta ingresado\\n");
+			}
+		} finally {
+			REMOVE_ADDRESSEE.stop(start + this.waiting);
 		}
 	}
 	
@@ -267,37 +333,42 @@ public class ControllerTUI {
 	 * Realiza una transferencia de la cuenta origen elegida por el usuario, a la  cuenta destino.
 	 * */
 	public void makeTransfer() {
-		Account originAccount = chooseMyAccount();
-		
-		if(originAccount != null) {
-			Account destinyAccount = chooseDestinyAccount();
+		long start = startCommand();
+		try {
+			Account originAccount = chooseMyAccount();
 			
-			if(destinyAccount != null) {
-				this.viewTUI.setOutput("Ingrese el monto a transferir: ");
-				int amount = Integer.parseInt(this.viewTUI.getInput());
+			if(originAccount != null) {
+				Account destinyAccount = chooseDestinyAccount();
 				
-				if(amount < 100) {
-					this.viewTUI.setOutput("Monto ingresado no valido (tiene que ser mayor a 100)\n");
-				} else if (amount > originAccount.getBalance()) {
-					this.viewTUI.setOutput("Monto ingresado excede el saldo contable actual de la cuenta\n");
-				} else {
-					this.viewTUI.setOutput("Cuenta origen: \n\n");
-					originAccount.showInfo();
+				if(destinyAccount != null) {
+					this.viewTUI.setOutput("Ingrese el monto a transferir: ");
+					int amount = Integer.parseInt(input());
 					
-					this.viewTUI.setOutput("\n\nCuenta destino: \n\n");
-					destinyAccount.showInfo();
-					
-					this.viewTUI.setOutput("Monto transferido: " + amount + "\n");
-					
-					try {
-						this.bank.transactionBetweenAccounts(originAccount.getAccountNumber(), destinyAccount.getAccountNumber(), amount);
-					} catch (ExcessiveTransactionAmount e) {
-						this.viewTUI.setOutput("El monto ingresado excede el saldo contable actual de la cuenta\n");
+					if(amount < Transfer.MIN_AMOUNT) {
+						this.viewTUI.setOutput("Monto ingresado no valido (tiene que ser mayor a " + Transfer.MIN_AMOUNT + ")\n");
+					} else if (amount > originAccount.getBalance()) {
+						this.viewTUI.setOutput("Monto ingresado excede el saldo contable actual de la cuenta\n");
+					} else {
+						this.viewTUI.setOutput("Cuenta origen: \n\n");
+						originAccount.showInfo();
+						
+						this.viewTUI.setOutput("\n\nCuenta destino: \n\n");
+						destinyAccount.showInfo();
+						
+						this.viewTUI.setOutput("Monto transferido: " + amount + "\n");
+						
+						try {
+							this.bank.transactionBetweenAccounts(originAccount.getAccountNumber(), destinyAccount.getAccountNumber(), amount);
+						} catch (ExcessiveTransactionAmount e) {
+							this.viewTUI.setOutput("El monto ingresado excede el saldo contable actual de la cuenta\n");
+						}
+						
+						this.viewTUI.setOutput("Transaccion realizada correctamente\n");
 					}
-					
-					this.viewTUI.setOutput("Transaccion realizada correctamente\n");
 				}
 			}
+		} finally {
+			TRANSFER.stop(start + this.waiting);
 		}
 	}
 	
@@ -305,10 +376,15 @@ public class ControllerTUI {
 	 * Muestra la cuenta seleccionada por el usuario
 	 * */
 	public void showAccount() {
-		Account account = chooseMyAccount();
+		long start = startCommand();
+		try {
+			Account account = chooseMyAccount();
 
-		if(account != null)
-			account.showInfo();
+			if(account != null)
+				account.showInfo();
+		} finally {
+			SHOW_ACCOUNT.stop(start + this.waiting);
+		}
 	}
 	
 	/**
@@ -320,7 +396,7 @@ public class ControllerTUI {
 		int option;
 		
 		this.viewTUI.setOutput("Seleccione cuenta (1 - cuenta rut, 2 - cuenta ahorro): ");
-		option = this.viewTUI.readOption();
+		option = readOption();
 		
 		if(option == 1) {
 			account = client.getAccount(TypeAccount.RUT_ACCOUNT);
@@ -344,7 +420,7 @@ public class ControllerTUI {
 		Account account = null;
 		
 		this.viewTUI.setOutput("Ingrese el numero de cuenta: ");
-		accountNumber = this.viewTUI.getInput();
+		accountNumber = input();
 		
 		if(this.bank.existsAccount(accountNumber))
 			account = this.bank.getAccount(accountNumber);
@@ -354,4 +430,42 @@ public class ControllerTUI {
 		
 		return account;
 	}
+	
+	/**
+	 * Comienza la medicion de un comando. El tiempo que el comando espera datos del usuario (con input y
+	 * readOption) se descuenta al terminarlo, asi las estadisticas miden solo lo que tarda la aplicacion.
+	 * @return momento de inicio del comando, 0 si no se mide.
+	 * */
+	private long startCommand() {
+		this.waiting = 0;
+		return Metrics.start();
+	}
+	
+	/**
+	 * Lee una linea ingresada por el usuario, descontando la espera del tiempo del comando actual.
+	 * @return linea ingresada.
+	 * */
+	private String input() {
+		long start = Metrics.start();
+		try {
+			return this.viewTUI.getInput();
+		} finally {
+			if(Metrics.ENABLED)
+				this.waiting += System.nanoTime() - start;
+		}
+	}
+	
+	/**
+	 * Lee una opcion ingresada por el usuario, descontando la espera del tiempo del comando actual.
+	 * @return opcion ingresada, -1 si no es un numero.
+	 * */
+	private int readOption() {
+		long start = Metrics.start();
+		try {
+			return this.viewTUI.readOption();
+		} finally {
+			if(Metrics.ENABLED)
+				this.waiting += System.nanoTime() - start;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package main;
+
+import model.*;
+import exceptions.*;
+import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Comprueba el mapa de cuentas del banco (AccountMap) contra un HashMap: realiza operaciones al azar (agregar,
+ * eliminar, buscar y comprobar cuentas) sobre un conjunto acotado de numeros de cuenta, de modo que el mapa crece,
+ * se reordena al eliminar y reutiliza posiciones, y compara cada resultado con el del HashMap. Al terminar compara
+ * todas las cuentas posibles y la cantidad de cuentas; si algo difiere termina con un codigo de salida distinto
+ * de 0.
+ *
+ * Uso: java main.AccountMapCheck [operaciones] [numeros de cuenta distintos]
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class AccountMapCheck {
+
+	public static void main(String args[]) throws Exception {
+		int operations = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+		int keyCount = (args.length > 1) ? Integer.parseInt(args[1]) : 50000;
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Bank bank = new Bank();
+		HashMap<Integer, Account> expected = new HashMap<Integer, Account>();
+		int mismatches = 0;
+
+		for(int i = 0; i < operations; ++i) {
+			int key = keyOf(random.nextInt(keyCount));
+			String accountNumber = Account.decode(key);
+			int operation = random.nextInt(10);
+
+			if(operation < 4) {
+				Account account = newAccount(accountNumber);
+
+				bank.addAccount(account);
+				expected.putIfAbsent(key, account);
+			}
+			else if(operation < 6) {
+				bank.removeAccount(accountNumber);
+				expected.remove(key);
+			}
+			else if(operation < 8) {
+				Account account = (operation == 6) ? bank.getAccount(key) : bank.getAccount(accountNumber);
+
+				if(account != expected.get(key))
+					mismatches += report(mismatches, "getAccount(" + accountNumber + ") obtuvo otra cuenta");
+			}
+			else {
+				boolean exists = (operation == 8) ? bank.existsAccount(key) : bank.existsAccount(accountNumber);
+
+				if(exists != expected.containsKey(key))
+					mismatches += report(mismatches, "existsAccount(" + accountNumber + ") obtuvo " + exists);
+			}
+		}
+
+		for(int i = 0; i < keyCount; ++i) {
+			int key = keyOf(i);
+
+			if(bank.getAccount(key) != expected.get(key))
+				mismatches += report(mismatches, "al final, getAccount(" + Account.decode(key) + ") obtuvo otra cuenta");
+		}
+
+		if(bank.getAccountCount() != expected.size())
+			mismatches += report(mismatches, "getAccountCount obtuvo " + bank.getAccountCount() + ", se esperaba " + expected.size());
+
+		System.out.println("Operaciones: " + operations + ", numeros de cuenta distintos: " + keyCount + ", cuentas al final: " + expected.size());
+
+		if(mismatches > 0) {
+			System.out.println("FALLO: " + mismatches + " diferencias con HashMap");
+			System.exit(1);
+		}
+
+		System.out.println("OK");
+	}
+
+	/**
+	 * @return numero codificado de la cuenta de prueba numero i, alterna entre cuentas corrientes y de ahorro.
+	 * */
+	private static int keyOf(int i) {
+		return 10 * (i + 1) + 1 + (i & 1);
+	}
+
+	/**
+	 * @return cuenta nueva con el numero ingresado, del tipo que indica su ultimo digito.
+	 * */
+	private static Account newAccount(String accountNumber) throws WrongAccountNumber {
+		if(Account.getTypeAccount(accountNumber) == TypeAccount.RUT_ACCOUNT)
+			return new CurrentAccount(accountNumber);
+		else
+			return new SavingAccount(accountNumber);
+	}
+
+	/**
+	 * Muestra una diferencia, solo las primeras para no llenar la consola.
+	 * @return 1, para sumarlo a la cantidad de diferencias.
+	 * */
+	private static int report(int mismatches, String message) {
+		if(mismatches < 10)
+			System.out.println(message);
+
+		return 1;
+	}
+}
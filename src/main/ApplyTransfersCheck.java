@@ -0,0 +1,139 @@
+package main;
+
+import model.*;
+import exceptions.*;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Comprueba Bank.applyTransfers contra la ejecucion secuencial y compara su rendimiento: en cada ronda se crean
+ * dos bancos iguales y se aplica el mismo lote de transferencias al azar, en uno con applyTransfers y en el otro
+ * una por una con transactionBetweenAccounts. El lote incluye transferencias con montos que exceden el saldo y
+ * con cuentas inexistentes. Los resultados de cada transferencia y los saldos finales deben ser iguales en ambos
+ * bancos; si alguno difiere termina con un codigo de salida distinto de 0.
+ *
+ * Uso: java main.ApplyTransfersCheck [transferencias por lote] [cuentas] [rondas]
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class ApplyTransfersCheck {
+
+	private static final long INITIAL_BALANCE = 100000;	//Saldo inicial de cada cuenta.
+
+	public static void main(String args[]) throws Exception {
+		int transfers = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+		int accountCount = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+		int rounds = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+
+		long sequentialNanos = 0;
+		long parallelNanos = 0;
+		int mismatches = 0;
+
+		for(int round = 0; round <= rounds; ++round) {
+			Bank sequential = newBank(accountCount);
+			Bank parallel = newBank(accountCount);
+			ArrayList<Transfer> batch = newBatch(transfers, accountCount);
+			TransferResult[] expected = new TransferResult[transfers];
+
+			long start = System.nanoTime();
+			for(int i = 0; i < transfers; ++i)
+				expected[i] = apply(sequential, batch.get(i));
+			long middle = System.nanoTime();
+			ArrayList<TransferResult> results = parallel.applyTransfers(batch);
+			long end = System.nanoTime();
+
+			//La ronda 0 solo sirve para que la JVM compile el codigo antes de medir
+			if(round > 0) {
+				sequentialNanos += middle - start;
+				parallelNanos += end - middle;
+			}
+
+			for(int i = 0; i < transfers; ++i) {
+				if(results.get(i).getStatus() != expected[i].getStatus()) {
+					if(mismatches++ < 10)
+						System.out.println("Ronda " + round + ", transferencia " + i + ": secuencial " + expected[i].getStatus() + ", applyTransfers " + results.get(i).getStatus());
+				}
+			}
+
+			for(int i = 0; i < accountCount; ++i) {
+				int key = keyOf(i);
+
+				if(sequential.getAccount(key).getBalance() != parallel.getAccount(key).getBalance()) {
+					if(mismatches++ < 10)
+						System.out.println("Ronda " + round + ", cuenta " + Account.decode(key) + ": saldos distintos");
+				}
+			}
+		}
+
+		System.out.println("Transferencias por lote: " + transfers + ", cuentas: " + accountCount + ", rondas: " + rounds + ", procesadores: " + Runtime.getRuntime().availableProcessors());
+		System.out.printf("Secuencial: %.0f transferencias por segundo%n", (double) transfers * rounds / (sequentialNanos / 1e9));
+		System.out.printf("applyTransfers: %.0f transferencias por segundo%n", (double) transfers * rounds / (parallelNanos / 1e9));
+
+		if(mismatches > 0) {
+			System.out.println("FALLO: " + mismatches + " diferencias con la ejecucion secuencial");
+			System.exit(1);
+		}
+
+		System.out.println("OK");
+	}
+
+	/**
+	 * @return numero codificado de la cuenta de prueba numero i.
+	 * */
+	private static int keyOf(int i) {
+		return 10 * (i + 1) + 1;
+	}
+
+	/**
+	 * @return banco con las cuentas de prueba, todas con el mismo saldo y sin cargos por transferencia.
+	 * */
+	private static Bank newBank(int accountCount) throws WrongAccountNumber {
+		Bank bank = new Bank();
+
+		for(int i = 0; i < accountCount; ++i)
+			bank.addAccount(new CurrentAccount(INITIAL_BALANCE, Account.decode(keyOf(i)), 0));
+
+		return bank;
+	}
+
+	/**
+	 * @return lote de transferencias al azar: la mayoria validas, algunas por mas que el saldo inicial y algunas
+	 * desde o hacia cuentas inexistentes.
+	 * */
+	private static ArrayList<Transfer> newBatch(int transfers, int accountCount) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		ArrayList<Transfer> batch = new ArrayList<Transfer>(transfers);
+
+		for(int i = 0; i < transfers; ++i) {
+			String origin = Account.decode(keyOf(random.nextInt(accountCount)));
+			String destiny = Account.decode(keyOf(random.nextInt(accountCount)));
+			int amount = 1 + random.nextInt(10000);
+			int kind = random.nextInt(100);
+
+			if(kind == 0)
+				amount = (int) INITIAL_BALANCE * 2;
+			else if(kind == 1)
+				destiny = Account.decode(keyOf(accountCount + random.nextInt(1000)));
+
+			batch.add(new Transfer(origin, destiny, amount));
+		}
+
+		return batch;
+	}
+
+	/**
+	 * @return resultado de realizar la transferencia directamente con el banco.
+	 * */
+	private static TransferResult apply(Bank bank, Transfer transfer) {
+		try {
+			if(bank.transactionBetweenAccounts(transfer.getOriginAccountNumber(), transfer.getDestinyAccountNumber(), transfer.getAmount()))
+				return TransferResult.done();
+			else
+				return TransferResult.accountNotFound();
+		} catch (ExcessiveTransactionAmount e) {
+			return TransferResult.excessiveAmount(e);
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package main;
+
+import model.*;
+import exceptions.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de estres del indice de saldos del banco: varios hilos realizan transferencias al azar con el banco,
+ * otro deposita directamente en las cuentas (sin pasar por el banco) y otro consulta rangos de saldo mientras
+ * tanto. Al terminar comprueba que el dinero se conservo (saldo inicial mas depositos) y que el indice quedo
+ * igual al recorrido de todas las cuentas: cada consulta por rango debe obtener exactamente las cuentas con saldo
+ * dentro del rango, ordenadas por saldo, y countAccountBalanceRank su cantidad. Si alguna comprobacion falla
+ * termina con un codigo de salida distinto de 0.
+ *
+ * Uso: java main.BalanceIndexStressTest [hilos] [transferencias por hilo] [cuentas]
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class BalanceIndexStressTest {
+
+	private static final long INITIAL_BALANCE = 10000;	//Saldo inicial de cada cuenta.
+	private static final int RANGES = 1000;				//Consultas por rango que se comprueban al terminar.
+
+	public static void main(String args[]) throws Exception {
+		int threadCount = (args.length > 0) ? Integer.parseInt(args[0]) : 8;
+		int transfers = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+		int accountCount = (args.length > 2) ? Integer.parseInt(args[2]) : 256;
+
+		Bank bank = new Bank();
+		Account[] accounts = new Account[accountCount];
+
+		for(int i = 0; i < accountCount; ++i) {
+			accounts[i] = new CurrentAccount(INITIAL_BALANCE, Account.decode(10 * (i + 1) + 1), 0);
+			bank.addAccount(accounts[i]);
+		}
+
+		AtomicLong deposited = new AtomicLong();
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread[] threads = new Thread[threadCount + 2];
+
+		for(int t = 0; t < threadCount; ++t) {
+			threads[t] = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+
+				for(int i = 0; i < transfers; ++i) {
+					try {
+						bank.transactionBetweenAccounts(accounts[random.nextInt(accountCount)].getAccountKey(),
+														accounts[random.nextInt(accountCount)].getAccountKey(), 1 + random.nextInt(1000));
+					} catch (ExcessiveTransactionAmount e) {
+						//El saldo de la cuenta de origen no alcanzaba
+					}
+				}
+			}, "stress-" + t);
+		}
+
+		//Depositos directos en las cuentas, avisan el cambio de saldo al banco sin que el banco tome los candados antes
+		threads[threadCount] = new Thread(() -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+
+			while(running.get()) {
+				int amount = 1 + random.nextInt(100);
+
+				accounts[random.nextInt(accountCount)].depositFrom(amount, null);
+				deposited.addAndGet(amount);
+			}
+		}, "stress-deposits");
+
+		//Consultas simultaneas, no deben fallar aunque las cuentas cambien de posicion mientras se recorren
+		threads[threadCount + 1] = new Thread(() -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+
+			while(running.get()) {
+				long lower = random.nextLong(2 * INITIAL_BALANCE);
+
+				bank.countAccountBalanceRank(lower, lower + 1000);
+				bank.getAccountBalanceRank(lower, lower + 1000, random.nextBoolean());
+			}
+		}, "stress-queries");
+
+		long start = System.nanoTime();
+		for(Thread thread : threads)
+			thread.start();
+
+		for(int t = 0; t < threadCount; ++t)
+			threads[t].join();
+		running.set(false);
+		threads[threadCount].join();
+		threads[threadCount + 1].join();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		int failures = 0;
+
+		long total = 0;
+		for(Account account : accounts)
+			total += account.getBalance();
+
+		long expected = INITIAL_BALANCE * accountCount + deposited.get();
+		if(total != expected)
+			failures += report(failures, "saldo total " + total + ", se esperaba " + expected);
+
+		//Cuentas ordenadas como el indice: por saldo y luego por numero codificado
+		Account[] sorted = accounts.clone();
+		Arrays.sort(sorted, Comparator.comparingLong(Account::getBalance).thenComparingInt(Account::getAccountKey));
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long maxBalance = sorted[accountCount - 1].getBalance();
+
+		for(int i = 0; i <= RANGES; ++i) {
+			long lower = (i == 0) ? Long.MIN_VALUE : random.nextLong(-10, maxBalance + 10);
+			long upper = (i == 0) ? Long.MAX_VALUE : lower + random.nextLong(0, maxBalance / 4 + 1);
+			ArrayList<Account> expectedRange = new ArrayList<Account>();
+
+			for(Account account : sorted) {
+				if((account.getBalance() >= lower) && (account.getBalance() <= upper))
+					expectedRange.add(account);
+			}
+
+			if(!bank.getAccountBalanceRank(lower, upper).equals(expectedRange))
+				failures += report(failures, "getAccountBalanceRank(" + lower + ", " + upper + ") no coincide con el recorrido");
+
+			if(bank.countAccountBalanceRank(lower, upper) != expectedRange.size())
+				failures += report(failures, "countAccountBalanceRank(" + lower + ", " + upper + ") obtuvo " + bank.countAccountBalanceRank(lower, upper) + ", se esperaba " + expectedRange.size());
+		}
+
+		System.out.println("Hilos: " + threadCount + ", cuentas: " + accountCount + ", transferencias: " + (long) threadCount * transfers);
+		System.out.printf("Depositado directamente: %d, transferencias por segundo: %.0f%n", deposited.get(), (long) threadCount * transfers / seconds);
+		System.out.println("Saldo total esperado: " + expected + ", obtenido: " + total);
+
+		if(failures > 0) {
+			System.out.println("FALLO: " + failures + " comprobaciones fallidas");
+			System.exit(1);
+		}
+
+		System.out.println("OK");
+	}
+
+	/**
+	 * Muestra una comprobacion fallida, solo las primeras para no llenar la consola.
+	 * @return 1, para sumarlo a la cantidad de comprobaciones fallidas.
+	 * */
+	private static int report(int failures, String message) {
+		if(failures < 10)
+			System.out.println(message);
+
+		return 1;
+	}
+}
@@ -4,6 +4,7 @@ import controller.*;
 import model.*;
 import view.*;
 import exceptions.*;
+import java.io.IOException;
 
 /**
  * Clase principal de la aplicacion
@@ -38,6 +39,25 @@ public class BankApp {
 		client.addAddressee(new Addressee(bank.getAccount("00000001-2"), "Dentista", true));
 		client.addAddressee(new Addressee(bank.getAccount("00000002-1"), "Universidad", false));
 		
+		//Con --http [puerto] se atiende el banco por HTTP en vez de la consola
+		if((args.length > 0) && args[0].equals("--http")) {
+			int port = (args.length > 1) ? Integer.parseInt(args[1]) : 8080;
+			
+			//Sin TCP_NODELAY las respuestas cortas esperan el ACK retardado del cliente (unos 40 ms por solicitud),
+			//se establece antes de crear el servidor porque el JDK lo lee una sola vez
+			if(System.getProperty("sun.net.httpserver.nodelay") == null)
+				System.setProperty("sun.net.httpserver.nodelay", "true");
+			
+			try {
+				ControllerHTTP controllerHTTP = new ControllerHTTP(bank, port);
+				controllerHTTP.start();
+				viewTUI.setOutput("Servidor HTTP escuchando en el puerto " + controllerHTTP.getPort() + "\n");
+			} catch (IOException e) {
+				viewTUI.setOutput("No se pudo iniciar el servidor HTTP: " + e.getMessage() + "\n");
+			}
+			return;
+		}
+		
 		viewTUI.mainMenu();
 	}
 }
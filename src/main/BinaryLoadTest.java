@@ -0,0 +1,174 @@
+package main;
+
+import controller.*;
+import model.*;
+import exceptions.*;
+import persistence.*;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Prueba de carga local del controlador binario por loopback: inicia el servidor sobre un banco con cuentas de
+ * prueba y lo consulta desde varios clientes, cada uno con una conexion por la que envia rafagas de solicitudes
+ * sin esperar las respuestas (pipelining), mezclando consultas de saldo y transferencias. Al terminar muestra
+ * las solicitudes por segundo y la latencia p50, p99 y maxima de cada solicitud.
+ *
+ * Con un archivo de registro como quinto argumento, las transferencias se guardan en un Journal (con fsync) y
+ * cada una espera a que su registro se guarde; el archivo se borra al terminar.
+ *
+ * Uso: java main.BinaryLoadTest [clientes] [segundos] [solicitudes por rafaga] [cuentas] [archivo de registro]
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class BinaryLoadTest {
+
+	public static void main(String args[]) throws Exception {
+		int clients = (args.length > 0) ? Integer.parseInt(args[0]) : 8;
+		int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+		int window = (args.length > 2) ? Integer.parseInt(args[2]) : 128;
+		int accountCount = (args.length > 3) ? Integer.parseInt(args[3]) : 10000;
+		Path journalFile = (args.length > 4) ? Paths.get(args[4]) : null;
+
+		Bank bank = new Bank();
+		int[] accountKeys = new int[accountCount];
+
+		for(int i = 0; i < accountCount; ++i) {
+			accountKeys[i] = 10 * (i + 1) + 1;
+
+			try {
+				bank.addAccount(new CurrentAccount(1000000, Account.decode(accountKeys[i]), 0));
+			} catch (WrongAccountNumber e) {
+				//Los numeros de cuenta de prueba siempre son validos
+			}
+		}
+
+		Journal journal = null;
+		if(journalFile != null) {
+			Files.deleteIfExists(journalFile);
+			journal = new Journal(journalFile);
+			bank.setMutationLog(journal);
+		}
+
+		try(ControllerBinary controller = new ControllerBinary(bank, 0)) {
+			controller.start();
+
+			InetSocketAddress address = new InetSocketAddress("127.0.0.1", controller.getPort());
+			long[][] latencies = new long[clients][];
+			int[] counts = new int[clients];
+			int[] errors = new int[clients];
+			Thread[] threads = new Thread[clients];
+			long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+			for(int c = 0; c < clients; ++c) {
+				final int client = c;
+
+				threads[c] = new Thread(() -> {
+					try(SocketChannel channel = SocketChannel.open(address)) {
+						channel.socket().setTcpNoDelay(true);
+
+						ThreadLocalRandom random = ThreadLocalRandom.current();
+						ByteBuffer requests = ByteBuffer.allocateDirect(window * 21);
+						ByteBuffer responses = ByteBuffer.allocateDirect(window * ControllerBinary.RESPONSE_BYTES);
+						long[] sent = new long[window];
+						long[] samples = new long[1 << 20];
+						int count = 0;
+						int tag = 0;
+
+						while(System.nanoTime() < end) {
+							requests.clear();
+
+							//Una de cada cuatro solicitudes es una transferencia, el resto son consultas de saldo
+							for(int i = 0; i < window; ++i, ++tag) {
+								int origin = accountKeys[random.nextInt(accountCount)];
+
+								if(random.nextInt(4) == 0)
+									requests.putInt(17).putInt(tag).put(ControllerBinary.TRANSFER).putInt(origin)
+											.putInt(accountKeys[random.nextInt(accountCount)]).putInt(100);
+								else
+									requests.putInt(9).putInt(tag).put(ControllerBinary.BALANCE).putInt(origin);
+							}
+
+							long start = System.nanoTime();
+							Arrays.fill(sent, start);
+							requests.flip();
+							while(requests.hasRemaining())
+								channel.write(requests);
+
+							//Se leen las respuestas de la rafaga, cada una se asocia a su solicitud por la etiqueta
+							responses.clear();
+							int received = 0;
+							while(received < window) {
+								if(channel.read(responses) < 0)
+									throw new IOException("El servidor cerro la conexion");
+
+								long now = System.nanoTime();
+								responses.flip();
+								while(responses.remaining() >= ControllerBinary.RESPONSE_BYTES) {
+									responses.getInt();
+									int responseTag = responses.getInt();
+									byte status = responses.get();
+									responses.getLong();
+
+									if((status != ControllerBinary.OK) && (status != ControllerBinary.EXCESSIVE_AMOUNT))
+										++errors[client];
+
+									if(count == samples.length)
+										samples = Arrays.copyOf(samples, 2 * count);
+									samples[count++] = now - sent[Math.floorMod(responseTag, window)];
+									++received;
+								}
+								responses.compact();
+							}
+						}
+
+						latencies[client] = samples;
+						counts[client] = count;
+					} catch (IOException e) {
+						latencies[client] = new long[0];
+						++errors[client];
+					}
+				});
+				threads[c].start();
+			}
+
+			for(Thread thread : threads)
+				thread.join();
+
+			int total = 0;
+			int failed = 0;
+			for(int c = 0; c < clients; ++c) {
+				total += counts[c];
+				failed += errors[c];
+			}
+
+			long[] all = new long[total];
+			for(int c = 0, position = 0; c < clients; position += counts[c], ++c)
+				System.arraycopy(latencies[c], 0, all, position, counts[c]);
+			Arrays.sort(all);
+
+			System.out.println("Clientes: " + clients + ", solicitudes por rafaga: " + window + ", cuentas: " + accountCount + ", duracion: " + seconds + " s");
+			System.out.println("Solicitudes: " + total + " (" + failed + " con error)");
+			System.out.printf("Solicitudes por segundo: %.0f%n", total / (double) seconds);
+			if(total > 0) {
+				System.out.printf("Latencia p50: %.3f ms%n", all[(int) (0.50 * (total - 1))] / 1e6);
+				System.out.printf("Latencia p99: %.3f ms%n", all[(int) (0.99 * (total - 1))] / 1e6);
+				System.out.printf("Latencia maxima: %.3f ms%n", all[total - 1] / 1e6);
+			}
+		} finally {
+			if(journal != null) {
+				journal.close();
+				Files.deleteIfExists(journalFile);
+			}
+		}
+	}
+}
\ No newline at end of file
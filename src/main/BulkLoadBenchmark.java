@@ -0,0 +1,111 @@
+package main;
+
+import model.*;
+import persistence.*;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Medicion de la carga masiva: genera un archivo con cuentas corrientes y de ahorro, destinatarios y algunas
+ * lineas con errores (numeros no validos, saldos mal escritos, cuentas repetidas y destinatarios sin cuenta), lo
+ * carga en un banco vacio con BulkLoader y muestra las filas por segundo. Si se ingresa un archivo existente, se
+ * carga ese archivo en vez de generar uno.
+ *
+ * Uso: java main.BulkLoadBenchmark [cuentas] [archivo]
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class BulkLoadBenchmark {
+
+	private static final int ADDRESSEE_EVERY = 100;		//Se genera un destinatario cada esta cantidad de cuentas.
+	private static final int ERROR_EVERY = 1000;		//Se genera una linea con error cada esta cantidad de cuentas.
+
+	public static void main(String args[]) throws IOException {
+		int accountCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		Path file = (args.length > 1) ? Paths.get(args[1]) : null;
+		boolean generated = (file == null) || !Files.exists(file);
+
+		if(generated) {
+			file = (file != null) ? file : Files.createTempFile("bulk-load", ".csv");
+			long expectedRejects = generate(file, accountCount);
+			System.out.println("Archivo generado: " + file + " (" + Files.size(file) + " bytes, " + expectedRejects + " lineas con error)");
+		}
+
+		Path rejects = Paths.get(file + ".rechazos");
+		Bank bank = new Bank(new Client("Carga masiva", "11111111-1"));
+		BulkLoadReport report = new BulkLoader(bank).load(file, rejects);
+
+		System.out.println("Partes: " + report.getChunks() + ", cuentas en el banco: " + bank.getAccountCount()
+						   + ", destinatarios del cliente: " + bank.getClient().getAddressees().size());
+		System.out.println(report);
+		System.out.println("Rechazos en: " + rejects);
+
+		if(generated && (args.length < 2))
+			Files.delete(file);
+	}
+
+	/**
+	 * Escribe el archivo de prueba.
+	 * @return cantidad de lineas con error que se escribieron.
+	 * */
+	private static long generate(Path file, int accountCount) throws IOException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		StringBuilder line = new StringBuilder(64);
+		long errors = 0;
+
+		try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+			write(out, line.append("# Cartera migrada: cuentas (C) y destinatarios (D)\n"));
+
+			for(int i = 0; i < accountCount; ++i) {
+				String accountNumber = Account.decode(key(i));
+
+				line.append("C,").append(accountNumber).append(',').append(random.nextInt(10_000_000));
+				if((i & 1) == 0)
+					line.append(',').append(1000 * random.nextInt(10));
+				else
+					line.append(",0.0").append(1 + random.nextInt(9));
+				write(out, line.append('\n'));
+
+				if(i % ADDRESSEE_EVERY == 0)
+					write(out, line.append("D,").append(accountNumber).append(",Destinatario ").append(i).append(',').append(i & 1).append('\n'));
+
+				if(i % ERROR_EVERY == 0) {
+					switch((i / ERROR_EVERY) % 4)
+					{
+						case 0 : line.append("C,").append(accountNumber, 0, 9).append("3,1000\n"); break;
+						case 1 : line.append("C,").append(accountNumber).append(",10x0\n"); break;
+						case 2 : line.append("C,").append(accountNumber).append(",1000\n"); break;
+						default : line.append("D,").append(Account.decode(key(accountCount + i))).append(",Sin cuenta\n"); break;
+					}
+					write(out, line);
+					++errors;
+				}
+			}
+		}
+
+		return errors;
+	}
+
+	/**
+	 * Escribe la linea al archivo y la deja vacia.
+	 * */
+	private static void write(OutputStream out, StringBuilder line) throws IOException {
+		out.write(line.toString().getBytes(StandardCharsets.US_ASCII));
+		line.setLength(0);
+	}
+
+	/**
+	 * @return numero de cuenta codificado de prueba, las cuentas pares son corrientes y las impares de ahorro.
+	 * */
+	private static int key(int index) {
+		return 10 * (index + 1) + 1 + (index & 1);
+	}
+}
@@ -0,0 +1,125 @@
+package main;
+
+import controller.*;
+import model.*;
+import exceptions.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Prueba de carga local del controlador HTTP: inicia el servidor sobre un banco con cuentas de prueba y lo
+ * consulta desde varios clientes concurrentes durante un tiempo fijo, mezclando consultas de cuentas y
+ * transferencias. Al terminar muestra las solicitudes por segundo y la latencia p50, p99 y maxima.
+ *
+ * Uso: java -Dsun.net.httpserver.nodelay=true main.HttpLoadTest [clientes] [segundos] [cuentas]
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class HttpLoadTest {
+
+	public static void main(String args[]) throws Exception {
+		int clients = (args.length > 0) ? Integer.parseInt(args[0]) : 64;
+		int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+		int accountCount = (args.length > 2) ? Integer.parseInt(args[2]) : 10000;
+
+		Bank bank = new Bank();
+		String[] accountNumbers = new String[accountCount];
+
+		for(int i = 0; i < accountCount; ++i) {
+			accountNumbers[i] = Account.decode(10 * (i + 1) + 1);
+
+			try {
+				bank.addAccount(new CurrentAccount(1000000, accountNumbers[i], 0));
+			} catch (WrongAccountNumber e) {
+				//Los numeros de cuenta de prueba siempre son validos
+			}
+		}
+
+		try(ControllerHTTP controller = new ControllerHTTP(bank, 0)) {
+			controller.start();
+
+			String base = "http://localhost:" + controller.getPort();
+			HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5)).build();
+			long[][] latencies = new long[clients][];
+			int[] counts = new int[clients];
+			int[] errors = new int[clients];
+			Thread[] threads = new Thread[clients];
+			long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+			for(int c = 0; c < clients; ++c) {
+				final int client = c;
+
+				threads[c] = new Thread(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					long[] samples = new long[1 << 16];
+					int count = 0;
+
+					while(System.nanoTime() < end) {
+						String origin = accountNumbers[random.nextInt(accountCount)];
+						HttpRequest request;
+
+						//Una de cada cuatro solicitudes es una transferencia, el resto son consultas
+						if(random.nextInt(4) == 0) {
+							String destiny = accountNumbers[random.nextInt(accountCount)];
+							String body = "{\"origin\":\"" + origin + "\",\"destiny\":\"" + destiny + "\",\"amount\":100}";
+							request = HttpRequest.newBuilder(URI.create(base + "/transfers"))
+												 .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+						}
+						else {
+							request = HttpRequest.newBuilder(URI.create(base + "/accounts/" + origin)).GET().build();
+						}
+
+						long start = System.nanoTime();
+						try {
+							HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+
+							if(response.statusCode() >= 500)
+								++errors[client];
+						} catch (Exception e) {
+							++errors[client];
+						}
+
+						if(count == samples.length)
+							samples = Arrays.copyOf(samples, 2 * count);
+						samples[count++] = System.nanoTime() - start;
+					}
+
+					latencies[client] = samples;
+					counts[client] = count;
+				});
+				threads[c].start();
+			}
+
+			for(Thread thread : threads)
+				thread.join();
+
+			int total = 0;
+			int failed = 0;
+			for(int c = 0; c < clients; ++c) {
+				total += counts[c];
+				failed += errors[c];
+			}
+
+			long[] all = new long[total];
+			for(int c = 0, position = 0; c < clients; position += counts[c], ++c)
+				System.arraycopy(latencies[c], 0, all, position, counts[c]);
+			Arrays.sort(all);
+
+			System.out.println("Clientes: " + clients + ", cuentas: " + accountCount + ", duracion: " + seconds + " s");
+			System.out.println("Solicitudes: " + total + " (" + failed + " con error)");
+			System.out.printf("Solicitudes por segundo: %.0f%n", total / (double) seconds);
+			if(total > 0) {
+				System.out.printf("Latencia p50: %.3f ms%n", all[(int) (0.50 * (total - 1))] / 1e6);
+				System.out.printf("Latencia p99: %.3f ms%n", all[(int) (0.99 * (total - 1))] / 1e6);
+				System.out.printf("Latencia maxima: %.3f ms%n", all[total - 1] / 1e6);
+			}
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package main;
+
+import model.*;
+import persistence.*;
+import exceptions.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Prueba local de la replicacion: crea un banco principal con cuentas corrientes y de ahorro, lo replica en un
+ * banco seguidor por loopback y le aplica una rafaga de transferencias desde varios hilos, junto con cuentas
+ * agregadas y eliminadas durante la carga y una ronda de imposiciones. Al terminar espera a que el seguidor
+ * aplique todas las modificaciones, compara el saldo de cada cuenta en ambos bancos y muestra el retraso de la
+ * replicacion. Termina con codigo 1 si algun saldo no coincide.
+ *
+ * Uso: java main.ReplicationLoadTest [hilos] [transferencias por hilo] [cuentas]
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class ReplicationLoadTest {
+
+	public static void main(String args[]) throws Exception {
+		int threadCount = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+		int transfers = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+		int accountCount = (args.length > 2) ? Integer.parseInt(args[2]) : 10000;
+
+		Bank primary = new Bank();
+		Bank replica = new Bank();
+
+		for(int i = 0; i < accountCount; ++i)
+			primary.addAccount(newAccount(i));
+
+		try(ReplicaFollower follower = new ReplicaFollower(replica, 0)) {
+			follower.start();
+
+			try(Replicator replicator = new Replicator(primary, follower.getAddress())) {
+				Thread[] threads = new Thread[threadCount];
+				long start = System.nanoTime();
+
+				for(int t = 0; t < threadCount; ++t) {
+					final int thread = t;
+
+					threads[t] = new Thread(() -> {
+						ThreadLocalRandom random = ThreadLocalRandom.current();
+
+						for(int i = 0; i < transfers; ++i) {
+							String origin = Account.decode(key(random.nextInt(accountCount)));
+							String destiny = Account.decode(key(random.nextInt(accountCount)));
+
+							try {
+								primary.transactionBetweenAccounts(origin, destiny, 1 + random.nextInt(5000));
+							} catch (ExcessiveTransactionAmount e) {
+								//Se rechaza y no se registra, el seguidor no debe verla
+							}
+
+							//De vez en cuando se agrega una cuenta nueva o se elimina una existente
+							if(i % 1000 == 0) {
+								primary.addAccount(newAccount(accountCount + thread * transfers + i));
+								primary.removeAccount(Account.decode(key(random.nextInt(accountCount))));
+							}
+						}
+					});
+					threads[t].start();
+				}
+
+				for(Thread thread : threads)
+					thread.join();
+
+				primary.makeImpositions();
+
+				double seconds = (System.nanoTime() - start) / 1e9;
+				long lastSequence = replicator.getLastSequence();
+				long lagAtEnd = replicator.getLagRecords();
+
+				if(!replicator.awaitReplication(lastSequence, 30000)) {
+					System.out.println("El seguidor no alcanzo al principal: " + replicator.getAcknowledgedSequence() + " de " + lastSequence
+									   + ((replicator.getFailure() != null) ? " (" + replicator.getFailure() + ")" : ""));
+					System.exit(1);
+				}
+
+				int mismatches = compare(primary, follower);
+
+				System.out.println("Hilos: " + threadCount + ", transferencias: " + (threadCount * transfers) + ", cuentas: " + primary.getAccountCount());
+				System.out.printf("Modificaciones registradas: %d (%.0f por segundo)%n", lastSequence, lastSequence / seconds);
+				System.out.println("Mensajes enviados: " + replicator.getSentMessages() + " (" + replicator.getSentBytes() + " bytes)");
+				System.out.println("Retraso al terminar la carga: " + lagAtEnd + " modificaciones");
+				System.out.println("Retraso del ultimo mensaje: " + follower.getLagMillis() + " ms, maximo: " + follower.getMaxLagMillis() + " ms");
+				System.out.println("Cuentas en el seguidor: " + follower.getAccountCount() + ", saldos distintos: " + mismatches);
+
+				if(mismatches != 0)
+					System.exit(1);
+			}
+		}
+	}
+
+	/**
+	 * Compara las cuentas y saldos de ambos bancos.
+	 * @return cantidad de cuentas que faltan, sobran o tienen un saldo distinto en el seguidor.
+	 * */
+	private static int compare(Bank primary, ReplicaFollower follower) {
+		int mismatches = Math.abs(primary.getAccountCount() - follower.getAccountCount());
+
+		for(Account account : primary.getAccountBalanceRank(Long.MIN_VALUE, Long.MAX_VALUE)) {
+			Account copy = follower.getAccount(account.getAccountNumber());
+
+			if((copy == null) || (copy.getBalance() != account.getBalance()))
+				++mismatches;
+		}
+
+		return mismatches;
+	}
+
+	/**
+	 * @return numero de cuenta codificado de prueba, las cuentas pares son corrientes y las impares de ahorro.
+	 * */
+	private static int key(int index) {
+		return 10 * (index + 1) + 1 + (index & 1);
+	}
+
+	/**
+	 * @return cuenta de prueba del indice ingresado.
+	 * */
+	private static Account newAccount(int index) {
+		String accountNumber = Account.decode(key(index));
+
+		try {
+			if((index & 1) == 0)
+				return new CurrentAccount(100000, accountNumber, 500);
+			else
+				return new SavingAccount(100000, accountNumber, 1.5);
+		} catch (WrongAccountNumber e) {
+			//Los numeros de cuenta de prueba siempre son validos
+			throw new IllegalStateException(e);
+		}
+	}
+}
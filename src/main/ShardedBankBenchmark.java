@@ -0,0 +1,86 @@
+package main;
+
+import model.*;
+import exceptions.*;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mide como escala el rendimiento del banco particionado al aumentar la cantidad de particiones: para cada
+ * cantidad se crea un banco con las mismas cuentas y se realizan transferencias entre cuentas al azar (por lo
+ * que la mayoria son entre particiones cuando hay varias), mostrando las transferencias por segundo y la
+ * proporcion de transferencias entre particiones.
+ *
+ * Uso: java main.ShardedBankBenchmark [transferencias] [cuentas] [particiones maximas]
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class ShardedBankBenchmark {
+
+	private static final int BATCH = 4096;			//Transferencias en curso a la vez.
+
+	public static void main(String args[]) throws Exception {
+		int transfers = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		int accountCount = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+		int maxShards = (args.length > 2) ? Integer.parseInt(args[2]) : 2 * Runtime.getRuntime().availableProcessors();
+
+		System.out.println("Transferencias: " + transfers + ", cuentas: " + accountCount + ", procesadores: " + Runtime.getRuntime().availableProcessors());
+
+		for(int shardCount = 1; shardCount <= maxShards; shardCount *= 2) {
+			try(ShardedBank bank = new ShardedBank(shardCount)) {
+				String[] accountNumbers = new String[accountCount];
+
+				for(int i = 0; i < accountCount; ++i) {
+					accountNumbers[i] = Account.decode(10 * (i + 1) + 1);
+
+					try {
+						bank.addAccount(new CurrentAccount(Integer.MAX_VALUE, accountNumbers[i], 0));
+					} catch (WrongAccountNumber e) {
+						//Los numeros de cuenta de prueba siempre son validos
+					}
+				}
+
+				//Una primera ronda para que la JVM compile el codigo antes de medir
+				run(bank, accountNumbers, Math.min(transfers, 100000));
+
+				long start = System.nanoTime();
+				long cross = run(bank, accountNumbers, transfers);
+				double seconds = (System.nanoTime() - start) / 1e9;
+
+				System.out.printf("Particiones: %2d, transferencias por segundo: %10.0f, entre particiones: %5.1f%%%n",
+								  shardCount, transfers / seconds, 100.0 * cross / transfers);
+			}
+		}
+	}
+
+	/**
+	 * Realiza transferencias al azar en grupos, esperando que termine cada grupo antes de enviar el siguiente.
+	 * @return cantidad de transferencias entre particiones.
+	 * */
+	private static long run(ShardedBank bank, String[] accountNumbers, int transfers) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		CompletableFuture<?>[] pending = new CompletableFuture<?>[BATCH];
+		long cross = 0;
+
+		for(int done = 0; done < transfers; done += BATCH) {
+			int size = Math.min(BATCH, transfers - done);
+
+			for(int i = 0; i < size; ++i) {
+				String origin = accountNumbers[random.nextInt(accountNumbers.length)];
+				String destiny = accountNumbers[random.nextInt(accountNumbers.length)];
+
+				if(bank.shardOf(Account.encode(origin)) != bank.shardOf(Account.encode(destiny)))
+					++cross;
+
+				pending[i] = bank.transfer(origin, destiny, 100);
+			}
+
+			CompletableFuture.allOf(Arrays.copyOf(pending, size)).join();
+		}
+
+		return cross;
+	}
+}
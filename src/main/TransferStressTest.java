@@ -0,0 +1,131 @@
+package main;
+
+import model.*;
+import exceptions.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de estres de las transferencias concurrentes del banco: varios hilos realizan transferencias al azar
+ * entre pocas cuentas (para que compitan por los mismos candados), en ambos sentidos y por las tres entradas del
+ * banco (numeros de cuenta, numeros codificados y solicitudes con identificador), mientras otro hilo agrega y
+ * elimina cuentas ajenas a las transferencias. Al terminar comprueba que la suma de los saldos no cambio y que
+ * ningun hilo quedo bloqueado; si alguna comprobacion falla termina con un codigo de salida distinto de 0.
+ *
+ * Uso: java main.TransferStressTest [hilos] [transferencias por hilo] [cuentas]
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class TransferStressTest {
+
+	private static final long INITIAL_BALANCE = 5000;	//Saldo inicial de cada cuenta.
+	private static final long TIMEOUT_MILLIS = 5 * 60 * 1000;	//Tiempo maximo de la prueba antes de suponer un bloqueo.
+
+	public static void main(String args[]) throws Exception {
+		int threadCount = (args.length > 0) ? Integer.parseInt(args[0]) : 8;
+		int transfers = (args.length > 1) ? Integer.parseInt(args[1]) : 200000;
+		int accountCount = (args.length > 2) ? Integer.parseInt(args[2]) : 64;
+
+		Bank bank = new Bank();
+		Account[] accounts = new Account[accountCount];
+		long expected = 0;
+
+		//Cuentas sin cargos por transferencia, asi el dinero solo se mueve entre ellas
+		for(int i = 0; i < accountCount; ++i) {
+			String accountNumber = Account.decode(10 * (i + 1) + 1 + (i & 1));
+
+			if((i & 1) == 0)
+				accounts[i] = new CurrentAccount(INITIAL_BALANCE, accountNumber, 0);
+			else
+				accounts[i] = new SavingAccount(INITIAL_BALANCE, accountNumber, 0.01);
+
+			bank.addAccount(accounts[i]);
+			expected += INITIAL_BALANCE;
+		}
+
+		AtomicLong done = new AtomicLong();
+		AtomicLong rejected = new AtomicLong();
+		Thread[] threads = new Thread[threadCount + 1];
+
+		for(int t = 0; t < threadCount; ++t) {
+			final int thread = t;
+
+			threads[t] = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+
+				for(int i = 0; i < transfers; ++i) {
+					Account origin = accounts[random.nextInt(accountCount)];
+					Account destiny = accounts[random.nextInt(accountCount)];
+					int amount = 1 + random.nextInt(1000);
+					boolean transferred;
+
+					try {
+						switch(i % 3) {
+							case 0  : transferred = bank.transactionBetweenAccounts(origin.getAccountNumber(), destiny.getAccountNumber(), amount); break;
+							case 1  : transferred = bank.transactionBetweenAccounts(origin.getAccountKey(), destiny.getAccountKey(), amount); break;
+							default : transferred = bank.transactionBetweenAccounts(thread + "-" + i, origin.getAccountNumber(), destiny.getAccountNumber(), amount); break;
+						}
+					} catch (ExcessiveTransactionAmount e) {
+						transferred = false;
+						rejected.incrementAndGet();
+					}
+
+					if(transferred)
+						done.incrementAndGet();
+				}
+			}, "stress-" + t);
+		}
+
+		//Agrega y elimina cuentas sin saldo que no participan en las transferencias, asi el mapa de cuentas
+		//crece y se reordena mientras las transferencias lo leen
+		threads[threadCount] = new Thread(() -> {
+			int base = 10 * (accountCount + 1);
+
+			for(int round = 0; round < 50; ++round) {
+				for(int i = 0; i < 1000; ++i) {
+					try {
+						bank.addAccount(new CurrentAccount(Account.decode(base + 10 * i + 1)));
+					} catch (WrongAccountNumber e) {
+						//Los numeros de cuenta de prueba siempre son validos
+					}
+				}
+
+				for(int i = 0; i < 1000; ++i)
+					bank.removeAccount(Account.decode(base + 10 * i + 1));
+			}
+		}, "stress-accounts");
+
+		long start = System.nanoTime();
+		for(Thread thread : threads)
+			thread.start();
+
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		for(Thread thread : threads) {
+			thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+
+			if(thread.isAlive()) {
+				System.out.println("FALLO: el hilo " + thread.getName() + " no termino, posible bloqueo entre candados");
+				System.exit(2);
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		long total = 0;
+		for(Account account : accounts)
+			total += account.getBalance();
+
+		System.out.println("Hilos: " + threadCount + ", cuentas: " + accountCount + ", transferencias: " + (long) threadCount * transfers);
+		System.out.printf("Realizadas: %d, rechazadas por saldo: %d, transferencias por segundo: %.0f%n", done.get(), rejected.get(), (long) threadCount * transfers / seconds);
+		System.out.println("Saldo total esperado: " + expected + ", obtenido: " + total);
+		System.out.println("Cuentas en el banco: " + bank.getAccountCount() + " (esperadas " + accountCount + ")");
+
+		if((total != expected) || (bank.getAccountCount() != accountCount)) {
+			System.out.println("FALLO: el saldo total o la cantidad de cuentas cambio");
+			System.exit(1);
+		}
+
+		System.out.println("OK");
+	}
+}
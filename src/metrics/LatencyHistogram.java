@@ -0,0 +1,152 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase que modela un histograma de latencias de memoria fija y sin candados. Los valores (en nanosegundos) se
+ * cuentan en intervalos de escala logaritmica: cada potencia de 2 se divide en SUB_BUCKETS intervalos iguales,
+ * por lo que el error relativo de un percentil es menor a 1 / SUB_BUCKETS (1,6%) para cualquier valor. Los valores
+ * menores a 2 * SUB_BUCKETS se cuentan exactos y los mayores a MAX_VALUE se cuentan como MAX_VALUE.
+ *
+ * Registrar un valor es un incremento atomico en su intervalo mas un contador sumado por hilos, sin crear
+ * objetos. Las consultas recorren los intervalos sin detener a los que registran, por lo que con registros
+ * simultaneos pueden no incluir los ultimos valores.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class LatencyHistogram {
+
+	private static final int SUB_BITS = 6;								//Bits de la division de cada potencia de 2.
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;				//Intervalos por cada potencia de 2.
+	public static final long MAX_VALUE = (1L << 42) - 1;				//Mayor valor distinto que se cuenta (unos 73 minutos).
+	private static final int BUCKETS = bucketOf(MAX_VALUE) + 1;			//Cantidad total de intervalos.
+
+	private AtomicLongArray counts;				//Valores contados en cada intervalo.
+	private LongAdder total;					//Suma de los valores registrados.
+	private AtomicLong max;						//Mayor valor registrado.
+
+	/**
+	 * Constructor, crea el histograma vacio.
+	 * */
+	public LatencyHistogram() {
+		this.counts = new AtomicLongArray(BUCKETS);
+		this.total = new LongAdder();
+		this.max = new AtomicLong();
+	}
+
+	/**
+	 * Registra un valor.
+	 * @param nanos valor a registrar, los negativos se cuentan como 0.
+	 * */
+	public void record(long nanos) {
+		long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+
+		this.counts.getAndIncrement(bucketOf(value));
+		this.total.add(value);
+
+		//Solo se compite por el maximo cuando el valor lo supera, lo que es poco frecuente
+		long current = this.max.get();
+		while((value > current) && !this.max.compareAndSet(current, value))
+			current = this.max.get();
+	}
+
+	/**
+	 * @return cantidad de valores registrados.
+	 * */
+	public long getCount() {
+		long count = 0;
+
+		for(int i = 0; i < BUCKETS; ++i)
+			count += this.counts.get(i);
+
+		return count;
+	}
+
+	/**
+	 * @return promedio de los valores registrados, 0 si no hay.
+	 * */
+	public double getMean() {
+		long count = getCount();
+
+		return (count == 0) ? 0 : (double) this.total.sum() / count;
+	}
+
+	/**
+	 * @return mayor valor registrado, 0 si no hay.
+	 * */
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * Obtiene un percentil de los valores registrados: el mayor valor del intervalo que contiene al valor de esa
+	 * posicion, sin superar el maximo registrado.
+	 * @param percentile percentil entre 0 y 100 (por ejemplo 99.9).
+	 * @return valor del percentil, 0 si no hay valores.
+	 * */
+	public long getPercentile(double percentile) {
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+
+		for(int i = 0; i < BUCKETS; ++i) {
+			snapshot[i] = this.counts.get(i);
+			count += snapshot[i];
+		}
+
+		if(count == 0)
+			return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count));
+		long seen = 0;
+
+		for(int i = 0; i < BUCKETS; ++i) {
+			seen += snapshot[i];
+
+			if(seen >= rank)
+				return Math.min(highestValueOf(i), getMax());
+		}
+
+		return getMax();
+	}
+
+	/**
+	 * Vacia el histograma. Los valores que se registren mientras se vacia pueden quedar o no contados.
+	 * */
+	public void reset() {
+		for(int i = 0; i < BUCKETS; ++i)
+			this.counts.set(i, 0);
+
+		this.total.reset();
+		this.max.set(0);
+	}
+
+	/**
+	 * @return intervalo del valor ingresado, entre 0 y MAX_VALUE.
+	 * */
+	private static int bucketOf(long value) {
+		if(value < 2 * SUB_BUCKETS)
+			return (int) value;
+
+		//Se conservan los SUB_BITS + 1 bits mas altos: el primero indica la potencia y el resto el intervalo
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+
+		return shift * SUB_BUCKETS + (int) (value >>> shift);
+	}
+
+	/**
+	 * @return mayor valor que se cuenta en el intervalo ingresado.
+	 * */
+	private static long highestValueOf(int bucket) {
+		if(bucket < 2 * SUB_BUCKETS)
+			return bucket;
+
+		int shift = bucket / SUB_BUCKETS - 1;
+		long sub = bucket % SUB_BUCKETS + SUB_BUCKETS;
+
+		return ((sub + 1) << shift) - 1;
+	}
+}
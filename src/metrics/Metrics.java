@@ -0,0 +1,82 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Clase que guarda las estadisticas de todas las operaciones medidas de la aplicacion y las publica por JMX,
+ * cada una con el nombre "bankapp:type=<grupo>,name=<operacion>" (por ejemplo "bankapp:type=Bank,name=transfer"),
+ * para consultarlas con jconsole, VisualVM o cualquier cliente JMX local. Las estadisticas se comparten entre
+ * todas las instancias del grupo (por ejemplo todos los bancos de un ShardedBank).
+ *
+ * La medicion se desactiva iniciando la JVM con -Dbankapp.metrics=false; en ese caso start y stop no leen el
+ * reloj y la JVM elimina la medicion del codigo compilado.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class Metrics {
+
+	public static final boolean ENABLED = !"false".equals(System.getProperty("bankapp.metrics"));	//Indica si se mide.
+
+	private static final ConcurrentHashMap<String, OperationStats> operations = new ConcurrentHashMap<String, OperationStats>();
+
+	/**
+	 * Obtiene las estadisticas de una operacion, creandolas y publicandolas por JMX la primera vez. Se recomienda
+	 * guardar el resultado en un atributo estatico, asi medir la operacion no requiere buscarla.
+	 * @param group grupo de la operacion, normalmente la clase que la realiza.
+	 * @param name nombre de la operacion.
+	 * @return estadisticas de la operacion.
+	 * */
+	public static OperationStats operation(String group, String name) {
+		return operations.computeIfAbsent("bankapp:type=" + group + ",name=" + name, Metrics::register);
+	}
+
+	/**
+	 * @return momento de inicio de una operacion, 0 si no se mide.
+	 * */
+	public static long start() {
+		return ENABLED ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * @return estadisticas de todas las operaciones, ordenadas por nombre JMX.
+	 * */
+	public static ArrayList<OperationStats> getOperations() {
+		ArrayList<String> names = new ArrayList<String>(operations.keySet());
+		ArrayList<OperationStats> list = new ArrayList<OperationStats>(names.size());
+
+		names.sort(null);
+		for(String name : names)
+			list.add(operations.get(name));
+
+		return list;
+	}
+
+	/**
+	 * Crea las estadisticas de una operacion y las publica por JMX. Si no se pueden publicar (por ejemplo si
+	 * otra copia de la clase ya uso el nombre), la operacion se sigue midiendo igual.
+	 * */
+	private static OperationStats register(String objectName) {
+		OperationStats stats = new OperationStats(objectName.substring(objectName.indexOf("name=") + 5));
+
+		if(ENABLED) {
+			try {
+				MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+				ObjectName name = new ObjectName(objectName);
+
+				if(!server.isRegistered(name))
+					server.registerMBean(stats, name);
+			} catch (JMException e) {
+				//Las estadisticas se pueden consultar con getOperations aunque no esten publicadas
+			}
+		}
+
+		return stats;
+	}
+}
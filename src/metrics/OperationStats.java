@@ -0,0 +1,99 @@
+package metrics;
+
+/**
+ * Clase que guarda las estadisticas de una operacion: el histograma de sus tiempos y la cantidad de veces que se
+ * realizo. Las operaciones se miden con el patron:
+ *
+ * 	long start = Metrics.start();
+ * 	try {
+ * 		...
+ * 	} finally {
+ * 		STATS.stop(start);
+ * 	}
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class OperationStats implements OperationStatsMBean {
+
+	private String name;						//Nombre de la operacion.
+	private LatencyHistogram histogram;			//Tiempos de la operacion, en nanosegundos.
+	private volatile long since;				//Momento desde el que se cuentan las operaciones (System.nanoTime).
+
+	/**
+	 * Constructor, crea las estadisticas vacias.
+	 * @param name nombre de la operacion.
+	 * */
+	OperationStats(String name) {
+		this.name = name;
+		this.histogram = new LatencyHistogram();
+		this.since = System.nanoTime();
+	}
+
+	/**
+	 * Registra una operacion que comenzo en el momento ingresado y termina ahora.
+	 * @param start momento en que comenzo la operacion, obtenido con Metrics.start.
+	 * */
+	public void stop(long start) {
+		if(Metrics.ENABLED)
+			this.histogram.record(System.nanoTime() - start);
+	}
+
+	/**
+	 * @return nombre de la operacion.
+	 * */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return histograma de los tiempos de la operacion, en nanosegundos.
+	 * */
+	public LatencyHistogram getHistogram() {
+		return this.histogram;
+	}
+
+	@Override
+	public long getCount() {
+		return this.histogram.getCount();
+	}
+
+	@Override
+	public double getOperationsPerSecond() {
+		long elapsed = System.nanoTime() - this.since;
+
+		return (elapsed <= 0) ? 0 : getCount() * 1e9 / elapsed;
+	}
+
+	@Override
+	public double getMeanMicros() {
+		return this.histogram.getMean() / 1000;
+	}
+
+	@Override
+	public double getP50Micros() {
+		return this.histogram.getPercentile(50) / 1000.0;
+	}
+
+	@Override
+	public double getP99Micros() {
+		return this.histogram.getPercentile(99) / 1000.0;
+	}
+
+	@Override
+	public double getP999Micros() {
+		return this.histogram.getPercentile(99.9) / 1000.0;
+	}
+
+	@Override
+	public double getMaxMicros() {
+		return this.histogram.getMax() / 1000.0;
+	}
+
+	@Override
+	public void reset() {
+		this.histogram.reset();
+		this.since = System.nanoTime();
+	}
+}
@@ -0,0 +1,52 @@
+package metrics;
+
+/**
+ * Interfaz de administracion (JMX) de las estadisticas de una operacion. Los tiempos se entregan en
+ * microsegundos.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public interface OperationStatsMBean {
+
+	/**
+	 * @return cantidad de operaciones registradas desde el inicio o el ultimo reinicio.
+	 * */
+	public long getCount();
+
+	/**
+	 * @return operaciones por segundo desde el inicio o el ultimo reinicio.
+	 * */
+	public double getOperationsPerSecond();
+
+	/**
+	 * @return tiempo promedio de una operacion.
+	 * */
+	public double getMeanMicros();
+
+	/**
+	 * @return mediana del tiempo de una operacion.
+	 * */
+	public double getP50Micros();
+
+	/**
+	 * @return percentil 99 del tiempo de una operacion.
+	 * */
+	public double getP99Micros();
+
+	/**
+	 * @return percentil 99,9 del tiempo de una operacion.
+	 * */
+	public double getP999Micros();
+
+	/**
+	 * @return mayor tiempo de una operacion.
+	 * */
+	public double getMaxMicros();
+
+	/**
+	 * Vacia el histograma y reinicia la cuenta de operaciones por segundo.
+	 * */
+	public void reset();
+}
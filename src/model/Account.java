@@ -1,11 +1,17 @@
 package model;
 import exceptions.*;
-import java.util.LinkedList;
-import java.util.ListIterator;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
 
 /**
  * Clase que modela las funciones basicas de una cuenta bancaria generica, guardando el saldo de la cuenta,
  * su numero de cuenta y el historial de transacciones de la misma.
+ * El saldo se guarda como un entero de 64 bits en la unidad minima de la moneda (pesos), y todos los cargos y
+ * abonos se realizan con operaciones atomicas compare-and-set, por lo que leer el saldo nunca espera a un escritor.
  * 
  * @author DanSantos
  * @version 29-03-2020
@@ -13,9 +19,26 @@ import java.util.ListIterator;
 
 public abstract class Account implements Printable{
 
-	private int balance;							//Saldo de la cuenta.
+	private static final VarHandle BALANCE;			//Acceso atomico al saldo de la cuenta.
+	
+	static {
+		try {
+			BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balance", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	private volatile long balance;					//Saldo de la cuenta.
+	private volatile Bank owner;					//Banco en el que esta guardada la cuenta, null si no esta en ninguno.
+	private long indexedBalance;					//Saldo con el que la cuenta esta en el indice de saldos del banco.
 	private String accountNumber;					//Numero de cuenta 
-	private LinkedList<Transaction> history;		//Historial de movimientos de la cuenta (guarda los ultimos 20 movimientos)
+	private int accountKey;							//Numero de cuenta codificado como entero (ver encode)
+	public static final int DEFAULT_HISTORY_CAPACITY = 20;	//Cantidad de movimientos que guarda el historial por defecto.
+	
+	private TransactionHistory history;				//Historial de movimientos de la cuenta (guarda los ultimos movimientos)
+	volatile BalanceVersions.Entry versions;		//Versiones del saldo para las copias consistentes del banco
+	BalanceVersions.Commit pendingCommit;			//Confirmacion de la operacion en curso sobre la cuenta, si hay
 	
 	/**
 	* Contructor por defecto, inicializa el saldo en 0 y el numero de cuenta en "00000000-0"
@@ -23,7 +46,8 @@ public abstract class Account implements Printable{
 	public Account() {
 		this.balance = 0;
 		this.accountNumber = "00000000-0";
-		this.history = new LinkedList<Transaction>();
+		this.accountKey = 0;
+		this.history = new TransactionHistory(historyCapacity(), this);
 	}
 
 	/**
@@ -31,12 +55,15 @@ public abstract class Account implements Printable{
 	* @param newAccountNumber numero de cuenta, se asume que se haya validado
 	*/
 	public Account(String newAccountNumber) throws WrongAccountNumber{
-		if(!isValid(newAccountNumber))
+		int key = encode(newAccountNumber);				//Valida y codifica el numero de cuenta en una sola pasada
+		
+		if(key < 0)
 			throw new WrongAccountNumber();
 		
 		this.balance = 0;
 		this.accountNumber = newAccountNumber;
-		this.history = new LinkedList<Transaction>();
+		this.accountKey = key;
+		this.history = new TransactionHistory(historyCapacity(), this);
 	}
 	
 	/**
@@ -44,13 +71,25 @@ public abstract class Account implements Printable{
 	* @param initialBalance saldo inicial que tendra la cuenta
 	* @param newAccountNumber numero de cuenta, se asume que se haya validado
 	*/
-	public Account(int initialBalance, String newAccountNumber) throws WrongAccountNumber{
-		if(!isValid(newAccountNumber))
+	public Account(long initialBalance, String newAccountNumber) throws WrongAccountNumber{
+		int key = encode(newAccountNumber);				//Valida y codifica el numero de cuenta en una sola pasada
+		
+		if(key < 0)
 			throw new WrongAccountNumber();
 		
 		setBalance(initialBalance);
 		this.accountNumber = newAccountNumber;
-		this.history = new LinkedList<Transaction>();
+		this.accountKey = key;
+		this.history = new TransactionHistory(historyCapacity(), this);
+	}
+	
+	/**
+	 * Obtiene la cantidad de movimientos que guarda el historial de la cuenta, se llama al construir la cuenta,
+	 * por lo que las subclases deben retornar un valor que no dependa de sus atributos de instancia.
+	 * @return capacidad del historial.
+	 * */
+	protected int historyCapacity() {
+		return DEFAULT_HISTORY_CAPACITY;
 	}
 	
 	/**
@@ -64,8 +103,18 @@ public abstract class Account implements Printable{
 	 * @param asociatedAccount numero de cuenta que realizo el deposito 
 	 * */
 	public void depositFrom(int amount, Account asociatedAccount) {
-		setBalance(amount + getBalance());
-		addTransaction(amount, asociatedAccount);
+		depositFrom(amount, asociatedAccount, TransactionHistory.currentEpochDay());
+	}
+	
+	/**
+	 * Suma la cantidad al saldo con la fecha ingresada, la usa el banco al reconstruir transferencias registradas.
+	 * @param amount cantidad a depositar
+	 * @param asociatedAccount cuenta que realizo el deposito
+	 * @param day dia del deposito, en dias desde 1970-01-01
+	 * */
+	void depositFrom(int amount, Account asociatedAccount, int day) {
+		depositForTransfer(amount, day);
+		this.history.add(amount, day, (asociatedAccount != null) ? asociatedAccount.getAccountKey() : 0);
 	}
 	
 	/**
@@ -74,58 +123,342 @@ public abstract class Account implements Printable{
 	 * @param asociatedAccount numero de cuenta a la que se realiza la transferencia
 	 * */
 	public void transferTo(int amount, Account asociatedAccount) throws ExcessiveTransactionAmount{
-		if(amount > getBalance())
-			throw new ExcessiveTransactionAmount();
+		transferTo(amount, asociatedAccount, TransactionHistory.currentEpochDay());
+	}
+	
+	/**
+	 * Resta la cantidad del saldo con la fecha ingresada, la usa el banco al reconstruir transferencias registradas.
+	 * @param amount cantidad a transferir
+	 * @param asociatedAccount cuenta a la que se realiza la transferencia
+	 * @param day dia de la transferencia, en dias desde 1970-01-01
+	 * */
+	void transferTo(int amount, Account asociatedAccount, int day) throws ExcessiveTransactionAmount{
+		int charged = withdrawForTransfer(amount);
+		this.history.add(-charged, day, (asociatedAccount != null) ? asociatedAccount.getAccountKey() : 0);
+	}
+	
+	/**
+	 * Abona un deposito de una transferencia sin guardarlo en el historial, el historial se guarda aparte.
+	 * @param amount cantidad depositada.
+	 * */
+	void depositForTransfer(int amount) {
+		depositForTransfer(amount, TransactionHistory.currentEpochDay());
+	}
+	
+	/**
+	 * Abona un deposito de una transferencia realizada en el dia ingresado, sin guardarlo en el historial.
+	 * @param amount cantidad depositada.
+	 * @param day dia del deposito, en dias desde 1970-01-01.
+	 * */
+	void depositForTransfer(int amount, int day) {
+		credit(amount);
+		depositReceived(amount, day);
+	}
+	
+	/**
+	 * Descuenta una transferencia del saldo sin guardarla en el historial, el historial se guarda aparte.
+	 * @param amount cantidad transferida.
+	 * @return cantidad descontada, incluyendo los cargos propios del tipo de cuenta.
+	 * */
+	int withdrawForTransfer(int amount) throws ExcessiveTransactionAmount{
+		int charged = transferCharge(amount);
 		
-		setBalance(getBalance() - amount);
-		addTransaction(-amount, asociatedAccount);
+		debit(charged);
+		return charged;
 	}
 	
 	/**
-	 * Añade una nueva transaccion al historial de movimientos, si alcanzo el maximo se elimina la mas antigua
+	 * Obtiene la cantidad que se descuenta al transferir, las subclases agregan sus propios cargos.
+	 * @param amount cantidad transferida.
+	 * @return cantidad a descontar del saldo.
+	 * */
+	protected int transferCharge(int amount) {
+		return amount;
+	}
+	
+	/**
+	 * Se llama despues de abonar un deposito de una transferencia, las subclases lo usan para llevar sus
+	 * propios registros de depositos.
+	 * @param amount cantidad depositada.
+	 * */
+	protected void depositReceived(int amount) {
+	}
+	
+	/**
+	 * Se llama despues de abonar un deposito de una transferencia realizada en el dia ingresado; llama a
+	 * depositReceived(int), las cuentas que acumulan sus depositos por mes lo reemplazan para usar el dia.
+	 * @param amount cantidad depositada.
+	 * @param day dia del deposito, en dias desde 1970-01-01.
+	 * */
+	void depositReceived(int amount, int day) {
+		depositReceived(amount);
+	}
+	
+	/**
+	 * Abona atomicamente la cantidad ingresada al saldo.
+	 * @param amount cantidad a abonar.
+	 * */
+	protected void credit(long amount) {
+		long old = (long) BALANCE.getAndAdd(this, amount);
+		balanceChanged(old, old + amount);
+	}
+	
+	/**
+	 * Descuenta atomicamente la cantidad ingresada del saldo, solo si el saldo alcanza para cubrirla.
+	 * @param amount cantidad a descontar.
+	 * */
+	protected void debit(long amount) throws ExcessiveTransactionAmount{
+		long current;
+		
+		do {
+			current = this.balance;
+			
+			if(amount > current)
+				throw new ExcessiveTransactionAmount();
+		} while(!BALANCE.compareAndSet(this, current, current - amount));
+		
+		balanceChanged(current, current - amount);
+	}
+	
+	/**
+	 * Cobra atomicamente un cargo (por ejemplo el costo de mantencion), aunque el saldo quede negativo.
+	 * @param amount monto del cargo.
+	 * */
+	protected void charge(long amount) {
+		long old = (long) BALANCE.getAndAdd(this, -amount);
+		balanceChanged(old, old - amount);
+	}
+	
+	/**
+	 * Informa al banco de la cuenta (si esta en alguno) que el saldo cambio.
+	 * @param oldBalance saldo antes del cambio.
+	 * @param newBalance saldo despues del cambio.
+	 * */
+	private void balanceChanged(long oldBalance, long newBalance) {
+		Bank owner = this.owner;
+		
+		if(owner != null)
+			owner.balanceChanged(this, oldBalance, newBalance);
+	}
+	
+	/**
+	 * @return banco en el que esta guardada la cuenta, null si no esta en ninguno.
+	 * */
+	Bank getOwner() {
+		return this.owner;
+	}
+	
+	/**
+	 * @return saldo con el que la cuenta esta guardada en el indice de saldos del banco.
+	 * */
+	long getIndexedBalance() {
+		return this.indexedBalance;
+	}
+	
+	/**
+	 * @param indexedBalance saldo con el que la cuenta queda guardada en el indice de saldos del banco.
+	 * */
+	void setIndexedBalance(long indexedBalance) {
+		this.indexedBalance = indexedBalance;
+	}
+	
+	/**
+	 * Establece el banco en el que esta guardada la cuenta, lo usa el banco al agregarla o eliminarla.
+	 * @param owner banco de la cuenta, null si se elimino.
+	 * */
+	void setOwner(Bank owner) {
+		this.owner = owner;
+	}
+	
+	/**
+	 * Añade una nueva transaccion al historial de movimientos, si alcanzo el maximo se reemplaza la mas antigua.
+	 * No crea objetos: se guarda el monto, el dia y el numero de cuenta codificado de la cuenta asociada.
 	 * @param amount monto relacionado con la transaccion
 	 * @param asociatedAccount asociada a la transaccion
 	 * */
 	public void addTransaction(int amount, Account asociatedAccount) {
-		if(this.history.size() >= 20)
-			this.history.remove(0);
-		
-		this.history.add(new Transaction(amount, asociatedAccount));
+		this.history.add(amount, (asociatedAccount != null) ? asociatedAccount.getAccountKey() : 0);
 	}
 	
 	/**
-	 * Comprueba que el numero de cuenta ingresado es un numero de cuenta valido.
+	 * Comprueba que el numero de cuenta ingresado es un numero de cuenta valido: ocho digitos, un guion y el
+	 * digito del tipo de cuenta (1 o 2). No crea objetos, por lo que acepta cualquier secuencia de caracteres.
 	 * @param accountNumber numero de cuenta a validar.
 	 * @return true si es un numero de cuenta valido, false en caso contrario.
 	 * */
-	public final static boolean isValid(String accountNumber) {
-		boolean isValid = true;
+	public final static boolean isValid(CharSequence accountNumber) {
+		return encode(accountNumber) >= 0;
+	}
+	
+	/**
+	 * Comprueba que los 10 bytes desde la posicion ingresada sean un numero de cuenta valido, escrito con un
+	 * byte por caracter (ASCII).
+	 * @param bytes arreglo que contiene el numero de cuenta.
+	 * @param offset posicion del primer caracter del numero de cuenta.
+	 * @return true si es un numero de cuenta valido, false en caso contrario.
+	 * */
+	public final static boolean isValid(byte[] bytes, int offset) {
+		return encode(bytes, offset) >= 0;
+	}
+	
+	/**
+	 * Comprueba que los 10 bytes desde la posicion absoluta ingresada del buffer sean un numero de cuenta
+	 * valido, escrito con un byte por caracter (ASCII). No modifica la posicion del buffer.
+	 * @param buffer buffer que contiene el numero de cuenta.
+	 * @param index posicion absoluta del primer caracter del numero de cuenta.
+	 * @return true si es un numero de cuenta valido, false en caso contrario.
+	 * */
+	public final static boolean isValid(ByteBuffer buffer, int index) {
+		return encode(buffer, index) >= 0;
+	}
+	
+	/**
+	 * Codifica un numero de cuenta como un entero: los ocho digitos seguidos del digito del tipo de cuenta
+	 * ("12345678-1" se codifica como 123456781). Las cuentas validas siempre tienen una clave positiva.
+	 * @param accountNumber numero de cuenta a codificar.
+	 * @return numero de cuenta codificado, -1 si el numero de cuenta no es valido.
+	 * */
+	public final static int encode(CharSequence accountNumber) {
+		if((accountNumber == null) || (accountNumber.length() != 10) || (accountNumber.charAt(8) != '-'))
+			return -1;
 		
-		if(accountNumber.length() != 10) {							//Si tiene un largo distinto que un numero de cuenta valido
-			isValid = false;											//no es valida
-		}
-		else if(accountNumber.charAt(8) != '-') {					//Si no tiene el guion en la posicion correspondiente
-			isValid = false;											//no es valida
+		int key = 0;
+		
+		for(int i = 0; i < 10; ++i) {
+			if(i == 8)
+				continue;
+			
+			int digit = accountNumber.charAt(i) - '0';
+			
+			if((digit < 0) || (digit > 9))
+				return -1;
+			
+			key = 10 * key + digit;
 		}
-		else if(Account.getTypeAccount(accountNumber) == TypeAccount.NO_VALID) {		//Si tiene un digito identificador del tipo de cuenta no valido
-			isValid = false;																//no es valida
+		
+		return checkType(key);
+	}
+	
+	/**
+	 * Codifica el numero de cuenta escrito en los 10 bytes desde la posicion ingresada (ver encode).
+	 * @param bytes arreglo que contiene el numero de cuenta, un byte por caracter (ASCII).
+	 * @param offset posicion del primer caracter del numero de cuenta.
+	 * @return numero de cuenta codificado, -1 si el numero de cuenta no es valido o no cabe en el arreglo.
+	 * */
+	public final static int encode(byte[] bytes, int offset) {
+		if((offset < 0) || (offset > bytes.length - 10) || (bytes[offset + 8] != '-'))
+			return -1;
+		
+		int key = 0;
+		
+		for(int i = 0; i < 10; ++i) {
+			if(i == 8)
+				continue;
+			
+			int digit = bytes[offset + i] - '0';
+			
+			if((digit < 0) || (digit > 9))
+				return -1;
+			
+			key = 10 * key + digit;
 		}
-		else {														//Si algun caracter no es un digito
-			for(int i = 0; i < 8; ++i) {								//no es valida
-				if(!Character.isDigit(accountNumber.charAt(i))) {
-					isValid = false;
-					break;
-				}
-			}
+		
+		return checkType(key);
+	}
+	
+	/**
+	 * Codifica el numero de cuenta escrito en los 10 bytes desde la posicion absoluta ingresada del buffer
+	 * (ver encode). No modifica la posicion del buffer.
+	 * @param buffer buffer que contiene el numero de cuenta, un byte por caracter (ASCII).
+	 * @param index posicion absoluta del primer caracter del numero de cuenta.
+	 * @return numero de cuenta codificado, -1 si el numero de cuenta no es valido o no cabe en el buffer.
+	 * */
+	public final static int encode(ByteBuffer buffer, int index) {
+		if((index < 0) || (index > buffer.limit() - 10) || (buffer.get(index + 8) != '-'))
+			return -1;
+		
+		int key = 0;
+		
+		for(int i = 0; i < 10; ++i) {
+			if(i == 8)
+				continue;
+			
+			int digit = buffer.get(index + i) - '0';
+			
+			if((digit < 0) || (digit > 9))
+				return -1;
+			
+			key = 10 * key + digit;
 		}
+		
+		return checkType(key);
+	}
+	
+	/**
+	 * Valida y codifica en una sola pasada los numeros de cuenta de un buffer de importacion, escritos con un
+	 * byte por caracter a intervalos fijos desde la posicion actual del buffer (por ejemplo un numero por linea,
+	 * con stride 11). No crea objetos ni modifica la posicion del buffer.
+	 * @param buffer buffer que contiene los numeros de cuenta.
+	 * @param stride bytes entre el inicio de un numero de cuenta y el del siguiente, al menos 10.
+	 * @param keys arreglo donde se guarda el numero codificado de cada numero de cuenta, -1 si no es valido.
+	 * Se procesan tantos numeros como quepan en el arreglo o en el buffer.
+	 * @return cantidad de numeros de cuenta validos.
+	 * */
+	public final static int encodeAll(ByteBuffer buffer, int stride, int[] keys) {
+		if(stride < 10)
+			throw new IllegalArgumentException("El intervalo debe ser de al menos 10 bytes");
+		
+		int start = buffer.position();
+		int available = buffer.limit() - start;
+		int count = (available < 10) ? 0 : Math.min(keys.length, (available - 10) / stride + 1);
+		int valid = 0;
+		
+		for(int i = 0, index = start; i < count; ++i, index += stride) {
+			int key = encode(buffer, index);
 			
-		return isValid;
+			keys[i] = key;
+			if(key >= 0)
+				++valid;
+		}
+		
+		return valid;
+	}
+	
+	/**
+	 * Comprueba el digito del tipo de cuenta de un numero codificado, solo los digitos 1 y 2 son validos.
+	 * @param key numero de cuenta codificado, sin validar el tipo.
+	 * @return el numero codificado si el tipo es valido, -1 en caso contrario.
+	 * */
+	private static int checkType(int key) {
+		int type = key % 10;
+		
+		return ((type == 1) || (type == 2)) ? key : -1;
+	}
+	
+	/**
+	 * Decodifica un numero de cuenta codificado con encode.
+	 * @param accountKey numero de cuenta codificado.
+	 * @return numero de cuenta con el formato "12345678-1".
+	 * */
+	public final static String decode(int accountKey) {
+		char[] accountNumber = new char[10];
+		
+		accountNumber[9] = (char) ('0' + (accountKey % 10));
+		accountNumber[8] = '-';
+		accountKey /= 10;
+		
+		for(int i = 7; i >= 0; --i) {
+			accountNumber[i] = (char) ('0' + (accountKey % 10));
+			accountKey /= 10;
+		}
+		
+		return new String(accountNumber);
 	}
 	
 	/**
 	* @return saldo actual de la cuenta
 	*/
-	public int getBalance() {
+	public long getBalance() {
 		return this.balance;
 	}
 
@@ -136,12 +469,19 @@ public abstract class Account implements Printable{
 		return this.accountNumber;
 	}
 
+	/**
+	 * @return numero de la cuenta codificado como entero (ver encode).
+	 * */
+	public int getAccountKey() {
+		return this.accountKey;
+	}
+
 	/**
 	* Obtiene el tipo de cuenta (cuenta rut o cuenta de ahorros)
 	* @return tipo de cuenta
 	*/
 	public TypeAccount getTypeAccount() {
-		return Account.getTypeAccount(this.accountNumber);
+		return Account.getTypeAccount(this.accountKey);
 	}
 
 	/**
@@ -150,8 +490,36 @@ public abstract class Account implements Printable{
 	* @param accountNumber numero de cuenta de la que se desea saber el tipo de cuenta
 	* @return tipo de cuenta de la cuenta ingresada como parametro
 	*/
-	public final static TypeAccount getTypeAccount(String accountNumber) {
-		switch(accountNumber.charAt(9))
+	public final static TypeAccount getTypeAccount(CharSequence accountNumber) {
+		return typeOf(accountNumber.charAt(9));
+	}
+	
+	/**
+	 * Obtiene el tipo de cuenta del numero de cuenta escrito en los 10 bytes desde la posicion ingresada,
+	 * se asume que ya se ha validado.
+	 * @param bytes arreglo que contiene el numero de cuenta, un byte por caracter (ASCII).
+	 * @param offset posicion del primer caracter del numero de cuenta.
+	 * @return tipo de cuenta del numero de cuenta.
+	 * */
+	public final static TypeAccount getTypeAccount(byte[] bytes, int offset) {
+		return typeOf((char) bytes[offset + 9]);
+	}
+	
+	/**
+	 * Obtiene el tipo de cuenta de un numero de cuenta codificado con encode.
+	 * @param accountKey numero de cuenta codificado.
+	 * @return tipo de cuenta del numero de cuenta.
+	 * */
+	public final static TypeAccount getTypeAccount(int accountKey) {
+		return (accountKey < 0) ? TypeAccount.NO_VALID : typeOf((char) ('0' + accountKey % 10));
+	}
+	
+	/**
+	 * @param digit digito del tipo de cuenta.
+	 * @return tipo de cuenta correspondiente al digito.
+	 * */
+	private static TypeAccount typeOf(char digit) {
+		switch(digit)
 		{
 			case '1' : return TypeAccount.RUT_ACCOUNT;
 			case '2' : return TypeAccount.SAVING_ACCOUNT;
@@ -160,19 +528,40 @@ public abstract class Account implements Printable{
 	}
 	
 	/**
-	 * Obtiene una interador de la lista del historial de transacciones.
+	 * Obtiene una interador del historial de transacciones, desde la mas antigua a la mas reciente. Cada
+	 * transaccion se crea al momento de recorrerla.
 	 * @return iterador del historial de transacciones.
 	 * */
-	public ListIterator<Transaction> getHistory() {
-		 return this.history.listIterator();
+	public Iterator<Transaction> getHistory() {
+		 return this.history.iterator();
+	}
+	
+	/**
+	 * Obtiene una pagina del historial completo de transacciones, incluyendo las que el banco guardo fuera de
+	 * memoria por ser antiguas.
+	 * @param page numero de pagina, la pagina 0 contiene las transacciones mas recientes.
+	 * @param pageSize cantidad de transacciones por pagina.
+	 * @return transacciones de la pagina, desde la mas reciente a la mas antigua.
+	 * */
+	public ArrayList<Transaction> getHistory(int page, int pageSize) {
+		return this.history.getPage(page, pageSize);
+	}
+	
+	/**
+	 * Obtiene el historial de transacciones, permite recorrer sus columnas por indice sin crear objetos.
+	 * @return historial de transacciones de la cuenta.
+	 * */
+	public TransactionHistory getTransactionHistory() {
+		return this.history;
 	}
 
 	/**
 	* Establece el saldo de la cuenta
 	* @param newBalance nuevo saldo de la cuenta
 	*/
-	public void setBalance(int newBalance) {
-		this.balance = newBalance;
+	public void setBalance(long newBalance) {
+		long old = (long) BALANCE.getAndSet(this, newBalance);
+		balanceChanged(old, newBalance);
 	}
 	
 	/**
@@ -180,10 +569,13 @@ public abstract class Account implements Printable{
 	 * @param newAccountNumber nuevo numero de cuenta.
 	 * */
 	public void setAccountNumber(String newAccountNumber) throws WrongAccountNumber{
-		if(!isValid(newAccountNumber))
+		int key = encode(newAccountNumber);				//Valida y codifica el numero de cuenta en una sola pasada
+		
+		if(key < 0)
 			throw new WrongAccountNumber();
 		
 		this.accountNumber = newAccountNumber;
+		this.accountKey = key;
 	}
 
 	/**
@@ -200,14 +592,13 @@ public abstract class Account implements Printable{
 	public void showEspecificInfo() {
 		System.out.println("Saldo: $" + getBalance() + "\nNumero de cuenta: " + getAccountNumber());
 		
-		int numTransaction = 1;
+		TransactionHistory history = this.history;
+		int size = history.size();
 		
-		for(Transaction transaction : this.history) {
-			System.out.print(numTransaction + ") Monto: " + transaction.getAmount());
-			System.out.print(" - Cuenta: " + transaction.getAddressee().getAccountNumber());
-			System.out.println(" - Fecha: " + transaction.getDate().toString());
-			
-			numTransaction++;
+		for(int i = 0; i < size; ++i) {
+			System.out.print((i + 1) + ") Monto: " + history.getAmount(i));
+			System.out.print(" - Cuenta: " + Account.decode(history.getCounterparty(i)));
+			System.out.println(" - Fecha: " + LocalDate.ofEpochDay(history.getEpochDay(i)).toString());
 		}
 	}
 }
\ No newline at end of file
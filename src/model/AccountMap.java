@@ -0,0 +1,247 @@
+package model;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Clase que modela un mapa de cuentas con claves primitivas, usando direccionamiento abierto con sondeo lineal.
+ * La clave de una cuenta es su numero de cuenta codificado como entero (ver Account.encode), por lo que cada
+ * entrada ocupa solo un int y una referencia, sin nodos ni claves String adicionales.
+ * Las lecturas son optimistas: se realizan sin candado y solo se repiten con el candado de lectura si una
+ * escritura ocurrio al mismo tiempo. Las escrituras toman el candado de escritura.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+class AccountMap {
+
+	private static final int EMPTY = 0;					//Clave de una posicion vacia (ninguna cuenta valida tiene clave 0).
+	private static final int MIN_CAPACITY = 16;			//Capacidad minima de la tabla (potencia de 2).
+
+	/**
+	 * Tabla del mapa, se reemplaza completa al crecer.
+	 * */
+	private static final class Table {
+		final int[] keys;								//Claves de las cuentas, EMPTY si la posicion esta vacia.
+		final Account[] values;							//Cuentas guardadas.
+		final int mask;									//Mascara para obtener la posicion a partir del hash.
+
+		Table(int capacity) {
+			this.keys = new int[capacity];
+			this.values = new Account[capacity];
+			this.mask = capacity - 1;
+		}
+	}
+
+	private volatile Table table;						//Tabla actual del mapa.
+	private int size;									//Cantidad de cuentas guardadas.
+	private StampedLock lock;							//Candado de las escrituras y de las lecturas no optimistas.
+
+	/**
+	 * Constructor, crea el mapa vacio con la capacidad minima.
+	 * */
+	AccountMap() {
+		this.table = new Table(MIN_CAPACITY);
+		this.lock = new StampedLock();
+	}
+
+	/**
+	 * @param key clave de la cuenta.
+	 * @return cuenta asociada a la clave, null si no existe.
+	 * */
+	Account get(int key) {
+		if(key <= EMPTY)
+			return null;
+
+		long stamp = this.lock.tryOptimisticRead();
+		Account account = find(this.table, key);
+
+		if(!this.lock.validate(stamp)) {
+			stamp = this.lock.readLock();
+			try {
+				account = find(this.table, key);
+			} finally {
+				this.lock.unlockRead(stamp);
+			}
+		}
+
+		return account;
+	}
+
+	/**
+	 * Agrega la cuenta si no hay otra con la misma clave.
+	 * @param key clave de la cuenta.
+	 * @param account cuenta a agregar.
+	 * @return cuenta que ya estaba asociada a la clave, null si se agrego la nueva.
+	 * */
+	Account putIfAbsent(int key, Account account) {
+		if(key <= EMPTY)
+			throw new IllegalArgumentException("Clave de cuenta no valida");
+
+		long stamp = this.lock.writeLock();
+		try {
+			Table table = this.table;
+			int index = indexOf(table, key);
+
+			while(table.keys[index] != EMPTY) {
+				if(table.keys[index] == key)
+					return table.values[index];
+
+				index = (index + 1) & table.mask;
+			}
+
+			//Se crece la tabla al superar 5/8 de ocupacion
+			if(8 * (this.size + 1) > 5 * table.keys.length) {
+				table = resize(table);
+				index = indexOf(table, key);
+
+				while(table.keys[index] != EMPTY)
+					index = (index + 1) & table.mask;
+			}
+
+			table.values[index] = account;
+			table.keys[index] = key;
+			this.size++;
+
+			return null;
+		} finally {
+			this.lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Elimina la cuenta asociada a la clave. Las entradas siguientes se desplazan hacia atras para no dejar
+	 * marcas de eliminacion en la tabla.
+	 * @param key clave de la cuenta.
+	 * @return cuenta eliminada, null si no existia.
+	 * */
+	Account remove(int key) {
+		if(key <= EMPTY)
+			return null;
+
+		long stamp = this.lock.writeLock();
+		try {
+			Table table = this.table;
+			int index = indexOf(table, key);
+
+			while(table.keys[index] != key) {
+				if(table.keys[index] == EMPTY)
+					return null;
+
+				index = (index + 1) & table.mask;
+			}
+
+			Account removed = table.values[index];
+			int hole = index;
+
+			//Se mueven hacia el hueco las entradas cuya posicion ideal no esta entre el hueco y su posicion actual
+			for(int next = (hole + 1) & table.mask; table.keys[next] != EMPTY; next = (next + 1) & table.mask) {
+				int ideal = indexOf(table, table.keys[next]);
+
+				if(((next - ideal) & table.mask) >= ((next - hole) & table.mask)) {
+					table.keys[hole] = table.keys[next];
+					table.values[hole] = table.values[next];
+					hole = next;
+				}
+			}
+
+			table.keys[hole] = EMPTY;
+			table.values[hole] = null;
+			this.size--;
+
+			return removed;
+		} finally {
+			this.lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * @return cantidad de cuentas guardadas.
+	 * */
+	int size() {
+		long stamp = this.lock.readLock();
+		try {
+			return this.size;
+		} finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Obtiene una copia de las cuentas guardadas, tomada con el candado de lectura para que ninguna cuenta
+	 * se repita ni se omita por una escritura simultanea.
+	 * @return arreglo con las cuentas guardadas.
+	 * */
+	Account[] values() {
+		long stamp = this.lock.readLock();
+		try {
+			Table table = this.table;
+			Account[] values = new Account[this.size];
+			int next = 0;
+
+			for(int i = 0; i < table.keys.length; ++i) {
+				if(table.keys[i] != EMPTY)
+					values[next++] = table.values[i];
+			}
+
+			return values;
+		} finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Busca la cuenta asociada a la clave, el recorrido se limita al largo de la tabla para terminar aunque
+	 * se lea una tabla que esta siendo modificada.
+	 * */
+	private static Account find(Table table, int key) {
+		int index = indexOf(table, key);
+
+		for(int probes = 0; probes <= table.mask; ++probes) {
+			int current = table.keys[index];
+
+			if(current == key)
+				return table.values[index];
+
+			if(current == EMPTY)
+				return null;
+
+			index = (index + 1) & table.mask;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Crea una tabla del doble de capacidad con las mismas entradas, y la establece como la tabla actual.
+	 * */
+	private Table resize(Table old) {
+		Table table = new Table(2 * old.keys.length);
+
+		for(int i = 0; i < old.keys.length; ++i) {
+			int key = old.keys[i];
+
+			if(key != EMPTY) {
+				int index = indexOf(table, key);
+
+				while(table.keys[index] != EMPTY)
+					index = (index + 1) & table.mask;
+
+				table.keys[index] = key;
+				table.values[index] = old.values[i];
+			}
+		}
+
+		this.table = table;
+		return table;
+	}
+
+	/**
+	 * @return posicion ideal de la clave en la tabla.
+	 * */
+	private static int indexOf(Table table, int key) {
+		int hash = key * 0x9E3779B9;
+
+		return (hash ^ (hash >>> 16)) & table.mask;
+	}
+}
@@ -10,6 +10,7 @@ package model;
 public class Addressee {
 	
 	private Account asociatedAccount;		//Cuenta asociada del destinatario.
+	private int accountKey;					//Numero de cuenta codificado, se usa si la cuenta asociada ya no existe (0 si no hay).
 	private String name;					//Nombre asociado del destinatario.
 	private boolean favorite;				//Indica si el destinatario se guardo como favorito.
 	
@@ -25,9 +26,7 @@ public class Addressee {
 	 * @param asociatedAccount numero de cuenta inicial del destinatario 
 	 * */
 	public Addressee(Account asociatedAccount) {
-		this.asociatedAccount = asociatedAccount;
-		this.name = "";
-		this.favorite = false;
+		this(asociatedAccount, "", false);
 	}
 	
 	/**
@@ -43,10 +42,23 @@ public class Addressee {
 	}
 	
 	/**
-	 * @return el numero de cuenta del destinatario
+	 * Constructor de un destinatario cuya cuenta ya no existe en el banco, solo guarda su numero codificado. Lo
+	 * usan las transacciones cuya cuenta asociada se elimino.
+	 * @param accountKey numero de cuenta codificado (ver Account.encode).
+	 * */
+	Addressee(int accountKey) {
+		this(null);
+		this.accountKey = accountKey;
+	}
+	
+	/**
+	 * @return el numero de cuenta del destinatario, null si no tiene cuenta asociada
 	 * */
 	public String getAccountNumber() {
-		return this.asociatedAccount.getAccountNumber();
+		if(this.asociatedAccount != null)
+			return this.asociatedAccount.getAccountNumber();
+		
+		return (this.accountKey != 0) ? Account.decode(this.accountKey) : null;
 	}
 	
 	/**
@@ -68,6 +80,7 @@ public class Addressee {
 	 * */
 	public void setAccount(Account newAsociatedAccount) {
 		this.asociatedAccount = newAsociatedAccount;
+		this.accountKey = 0;
 	}
 	
 	/**
@@ -84,4 +97,3 @@ public class Addressee {
 		this.favorite = isFavorite;
 	}
 }
-
@@ -0,0 +1,130 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Clase que modela un indice ordenado de las cuentas por saldo, para responder consultas por rango de saldo
+ * en O(log n + k) en vez de recorrer todas las cuentas. Contar las cuentas de un rango tambien recorre sus k
+ * entradas (la lista de saltos no guarda posiciones), solo evita crear la lista. Cada cuenta aparece una vez,
+ * ordenada por su saldo y, en caso de empate, por su numero de cuenta codificado.
+ * El banco actualiza el indice con el candado de la cuenta tomado: de inmediato en sus propias operaciones, y
+ * antes de cada consulta para las cuentas cuyo saldo cambio sin el candado. El indice guarda en cada cuenta el
+ * saldo con el que esta indexada y vuelve a leer el saldo actual al actualizarse, por lo que queda correcto
+ * aunque los avisos de cambio lleguen en otro orden que los cambios.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+class BalanceIndex {
+
+	/**
+	 * Entrada del indice: saldo y clave de la cuenta.
+	 * */
+	private static final class Entry implements Comparable<Entry> {
+		final long balance;								//Saldo con el que se indexo la cuenta.
+		final int key;									//Numero de cuenta codificado.
+		final Account account;							//Cuenta indexada, null en las entradas usadas como limites.
+
+		Entry(long balance, int key, Account account) {
+			this.balance = balance;
+			this.key = key;
+			this.account = account;
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			int order = Long.compare(this.balance, other.balance);
+
+			return (order != 0) ? order : Integer.compare(this.key, other.key);
+		}
+	}
+
+	private ConcurrentSkipListSet<Entry> entries;		//Entradas ordenadas por saldo.
+
+	/**
+	 * Constructor, crea el indice vacio.
+	 * */
+	BalanceIndex() {
+		this.entries = new ConcurrentSkipListSet<Entry>();
+	}
+
+	/**
+	 * Agrega una cuenta al indice con su saldo actual, se debe llamar con el candado de la cuenta tomado.
+	 * @param account cuenta a agregar.
+	 * */
+	void add(Account account) {
+		long balance = account.getBalance();
+
+		account.setIndexedBalance(balance);
+		this.entries.add(new Entry(balance, account.getAccountKey(), account));
+	}
+
+	/**
+	 * Elimina una cuenta del indice, se debe llamar con el candado de la cuenta tomado.
+	 * @param account cuenta a eliminar.
+	 * */
+	void remove(Account account) {
+		this.entries.remove(new Entry(account.getIndexedBalance(), account.getAccountKey(), null));
+	}
+
+	/**
+	 * Reubica la cuenta en el indice segun su saldo actual, se debe llamar con el candado de la cuenta tomado.
+	 * @param account cuenta cuyo saldo cambio.
+	 * */
+	void update(Account account) {
+		long balance = account.getBalance();
+
+		if(balance != account.getIndexedBalance()) {
+			remove(account);
+			account.setIndexedBalance(balance);
+			this.entries.add(new Entry(balance, account.getAccountKey(), account));
+		}
+	}
+
+	/**
+	 * Obtiene las cuentas con saldo dentro del rango, ordenadas por saldo.
+	 * @param lowerLimit saldo minimo (inclusivo).
+	 * @param upperLimit saldo maximo (inclusivo).
+	 * @param descending true para ordenar de mayor a menor saldo, false de menor a mayor.
+	 * @return lista de cuentas dentro del rango.
+	 * */
+	ArrayList<Account> range(long lowerLimit, long upperLimit, boolean descending) {
+		ArrayList<Account> accounts = new ArrayList<Account>();
+		NavigableSet<Entry> range = subSet(lowerLimit, upperLimit);
+
+		for(Entry entry : descending ? range.descendingSet() : range)
+			accounts.add(entry.account);
+
+		return accounts;
+	}
+
+	/**
+	 * Cuenta las cuentas con saldo dentro del rango, recorriendolas sin crear la lista de cuentas, O(log n + k).
+	 * @param lowerLimit saldo minimo (inclusivo).
+	 * @param upperLimit saldo maximo (inclusivo).
+	 * @return cantidad de cuentas dentro del rango.
+	 * */
+	int count(long lowerLimit, long upperLimit) {
+		int count = 0;
+
+		for(Iterator<Entry> iterator = subSet(lowerLimit, upperLimit).iterator(); iterator.hasNext(); iterator.next())
+			count++;
+
+		return count;
+	}
+
+	/**
+	 * @return vista de las entradas con saldo dentro del rango ingresado.
+	 * */
+	private NavigableSet<Entry> subSet(long lowerLimit, long upperLimit) {
+		if(lowerLimit > upperLimit)
+			return new ConcurrentSkipListSet<Entry>();
+
+		return this.entries.subSet(new Entry(lowerLimit, Integer.MIN_VALUE, null), true,
+								   new Entry(upperLimit, Integer.MAX_VALUE, null), true);
+	}
+}
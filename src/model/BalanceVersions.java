@@ -0,0 +1,287 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clase que guarda las versiones de los saldos de las cuentas de un banco, para las copias consistentes
+ * (BankSnapshot). Cada cuenta tiene una lista de versiones de su saldo, de la mas reciente a la mas antigua; cada
+ * version pertenece a una confirmacion, y todas las versiones de una misma operacion (por ejemplo las dos cuentas
+ * de una transferencia) comparten la confirmacion. Al confirmar una operacion se le asigna el siguiente numero
+ * de version del banco, por lo que una copia abierta en la version V ve exactamente las operaciones
+ * confirmadas hasta V, sin bloquear a las operaciones que siguen.
+ *
+ * Las versiones se agregan con el candado de la cuenta tomado. Al agregar una version se descartan las versiones
+ * antiguas que ya no necesita ninguna copia abierta: se conserva solo la version mas reciente confirmada hasta
+ * el limite de descarte (la menor version protegida por una copia abierta, o la version actual si no hay) y las
+ * posteriores. Las cuentas eliminadas se conservan aparte mientras alguna copia abierta pueda verlas.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+final class BalanceVersions {
+
+	private static final long ACTIVE = Long.MAX_VALUE;	//Estado de una confirmacion en curso.
+	private static final long COMMITTING = -1;			//Estado de una confirmacion obteniendo su version.
+
+	/**
+	 * Clase que modela la confirmacion de una operacion: en curso, obteniendo su version o confirmada.
+	 * */
+	static final class Commit {
+		volatile long version = ACTIVE;					//Version asignada, ACTIVE o COMMITTING si aun no tiene.
+	}
+
+	/**
+	 * Clase que modela una version del saldo de una cuenta.
+	 * */
+	static final class Entry {
+		final Commit commit;							//Confirmacion de la operacion que escribio la version.
+		final long balance;								//Saldo de la cuenta en la version.
+		final boolean removed;							//Indica si la operacion elimino la cuenta del banco.
+		volatile Entry older;							//Version anterior, null si no hay o se descarto.
+
+		Entry(Commit commit, long balance, boolean removed, Entry older) {
+			this.commit = commit;
+			this.balance = balance;
+			this.removed = removed;
+			this.older = older;
+		}
+	}
+
+	private AtomicLong clock;							//Ultima version asignada.
+	private ReentrantLock registryLock;					//Candado de la lista de copias abiertas.
+	private ArrayList<BankSnapshot> open;				//Copias abiertas.
+	private volatile long horizon;						//Menor version protegida por una copia abierta, Long.MAX_VALUE si no hay.
+	private ConcurrentLinkedQueue<Account> retired;		//Cuentas eliminadas que aun puede ver alguna copia.
+
+	/**
+	 * Constructor, comienza en la version 0 sin copias abiertas.
+	 * */
+	BalanceVersions() {
+		this.clock = new AtomicLong();
+		this.registryLock = new ReentrantLock();
+		this.open = new ArrayList<BankSnapshot>();
+		this.horizon = Long.MAX_VALUE;
+		this.retired = new ConcurrentLinkedQueue<Account>();
+	}
+
+	/**
+	 * Comienza una operacion sobre dos cuentas, con los candados de ambas tomados: las versiones que se agreguen
+	 * a sus saldos hasta llamar a commit pertenecen a la misma confirmacion.
+	 * @return confirmacion de la operacion.
+	 * */
+	Commit begin(Account first, Account second) {
+		Commit commit = new Commit();
+
+		first.pendingCommit = commit;
+		second.pendingCommit = commit;
+
+		return commit;
+	}
+
+	/**
+	 * Termina una operacion comenzada con begin y la confirma, con los candados de ambas cuentas aun tomados.
+	 * */
+	void commit(Commit commit, Account first, Account second) {
+		first.pendingCommit = null;
+		second.pendingCommit = null;
+		publish(commit);
+	}
+
+	/**
+	 * Agrega una version con el saldo actual de la cuenta, se llama con el candado de la cuenta tomado despues de
+	 * cada cambio de saldo. Si la cuenta no es parte de una operacion comenzada con begin, el cambio se confirma
+	 * de inmediato.
+	 * */
+	void record(Account account) {
+		Commit commit = account.pendingCommit;
+
+		if(commit != null) {
+			push(account, commit, false);
+		}
+		else {
+			commit = new Commit();
+			push(account, commit, false);
+			publish(commit);
+		}
+	}
+
+	/**
+	 * Agrega la version de una cuenta recien agregada al banco, con el candado de la cuenta tomado. Si la cuenta
+	 * se habia eliminado antes, la version se agrega sobre su lista anterior, asi una copia abierta antes de la
+	 * eliminacion sigue viendo el saldo que tenia.
+	 * */
+	void added(Account account) {
+		Commit commit = new Commit();
+
+		push(account, commit, false);
+		publish(commit);
+	}
+
+	/**
+	 * Agrega la version que marca la eliminacion de una cuenta, con el candado de la cuenta tomado y antes de
+	 * sacarla del mapa de cuentas, asi una copia que ya no la encuentra en el mapa la encuentra aqui.
+	 * */
+	void removed(Account account) {
+		Commit commit = new Commit();
+
+		push(account, commit, true);
+		this.retired.add(account);
+		publish(commit);
+		pruneRetired();
+	}
+
+	/**
+	 * Registra una copia nueva y obtiene su version. La copia protege la version actual antes de leerla, por lo
+	 * que ninguna operacion descarta versiones que la copia necesite.
+	 * @return version de la copia.
+	 * */
+	long open(BankSnapshot snapshot) {
+		this.registryLock.lock();
+		try {
+			long protectedVersion = this.clock.get();
+
+			snapshot.protectedVersion = protectedVersion;
+			this.open.add(snapshot);
+			this.horizon = Math.min(this.horizon, protectedVersion);
+		} finally {
+			this.registryLock.unlock();
+		}
+
+		return this.clock.get();
+	}
+
+	/**
+	 * Quita una copia de las copias abiertas, desde ese momento se pueden descartar las versiones que solo ella
+	 * necesitaba.
+	 * */
+	void close(BankSnapshot snapshot) {
+		this.registryLock.lock();
+		try {
+			if(!this.open.remove(snapshot))
+				return;
+
+			long horizon = Long.MAX_VALUE;
+			for(BankSnapshot other : this.open)
+				horizon = Math.min(horizon, other.protectedVersion);
+
+			this.horizon = horizon;
+		} finally {
+			this.registryLock.unlock();
+		}
+
+		pruneRetired();
+	}
+
+	/**
+	 * @return cantidad de copias abiertas.
+	 * */
+	int getOpenCount() {
+		this.registryLock.lock();
+		try {
+			return this.open.size();
+		} finally {
+			this.registryLock.unlock();
+		}
+	}
+
+	/**
+	 * @return cuentas eliminadas que aun puede ver alguna copia.
+	 * */
+	Iterable<Account> retired() {
+		return this.retired;
+	}
+
+	/**
+	 * Busca la version del saldo de la cuenta que ve una copia.
+	 * @param account cuenta a buscar.
+	 * @param version version de la copia.
+	 * @return version mas reciente confirmada hasta la version ingresada, null si la cuenta no existia.
+	 * */
+	static Entry find(Account account, long version) {
+		for(Entry entry = account.versions; entry != null; entry = entry.older) {
+			if(versionOf(entry.commit) <= version)
+				return entry.removed ? null : entry;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Asigna la siguiente version a la confirmacion. El estado intermedio COMMITTING asegura que una copia que ve
+	 * la confirmacion en curso ACTIVE no la pueda ver despues con una version menor o igual a la suya.
+	 * */
+	private void publish(Commit commit) {
+		commit.version = COMMITTING;
+		commit.version = this.clock.incrementAndGet();
+	}
+
+	/**
+	 * Agrega una version al inicio de la lista de la cuenta y descarta las que ya no se necesitan.
+	 * */
+	private void push(Account account, Commit commit, boolean removed) {
+		Entry head = new Entry(commit, account.getBalance(), removed, account.versions);
+		long limit = limit();
+
+		account.versions = head;
+
+		for(Entry entry = head; entry != null; entry = entry.older) {
+			long version = entry.commit.version;
+
+			if((version != COMMITTING) && (version <= limit)) {
+				entry.older = null;
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Descarta las cuentas eliminadas cuya ultima version ya ven todas las copias: si es la eliminacion ninguna
+	 * copia las ve, y si se volvieron a agregar todas las encuentran en el mapa de cuentas.
+	 * */
+	private void pruneRetired() {
+		long limit = limit();
+		Iterator<Account> iterator = this.retired.iterator();
+
+		while(iterator.hasNext()) {
+			Entry head = iterator.next().versions;
+
+			if((head == null) || ((head.commit.version != COMMITTING) && (head.commit.version <= limit)))
+				iterator.remove();
+		}
+	}
+
+	/**
+	 * Obtiene el limite de descarte. Se lee la version actual antes que la proteccion de las copias: una copia
+	 * que se registra despues obtiene una version mayor o igual a la leida.
+	 * @return menor version que puede necesitar una copia abierta o que se abra despues.
+	 * */
+	private long limit() {
+		long current = this.clock.get();
+
+		return Math.min(current, this.horizon);
+	}
+
+	/**
+	 * @return version de la confirmacion, ACTIVE si aun esta en curso. Si esta obteniendo su version se espera
+	 * a que la obtenga, lo que toma solo unas instrucciones.
+	 * */
+	private static long versionOf(Commit commit) {
+		long version = commit.version;
+
+		for(int spins = 0; version == COMMITTING; ++spins) {
+			if(spins < 64)
+				Thread.onSpinWait();
+			else
+				Thread.yield();
+
+			version = commit.version;
+		}
+
+		return version;
+	}
+}
@@ -1,11 +1,25 @@
 package model;
-import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import exceptions.*;
+import metrics.*;
 
 /**
- * Clase principal de la aplicacion
+ * Clase principal de la aplicacion.
+ * Las transferencias pueden realizarse desde varios hilos a la vez: cada cuenta se protege con uno de los
+ * candados de un arreglo fijo (lock striping), y los candados de una transferencia se toman siempre en orden
+ * creciente de indice, por lo que dos transferencias cruzadas nunca se bloquean mutuamente. El mapa de cuentas
+ * es concurrente, por lo que agregar o eliminar una cuenta solo toma el candado de esa cuenta.
  * 
  * @author DanSantos
  * @version 04-04-2020
@@ -13,8 +27,41 @@ import exceptions.*;
 
 public class Bank {
 
-	private HashMap <String, Account> accounts;				//Cuentas guardadas del sistema
+	public static final long NO_TRANSFER = Long.MIN_VALUE;	//Resultado de transferAndGetBalance si alguna cuenta no existe
+	
+	private static final int LOCK_STRIPES = 1024;			//Cantidad de candados para proteger las cuentas (potencia de 2)
+	private static final int IMPOSITION_PARTITION = 4096;	//Cuentas por particion en las imposiciones en paralelo
+	
+	//Tiempos de las operaciones del banco, compartidos por todos los bancos y publicados por JMX (ver Metrics)
+	private static final OperationStats ADD_ACCOUNT = Metrics.operation("Bank", "addAccount");
+	private static final OperationStats ADD_ACCOUNTS = Metrics.operation("Bank", "addAccounts");
+	private static final OperationStats REMOVE_ACCOUNT = Metrics.operation("Bank", "removeAccount");
+	private static final OperationStats EXISTS_ACCOUNT = Metrics.operation("Bank", "existsAccount");
+	private static final OperationStats TRANSFER = Metrics.operation("Bank", "transfer");
+	private static final OperationStats TRANSFER_REQUEST = Metrics.operation("Bank", "transferRequest");
+	private static final OperationStats APPLY_TRANSFERS = Metrics.operation("Bank", "applyTransfers");
+	private static final OperationStats GET_ACCOUNT = Metrics.operation("Bank", "getAccount");
+	private static final OperationStats GET_ACCOUNT_COUNT = Metrics.operation("Bank", "getAccountCount");
+	private static final OperationStats BALANCE_RANK = Metrics.operation("Bank", "getAccountBalanceRank");
+	private static final OperationStats COUNT_BALANCE_RANK = Metrics.operation("Bank", "countAccountBalanceRank");
+	private static final OperationStats OPEN_SNAPSHOT = Metrics.operation("Bank", "openSnapshot");
+	private static final OperationStats IMPOSITIONS = Metrics.operation("Bank", "makeImpositions");
+	private static final OperationStats IMPOSITIONS_PARALLEL = Metrics.operation("Bank", "makeImpositionsParallel");
+	private static final OperationStats CAPTURE = Metrics.operation("Bank", "capture");
+	
+	private AccountMap accounts;							//Cuentas guardadas del sistema, por numero de cuenta codificado
+	private BalanceIndex balanceIndex;						//Cuentas ordenadas por saldo, para las consultas por rango
+	private ReentrantLock[] locks;							//Candados de las cuentas, se elige uno segun el numero de cuenta
 	private Client client;									//Guarda la informacion del cliente actual de la aplicacion
+	private volatile MutationLog log;						//Registro de modificaciones del banco, null si no se registran
+	private volatile HistoryStore historyStore;				//Almacenamiento de las transacciones antiguas, null si se descartan
+	private volatile TransferRequestCache requests;			//Resultados de las transferencias con identificador de solicitud
+	private Set<String> changedAccounts;					//Cuentas agregadas o modificadas desde el ultimo punto de control
+	private Set<String> removedAccounts;					//Cuentas eliminadas desde el ultimo punto de control
+	private Set<Account> unindexedAccounts;					//Cuentas con cambios de saldo sin candado, pendientes de indexar
+	private ConcurrentHashMap<Long, PreparedTransfer> preparedTransfers;	//Reservas entre particiones sin terminar, reconstruidas del registro
+	private ConcurrentHashMap<Long, Boolean> transferDecisions;			//Decisiones de transferencias entre particiones recibidas, reconstruidas del registro
+	private BalanceVersions versions;						//Versiones de los saldos, para las copias consistentes
 	
 	/**
 	 * Constructor prederminado de la clase, instancia los atributos objeto.
@@ -28,8 +75,20 @@ public class Bank {
 	 * @param client cliente inicial.
 	 * */
 	public Bank(Client client) {
-		this.accounts = new HashMap<String, Account>();
+		this.accounts = new AccountMap();
+		this.balanceIndex = new BalanceIndex();
+		this.locks = new ReentrantLock[LOCK_STRIPES];
 		this.client = client;
+		this.changedAccounts = ConcurrentHashMap.newKeySet();
+		this.removedAccounts = ConcurrentHashMap.newKeySet();
+		this.unindexedAccounts = ConcurrentHashMap.newKeySet();
+		this.preparedTransfers = new ConcurrentHashMap<Long, PreparedTransfer>();
+		this.transferDecisions = new ConcurrentHashMap<Long, Boolean>();
+		this.versions = new BalanceVersions();
+		this.requests = new TransferRequestCache(TransferRequestCache.DEFAULT_CAPACITY, TransferRequestCache.DEFAULT_EXPIRATION_MILLIS);
+		
+		for(int i = 0; i < LOCK_STRIPES; ++i)
+			this.locks[i] = new ReentrantLock();
 	}
 	
 	/**
@@ -37,8 +96,80 @@ public class Bank {
 	 * @param account nueva cuenta a ingresar al mapa
 	 * */
 	public void addAccount(Account account) {
-		if(!this.accounts.containsKey(account.getAccountNumber()))
-			this.accounts.put(account.getAccountNumber(), account);
+		long start = Metrics.start();
+		try {
+			MutationLog log = this.log;
+			long sequence = insertAccount(account, log);
+			
+			if(sequence > 0)
+				log.awaitCommit(sequence);
+		} finally {
+			ADD_ACCOUNT.stop(start);
+		}
+	}
+	
+	/**
+	 * Agrega un lote de cuentas al mapa de cuentas. Cada cuenta se agrega igual que con addAccount, pero se
+	 * espera una sola vez a que el registro de modificaciones confirme el lote completo.
+	 * @param batch cuentas a agregar.
+	 * @return indica por cada cuenta del lote, en el mismo orden, si se agrego (false si su numero no es valido
+	 * o ya habia una cuenta con el mismo numero).
+	 * */
+	public boolean[] addAccounts(List<Account> batch) {
+		long start = Metrics.start();
+		try {
+			MutationLog log = this.log;
+			boolean[] added = new boolean[batch.size()];
+			long lastSequence = 0;
+			
+			for(int i = 0; i < added.length; ++i) {
+				long sequence = insertAccount(batch.get(i), log);
+				
+				added[i] = sequence >= 0;
+				lastSequence = Math.max(lastSequence, sequence);
+			}
+			
+			if(lastSequence > 0)
+				log.awaitCommit(lastSequence);
+			
+			return added;
+		} finally {
+			ADD_ACCOUNTS.stop(start);
+		}
+	}
+	
+	/**
+	 * Agrega la cuenta al mapa de cuentas si no hay otra con el mismo numero, sin esperar la confirmacion del
+	 * registro de modificaciones.
+	 * @return secuencia de la modificacion registrada, 0 si no se registro, -1 si no se agrego la cuenta.
+	 * */
+	private long insertAccount(Account account, MutationLog log) {
+		int key = account.getAccountKey();
+		
+		if(key <= 0)
+			return -1;
+		
+		ReentrantLock lock = lockOf(key);
+		
+		//Se registra con el candado tomado, asi ninguna transferencia a la cuenta queda registrada antes
+		lock.lock();
+		try {
+			if(log != null)
+				log.checkWritable();
+			
+			if(this.accounts.putIfAbsent(key, account) != null)
+				return -1;
+			
+			account.setOwner(this);
+			this.versions.added(account);
+			this.balanceIndex.add(account);
+			this.removedAccounts.remove(account.getAccountNumber());
+			this.changedAccounts.add(account.getAccountNumber());
+			
+			return (log != null) ? log.logAddAccount(account) : 0;
+		} finally {
+			lock.unlock();
+		}
 	}
 	
 	/**
@@ -46,8 +177,41 @@ public class Bank {
 	 * @param accountNumber numero de la cuenta a eliminar.
 	 * */
 	public void removeAccount(String accountNumber) {
-		if(this.accounts.containsKey(accountNumber)) {
-			this.accounts.remove(accountNumber);
+		long start = Metrics.start();
+		try {
+			MutationLog log = this.log;
+			int key = Account.encode(accountNumber);
+			ReentrantLock lock = lockOf(key);
+			long sequence = 0;
+			
+			lock.lock();
+			try {
+				Account account = this.accounts.get(key);
+				
+				if(account != null) {
+					if(log != null)
+						log.checkWritable();
+					
+					//La version de eliminacion se agrega antes de sacar la cuenta, asi las copias abiertas la encuentran
+					this.versions.removed(account);
+					this.accounts.remove(key);
+					account.setOwner(null);
+					this.balanceIndex.remove(account);
+					this.unindexedAccounts.remove(account);
+					this.changedAccounts.remove(accountNumber);
+					this.removedAccounts.add(accountNumber);
+					
+					if(log != null)
+						sequence = log.logRemoveAccount(accountNumber);
+				}
+			} finally {
+				lock.unlock();
+			}
+			
+			if(sequence != 0)
+				log.awaitCommit(sequence);
+		} finally {
+			REMOVE_ACCOUNT.stop(start);
 		}
 	}
 	
@@ -56,23 +220,499 @@ public class Bank {
 	 * @return true si esta guardada la cuenta, false en caso contrario.
 	 * */
 	public boolean existsAccount(String accountNumber) {
-		return this.accounts.containsKey(accountNumber);
+		long start = Metrics.start();
+		try {
+			return this.accounts.get(Account.encode(accountNumber)) != null;
+		} finally {
+			EXISTS_ACCOUNT.stop(start);
+		}
+	}
+	
+	/**
+	 * Comprueba que exista una cuenta guardada asociada al numero de cuenta codificado ingresado.
+	 * @param accountKey numero de cuenta codificado (ver Account.encode).
+	 * @return true si esta guardada la cuenta, false en caso contrario.
+	 * */
+	public boolean existsAccount(int accountKey) {
+		long start = Metrics.start();
+		try {
+			return this.accounts.get(accountKey) != null;
+		} finally {
+			EXISTS_ACCOUNT.stop(start);
+		}
 	}
 	
 	/**
 	 * Realiza una transaccion entra la cuenta origen hacia la cuenta destino, transfiriendo el
 	 * monto especificado, se valida que las dos cuentas esten en el sistema.
+	 * Mientras dura la transaccion se mantienen tomados los candados de ambas cuentas, si hay un registro
+	 * de modificaciones, la transaccion se registra con los candados tomados y se espera a que se guarde
+	 * despues de liberarlos, de modo que varias transacciones concurrentes comparten una misma escritura.
 	 * @param originAccount cuenta de origen de los fondos.
 	 * @param destinyAccount cuenta destino en la que depositaran los fondos.
 	 * @param amount monto asociado a la transaccion.
+	 * @return true si ambas cuentas existen y se realizo la transaccion, false si alguna no existe.
 	 * */
-	public void transactionBetweenAccounts(String originAccountNumber, String destinyAccountNumber, int amount) throws ExcessiveTransactionAmount{
-		if(existsAccount(originAccountNumber) && existsAccount(destinyAccountNumber)) {
-			Account originAccount = this.accounts.get(originAccountNumber);
-			Account destinyAccount = this.accounts.get(destinyAccountNumber);
+	public boolean transactionBetweenAccounts(String originAccountNumber, String destinyAccountNumber, int amount) throws ExcessiveTransactionAmount{
+		return transactionBetweenAccounts(Account.encode(originAccountNumber), Account.encode(destinyAccountNumber), amount);
+	}
+	
+	/**
+	 * Realiza una transaccion entre dos cuentas identificadas por su numero de cuenta codificado, evita
+	 * decodificar los numeros de cuenta cuando el llamador ya los tiene codificados.
+	 * @param originAccountKey numero codificado de la cuenta de origen de los fondos.
+	 * @param destinyAccountKey numero codificado de la cuenta destino.
+	 * @param amount monto asociado a la transaccion.
+	 * @return true si ambas cuentas existen y se realizo la transaccion, false si alguna no existe.
+	 * */
+	public boolean transactionBetweenAccounts(int originAccountKey, int destinyAccountKey, int amount) throws ExcessiveTransactionAmount{
+		long start = Metrics.start();
+		try {
+			return transfer(originAccountKey, destinyAccountKey, amount);
+		} finally {
+			TRANSFER.stop(start);
+		}
+	}
+	
+	/**
+	 * Realiza una transaccion entre dos cuentas igual que transactionBetweenAccounts, y obtiene el saldo de la
+	 * cuenta de origen leido con los candados de la transferencia aun tomados, asi no incluye los cambios que
+	 * otras operaciones hagan despues.
+	 * @param originAccountKey numero codificado de la cuenta de origen de los fondos.
+	 * @param destinyAccountKey numero codificado de la cuenta destino.
+	 * @param amount monto asociado a la transaccion.
+	 * @return saldo de la cuenta de origen justo despues de la transaccion, NO_TRANSFER si alguna cuenta no existe.
+	 * */
+	public long transferAndGetBalance(int originAccountKey, int destinyAccountKey, int amount) throws ExcessiveTransactionAmount{
+		long start = Metrics.start();
+		try {
+			return transfer(originAccountKey, destinyAccountKey, amount, TransactionHistory.currentEpochDay());
+		} finally {
+			TRANSFER.stop(start);
+		}
+	}
+	
+	/**
+	 * Reconstruye una transferencia registrada: igual que transactionBetweenAccounts con numeros codificados, pero
+	 * el movimiento se guarda en los historiales y en los depositos del mes de las cuentas con la fecha del
+	 * registro en vez de la fecha actual. La usa la reconstruccion desde el registro de modificaciones.
+	 * @param originAccountKey numero codificado de la cuenta de origen de los fondos.
+	 * @param destinyAccountKey numero codificado de la cuenta destino.
+	 * @param amount monto asociado a la transaccion.
+	 * @param epochDay dia en que se realizo la transferencia, en dias desde 1970-01-01.
+	 * @return true si ambas cuentas existen y se realizo la transaccion, false si alguna no existe.
+	 * */
+	public boolean replayTransfer(int originAccountKey, int destinyAccountKey, int amount, int epochDay) throws ExcessiveTransactionAmount{
+		long start = Metrics.start();
+		try {
+			return transfer(originAccountKey, destinyAccountKey, amount, epochDay) != NO_TRANSFER;
+		} finally {
+			TRANSFER.stop(start);
+		}
+	}
+	
+	/**
+	 * Realiza una transaccion entre dos cuentas sin medir su tiempo, asi las operaciones que la usan internamente
+	 * (transferencias con identificador y lotes) no la cuentan dos veces en las estadisticas.
+	 * @see #transactionBetweenAccounts(int, int, int)
+	 * */
+	private boolean transfer(int originAccountKey, int destinyAccountKey, int amount) throws ExcessiveTransactionAmount{
+		return transfer(originAccountKey, destinyAccountKey, amount, TransactionHistory.currentEpochDay()) != NO_TRANSFER;
+	}
+	
+	/**
+	 * Realiza una transaccion entre dos cuentas con la fecha ingresada, sin medir su tiempo.
+	 * @param epochDay dia de la transaccion, en dias desde 1970-01-01.
+	 * @return saldo de la cuenta de origen leido con los candados tomados, NO_TRANSFER si alguna cuenta no existe.
+	 * */
+	private long transfer(int originAccountKey, int destinyAccountKey, int amount, int epochDay) throws ExcessiveTransactionAmount{
+		TransferEvent event = new TransferEvent();
+		TransferStatus outcome = null;
+		
+		event.begin();
+		try {
+			Account originAccount = this.accounts.get(originAccountKey);
+			Account destinyAccount = this.accounts.get(destinyAccountKey);
+			
+			if((originAccount != null) && (destinyAccount != null)) {
+				MutationLog log = this.log;
+				long sequence = 0;
+				long balance;
+				ReentrantLock first = lockOf(originAccountKey);
+				ReentrantLock second = lockOf(destinyAccountKey);
+				
+				//Se toman los candados en orden de indice, asi todas las transferencias los piden en el mismo orden
+				if(indexOf(originAccountKey) > indexOf(destinyAccountKey)) {
+					ReentrantLock aux = first;
+					first = second;
+					second = aux;
+				}
+				
+				first.lock();
+				second.lock();		//si ambas cuentas comparten candado solo aumenta el contador del ReentrantLock
+				try {
+					//Si alguna cuenta se elimino mientras se esperaban los candados, no se realiza la transaccion
+					if((this.accounts.get(originAccountKey) != originAccount) || (this.accounts.get(destinyAccountKey) != destinyAccount)) {
+						outcome = TransferStatus.ACCOUNT_NOT_FOUND;
+						return NO_TRANSFER;
+					}
+					
+					//Si el registro ya no guarda modificaciones, la transferencia no se aplica
+					if(log != null)
+						log.checkWritable();
+					
+					//Ambos cambios de saldo se confirman juntos, las copias consistentes ven los dos o ninguno
+					BalanceVersions.Commit commit = this.versions.begin(originAccount, destinyAccount);
+					try {
+						originAccount.transferTo(amount, destinyAccount, epochDay);
+						destinyAccount.depositFrom(amount, originAccount, epochDay);
+					} finally {
+						this.versions.commit(commit, originAccount, destinyAccount);
+					}
+					
+					if(log != null)
+						sequence = log.logTransfer(originAccount.getAccountNumber(), destinyAccount.getAccountNumber(), amount, epochDay);
+					
+					balance = originAccount.getBalance();
+				} finally {
+					second.unlock();
+					first.unlock();
+				}
+				
+				if(sequence != 0)
+					log.awaitCommit(sequence);
+				
+				outcome = TransferStatus.DONE;
+				return balance;
+			}
 			
-			originAccount.transferTo(amount, destinyAccount);
-			destinyAccount.depositFrom(amount, originAccount);
+			outcome = TransferStatus.ACCOUNT_NOT_FOUND;
+			return NO_TRANSFER;
+		} catch (ExcessiveTransactionAmount e) {
+			outcome = TransferStatus.EXCESSIVE_AMOUNT;
+			throw e;
+		} finally {
+			event.finish(originAccountKey, destinyAccountKey, amount, outcome);
+		}
+	}
+	
+	/**
+	 * Reserva de una transferencia entre particiones reconstruida del registro, que aun no se termina.
+	 * */
+	static final class PreparedTransfer {
+		final long id;									//Identificador de la transferencia.
+		final int originKey;							//Numero codificado de la cuenta de origen.
+		final int destinyKey;							//Numero codificado de la cuenta destino.
+		final int reserved;								//Cantidad reservada de la cuenta de origen.
+		
+		PreparedTransfer(long id, int originKey, int destinyKey, int reserved) {
+			this.id = id;
+			this.originKey = originKey;
+			this.destinyKey = destinyKey;
+			this.reserved = reserved;
+		}
+	}
+	
+	/**
+	 * Reconstruye la reserva de una transferencia entre particiones (ShardedBank): descuenta la reserva de la
+	 * cuenta de origen y la guarda como pendiente hasta reconstruir su confirmacion o anulacion. La usa la
+	 * reconstruccion desde el registro de modificaciones.
+	 * @param transferId identificador de la transferencia.
+	 * @param originAccountKey numero codificado de la cuenta de origen.
+	 * @param destinyAccountKey numero codificado de la cuenta destino.
+	 * @param reserved cantidad reservada.
+	 * */
+	public void replayPrepare(long transferId, int originAccountKey, int destinyAccountKey, int reserved) {
+		Account origin = this.accounts.get(originAccountKey);
+		
+		if(origin != null)
+			origin.setBalance(origin.getBalance() - reserved);
+		
+		this.preparedTransfers.put(transferId, new PreparedTransfer(transferId, originAccountKey, destinyAccountKey, reserved));
+	}
+	
+	/**
+	 * Reconstruye la confirmacion o anulacion de una transferencia entre particiones: abona el monto a la cuenta.
+	 * En la particion de origen termina la reserva pendiente; en la particion destino guarda la decision, que
+	 * usa ShardedBank.resolveInDoubt para terminar las reservas que quedaron pendientes en la de origen. La usa la
+	 * reconstruccion desde el registro de modificaciones.
+	 * @param transferId identificador de la transferencia.
+	 * @param accountKey numero codificado de la cuenta a la que se abona el monto.
+	 * @param amount monto abonado.
+	 * @param committed true si la transferencia se confirmo, false si se anulo.
+	 * */
+	public void replayDecision(long transferId, int accountKey, int amount, boolean committed) {
+		Account account = this.accounts.get(accountKey);
+		
+		if((account != null) && (amount != 0))
+			account.setBalance(account.getBalance() + amount);
+		
+		if(this.preparedTransfers.remove(transferId) == null)
+			this.transferDecisions.put(transferId, committed);
+	}
+	
+	/**
+	 * @return reservas de transferencias entre particiones reconstruidas del registro que no se terminaron.
+	 * */
+	ArrayList<PreparedTransfer> getPreparedTransfers() {
+		return new ArrayList<PreparedTransfer>(this.preparedTransfers.values());
+	}
+	
+	/**
+	 * Termina una reserva pendiente.
+	 * @param transferId identificador de la transferencia.
+	 * */
+	void removePreparedTransfer(long transferId) {
+		this.preparedTransfers.remove(transferId);
+	}
+	
+	/**
+	 * @param transferId identificador de la transferencia.
+	 * @return decision reconstruida de la transferencia (true si se confirmo), null si no se registro ninguna.
+	 * */
+	Boolean getTransferDecision(long transferId) {
+		return this.transferDecisions.get(transferId);
+	}
+	
+	/**
+	 * Descarta las decisiones reconstruidas, despues de resolver las reservas pendientes.
+	 * */
+	void clearTransferDecisions() {
+		this.transferDecisions.clear();
+	}
+	
+	/**
+	 * Realiza una transaccion identificada por una solicitud del cliente, de modo que reintentarla no vuelve a
+	 * mover el dinero: si ya se realizo una transaccion con el mismo identificador (y su resultado no expiro), se
+	 * entrega el resultado original sin tocar las cuentas, y si aun se esta realizando se espera a que termine.
+	 * @param requestId identificador de la solicitud, null para realizar la transaccion sin identificador.
+	 * @param originAccountNumber numero de la cuenta de origen de los fondos.
+	 * @param destinyAccountNumber numero de la cuenta destino.
+	 * @param amount monto asociado a la transaccion.
+	 * @return true si ambas cuentas existen y se realizo la transaccion, false si alguna no existe.
+	 * */
+	public boolean transactionBetweenAccounts(String requestId, String originAccountNumber, String destinyAccountNumber, int amount) throws ExcessiveTransactionAmount{
+		if(requestId == null)
+			return transactionBetweenAccounts(originAccountNumber, destinyAccountNumber, amount);
+		
+		long start = Metrics.start();
+		try {
+			TransferRequestCache requests = this.requests;
+			CompletableFuture<TransferResult> pending = new CompletableFuture<TransferResult>();
+			CompletableFuture<TransferResult> previous = requests.claim(requestId, pending);
+			TransferResult result;
+			
+			if(previous == null) {
+				try {
+					result = applyTransfer(new Transfer(originAccountNumber, destinyAccountNumber, amount));
+				} catch (RuntimeException | Error e) {
+					//Ante un error inesperado no se guarda el resultado, asi un reintento vuelve a intentarlo
+					requests.discard(requestId, pending);
+					pending.completeExceptionally(e);
+					throw e;
+				}
+				
+				pending.complete(result);
+			}
+			else {
+				try {
+					result = previous.join();
+				} catch (CompletionException e) {
+					if(e.getCause() instanceof RuntimeException)
+						throw (RuntimeException) e.getCause();
+					
+					throw e;
+				}
+			}
+			
+			//Cada reintento recibe su propia excepcion (con la original como causa), asi los llamadores
+			//concurrentes no comparten ni modifican la misma instancia
+			if(result.getStatus() == TransferStatus.EXCESSIVE_AMOUNT) {
+				if(previous == null)
+					throw result.getError();
+				
+				ExcessiveTransactionAmount error = new ExcessiveTransactionAmount();
+				error.initCause(result.getError());
+				throw error;
+			}
+			
+			return result.isSuccessful();
+		} finally {
+			TRANSFER_REQUEST.stop(start);
+		}
+	}
+	
+	/**
+	 * Establece la capacidad y el tiempo de expiracion de los resultados guardados de las transacciones con
+	 * identificador de solicitud, descartando los resultados guardados hasta ahora.
+	 * @param capacity cantidad maxima de resultados guardados.
+	 * @param expirationMillis milisegundos que se guarda cada resultado, los reintentos posteriores se realizan
+	 * como transacciones nuevas.
+	 * */
+	public void setRequestCache(int capacity, long expirationMillis) {
+		this.requests = new TransferRequestCache(capacity, expirationMillis);
+	}
+	
+	/**
+	 * Aplica un lote de transferencias usando el pool comun de fork-join.
+	 * @param batch transferencias a aplicar.
+	 * @return resultado de cada transferencia, en el mismo orden del lote.
+	 * */
+	public ArrayList<TransferResult> applyTransfers(List<Transfer> batch) {
+		return applyTransfers(batch, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Aplica un lote de transferencias en paralelo. El lote se separa en grupos de transferencias que no
+	 * comparten cuentas con los demas grupos; los grupos se ejecutan en paralelo en el pool ingresado, y las
+	 * transferencias de un mismo grupo se ejecutan en su orden original.
+	 * @param batch transferencias a aplicar.
+	 * @param pool pool en el que se ejecutaran los grupos.
+	 * @return resultado de cada transferencia, en el mismo orden del lote.
+	 * */
+	public ArrayList<TransferResult> applyTransfers(List<Transfer> batch, ForkJoinPool pool) {
+		long start = Metrics.start();
+		try {
+			TransferResult[] results = new TransferResult[batch.size()];
+			ArrayList<int[]> groups = groupDisjointTransfers(batch);
+			
+			pool.invoke(new TransferGroupTask(batch, groups, results, 0, groups.size()));
+			
+			ArrayList<TransferResult> list = new ArrayList<TransferResult>(results.length);
+			for(TransferResult result : results)
+				list.add(result);
+			
+			return list;
+		} finally {
+			APPLY_TRANSFERS.stop(start);
+		}
+	}
+	
+	/**
+	 * Separa el lote en grupos de transferencias, dos transferencias quedan en el mismo grupo si comparten
+	 * alguna cuenta (directa o indirectamente), para esto se usa union-find sobre las cuentas del lote.
+	 * @param batch transferencias a agrupar.
+	 * @return lista de grupos, cada grupo contiene los indices de sus transferencias en orden creciente.
+	 * */
+	private ArrayList<int[]> groupDisjointTransfers(List<Transfer> batch) {
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		int[] parent = new int[2 * batch.size()];
+		int[] transferRoot = new int[batch.size()];
+		
+		//Se asigna un identificador a cada cuenta y se unen las cuentas de cada transferencia
+		for(Transfer transfer : batch) {
+			int origin = idOf(ids, parent, transfer.getOriginAccountNumber());
+			int destiny = idOf(ids, parent, transfer.getDestinyAccountNumber());
+			
+			parent[find(parent, origin)] = find(parent, destiny);
+		}
+		
+		//Se cuenta cuantas transferencias tiene cada grupo
+		int[] groupSize = new int[ids.size()];
+		for(int i = 0; i < batch.size(); ++i) {
+			transferRoot[i] = find(parent, ids.get(batch.get(i).getOriginAccountNumber()));
+			groupSize[transferRoot[i]]++;
+		}
+		
+		//Se reparten los indices de las transferencias en sus grupos, manteniendo el orden original
+		int[][] members = new int[ids.size()][];
+		int[] filled = new int[ids.size()];
+		ArrayList<int[]> groups = new ArrayList<int[]>();
+		
+		for(int i = 0; i < batch.size(); ++i) {
+			int root = transferRoot[i];
+			
+			if(members[root] == null) {
+				members[root] = new int[groupSize[root]];
+				groups.add(members[root]);
+			}
+			
+			members[root][filled[root]++] = i;
+		}
+		
+		return groups;
+	}
+	
+	/**
+	 * @return identificador de union-find de la cuenta, asignando uno nuevo si no tenia.
+	 * */
+	private static int idOf(HashMap<String, Integer> ids, int[] parent, String accountNumber) {
+		Integer id = ids.get(accountNumber);
+		
+		if(id == null) {
+			id = ids.size();
+			ids.put(accountNumber, id);
+			parent[id] = id;
+		}
+		
+		return id;
+	}
+	
+	/**
+	 * @return raiz del conjunto al que pertenece el elemento, comprimiendo el camino recorrido.
+	 * */
+	private static int find(int[] parent, int element) {
+		while(parent[element] != element) {
+			parent[element] = parent[parent[element]];
+			element = parent[element];
+		}
+		
+		return element;
+	}
+	
+	/**
+	 * Tarea de fork-join que ejecuta un rango de grupos de transferencias, dividiendose mientras el
+	 * rango sea grande.
+	 * */
+	private class TransferGroupTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private static final int THRESHOLD = 64;			//Cantidad de grupos bajo la cual no se divide la tarea
+		
+		private List<Transfer> batch;						//Lote completo de transferencias.
+		private ArrayList<int[]> groups;					//Grupos de indices de transferencias.
+		private TransferResult[] results;					//Resultados de las transferencias del lote.
+		private int from;									//Primer grupo del rango (inclusivo).
+		private int to;										//Ultimo grupo del rango (exclusivo).
+		
+		TransferGroupTask(List<Transfer> batch, ArrayList<int[]> groups, TransferResult[] results, int from, int to) {
+			this.batch = batch;
+			this.groups = groups;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if(this.to - this.from <= THRESHOLD) {
+				for(int group = this.from; group < this.to; ++group) {
+					for(int index : this.groups.get(group))
+						this.results[index] = applyTransfer(this.batch.get(index));
+				}
+			}
+			else {
+				int middle = (this.from + this.to) >>> 1;
+				
+				invokeAll(new TransferGroupTask(this.batch, this.groups, this.results, this.from, middle),
+						  new TransferGroupTask(this.batch, this.groups, this.results, middle, this.to));
+			}
+		}
+	}
+	
+	/**
+	 * Realiza una transferencia y obtiene su resultado sin disparar excepciones.
+	 * @param transfer transferencia a realizar.
+	 * @return resultado de la transferencia.
+	 * */
+	private TransferResult applyTransfer(Transfer transfer) {
+		try {
+			if(transfer(Account.encode(transfer.getOriginAccountNumber()), Account.encode(transfer.getDestinyAccountNumber()), transfer.getAmount()))
+				return TransferResult.done();
+			else
+				return TransferResult.accountNotFound();
+		} catch (ExcessiveTransactionAmount e) {
+			return TransferResult.excessiveAmount(e);
 		}
 	}
 	
@@ -81,52 +721,452 @@ public class Bank {
 	 * retorna null, sino retorna la cuenta.
 	 * */
 	public Account getAccount(String accountNumber) {
-		if(this.accounts.containsKey(accountNumber)) {
-			return this.accounts.get(accountNumber);
+		long start = Metrics.start();
+		try {
+			return this.accounts.get(Account.encode(accountNumber));
+		} finally {
+			GET_ACCOUNT.stop(start);
 		}
-		else {
-			return null;
+	}
+	
+	/**
+	 * @param accountKey numero de cuenta codificado (ver Account.encode).
+	 * @return cuenta asociada al numero de cuenta codificado, null si no existe.
+	 * */
+	public Account getAccount(int accountKey) {
+		long start = Metrics.start();
+		try {
+			return this.accounts.get(accountKey);
+		} finally {
+			GET_ACCOUNT.stop(start);
 		}
 	}
 	
 	/**
-	 * Funcion que retorna una lista con las cuentas que entran en el rango ingresado como parametro
+	 * @return cantidad de cuentas guardadas en el sistema.
+	 * */
+	public int getAccountCount() {
+		long start = Metrics.start();
+		try {
+			return this.accounts.size();
+		} finally {
+			GET_ACCOUNT_COUNT.stop(start);
+		}
+	}
+	
+	/**
+	 * Funcion que retorna una lista con las cuentas que entran en el rango ingresado como parametro, ordenadas
+	 * de menor a mayor saldo. Usa el indice de saldos, por lo que no recorre todas las cuentas.
 	 * @return ArrayList que contiene las cuentas que cumplen con el rango ingresado.
 	 * */
-	public ArrayList<Account> getAccountBalanceRank(int lowerLimit, int upperLimit) {
-		//Lista que almacenara las cuentas correspondientes
-		ArrayList<Account> accountBalanceRank = new ArrayList<Account>();
+	public ArrayList<Account> getAccountBalanceRank(long lowerLimit, long upperLimit) {
+		long start = Metrics.start();
+		try {
+			reindex();
+			return this.balanceIndex.range(lowerLimit, upperLimit, false);
+		} finally {
+			BALANCE_RANK.stop(start);
+		}
+	}
+	
+	/**
+	 * Funcion que retorna una lista con las cuentas que entran en el rango ingresado como parametro.
+	 * @param descending true para ordenar las cuentas de mayor a menor saldo, false de menor a mayor.
+	 * @return ArrayList que contiene las cuentas que cumplen con el rango ingresado, ordenadas por saldo.
+	 * */
+	public ArrayList<Account> getAccountBalanceRank(long lowerLimit, long upperLimit, boolean descending) {
+		long start = Metrics.start();
+		try {
+			reindex();
+			return this.balanceIndex.range(lowerLimit, upperLimit, descending);
+		} finally {
+			BALANCE_RANK.stop(start);
+		}
+	}
+	
+	/**
+	 * Cuenta las cuentas que entran en el rango ingresado como parametro, sin crear la lista de cuentas. Recorre
+	 * las cuentas del rango igual que getAccountBalanceRank, por lo que tarda O(log n + k).
+	 * @return cantidad de cuentas con saldo dentro del rango.
+	 * */
+	public int countAccountBalanceRank(long lowerLimit, long upperLimit) {
+		long start = Metrics.start();
+		try {
+			reindex();
+			return this.balanceIndex.count(lowerLimit, upperLimit);
+		} finally {
+			COUNT_BALANCE_RANK.stop(start);
+		}
+	}
+	
+	/**
+	 * Abre una copia consistente de los saldos: la copia ve el saldo de todas las cuentas tal como quedaron
+	 * despues de una misma confirmacion, sin detener las operaciones que siguen. Mientras este abierta se
+	 * conservan las versiones antiguas de los saldos que necesita, por lo que se debe cerrar al terminar.
+	 * @return copia abierta.
+	 * */
+	public BankSnapshot openSnapshot() {
+		long start = Metrics.start();
+		try {
+			reindex();
+			return new BankSnapshot(this.accounts, this.versions);
+		} finally {
+			OPEN_SNAPSHOT.stop(start);
+		}
+	}
+	
+	/**
+	 * @return cantidad de copias consistentes abiertas.
+	 * */
+	public int getOpenSnapshotCount() {
+		return this.versions.getOpenCount();
+	}
+	
+	/**
+	 * @return versiones de los saldos, para las operaciones del paquete que cambian los saldos de dos cuentas.
+	 * */
+	BalanceVersions getVersions() {
+		return this.versions;
+	}
+	
+	/**
+	 * Realizara las imposiciones de todas las cuentas en el sistema
+	 * */
+	public void makeImpositions() {
+		long start = Metrics.start();
+		ImpositionEvent event = new ImpositionEvent();
+		long currentAccounts = 0;
+		long savingAccounts = 0;
+		
+		event.begin();
+		try {
+			MutationLog log = this.log;
+			long sequence = 0;
+			
+			for(Account account : this.accounts.values()) {
+				sequence = Math.max(sequence, imposeAccount(account, log));
+				
+				if(account.getTypeAccount() == TypeAccount.RUT_ACCOUNT)
+					++currentAccounts;
+				else
+					++savingAccounts;
+			}
+			
+			if(sequence != 0)
+				log.awaitCommit(sequence);
+		} finally {
+			IMPOSITIONS.stop(start);
+			event.finish(currentAccounts, savingAccounts, false);
+		}
+	}
+	
+	/**
+	 * Realiza las imposiciones de todas las cuentas en paralelo usando el pool comun de fork-join.
+	 * @return resumen de la ejecucion.
+	 * */
+	public ImpositionReport makeImpositionsParallel() {
+		return makeImpositionsParallel(ForkJoinPool.commonPool(), IMPOSITION_PARTITION, null);
+	}
+	
+	/**
+	 * Realiza las imposiciones de todas las cuentas en paralelo. Las cuentas se separan en particiones que se
+	 * procesan en el pool ingresado; como las imposiciones de cada cuenta son independientes, el resultado es
+	 * el mismo que el de makeImpositions.
+	 * @param pool pool en el que se procesan las particiones.
+	 * @param partitionSize cantidad maxima de cuentas de cada particion.
+	 * @param progress aviso de avance al terminar cada particion, puede ser null.
+	 * @return resumen de la ejecucion, con la cantidad de cuentas y el tiempo ocupado por tipo de cuenta.
+	 * */
+	public ImpositionReport makeImpositionsParallel(ForkJoinPool pool, int partitionSize, ImpositionProgress progress) {
+		long start = Metrics.start();
+		try {
+			MutationLog log = this.log;
+			Account[] accounts = this.accounts.values();
+			ImpositionReport report = new ImpositionReport();
+			AtomicLong done = new AtomicLong();
+			AtomicLong sequence = new AtomicLong();
+			ImpositionEvent event = new ImpositionEvent();
+			long begin = System.nanoTime();
+			
+			event.begin();
+			pool.invoke(new ImpositionTask(accounts, 0, accounts.length, Math.max(1, partitionSize), log, report, progress, done, sequence));
+			
+			if(sequence.get() != 0)
+				log.awaitCommit(sequence.get());
+			
+			report.setElapsedNanos(System.nanoTime() - begin);
+			event.finish(report.getCount(TypeAccount.RUT_ACCOUNT), report.getCount(TypeAccount.SAVING_ACCOUNT), true);
+			return report;
+		} finally {
+			IMPOSITIONS_PARALLEL.stop(start);
+		}
+	}
+	
+	/**
+	 * Realiza las imposiciones de una cuenta con su candado tomado, y las registra si hay registro.
+	 * @param account cuenta a procesar.
+	 * @param log registro de modificaciones, puede ser null.
+	 * @return numero de secuencia del registro, 0 si no se registro.
+	 * */
+	private long imposeAccount(Account account, MutationLog log) {
+		ReentrantLock lock = lockOf(account.getAccountKey());
+		
+		lock.lock();
+		try {
+			if(log != null)
+				log.checkWritable();
+			
+			long balance = account.getBalance();
+			
+			account.makeImpositions();
+			
+			//Se registra la diferencia de saldo, asi la reconstruccion no depende de la fecha en que se realice
+			return (log != null) ? log.logImposition(account.getAccountNumber(), account.getBalance() - balance) : 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Tarea de fork-join que realiza las imposiciones de un rango de cuentas, dividiendose hasta que el
+	 * rango cabe en una particion.
+	 * */
+	private class ImpositionTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		
+		private Account[] accounts;							//Cuentas del banco.
+		private int from;									//Primera cuenta del rango (inclusivo).
+		private int to;										//Ultima cuenta del rango (exclusivo).
+		private int partitionSize;							//Cantidad maxima de cuentas de una particion.
+		private MutationLog log;							//Registro de modificaciones, puede ser null.
+		private ImpositionReport report;					//Resumen de la ejecucion.
+		private ImpositionProgress progress;				//Aviso de avance, puede ser null.
+		private AtomicLong done;							//Cuentas procesadas hasta el momento.
+		private AtomicLong sequence;						//Mayor numero de secuencia registrado.
 		
-		//Iterador que recorrera las claves del mapa de cuentas
-		Iterator<String> accountNumber = this.accounts.keySet().iterator();
+		ImpositionTask(Account[] accounts, int from, int to, int partitionSize, MutationLog log, ImpositionReport report,
+					   ImpositionProgress progress, AtomicLong done, AtomicLong sequence) {
+			this.accounts = accounts;
+			this.from = from;
+			this.to = to;
+			this.partitionSize = partitionSize;
+			this.log = log;
+			this.report = report;
+			this.progress = progress;
+			this.done = done;
+			this.sequence = sequence;
+		}
 		
-		//Se recorre el mapa de cuentas
-		while(accountNumber.hasNext()) {
-			//Se obtiene la cuenta actual
-			Account account = this.accounts.get(accountNumber.next());
+		@Override
+		protected void compute() {
+			if(this.to - this.from > this.partitionSize) {
+				int middle = (this.from + this.to) >>> 1;
+				
+				invokeAll(new ImpositionTask(this.accounts, this.from, middle, this.partitionSize, this.log, this.report, this.progress, this.done, this.sequence),
+						  new ImpositionTask(this.accounts, middle, this.to, this.partitionSize, this.log, this.report, this.progress, this.done, this.sequence));
+				return;
+			}
 			
-			//Se obtiene el saldo de la cuenta actual
-			int balance = account.getBalance();
+			long[] counts = new long[TypeAccount.values().length];
+			long[] nanos = new long[counts.length];
+			long lastSequence = 0;
 			
-			//Si el saldo de la cuenta entra en el rango ingresado, se ingresa a la lista
-			if((balance >= lowerLimit) && (balance <= upperLimit)) { 
-				accountBalanceRank.add(account);
+			for(int i = this.from; i < this.to; ++i) {
+				Account account = this.accounts[i];
+				int type = account.getTypeAccount().ordinal();
+				long start = System.nanoTime();
+				
+				lastSequence = Math.max(lastSequence, imposeAccount(account, this.log));
+				
+				nanos[type] += System.nanoTime() - start;
+				counts[type]++;
 			}
+			
+			this.report.add(counts, nanos);
+			this.sequence.accumulateAndGet(lastSequence, Math::max);
+			
+			long done = this.done.addAndGet(this.to - this.from);
+			if(this.progress != null)
+				this.progress.progress(done, this.accounts.length);
 		}
+	}
+	
+	/**
+	 * Obtiene el indice del candado que protege a la cuenta ingresada.
+	 * @param accountKey numero de la cuenta codificado.
+	 * @return indice dentro del arreglo de candados.
+	 * */
+	int indexOf(int accountKey) {
+		int hash = accountKey * 0x9E3779B9;
 		
-		//Se retorna la lista con todas las cuentas que cumplieron el rango
-		return accountBalanceRank;
+		return (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
 	}
 	
 	/**
-	 * Realizara las imposiciones de todas las cuentas en el sistema
+	 * @return candado que protege a la cuenta ingresada.
 	 * */
-	public void makeImpositions() {
-		Iterator<String> accountNumber = this.accounts.keySet().iterator();
+	ReentrantLock lockOf(int accountKey) {
+		return this.locks[indexOf(accountKey)];
+	}
+	
+	/**
+	 * Obtiene una copia consistente del saldo de las cuentas, para escribir un punto de control. Mientras se
+	 * copian los saldos se toman todos los candados, por lo que la copia corresponde exactamente al estado
+	 * despues del ultimo registro de modificaciones incluido.
+	 * @param onlyChanged true si solo se copian las cuentas que cambiaron desde el punto de control anterior
+	 * (junto con las eliminadas), false si se copian todas.
+	 * @return copia del estado de las cuentas.
+	 * */
+	public BankCheckpoint capture(boolean onlyChanged) {
+		return capture(onlyChanged, true);
+	}
+	
+	/**
+	 * Obtiene una copia consistente del saldo de todas las cuentas, igual que capture(false), pero sin reiniciar
+	 * el seguimiento de las cuentas cambiadas, por lo que no afecta al siguiente punto de control parcial. La usa
+	 * la replicacion para enviar el estado inicial a un seguidor.
+	 * @return copia del estado de todas las cuentas.
+	 * */
+	public BankCheckpoint captureAll() {
+		return capture(false, false);
+	}
+	
+	/**
+	 * Obtiene la copia del estado de las cuentas con todos los candados tomados.
+	 * @param onlyChanged true si solo se copian las cuentas que cambiaron.
+	 * @param reset true si se reinicia el seguimiento de las cuentas cambiadas y eliminadas.
+	 * */
+	private BankCheckpoint capture(boolean onlyChanged, boolean reset) {
+		long start = Metrics.start();
+		try {
+			for(ReentrantLock lock : this.locks)
+				lock.lock();
+			
+			try {
+				ArrayList<Account> included = new ArrayList<Account>();
+				
+				if(onlyChanged) {
+					for(String accountNumber : this.changedAccounts) {
+						Account account = this.accounts.get(Account.encode(accountNumber));
+						
+						if(account != null)
+							included.add(account);
+					}
+				}
+				else {
+					for(Account account : this.accounts.values())
+						included.add(account);
+				}
+				
+				long[] balances = new long[included.size()];
+				long[] deposits = new long[included.size()];
+				for(int i = 0; i < balances.length; ++i) {
+					Account account = included.get(i);
+					
+					balances[i] = account.getBalance();
+					if(account instanceof SavingAccount)
+						deposits[i] = ((SavingAccount) account).getMonthlyDepositsState();
+				}
+				
+				String[] removed = onlyChanged ? this.removedAccounts.toArray(new String[0]) : new String[0];
+				MutationLog log = this.log;
+				
+				if(reset) {
+					this.changedAccounts.clear();
+					this.removedAccounts.clear();
+				}
+				
+				return new BankCheckpoint(!onlyChanged, (log != null) ? log.getLastSequence() : 0,
+										  included.toArray(new Account[0]), balances, deposits, removed);
+			} finally {
+				for(int i = this.locks.length - 1; i >= 0; --i)
+					this.locks[i].unlock();
+			}
+		} finally {
+			CAPTURE.stop(start);
+		}
+	}
+	
+	/**
+	 * Informa que el saldo de una cuenta del banco cambio, lo llama la cuenta en cada cambio de saldo. Las
+	 * operaciones del banco cambian los saldos con el candado de la cuenta tomado, y en ese caso el indice de
+	 * saldos y las versiones se actualizan de inmediato. Los cambios sin el candado (por ejemplo
+	 * Account.depositFrom llamado directamente) no toman ningun candado: la cuenta queda pendiente y se indexa
+	 * antes de la siguiente consulta por rango o copia consistente (ver reindex).
+	 * @param account cuenta modificada.
+	 * @param oldBalance saldo antes del cambio.
+	 * @param newBalance saldo despues del cambio.
+	 * */
+	void balanceChanged(Account account, long oldBalance, long newBalance) {
+		this.changedAccounts.add(account.getAccountNumber());
 		
-		while(accountNumber.hasNext()) {
-			this.accounts.get(accountNumber.next()).makeImpositions();
+		if(lockOf(account.getAccountKey()).isHeldByCurrentThread()) {
+			if(account.getOwner() == this) {
+				this.balanceIndex.update(account);
+				this.versions.record(account);
+			}
 		}
+		else
+			this.unindexedAccounts.add(account);
+	}
+	
+	/**
+	 * Actualiza el indice de saldos y las versiones de las cuentas cuyo saldo cambio sin el candado tomado, con
+	 * el candado de cada una. La cuenta se saca de las pendientes antes de indexarla, asi un cambio simultaneo
+	 * la vuelve a dejar pendiente.
+	 * */
+	private void reindex() {
+		if(this.unindexedAccounts.isEmpty())
+			return;
+		
+		for(Iterator<Account> iterator = this.unindexedAccounts.iterator(); iterator.hasNext(); ) {
+			Account account = iterator.next();
+			ReentrantLock lock = lockOf(account.getAccountKey());
+			
+			iterator.remove();
+			lock.lock();
+			try {
+				if(account.getOwner() == this) {
+					this.balanceIndex.update(account);
+					this.versions.record(account);
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+	
+	/**
+	 * Establece el registro de modificaciones del banco, desde ese momento todas las modificaciones se registran.
+	 * Para reconstruir el banco desde un registro existente, se debe establecer despues de reconstruirlo.
+	 * @param log registro de modificaciones, null para dejar de registrar.
+	 * */
+	public void setMutationLog(MutationLog log) {
+		this.log = log;
+	}
+	
+	/**
+	 * @return registro de modificaciones actual, null si no hay.
+	 * */
+	public MutationLog getMutationLog() {
+		return this.log;
+	}
+	
+	/**
+	 * Establece el almacenamiento de las transacciones antiguas, desde ese momento las transacciones que salen
+	 * del historial en memoria de las cuentas se guardan ahi en vez de descartarse.
+	 * @param historyStore almacenamiento de historial, null para descartar las transacciones antiguas.
+	 * */
+	public void setHistoryStore(HistoryStore historyStore) {
+		this.historyStore = historyStore;
+	}
+	
+	/**
+	 * @return almacenamiento de las transacciones antiguas, null si no hay.
+	 * */
+	public HistoryStore getHistoryStore() {
+		return this.historyStore;
 	}
 	
 	/**
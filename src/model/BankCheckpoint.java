@@ -0,0 +1,85 @@
+package model;
+
+/**
+ * Clase que guarda una copia consistente del estado de las cuentas del banco en un momento dado, usada para
+ * escribir puntos de control (checkpoints). Puede contener todas las cuentas, o solo las que cambiaron desde
+ * el punto de control anterior junto con las que se eliminaron.
+ * 
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class BankCheckpoint {
+
+	private boolean full;						//Indica si contiene todas las cuentas o solo las que cambiaron.
+	private long sequence;						//Ultimo numero de secuencia del registro de modificaciones incluido.
+	private Account[] accounts;					//Cuentas incluidas.
+	private long[] balances;					//Saldo de cada cuenta incluida al momento de la copia.
+	private long[] monthlyDeposits;				//Acumulador de depositos del mes de cada cuenta de ahorro incluida, 0 en las demas.
+	private String[] removedAccounts;			//Numeros de las cuentas eliminadas desde el punto de control anterior.
+	
+	/**
+	 * Constructor, establece todos los atributos de la clase.
+	 * */
+	BankCheckpoint(boolean full, long sequence, Account[] accounts, long[] balances, long[] monthlyDeposits, String[] removedAccounts) {
+		this.full = full;
+		this.sequence = sequence;
+		this.accounts = accounts;
+		this.balances = balances;
+		this.monthlyDeposits = monthlyDeposits;
+		this.removedAccounts = removedAccounts;
+	}
+	
+	/**
+	 * @return true si contiene todas las cuentas del banco, false si solo contiene las que cambiaron.
+	 * */
+	public boolean isFull() {
+		return this.full;
+	}
+	
+	/**
+	 * @return ultimo numero de secuencia del registro de modificaciones incluido en la copia, 0 si no hay registro.
+	 * */
+	public long getSequence() {
+		return this.sequence;
+	}
+	
+	/**
+	 * @return cantidad de cuentas incluidas.
+	 * */
+	public int getAccountCount() {
+		return this.accounts.length;
+	}
+	
+	/**
+	 * @param index indice de la cuenta.
+	 * @return cuenta incluida en el indice ingresado.
+	 * */
+	public Account getAccount(int index) {
+		return this.accounts[index];
+	}
+	
+	/**
+	 * @param index indice de la cuenta.
+	 * @return saldo que tenia la cuenta al momento de la copia.
+	 * */
+	public long getBalance(int index) {
+		return this.balances[index];
+	}
+	
+	/**
+	 * @param index indice de la cuenta.
+	 * @return acumulador de depositos del mes que tenia la cuenta al momento de la copia (ver
+	 * SavingAccount.getMonthlyDepositsState), 0 si no es una cuenta de ahorro.
+	 * */
+	public long getMonthlyDepositsState(int index) {
+		return this.monthlyDeposits[index];
+	}
+	
+	/**
+	 * @return numeros de las cuentas eliminadas desde el punto de control anterior.
+	 * */
+	public String[] getRemovedAccounts() {
+		return this.removedAccounts;
+	}
+}
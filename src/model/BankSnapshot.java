@@ -0,0 +1,243 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Clase que modela una copia consistente de los saldos del banco (lectura por versiones): ve el saldo de todas
+ * las cuentas tal como quedaron despues de una misma confirmacion, aunque las transferencias sigan ocurriendo
+ * mientras se lee. Las operaciones del banco no se detienen ni esperan a la copia; a cambio, mientras la copia
+ * este abierta el banco conserva las versiones antiguas de los saldos que la copia puede necesitar, por lo que
+ * se debe cerrar al terminar (por ejemplo con try-with-resources).
+ * Las consultas sobre todas las cuentas recorren el banco una sola vez y guardan el resultado en la copia.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class BankSnapshot implements AutoCloseable {
+
+	private AccountMap accounts;						//Cuentas actuales del banco.
+	private BalanceVersions versions;					//Versiones de los saldos del banco.
+	private long version;								//Version que ve la copia.
+	long protectedVersion;								//Version desde la que el banco conserva las versiones, la asigna BalanceVersions.
+	private Account[] included;							//Cuentas que existian en la copia, de menor a mayor saldo, null si aun no se recorre el banco.
+	private long[] balances;							//Saldo de cada cuenta incluida en la copia.
+	private volatile boolean closed;					//Indica si la copia ya se cerro.
+
+	/**
+	 * Constructor, abre la copia en la ultima version confirmada.
+	 * */
+	BankSnapshot(AccountMap accounts, BalanceVersions versions) {
+		this.accounts = accounts;
+		this.versions = versions;
+		this.version = versions.open(this);
+	}
+
+	/**
+	 * @return version que ve la copia, la cantidad de confirmaciones del banco incluidas.
+	 * */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * @param accountNumber numero de la cuenta.
+	 * @return cuenta con el numero ingresado que existia en la copia, null si no existia.
+	 * */
+	public Account getAccount(String accountNumber) {
+		checkOpen();
+
+		int key = Account.encode(accountNumber);
+		if(key < 0)
+			return null;
+
+		Account account = this.accounts.get(key);
+		if((account != null) && (BalanceVersions.find(account, this.version) != null))
+			return account;
+
+		//La cuenta se pudo eliminar o reemplazar despues de abrir la copia
+		for(Account retired : this.versions.retired()) {
+			if((retired.getAccountKey() == key) && (BalanceVersions.find(retired, this.version) != null))
+				return retired;
+		}
+
+		return null;
+	}
+
+	/**
+	 * @param account cuenta obtenida de esta copia.
+	 * @return saldo que tenia la cuenta en la copia.
+	 * */
+	public long getBalance(Account account) {
+		checkOpen();
+
+		BalanceVersions.Entry entry = BalanceVersions.find(account, this.version);
+
+		if(entry == null)
+			throw new IllegalArgumentException("La cuenta " + account.getAccountNumber() + " no existia en la copia");
+
+		return entry.balance;
+	}
+
+	/**
+	 * @return cantidad de cuentas que existian en la copia.
+	 * */
+	public int getAccountCount() {
+		collect();
+		return this.included.length;
+	}
+
+	/**
+	 * @return suma de los saldos de todas las cuentas de la copia.
+	 * */
+	public long getTotalBalance() {
+		collect();
+
+		long total = 0;
+		for(long balance : this.balances)
+			total += balance;
+
+		return total;
+	}
+
+	/**
+	 * Obtiene las cuentas de la copia con saldo dentro del rango, ordenadas de menor a mayor saldo en la copia.
+	 * @param lowerLimit saldo minimo (inclusivo).
+	 * @param upperLimit saldo maximo (inclusivo).
+	 * @return cuentas con saldo dentro del rango.
+	 * */
+	public ArrayList<Account> getAccountBalanceRank(long lowerLimit, long upperLimit) {
+		collect();
+
+		int from = lowerBound(lowerLimit);
+		int to = upperBound(upperLimit);
+		ArrayList<Account> rank = new ArrayList<Account>(Math.max(0, to - from));
+
+		for(int i = from; i < to; ++i)
+			rank.add(this.included[i]);
+
+		return rank;
+	}
+
+	/**
+	 * @return cantidad de cuentas de la copia con saldo dentro del rango ingresado (inclusivo).
+	 * */
+	public int countAccountBalanceRank(long lowerLimit, long upperLimit) {
+		collect();
+		return Math.max(0, upperBound(upperLimit) - lowerBound(lowerLimit));
+	}
+
+	/**
+	 * Cierra la copia, desde ese momento el banco puede descartar las versiones que solo ella necesitaba.
+	 * */
+	@Override
+	public void close() {
+		if(this.closed)
+			return;
+
+		this.closed = true;
+		this.versions.close(this);
+	}
+
+	/**
+	 * Recorre las cuentas del banco y las eliminadas que aun se conservan, guardando las que existian en la copia
+	 * ordenadas por su saldo en la copia. Solo se recorre la primera vez.
+	 * */
+	private synchronized void collect() {
+		checkOpen();
+
+		if(this.included != null)
+			return;
+
+		//Las cuentas eliminadas se leen despues del mapa: una cuenta que ya no esta en el mapa esta aqui
+		Account[] current = this.accounts.values();
+		IdentityHashMap<Account, Boolean> seen = new IdentityHashMap<Account, Boolean>();
+		ArrayList<Account> found = new ArrayList<Account>(current.length);
+
+		for(Account account : current)
+			seen.put(account, Boolean.TRUE);
+
+		for(Account retired : this.versions.retired()) {
+			if(seen.put(retired, Boolean.TRUE) == null)
+				found.add(retired);
+		}
+
+		int count = 0;
+		Account[] accounts = new Account[current.length + found.size()];
+		long[] balances = new long[accounts.length];
+
+		for(int i = 0; i < accounts.length; ++i) {
+			Account account = (i < current.length) ? current[i] : found.get(i - current.length);
+			BalanceVersions.Entry entry = BalanceVersions.find(account, this.version);
+
+			if(entry != null) {
+				accounts[count] = account;
+				balances[count++] = entry.balance;
+			}
+		}
+
+		//Se ordenan por saldo usando un arreglo de indices
+		Integer[] order = new Integer[count];
+		for(int i = 0; i < count; ++i)
+			order[i] = i;
+		Arrays.sort(order, (a, b) -> Long.compare(balances[a], balances[b]));
+
+		Account[] sortedAccounts = new Account[count];
+		long[] sortedBalances = new long[count];
+		for(int i = 0; i < count; ++i) {
+			sortedAccounts[i] = accounts[order[i]];
+			sortedBalances[i] = balances[order[i]];
+		}
+
+		this.balances = sortedBalances;
+		this.included = sortedAccounts;
+	}
+
+	/**
+	 * @return indice de la primera cuenta con saldo mayor o igual al ingresado.
+	 * */
+	private int lowerBound(long balance) {
+		int low = 0;
+		int high = this.balances.length;
+
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+
+			if(this.balances[middle] < balance)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+
+		return low;
+	}
+
+	/**
+	 * @return indice de la primera cuenta con saldo mayor al ingresado.
+	 * */
+	private int upperBound(long balance) {
+		int low = 0;
+		int high = this.balances.length;
+
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+
+			if(this.balances[middle] <= balance)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+
+		return low;
+	}
+
+	/**
+	 * Verifica que la copia siga abierta.
+	 * */
+	private void checkOpen() {
+		if(this.closed)
+			throw new IllegalStateException("La copia ya se cerro");
+	}
+}
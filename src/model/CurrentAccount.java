@@ -11,6 +11,8 @@ import exceptions.*;
  * */
 public class CurrentAccount extends Account {
 
+	private static volatile int historyCapacity = DEFAULT_HISTORY_CAPACITY;	//Capacidad del historial de las nuevas cuentas.
+	
 	public int maintenanceCost;				//Costo de mantenimiento actual de la cuenta.
 	
 	/**
@@ -31,7 +33,7 @@ public class CurrentAccount extends Account {
 	/**
 	 * Contructor, establece el costo de mantencion de la cuenta en $5.000
 	 * */
-	public CurrentAccount(int balance, String accountNumber) throws WrongAccountNumber {
+	public CurrentAccount(long balance, String accountNumber) throws WrongAccountNumber {
 		super(balance, accountNumber);
 		this.maintenanceCost = 5_000;
 	}
@@ -39,7 +41,7 @@ public class CurrentAccount extends Account {
 	/**
 	 * Constructor, establece el costo de mantencion ingresado.
 	 * */
-	public CurrentAccount(int balance, String accountNumber, int maintenanceCost) throws WrongAccountNumber {
+	public CurrentAccount(long balance, String accountNumber, int maintenanceCost) throws WrongAccountNumber {
 		super(balance, accountNumber);
 		this.maintenanceCost = maintenanceCost;
 	}
@@ -48,17 +50,17 @@ public class CurrentAccount extends Account {
 	 * Realiza las impociciones de la cuenta, cobra el total del costo de mantencion de la cuenta.
 	 * */
 	public void makeImpositions() {
-		setBalance(getBalance() - this.maintenanceCost);
+		charge(this.maintenanceCost);
 	}
 	
 	/**
-	 * Resta la cantidad "amount" del saldo mas un 5% del costo de mantencion total que se cobra como costo por
-	 * administracion de la cuenta, guardando la cuenta destino "accountNumber"
+	 * Obtiene la cantidad que se descuenta al transferir: el monto mas un 5% del costo de mantencion total que
+	 * se cobra como costo por administracion de la cuenta.
 	 * @param amount cantidad a transferir
-	 * @param asociatedAccount numero de cuenta a la que se realiza la transferencia
+	 * @return cantidad a descontar del saldo
 	 * */
-	public void transferTo(int amount, Account asociatedAccount) throws ExcessiveTransactionAmount{
-		super.transferTo(amount + (int) (0.05f * this.maintenanceCost), asociatedAccount);
+	protected int transferCharge(int amount) {
+		return amount + (int) (0.05f * this.maintenanceCost);
 	}
 	
 	/**
@@ -75,4 +77,22 @@ public class CurrentAccount extends Account {
 	public int getMaintenanceCost() {
 		return this.maintenanceCost;
 	}
+	
+	/**
+	 * @return capacidad del historial de las cuentas corrientes.
+	 * */
+	protected int historyCapacity() {
+		return historyCapacity;
+	}
+	
+	/**
+	 * Establece la capacidad del historial de las cuentas corrientes creadas desde ahora, las existentes mantienen la suya.
+	 * @param capacity cantidad de movimientos que guardara el historial.
+	 * */
+	public static void setHistoryCapacity(int capacity) {
+		if(capacity < 1)
+			throw new IllegalArgumentException("La capacidad del historial debe ser positiva");
+		
+		historyCapacity = capacity;
+	}
 }
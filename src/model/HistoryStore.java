@@ -0,0 +1,40 @@
+package model;
+
+/**
+ * Interfaz que define un almacenamiento para las transacciones antiguas del historial de las cuentas.
+ * Cuando el historial en memoria de una cuenta esta lleno, la transaccion mas antigua se entrega a este
+ * almacenamiento en vez de descartarse. Las transacciones de cada cuenta se numeran desde 0 en el orden
+ * en que se entregaron.
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+public interface HistoryStore {
+	/**
+	 * Agrega una transaccion al final del historial guardado de la cuenta. No debe esperar a que la
+	 * transaccion se escriba, ya que se llama durante las transferencias; solo puede esperar cuando tiene
+	 * demasiadas transacciones pendientes, para no acumularlas sin limite en memoria.
+	 * @param accountKey numero codificado de la cuenta duena del historial.
+	 * @param amount monto de la transaccion.
+	 * @param day dia de la transaccion, en dias desde 1970-01-01.
+	 * @param counterparty numero codificado de la cuenta asociada a la transaccion.
+	 * */
+	public void append(int accountKey, int amount, int day, int counterparty);
+	
+	/**
+	 * @param accountKey numero codificado de la cuenta.
+	 * @return cantidad de transacciones guardadas de la cuenta.
+	 * */
+	public long count(int accountKey);
+	
+	/**
+	 * Lee un rango de transacciones guardadas de la cuenta.
+	 * @param accountKey numero codificado de la cuenta.
+	 * @param from numero de la primera transaccion a leer.
+	 * @param amounts arreglo donde se guardan los montos.
+	 * @param days arreglo donde se guardan los dias.
+	 * @param counterparties arreglo donde se guardan los numeros codificados de las cuentas asociadas.
+	 * @param length cantidad de transacciones a leer.
+	 * @return cantidad de transacciones leidas.
+	 * */
+	public int read(int accountKey, long from, int[] amounts, int[] days, int[] counterparties, int length);
+}
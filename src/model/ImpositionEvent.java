@@ -0,0 +1,47 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de JDK Flight Recorder de una ronda de imposiciones (Bank.makeImpositions o makeImpositionsParallel),
+ * con la cantidad de cuentas procesadas de cada tipo.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+@Name("bankapp.Impositions")
+@Label("Imposiciones")
+@Category({"BankApp", "Banco"})
+@Description("Ronda de imposiciones de todas las cuentas del banco")
+final class ImpositionEvent extends Event {
+
+	@Label("Cuentas corrientes")
+	long currentAccounts;						//Cuentas corrientes procesadas.
+
+	@Label("Cuentas de ahorro")
+	long savingAccounts;						//Cuentas de ahorro procesadas.
+
+	@Label("En paralelo")
+	boolean parallel;							//Indica si la ronda se realizo con makeImpositionsParallel.
+
+	/**
+	 * Termina el evento y lo guarda si corresponde.
+	 * @param currentAccounts cuentas corrientes procesadas.
+	 * @param savingAccounts cuentas de ahorro procesadas.
+	 * @param parallel true si la ronda se realizo en paralelo.
+	 * */
+	void finish(long currentAccounts, long savingAccounts, boolean parallel) {
+		if(!shouldCommit())
+			return;
+
+		this.currentAccounts = currentAccounts;
+		this.savingAccounts = savingAccounts;
+		this.parallel = parallel;
+		commit();
+	}
+}
@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * Interfaz que define el aviso de avance de una ejecucion de imposiciones en paralelo.
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+public interface ImpositionProgress {
+	/**
+	 * Metodo que se llama cada vez que se termina una particion de cuentas, puede llamarse desde
+	 * distintos hilos a la vez.
+	 * @param done cantidad de cuentas procesadas hasta el momento.
+	 * @param total cantidad total de cuentas a procesar.
+	 * */
+	public void progress(long done, long total);
+}
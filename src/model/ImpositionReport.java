@@ -0,0 +1,75 @@
+package model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase que guarda el resumen de una ejecucion de imposiciones: cuantas cuentas de cada tipo se procesaron
+ * y cuanto tiempo se ocupo en cada tipo de cuenta (sumando el tiempo de todos los hilos).
+ * 
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class ImpositionReport {
+
+	private LongAdder[] counts;				//Cuentas procesadas por tipo de cuenta.
+	private LongAdder[] nanos;				//Nanosegundos ocupados por tipo de cuenta.
+	private long elapsedNanos;				//Nanosegundos que duro la ejecucion completa.
+	
+	/**
+	 * Constructor, inicializa los contadores de cada tipo de cuenta.
+	 * */
+	ImpositionReport() {
+		int types = TypeAccount.values().length;
+		
+		this.counts = new LongAdder[types];
+		this.nanos = new LongAdder[types];
+		
+		for(int i = 0; i < types; ++i) {
+			this.counts[i] = new LongAdder();
+			this.nanos[i] = new LongAdder();
+		}
+	}
+	
+	/**
+	 * Suma los resultados de una particion de cuentas.
+	 * @param counts cuentas procesadas por tipo de cuenta en la particion.
+	 * @param nanos nanosegundos ocupados por tipo de cuenta en la particion.
+	 * */
+	void add(long[] counts, long[] nanos) {
+		for(int i = 0; i < counts.length; ++i) {
+			this.counts[i].add(counts[i]);
+			this.nanos[i].add(nanos[i]);
+		}
+	}
+	
+	/**
+	 * @param elapsedNanos nanosegundos que duro la ejecucion completa.
+	 * */
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	/**
+	 * @param typeAccount tipo de cuenta.
+	 * @return cantidad de cuentas del tipo ingresado que se procesaron.
+	 * */
+	public long getCount(TypeAccount typeAccount) {
+		return this.counts[typeAccount.ordinal()].sum();
+	}
+	
+	/**
+	 * @param typeAccount tipo de cuenta.
+	 * @return nanosegundos ocupados en las cuentas del tipo ingresado, sumando todos los hilos.
+	 * */
+	public long getNanos(TypeAccount typeAccount) {
+		return this.nanos[typeAccount.ordinal()].sum();
+	}
+	
+	/**
+	 * @return nanosegundos que duro la ejecucion completa.
+	 * */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+}
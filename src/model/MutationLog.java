@@ -0,0 +1,90 @@
+package model;
+
+/**
+ * Interfaz que define un registro de las modificaciones realizadas sobre el banco, permite guardar
+ * cada cambio antes de informarlo como completado para poder reconstruir el banco despues.
+ * Cada metodo de registro retorna el numero de secuencia asignado a la modificacion.
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+public interface MutationLog {
+	/**
+	 * Registra que se agrego una cuenta al banco, con su saldo y configuracion actual.
+	 * @param account cuenta agregada.
+	 * @return numero de secuencia del registro.
+	 * */
+	public long logAddAccount(Account account);
+	
+	/**
+	 * Registra que se elimino una cuenta del banco.
+	 * @param accountNumber numero de la cuenta eliminada.
+	 * @return numero de secuencia del registro.
+	 * */
+	public long logRemoveAccount(String accountNumber);
+	
+	/**
+	 * Registra una transferencia realizada entre dos cuentas.
+	 * @param originAccountNumber numero de la cuenta de origen.
+	 * @param destinyAccountNumber numero de la cuenta destino.
+	 * @param amount monto transferido.
+	 * @param epochDay dia con que se aplico la transferencia, en dias desde 1970-01-01.
+	 * @return numero de secuencia del registro.
+	 * */
+	public long logTransfer(String originAccountNumber, String destinyAccountNumber, int amount, int epochDay);
+	
+	/**
+	 * Registra el cambio de saldo producido por las imposiciones de una cuenta.
+	 * @param accountNumber numero de la cuenta.
+	 * @param delta diferencia entre el saldo despues y antes de las imposiciones.
+	 * @return numero de secuencia del registro.
+	 * */
+	public long logImposition(String accountNumber, long delta);
+	
+	/**
+	 * Registra la reserva de una transferencia entre particiones (ShardedBank), en la particion de origen.
+	 * @param transferId identificador de la transferencia.
+	 * @param originAccountNumber numero de la cuenta de origen, a la que se descuenta la reserva.
+	 * @param destinyAccountNumber numero de la cuenta destino.
+	 * @param reserved cantidad descontada y reservada.
+	 * @return numero de secuencia del registro.
+	 * */
+	public long logPrepare(long transferId, String originAccountNumber, String destinyAccountNumber, int reserved);
+	
+	/**
+	 * Registra que una transferencia entre particiones se confirmo: en la particion destino con el abono a la
+	 * cuenta destino, y en la de origen (con monto 0) al terminarla.
+	 * @param transferId identificador de la transferencia.
+	 * @param accountNumber numero de la cuenta a la que se abona el monto.
+	 * @param amount monto abonado.
+	 * @return numero de secuencia del registro.
+	 * */
+	public long logCommit(long transferId, String accountNumber, int amount);
+	
+	/**
+	 * Registra que una transferencia entre particiones se anulo: en la particion destino (con monto 0) si la cuenta
+	 * destino no existe, y en la de origen con la devolucion de la reserva.
+	 * @param transferId identificador de la transferencia.
+	 * @param accountNumber numero de la cuenta a la que se abona el monto.
+	 * @param amount monto abonado.
+	 * @return numero de secuencia del registro.
+	 * */
+	public long logAbort(long transferId, String accountNumber, int amount);
+	
+	/**
+	 * @return ultimo numero de secuencia asignado, 0 si no se ha registrado ninguna modificacion.
+	 * */
+	public long getLastSequence();
+	
+	/**
+	 * Espera hasta que el registro con el numero de secuencia ingresado (y todos los anteriores) este guardado.
+	 * @param sequence numero de secuencia a esperar.
+	 * */
+	public void awaitCommit(long sequence);
+	
+	/**
+	 * Comprueba que el registro pueda seguir guardando modificaciones. El banco la llama antes de modificar las
+	 * cuentas, asi no aplica en memoria una modificacion que ya no se podria guardar.
+	 * @throws java.io.UncheckedIOException si el registro dejo de funcionar por un error de escritura.
+	 * */
+	public void checkWritable();
+}
@@ -1,19 +1,36 @@
 package model;
 
 import exceptions.*;
-import java.util.ListIterator;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDate;
 
 /**
  * Clase que modela una cuenta de ahorros, hereda de la clase abstracta Account, 
  * e implementa el metodo makeImpositions de la forma en que lo realiza un cuenta de ahorros,
  * deposita un porcentaje del total de depositos de la cuenta en el ultimo mes.
+ * El total de depositos del mes se acumula en cada deposito, por lo que las imposiciones no recorren el historial.
  * @author Dan Santos
  * @version 04-06-2020
  * */
 public class SavingAccount extends Account{
 	
+	private static final int PERIOD_SHIFT = 44;			//Bits del total de depositos dentro del acumulador.
+	private static final long TOTAL_MASK = (1L << PERIOD_SHIFT) - 1;
+	private static final VarHandle MONTHLY_DEPOSITS;	//Acceso atomico al acumulador de depositos del mes.
+	
+	static {
+		try {
+			MONTHLY_DEPOSITS = MethodHandles.lookup().findVarHandle(SavingAccount.class, "monthlyDeposits", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	private static volatile int historyCapacity = DEFAULT_HISTORY_CAPACITY;	//Capacidad del historial de las nuevas cuentas.
+	
 	private double profitabilityPercentage;				//Porcentaje de rentabilidad actual de la cuenta.
+	private volatile long monthlyDeposits;				//Mes del acumulador (bits altos) y total depositado en ese mes (bits bajos).
 	
 	/**
 	 * Constructor por defecto de la clase, establece el porcentaje de rentabilidad en 1%
@@ -33,7 +50,7 @@ public class SavingAccount extends Account{
 	/**
 	 * Constructor, establece el porcentaje de rentabilidad en 1%
 	 * */
-	public SavingAccount(int balance, String accountNumber) throws WrongAccountNumber {
+	public SavingAccount(long balance, String accountNumber) throws WrongAccountNumber {
 		super(balance, accountNumber);
 		this.profitabilityPercentage = 0.01f;
 	}
@@ -41,45 +58,102 @@ public class SavingAccount extends Account{
 	/**
 	 * Constructor, establace los atributos de la clase.
 	 * */
-	public SavingAccount(int balance, String accountNumber, double profitabilityPercentage) throws WrongAccountNumber {
+	public SavingAccount(long balance, String accountNumber, double profitabilityPercentage) throws WrongAccountNumber {
 		super(balance, accountNumber);
 		this.profitabilityPercentage = profitabilityPercentage;
 	}
 	
 	/**
 	 * Realiza las impociciones de la cuenta, para la cuenta de ahorros, deposita el porcentaje de rentabilidad
-	 * actual del total de depositos realizados en el ultimo mes.
+	 * actual del total de depositos realizados en el mes actual.
 	 * */
 	public void makeImpositions() {
-		//acumulara el total de los depositos del ultimo mes
-		int totalDeposit = 0;
-		
-		//Se obtiene un iterador del historial
-		ListIterator<Transaction> history = getHistory();
+		credit((long) (getMonthlyDeposits() * this.profitabilityPercentage));
+	}
+	
+	/**
+	 * Acumula el deposito de una transferencia en el total de depositos del mes actual.
+	 * @param amount cantidad depositada
+	 * */
+	protected void depositReceived(int amount) {
+		depositReceived(amount, TransactionHistory.currentEpochDay());
+	}
+	
+	/**
+	 * Acumula el deposito de una transferencia en el total de depositos del mes del dia ingresado.
+	 * @param amount cantidad depositada
+	 * @param day dia del deposito, en dias desde 1970-01-01
+	 * */
+	@Override
+	void depositReceived(int amount, int day) {
+		if(amount > 0)
+			addMonthlyDeposit(amount, periodOf(day));
+	}
+	
+	/**
+	 * @return total depositado en el mes actual.
+	 * */
+	public long getMonthlyDeposits() {
+		long accumulator = this.monthlyDeposits;
 		
-		//Fecha actual, se usara para comparar los meses de la fecha de las transacciones
-		final LocalDate currentDate = LocalDate.now();
+		return ((accumulator >>> PERIOD_SHIFT) == periodOf(TransactionHistory.currentEpochDay())) ? (accumulator & TOTAL_MASK) : 0;
+	}
+	
+	/**
+	 * @return acumulador de depositos completo (mes y total), para guardarlo en los puntos de control.
+	 * */
+	public long getMonthlyDepositsState() {
+		return this.monthlyDeposits;
+	}
+	
+	/**
+	 * Restablece el acumulador de depositos guardado en un punto de control.
+	 * @param state acumulador obtenido con getMonthlyDepositsState.
+	 * */
+	public void setMonthlyDepositsState(long state) {
+		this.monthlyDeposits = state;
+	}
+	
+	/**
+	 * Suma un deposito al acumulador del mes ingresado; si el acumulador es de un mes anterior, comienza de nuevo
+	 * desde el deposito ingresado, y si es de un mes posterior el deposito ya no cuenta y se ignora.
+	 * @param amount monto depositado.
+	 * @param period mes del deposito, contado en meses desde el año 0.
+	 * */
+	private void addMonthlyDeposit(long amount, long period) {
+		long current;
+		long updated;
 		
-		while(history.hasNext()) {
-			Transaction transaction = history.next();
-			LocalDate date = transaction.getDate();
+		do {
+			current = this.monthlyDeposits;
+			long currentPeriod = current >>> PERIOD_SHIFT;
 			
-			if((currentDate.getDayOfMonth() == date.getDayOfMonth()) && (currentDate.getDayOfYear() == date.getDayOfYear()))
-				totalDeposit++;
-		}
+			if(period < currentPeriod)
+				return;
+			
+			long total = (currentPeriod == period) ? (current & TOTAL_MASK) : 0;
+			updated = (period << PERIOD_SHIFT) | Math.min(total + amount, TOTAL_MASK);
+		} while(!MONTHLY_DEPOSITS.compareAndSet(this, current, updated));
+	}
+	
+	/**
+	 * @param day dia en dias desde 1970-01-01.
+	 * @return mes del dia ingresado, contado en meses desde el año 0.
+	 * */
+	private static long periodOf(int day) {
+		LocalDate date = LocalDate.ofEpochDay(day);
 		
-		//Se le suma al saldo actual el porcentaje de rentabilidad actual del total de depositos en el mes actual
-		setBalance(getBalance() + (int) (totalDeposit * this.profitabilityPercentage));
+		return 12L * date.getYear() + date.getMonthValue() - 1;
 	}
 	
 	/**
-	 * Resta la cantidad "amount" del saldo mas el porcentaje de rentabilidad como penalizacion por
-	 * retirar dinero de la cuenta, guardando la cuenta destino "accountNumber"
+	 * Obtiene la cantidad que se descuenta al transferir: el monto mas el porcentaje de rentabilidad como
+	 * penalizacion por retirar dinero de la cuenta.
 	 * @param amount cantidad a transferir
-	 * @param asociatedAccount numero de cuenta a la que se realiza la transferencia
+	 * @return cantidad a descontar del saldo
 	 * */
-	public void transferTo(int amount, Account asociatedAccount) throws ExcessiveTransactionAmount{
-		super.transferTo(amount * (int) (1 + this.profitabilityPercentage), asociatedAccount);
+	protected int transferCharge(int amount) {
+		return amount * (int) (1 + this.profitabilityPercentage);
 	}
 
 	/**
@@ -96,4 +170,22 @@ public class SavingAccount extends Account{
 	public double getProfitabilityPercentage() {
 		return this.profitabilityPercentage;
 	}
+	
+	/**
+	 * @return capacidad del historial de las cuentas de ahorro.
+	 * */
+	protected int historyCapacity() {
+		return historyCapacity;
+	}
+	
+	/**
+	 * Establece la capacidad del historial de las cuentas de ahorro creadas desde ahora, las existentes mantienen la suya.
+	 * @param capacity cantidad de movimientos que guardara el historial.
+	 * */
+	public static void setHistoryCapacity(int capacity) {
+		if(capacity < 1)
+			throw new IllegalArgumentException("La capacidad del historial debe ser positiva");
+		
+		historyCapacity = capacity;
+	}
 }
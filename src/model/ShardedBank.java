@@ -0,0 +1,423 @@
+package model;
+
+import exceptions.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clase que modela un banco particionado: las cuentas se reparten por numero de cuenta entre varios bancos
+ * independientes (particiones), cada uno con su propio hilo ejecutor.
+ * Una transferencia entre dos cuentas de la misma particion se realiza en una sola tarea en el ejecutor de esa
+ * particion. Una transferencia entre particiones usa dos fases:
+ * 1. Reserva: en la particion de origen se descuentan los fondos de la cuenta de origen y quedan reservados.
+ * 2. Confirmacion: en la particion destino se abonan a la cuenta destino; luego, en la particion de origen, se
+ *    guarda el historial de la cuenta de origen. Si la cuenta destino no existe, la reserva se libera y los
+ *    fondos vuelven a la cuenta de origen (si aun existe; si se elimino, la reserva se pierde con ella igual
+ *    que su saldo).
+ * Si las particiones tienen registro de modificaciones, cada transferencia entre particiones se registra con
+ * un identificador unico: PREPARE al reservar (particion de origen), COMMIT o ABORT al decidir (particion
+ * destino) y COMMIT o ABORT al terminar (particion de origen). Despues de reconstruir todas las particiones
+ * desde sus registros, resolveInDoubt termina las transferencias que quedaron a medias por una caida.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class ShardedBank implements AutoCloseable {
+
+	/**
+	 * Clase que guarda el estado de una transferencia entre particiones.
+	 * */
+	private static final class CrossTransfer {
+		final int originKey;								//Numero codificado de la cuenta de origen.
+		final int destinyKey;								//Numero codificado de la cuenta destino.
+		final int amount;									//Monto transferido.
+		final long id;										//Identificador de la transferencia en los registros.
+		Account origin;										//Cuenta de origen, null si no existe.
+		Account destiny;									//Cuenta destino, null si no existe o no se confirmo.
+		int reserved;										//Cantidad reservada de la cuenta de origen.
+		TransferResult result;								//Resultado, null mientras siga en curso.
+
+		CrossTransfer(long id, int originKey, int destinyKey, int amount) {
+			this.id = id;
+			this.originKey = originKey;
+			this.destinyKey = destinyKey;
+			this.amount = amount;
+		}
+	}
+
+	private Bank[] shards;									//Particiones del banco.
+	private ExecutorService[] executors;					//Ejecutor de cada particion, de un solo hilo.
+	private AtomicLong nextTransferId;						//Siguiente identificador de transferencia entre particiones.
+
+	/**
+	 * Constructor, crea las particiones vacias y sus ejecutores.
+	 * @param shardCount cantidad de particiones.
+	 * */
+	public ShardedBank(int shardCount) {
+		if(shardCount <= 0)
+			throw new IllegalArgumentException("La cantidad de particiones debe ser positiva");
+
+		this.shards = new Bank[shardCount];
+		this.executors = new ExecutorService[shardCount];
+		this.nextTransferId = new AtomicLong(System.currentTimeMillis() << 20);	//No se repite entre ejecuciones
+
+		for(int i = 0; i < shardCount; ++i) {
+			final String name = "bank-shard-" + i;
+
+			this.shards[i] = new Bank();
+			this.executors[i] = Executors.newSingleThreadExecutor(task -> {
+				Thread thread = new Thread(task, name);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * @return cantidad de particiones.
+	 * */
+	public int getShardCount() {
+		return this.shards.length;
+	}
+
+	/**
+	 * @param index indice de la particion.
+	 * @return banco de la particion.
+	 * */
+	public Bank getShard(int index) {
+		return this.shards[index];
+	}
+
+	/**
+	 * Obtiene la particion de una cuenta. Usa una mezcla distinta a la del mapa de cuentas y los candados de
+	 * cada banco (que toman los bits bajos de key * 0x9E3779B9), y de ella los bits altos, asi las cuentas de una
+	 * particion no comparten los bits bajos y ocupan todas las posiciones del mapa y todos los candados.
+	 * @param accountKey numero de cuenta codificado.
+	 * @return indice de la particion que guarda la cuenta.
+	 * */
+	public int shardOf(int accountKey) {
+		int hash = accountKey;
+
+		//Mezcla final de MurmurHash3
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		hash *= 0xC2B2AE35;
+		hash ^= hash >>> 16;
+
+		return (int) (((hash & 0xFFFFFFFFL) * this.shards.length) >>> 32);
+	}
+
+	/**
+	 * Agrega la cuenta a su particion.
+	 * @param account cuenta a agregar.
+	 * */
+	public void addAccount(Account account) {
+		this.shards[shardOf(account.getAccountKey())].addAccount(account);
+	}
+
+	/**
+	 * Elimina la cuenta de su particion.
+	 * @param accountNumber numero de la cuenta a eliminar.
+	 * */
+	public void removeAccount(String accountNumber) {
+		int key = Account.encode(accountNumber);
+
+		if(key >= 0)
+			this.shards[shardOf(key)].removeAccount(accountNumber);
+	}
+
+	/**
+	 * @return cuenta asociada al numero de cuenta ingresado, null si no existe.
+	 * */
+	public Account getAccount(String accountNumber) {
+		int key = Account.encode(accountNumber);
+
+		return (key < 0) ? null : this.shards[shardOf(key)].getAccount(key);
+	}
+
+	/**
+	 * @return cantidad total de cuentas.
+	 * */
+	public int getAccountCount() {
+		int count = 0;
+
+		for(Bank shard : this.shards)
+			count += shard.getAccountCount();
+
+		return count;
+	}
+
+	/**
+	 * Realiza una transferencia, en una sola tarea si ambas cuentas estan en la misma particion, o en dos fases
+	 * (reserva y confirmacion) si estan en particiones distintas.
+	 * @param originAccountNumber numero de la cuenta de origen.
+	 * @param destinyAccountNumber numero de la cuenta destino.
+	 * @param amount monto a transferir.
+	 * @return resultado de la transferencia, se completa al terminar; se completa con la excepcion si alguna fase
+	 * fallo (por ejemplo al escribir el registro), despues de devolver la reserva a la cuenta de origen.
+	 * */
+	public CompletableFuture<TransferResult> transfer(String originAccountNumber, String destinyAccountNumber, int amount) {
+		int originKey = Account.encode(originAccountNumber);
+		int destinyKey = Account.encode(destinyAccountNumber);
+
+		if((originKey < 0) || (destinyKey < 0) || (amount <= 0))
+			return CompletableFuture.completedFuture(TransferResult.invalidRequest());
+
+		int originShard = shardOf(originKey);
+		int destinyShard = shardOf(destinyKey);
+
+		if(originShard == destinyShard)
+			return CompletableFuture.supplyAsync(() -> transferLocal(this.shards[originShard], originKey, destinyKey, amount), this.executors[originShard]);
+
+		CrossTransfer transfer = new CrossTransfer(this.nextTransferId.getAndIncrement(), originKey, destinyKey, amount);
+
+		return CompletableFuture.runAsync(() -> reserve(this.shards[originShard], transfer), this.executors[originShard])
+								.thenRunAsync(() -> commit(this.shards[destinyShard], transfer), this.executors[destinyShard])
+								.handleAsync((ignored, failure) -> finish(this.shards[originShard], transfer, failure), this.executors[originShard]);
+	}
+
+	/**
+	 * Termina las transferencias entre particiones que quedaron a medias: las reservas reconstruidas en una
+	 * particion de origen sin su COMMIT o ABORT final. Si la particion destino registro la confirmacion, los
+	 * fondos ya se abonaron y solo se termina la reserva; si registro la anulacion o no alcanzo a registrar nada,
+	 * la reserva se devuelve a la cuenta de origen. Se debe llamar despues de reconstruir todas las particiones
+	 * desde sus registros y de establecer sus registros de modificaciones, sin transferencias en curso.
+	 * @return cantidad de transferencias resueltas.
+	 * */
+	public int resolveInDoubt() {
+		int resolved = 0;
+
+		for(Bank shard : this.shards) {
+			MutationLog log = shard.getMutationLog();
+
+			for(Bank.PreparedTransfer prepared : shard.getPreparedTransfers()) {
+				Boolean committed = this.shards[shardOf(prepared.destinyKey)].getTransferDecision(prepared.id);
+				ReentrantLock lock = shard.lockOf(prepared.originKey);
+				String originAccountNumber = Account.decode(prepared.originKey);
+				long sequence = 0;
+
+				lock.lock();
+				try {
+					Account origin = shard.getAccount(prepared.originKey);
+
+					if(Boolean.TRUE.equals(committed)) {
+						if(log != null)
+							sequence = log.logCommit(prepared.id, originAccountNumber, 0);
+					}
+					else {
+						int refund = (origin != null) ? prepared.reserved : 0;
+
+						if(origin != null)
+							origin.credit(refund);
+
+						if(log != null)
+							sequence = log.logAbort(prepared.id, originAccountNumber, refund);
+					}
+
+					shard.removePreparedTransfer(prepared.id);
+				} finally {
+					lock.unlock();
+				}
+
+				if(sequence != 0)
+					log.awaitCommit(sequence);
+
+				++resolved;
+			}
+		}
+
+		for(Bank shard : this.shards)
+			shard.clearTransferDecisions();
+
+		return resolved;
+	}
+
+	/**
+	 * Realiza las imposiciones de todas las cuentas, cada particion en su propio ejecutor.
+	 * */
+	public void makeImpositions() {
+		CompletableFuture<?>[] tasks = new CompletableFuture<?>[this.shards.length];
+
+		for(int i = 0; i < this.shards.length; ++i)
+			tasks[i] = CompletableFuture.runAsync(this.shards[i]::makeImpositions, this.executors[i]);
+
+		CompletableFuture.allOf(tasks).join();
+	}
+
+	/**
+	 * Detiene los ejecutores, esperando a que terminen las transferencias en curso.
+	 * */
+	@Override
+	public void close() {
+		for(ExecutorService executor : this.executors)
+			executor.shutdown();
+
+		try {
+			for(ExecutorService executor : this.executors)
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Transferencia entre cuentas de la misma particion.
+	 * */
+	private static TransferResult transferLocal(Bank shard, int originKey, int destinyKey, int amount) {
+		try {
+			if(shard.transactionBetweenAccounts(originKey, destinyKey, amount))
+				return TransferResult.done();
+			else
+				return TransferResult.accountNotFound();
+		} catch (ExcessiveTransactionAmount e) {
+			return TransferResult.excessiveAmount(e);
+		}
+	}
+
+	/**
+	 * Primera fase, en la particion de origen: descuenta y reserva los fondos de la cuenta de origen.
+	 * */
+	private static void reserve(Bank shard, CrossTransfer transfer) {
+		ReentrantLock lock = shard.lockOf(transfer.originKey);
+		MutationLog log = shard.getMutationLog();
+		long sequence = 0;
+
+		lock.lock();
+		try {
+			Account origin = shard.getAccount(transfer.originKey);
+
+			if(origin == null) {
+				transfer.result = TransferResult.accountNotFound();
+				return;
+			}
+
+			if(log != null)
+				log.checkWritable();
+
+			transfer.reserved = origin.withdrawForTransfer(transfer.amount);
+			transfer.origin = origin;
+
+			if(log != null)
+				sequence = log.logPrepare(transfer.id, origin.getAccountNumber(), Account.decode(transfer.destinyKey), transfer.reserved);
+		} catch (ExcessiveTransactionAmount e) {
+			transfer.result = TransferResult.excessiveAmount(e);
+		} finally {
+			lock.unlock();
+		}
+
+		if(sequence != 0)
+			log.awaitCommit(sequence);
+	}
+
+	/**
+	 * Segunda fase, en la particion destino: si la reserva se realizo y la cuenta destino existe, abona el monto
+	 * y lo guarda en su historial.
+	 * */
+	private static void commit(Bank shard, CrossTransfer transfer) {
+		if(transfer.result != null)
+			return;
+
+		ReentrantLock lock = shard.lockOf(transfer.destinyKey);
+		MutationLog log = shard.getMutationLog();
+		long sequence = 0;
+
+		lock.lock();
+		try {
+			Account destiny = shard.getAccount(transfer.destinyKey);
+
+			if(log != null)
+				log.checkWritable();
+
+			if(destiny == null) {
+				if(log != null)
+					sequence = log.logAbort(transfer.id, Account.decode(transfer.destinyKey), 0);
+				return;
+			}
+
+			destiny.depositForTransfer(transfer.amount);
+			destiny.addTransaction(transfer.amount, transfer.origin);
+			transfer.destiny = destiny;
+
+			if(log != null)
+				sequence = log.logCommit(transfer.id, destiny.getAccountNumber(), transfer.amount);
+		} finally {
+			lock.unlock();
+		}
+
+		if(sequence != 0)
+			log.awaitCommit(sequence);
+	}
+
+	/**
+	 * Termina la transferencia en la particion de origen: si se confirmo guarda el historial de la cuenta de
+	 * origen, y si la cuenta destino no existia o alguna fase fallo despues de reservar libera la reserva.
+	 * @param failure excepcion de la reserva o de la confirmacion, null si no hubo.
+	 * @return resultado de la transferencia.
+	 * @throws CompletionException si alguna fase fallo, despues de liberar la reserva.
+	 * */
+	private static TransferResult finish(Bank shard, CrossTransfer transfer, Throwable failure) {
+		//Sin reserva no hay nada que devolver
+		if(transfer.origin == null) {
+			if(failure != null)
+				throw completion(failure);
+
+			return transfer.result;
+		}
+
+		ReentrantLock lock = shard.lockOf(transfer.originKey);
+		MutationLog log = shard.getMutationLog();
+		long sequence = 0;
+
+		lock.lock();
+		try {
+			//La cuenta de origen se pudo eliminar (o reemplazar) mientras la transferencia pasaba por la particion destino
+			boolean originExists = (shard.getAccount(transfer.originKey) == transfer.origin);
+
+			//Si la cuenta destino ya se abono los fondos se movieron aunque luego fallara su registro, no se devuelven
+			if(transfer.destiny != null) {
+				if(originExists)
+					transfer.origin.addTransaction(-transfer.reserved, transfer.destiny);
+
+				transfer.result = TransferResult.done();
+
+				if(log != null)
+					sequence = log.logCommit(transfer.id, transfer.origin.getAccountNumber(), 0);
+			}
+			else {
+				int refund = originExists ? transfer.reserved : 0;
+
+				if(originExists)
+					transfer.origin.credit(refund);
+
+				transfer.result = TransferResult.accountNotFound();
+
+				if(log != null)
+					sequence = log.logAbort(transfer.id, transfer.origin.getAccountNumber(), refund);
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if(sequence != 0)
+			log.awaitCommit(sequence);
+
+		if(failure != null)
+			throw completion(failure);
+
+		return transfer.result;
+	}
+
+	/**
+	 * @return la excepcion envuelta en una CompletionException, o la misma si ya lo estaba.
+	 * */
+	private static CompletionException completion(Throwable failure) {
+		return (failure instanceof CompletionException) ? (CompletionException) failure : new CompletionException(failure);
+	}
+}
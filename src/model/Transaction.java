@@ -14,7 +14,9 @@ public class Transaction {
 
 	private int amount;							//Monto asociado a la transaccion, (negativo indica un cargo, positivo un abono)
 	private LocalDate date;						//Fecha cuando se realizo la transaccion
-	private Addressee asociatedAccount;			//Cuenta asociada a la transaccion
+	private int counterparty;					//Numero de cuenta codificado de la cuenta asociada, 0 si no hay
+	private Bank bank;							//Banco donde se busca la cuenta asociada, null si no hay
+	private Addressee addressee;				//Destinatario de la cuenta asociada, se crea la primera vez que se pide
 	
 	/**
 	 * Constructor, inicializa el monto con la cantidad ingresada y la fecha actual
@@ -23,7 +25,6 @@ public class Transaction {
 	public Transaction(int amount) {
 		setAmount(amount);
 		this.date = LocalDate.now();
-		this.asociatedAccount = new Addressee();
 	}
 	
 	/**
@@ -34,7 +35,21 @@ public class Transaction {
 	public Transaction(int amount, Account asociatedAccount) {
 		setAmount(amount);
 		this.date = LocalDate.now();
-		this.asociatedAccount = new Addressee(asociatedAccount);
+		setAccount(asociatedAccount);
+	}
+	
+	/**
+	 * Constructor, establece el monto, la fecha y la cuenta asociada, se usa al recorrer un historial guardado.
+	 * @param amount monto asociado a la transaccion
+	 * @param date fecha en que se realizo la transaccion
+	 * @param counterparty numero de cuenta codificado de la cuenta asociada a la transaccion
+	 * @param bank banco donde se busca la cuenta asociada
+	 * */
+	Transaction(int amount, LocalDate date, int counterparty, Bank bank) {
+		setAmount(amount);
+		this.date = date;
+		this.counterparty = counterparty;
+		this.bank = bank;
 	}
 	
 	/**
@@ -52,10 +67,26 @@ public class Transaction {
 	}
 	
 	/**
-	 * @return Destinatario de la cuenta asociada a la transaccion
+	 * Obtiene el destinatario de la cuenta asociada, la cuenta se busca la primera vez que se pide y el destinatario
+	 * se guarda en la transaccion, asi sus cambios se mantienen. Si la cuenta asociada ya no existe, el
+	 * destinatario conserva su numero de cuenta.
+	 * @return Destinatario de la cuenta asociada a la transaccion, uno sin numero de cuenta si no hay cuenta asociada
 	 * */
 	public Addressee getAddressee() {
-		return this.asociatedAccount;
+		if(this.addressee == null) {
+			Account account = (this.bank != null) ? this.bank.getAccount(this.counterparty) : null;
+			
+			this.addressee = (account != null) ? new Addressee(account) : new Addressee(this.counterparty);
+		}
+		
+		return this.addressee;
+	}
+	
+	/**
+	 * @return numero de cuenta codificado de la cuenta asociada a la transaccion, 0 si no hay
+	 * */
+	public int getCounterparty() {
+		return this.counterparty;
 	}
 	
 	/**
@@ -66,9 +97,12 @@ public class Transaction {
 	}
 	
 	/**
+	 * Establece la cuenta asociada, solo se guarda su numero codificado y el banco donde esta.
 	 * @param newAsociatedAccount establece un nuevo numero de cuenta para la cuenta asociada
 	 * */
 	public void setAccount(Account newAsociatedAccount) {
-		this.asociatedAccount.setAccount(newAsociatedAccount);
+		this.counterparty = (newAsociatedAccount != null) ? newAsociatedAccount.getAccountKey() : 0;
+		this.bank = (newAsociatedAccount != null) ? newAsociatedAccount.getOwner() : null;
+		this.addressee = null;
 	}
 }
@@ -0,0 +1,313 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clase que modela el historial de transacciones de una cuenta como un buffer circular de capacidad fija,
+ * guardado en columnas primitivas: monto, dia (dias desde 1970-01-01) y numero de cuenta codificado de la
+ * cuenta asociada. Agregar una transaccion no crea objetos; al llenarse, cada transaccion nueva reemplaza
+ * a la mas antigua.
+ * Las transacciones se recorren por indice, desde la mas antigua (indice 0) a la mas reciente, sin copiar
+ * el historial. Las escrituras las realiza el banco con el candado de la cuenta tomado; una lectura simultanea
+ * a una escritura puede ver la transaccion mas antigua ya reemplazada.
+ * Si el banco de la cuenta tiene un almacenamiento de historial (HistoryStore), las transacciones reemplazadas
+ * se entregan a ese almacenamiento, y se pueden consultar por paginas con getPage.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class TransactionHistory implements Iterable<Transaction> {
+
+	private static volatile long todayStart = Long.MAX_VALUE;	//Inicio del dia actual en milisegundos.
+	private static volatile long todayEnd = Long.MIN_VALUE;		//Fin del dia actual en milisegundos (exclusivo).
+	private static volatile int today;							//Dia actual en dias desde 1970-01-01.
+
+	private int[] amounts;						//Montos de las transacciones.
+	private int[] days;							//Dias de las transacciones, en dias desde 1970-01-01.
+	private int[] counterparties;				//Numeros de cuenta codificados de las cuentas asociadas.
+	private volatile long count;				//Cantidad total de transacciones agregadas desde la creacion.
+	private Account owner;						//Cuenta duena del historial.
+
+	/**
+	 * Constructor, crea el historial vacio con la capacidad ingresada.
+	 * @param capacity cantidad maxima de transacciones guardadas.
+	 * @param owner cuenta duena del historial.
+	 * */
+	TransactionHistory(int capacity, Account owner) {
+		this.amounts = new int[capacity];
+		this.days = new int[capacity];
+		this.counterparties = new int[capacity];
+		this.owner = owner;
+	}
+
+	/**
+	 * Agrega una transaccion con la fecha actual, reemplazando a la mas antigua si el historial esta lleno.
+	 * @param amount monto de la transaccion.
+	 * @param counterparty numero de cuenta codificado de la cuenta asociada.
+	 * */
+	void add(int amount, int counterparty) {
+		add(amount, currentEpochDay(), counterparty);
+	}
+
+	/**
+	 * Agrega una transaccion, reemplazando a la mas antigua si el historial esta lleno.
+	 * @param amount monto de la transaccion.
+	 * @param day dia de la transaccion, en dias desde 1970-01-01.
+	 * @param counterparty numero de cuenta codificado de la cuenta asociada.
+	 * */
+	void add(int amount, int day, int counterparty) {
+		long count = this.count;
+		int slot = (int) (count % this.amounts.length);
+		
+		//Si el historial esta lleno, la transaccion que se reemplaza pasa al almacenamiento del banco
+		if(count >= this.amounts.length) {
+			Bank bank = this.owner.getOwner();
+			HistoryStore store = (bank != null) ? bank.getHistoryStore() : null;
+			
+			if(store != null)
+				store.append(this.owner.getAccountKey(), this.amounts[slot], this.days[slot], this.counterparties[slot]);
+		}
+
+		this.amounts[slot] = amount;
+		this.days[slot] = day;
+		this.counterparties[slot] = counterparty;
+		this.count = count + 1;				//Se publica la transaccion despues de escribirla
+	}
+
+	/**
+	 * @return capacidad del historial.
+	 * */
+	public int capacity() {
+		return this.amounts.length;
+	}
+
+	/**
+	 * @return cantidad de transacciones guardadas.
+	 * */
+	public int size() {
+		return (int) Math.min(this.count, this.amounts.length);
+	}
+
+	/**
+	 * @return cantidad total de transacciones agregadas desde la creacion del historial, incluyendo las reemplazadas.
+	 * */
+	public long totalCount() {
+		return this.count;
+	}
+
+	/**
+	 * @param index indice de la transaccion, 0 es la mas antigua guardada.
+	 * @return monto de la transaccion.
+	 * */
+	public int getAmount(int index) {
+		return this.amounts[slotOf(index)];
+	}
+
+	/**
+	 * @param index indice de la transaccion, 0 es la mas antigua guardada.
+	 * @return dia de la transaccion, en dias desde 1970-01-01.
+	 * */
+	public int getEpochDay(int index) {
+		return this.days[slotOf(index)];
+	}
+
+	/**
+	 * @param index indice de la transaccion, 0 es la mas antigua guardada.
+	 * @return numero de cuenta codificado de la cuenta asociada a la transaccion.
+	 * */
+	public int getCounterparty(int index) {
+		return this.counterparties[slotOf(index)];
+	}
+
+	/**
+	 * Obtiene la transaccion del indice ingresado como objeto Transaction, se crea al momento de pedirla.
+	 * @param index indice de la transaccion, 0 es la mas antigua guardada.
+	 * @return transaccion del indice ingresado.
+	 * */
+	public Transaction get(int index) {
+		int slot = slotOf(index);
+
+		return new Transaction(this.amounts[slot], LocalDate.ofEpochDay(this.days[slot]), this.counterparties[slot], this.owner.getOwner());
+	}
+
+	/**
+	 * Obtiene una pagina del historial completo de la cuenta, incluyendo las transacciones guardadas en el
+	 * almacenamiento del banco, desde la mas reciente a la mas antigua. Las transacciones antiguas se leen
+	 * del almacenamiento solo si la pagina las incluye.
+	 * @param page numero de pagina, la pagina 0 contiene las transacciones mas recientes.
+	 * @param pageSize cantidad de transacciones por pagina.
+	 * @return transacciones de la pagina, desde la mas reciente a la mas antigua.
+	 * */
+	public ArrayList<Transaction> getPage(int page, int pageSize) {
+		Bank bank = this.owner.getOwner();
+		HistoryStore store = (bank != null) ? bank.getHistoryStore() : null;
+		ReentrantLock lock = (bank != null) ? bank.lockOf(this.owner.getAccountKey()) : null;
+		ArrayList<Transaction> transactions = new ArrayList<Transaction>();
+		long stored;
+		long start;
+		long end;
+		
+		//Igual que en read, la cantidad guardada y las transacciones en memoria se leen con el candado de la
+		//cuenta tomado, asi una transferencia simultanea no mueve una transaccion entre ambos a medio leer
+		if(lock != null)
+			lock.lock();
+		try {
+			stored = (store != null) ? store.count(this.owner.getAccountKey()) : 0;
+			end = stored + size() - (long) page * pageSize;		//Fin (exclusivo) de la pagina en el historial completo
+			start = Math.max(0, end - pageSize);				//Inicio de la pagina en el historial completo
+			
+			if((page < 0) || (pageSize <= 0) || (end <= 0))
+				return transactions;
+			
+			//Transacciones mas recientes, en memoria
+			for(long i = end - 1; (i >= start) && (i >= stored); --i)
+				transactions.add(get((int) (i - stored)));
+		} finally {
+			if(lock != null)
+				lock.unlock();
+		}
+		
+		//Transacciones antiguas, en el almacenamiento, no cambian y se leen sin el candado
+		if(start < stored) {
+			int length = (int) (Math.min(end, stored) - start);
+			int[] amounts = new int[length];
+			int[] days = new int[length];
+			int[] counterparties = new int[length];
+			int read = store.read(this.owner.getAccountKey(), start, amounts, days, counterparties, length);
+			
+			for(int i = read - 1; i >= 0; --i)
+				transactions.add(new Transaction(amounts[i], LocalDate.ofEpochDay(days[i]), counterparties[i], bank));
+		}
+		
+		return transactions;
+	}
+
+	/**
+	 * @return cantidad de transacciones del historial completo de la cuenta: las guardadas en el almacenamiento
+	 * del banco mas las que estan en memoria.
+	 * */
+	public long fullCount() {
+		Bank bank = this.owner.getOwner();
+		HistoryStore store = (bank != null) ? bank.getHistoryStore() : null;
+
+		if(store == null)
+			return size();
+
+		ReentrantLock lock = bank.lockOf(this.owner.getAccountKey());
+
+		lock.lock();
+		try {
+			return store.count(this.owner.getAccountKey()) + size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Lee un rango del historial completo de la cuenta en columnas, sin crear objetos. Las transacciones se
+	 * numeran desde la mas antigua del almacenamiento del banco (0) hasta la mas reciente en memoria
+	 * (fullCount() - 1). Las transacciones en memoria se copian con el candado de la cuenta tomado, asi una
+	 * transferencia simultanea no las reemplaza a medio leer; las del almacenamiento se leen sin el candado.
+	 * @param from numero de la primera transaccion a leer.
+	 * @param amounts arreglo donde se guardan los montos.
+	 * @param days arreglo donde se guardan los dias.
+	 * @param counterparties arreglo donde se guardan los numeros codificados de las cuentas asociadas.
+	 * @param length cantidad maxima de transacciones a leer.
+	 * @return cantidad de transacciones leidas, puede ser menor a length; 0 si no hay mas.
+	 * */
+	public int read(long from, int[] amounts, int[] days, int[] counterparties, int length) {
+		Bank bank = this.owner.getOwner();
+		HistoryStore store = (bank != null) ? bank.getHistoryStore() : null;
+		ReentrantLock lock = (bank != null) ? bank.lockOf(this.owner.getAccountKey()) : null;
+		long stored;
+
+		if(lock != null)
+			lock.lock();
+		try {
+			stored = (store != null) ? store.count(this.owner.getAccountKey()) : 0;
+
+			if(from >= stored) {
+				int first = (int) Math.min(Integer.MAX_VALUE, from - stored);
+				int read = Math.max(0, Math.min(length, size() - first));
+
+				for(int i = 0; i < read; ++i) {
+					int slot = slotOf(first + i);
+
+					amounts[i] = this.amounts[slot];
+					days[i] = this.days[slot];
+					counterparties[i] = this.counterparties[slot];
+				}
+
+				return read;
+			}
+		} finally {
+			if(lock != null)
+				lock.unlock();
+		}
+
+		//Las transacciones guardadas no cambian, solo se agregan nuevas al final
+		return store.read(this.owner.getAccountKey(), from, amounts, days, counterparties, (int) Math.min(length, stored - from));
+	}
+
+	/**
+	 * @return iterador de las transacciones, desde la mas antigua a la mas reciente.
+	 * */
+	@Override
+	public Iterator<Transaction> iterator() {
+		return new Iterator<Transaction>() {
+			private int next = 0;
+			private final int size = size();
+
+			@Override
+			public boolean hasNext() {
+				return this.next < this.size;
+			}
+
+			@Override
+			public Transaction next() {
+				if(this.next >= this.size)
+					throw new NoSuchElementException();
+
+				return get(this.next++);
+			}
+		};
+	}
+
+	/**
+	 * @return posicion en las columnas de la transaccion del indice ingresado.
+	 * */
+	private int slotOf(int index) {
+		long count = this.count;
+		long first = Math.max(0, count - this.amounts.length);
+
+		if((index < 0) || (first + index >= count))
+			throw new IndexOutOfBoundsException(index);
+
+		return (int) ((first + index) % this.amounts.length);
+	}
+
+	/**
+	 * Obtiene el dia actual sin crear objetos mientras no cambie el dia, solo se recalcula al pasar de dia.
+	 * @return dia actual, en dias desde 1970-01-01.
+	 * */
+	static int currentEpochDay() {
+		long now = System.currentTimeMillis();
+
+		if((now < todayStart) || (now >= todayEnd)) {
+			ZoneId zone = ZoneId.systemDefault();
+			LocalDate date = LocalDate.now(zone);
+
+			today = (int) date.toEpochDay();
+			todayEnd = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+			todayStart = date.atStartOfDay(zone).toInstant().toEpochMilli();
+		}
+
+		return today;
+	}
+}
@@ -0,0 +1,51 @@
+package model;
+
+/**
+ * Clase que modela una solicitud de transferencia entre dos cuentas, usada para aplicar lotes de
+ * transferencias en el banco.
+ * 
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class Transfer {
+
+	public static final int MIN_AMOUNT = 100;		//Monto minimo de una transferencia pedida por el cliente, lo usan todos los controladores.
+
+	private String originAccountNumber;			//Numero de la cuenta de origen de los fondos.
+	private String destinyAccountNumber;		//Numero de la cuenta destino de los fondos.
+	private int amount;							//Monto a transferir.
+	
+	/**
+	 * Constructor, establece todos los atributos de la transferencia.
+	 * @param originAccountNumber numero de la cuenta de origen.
+	 * @param destinyAccountNumber numero de la cuenta destino.
+	 * @param amount monto a transferir.
+	 * */
+	public Transfer(String originAccountNumber, String destinyAccountNumber, int amount) {
+		this.originAccountNumber = originAccountNumber;
+		this.destinyAccountNumber = destinyAccountNumber;
+		this.amount = amount;
+	}
+	
+	/**
+	 * @return numero de la cuenta de origen.
+	 * */
+	public String getOriginAccountNumber() {
+		return this.originAccountNumber;
+	}
+	
+	/**
+	 * @return numero de la cuenta destino.
+	 * */
+	public String getDestinyAccountNumber() {
+		return this.destinyAccountNumber;
+	}
+	
+	/**
+	 * @return monto a transferir.
+	 * */
+	public int getAmount() {
+		return this.amount;
+	}
+}
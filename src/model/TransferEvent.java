@@ -0,0 +1,56 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JDK Flight Recorder de una transferencia entre cuentas (Bank.transactionBetweenAccounts), con su
+ * duracion desde que se buscan las cuentas hasta que el registro de modificaciones la confirma. Si no hay una
+ * grabacion con el evento activo, el evento no se guarda ni obtiene sus datos, y el compilador elimina su creacion.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+@Name("bankapp.Transfer")
+@Label("Transferencia")
+@Category({"BankApp", "Banco"})
+@Description("Transferencia entre dos cuentas del banco")
+@StackTrace(false)
+final class TransferEvent extends Event {
+
+	@Label("Cuenta de origen")
+	String originAccount;						//Numero de la cuenta de origen, vacio si no es valido.
+
+	@Label("Cuenta de destino")
+	String destinyAccount;						//Numero de la cuenta de destino, vacio si no es valido.
+
+	@Label("Monto")
+	int amount;									//Monto transferido.
+
+	@Label("Resultado")
+	@Description("DONE, ACCOUNT_NOT_FOUND, EXCESSIVE_AMOUNT o ERROR si la transferencia fallo por otra causa")
+	String outcome;								//Resultado de la transferencia.
+
+	/**
+	 * Termina el evento y lo guarda si corresponde, solo en ese caso decodifica los numeros de cuenta.
+	 * @param originAccountKey numero codificado de la cuenta de origen.
+	 * @param destinyAccountKey numero codificado de la cuenta de destino.
+	 * @param amount monto transferido.
+	 * @param outcome resultado de la transferencia, null si fallo por una excepcion inesperada.
+	 * */
+	void finish(int originAccountKey, int destinyAccountKey, int amount, TransferStatus outcome) {
+		if(!shouldCommit())
+			return;
+
+		this.originAccount = (originAccountKey > 0) ? Account.decode(originAccountKey) : "";
+		this.destinyAccount = (destinyAccountKey > 0) ? Account.decode(destinyAccountKey) : "";
+		this.amount = amount;
+		this.outcome = (outcome != null) ? outcome.name() : "ERROR";
+		commit();
+	}
+}
@@ -0,0 +1,347 @@
+package model;
+
+import exceptions.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clase que realiza transferencias del banco en etapas, cada una en su propio hilo y conectadas por colas
+ * circulares de capacidad fija:
+ * 1. Validacion: valida los numeros de cuenta y que el monto este dentro de los limites.
+ * 2. Saldos: un unico hilo modifica los saldos, en el mismo orden en que se enviaron las transferencias, y las
+ *    registra en el registro de modificaciones del banco, si hay.
+ * 3. Historial y aviso: guarda las transferencias en el historial de ambas cuentas, espera a que su registro se
+ *    guarde y completa el resultado entregado al enviarla.
+ * Mientras la etapa de saldos procesa una transferencia, las demas etapas avanzan con otras. Si una cola se
+ * llena, la etapa anterior (o quien envia la transferencia) espera, por lo que la memoria usada es fija.
+ * Las transferencias realizadas directamente con el banco pueden ocurrir a la vez: la etapa de saldos toma los
+ * mismos candados que Bank.transactionBetweenAccounts.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class TransferPipeline implements AutoCloseable {
+
+	public static final int DEFAULT_CAPACITY = 4096;		//Capacidad por defecto de cada cola.
+	public static final int DEFAULT_MIN_AMOUNT = Transfer.MIN_AMOUNT;	//Monto minimo por defecto de una transferencia.
+
+	/**
+	 * Clase que guarda una transferencia mientras pasa por las etapas.
+	 * */
+	private static final class Job {
+		final String originAccountNumber;					//Numero de la cuenta de origen.
+		final String destinyAccountNumber;					//Numero de la cuenta destino.
+		final int amount;									//Monto transferido.
+		final CompletableFuture<TransferResult> result;		//Resultado entregado al enviar la transferencia.
+		Account origin;										//Cuenta de origen, la obtiene la etapa de saldos.
+		Account destiny;									//Cuenta destino, la obtiene la etapa de saldos.
+		int originKey;										//Numero codificado de la cuenta de origen.
+		int destinyKey;										//Numero codificado de la cuenta destino.
+		int charged;										//Cantidad descontada de la cuenta de origen.
+		long sequence;										//Numero de secuencia en el registro, 0 si no se registro.
+		TransferResult outcome;								//Resultado de la etapa de saldos.
+
+		Job(String originAccountNumber, String destinyAccountNumber, int amount) {
+			this.originAccountNumber = originAccountNumber;
+			this.destinyAccountNumber = destinyAccountNumber;
+			this.amount = amount;
+			this.result = new CompletableFuture<TransferResult>();
+		}
+	}
+
+	private static final Job END = new Job(null, null, 0);	//Marca de fin, cada etapa la entrega a la siguiente.
+
+	private Bank bank;										//Banco en el que se realizan las transferencias.
+	private int minAmount;									//Monto minimo de una transferencia.
+	private int maxAmount;									//Monto maximo de una transferencia.
+	private ArrayBlockingQueue<Job> validationQueue;		//Transferencias enviadas, por validar.
+	private ArrayBlockingQueue<Job> mutationQueue;			//Transferencias validas, por aplicar a los saldos.
+	private ArrayBlockingQueue<Job> historyQueue;			//Transferencias aplicadas, por guardar en el historial.
+	private Thread[] stages;								//Hilos de las etapas.
+	private volatile boolean closed;						//Indica si ya no se aceptan transferencias.
+
+	/**
+	 * Constructor, inicia las etapas con la capacidad y los limites de monto por defecto.
+	 * @param bank banco en el que se realizan las transferencias.
+	 * */
+	public TransferPipeline(Bank bank) {
+		this(bank, DEFAULT_CAPACITY, DEFAULT_MIN_AMOUNT, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Constructor, inicia los hilos de las etapas.
+	 * @param bank banco en el que se realizan las transferencias.
+	 * @param capacity capacidad de cada cola entre etapas.
+	 * @param minAmount monto minimo de una transferencia.
+	 * @param maxAmount monto maximo de una transferencia.
+	 * */
+	public TransferPipeline(Bank bank, int capacity, int minAmount, int maxAmount) {
+		this.bank = bank;
+		this.minAmount = minAmount;
+		this.maxAmount = maxAmount;
+		this.validationQueue = new ArrayBlockingQueue<Job>(capacity);
+		this.mutationQueue = new ArrayBlockingQueue<Job>(capacity);
+		this.historyQueue = new ArrayBlockingQueue<Job>(capacity);
+
+		this.stages = new Thread[] {
+			new Thread(this::validate, "bank-pipeline-validation"),
+			new Thread(this::mutate, "bank-pipeline-balances"),
+			new Thread(this::record, "bank-pipeline-history")
+		};
+
+		for(Thread stage : this.stages) {
+			stage.setDaemon(true);
+			stage.start();
+		}
+	}
+
+	/**
+	 * Envia una transferencia a la primera etapa, si su cola esta llena espera a que haya espacio.
+	 * @param originAccountNumber numero de la cuenta de origen.
+	 * @param destinyAccountNumber numero de la cuenta destino.
+	 * @param amount monto a transferir.
+	 * @return resultado de la transferencia, se completa al terminar la ultima etapa.
+	 * */
+	public CompletableFuture<TransferResult> submit(String originAccountNumber, String destinyAccountNumber, int amount) {
+		Job job = new Job(originAccountNumber, destinyAccountNumber, amount);
+
+		//Se revisa y se envia con el monitor tomado, asi ninguna transferencia queda despues de la marca de fin
+		synchronized(this) {
+			if(this.closed)
+				throw new IllegalStateException("El procesamiento de transferencias esta cerrado");
+
+			putUninterruptibly(this.validationQueue, job);
+		}
+
+		return job.result;
+	}
+
+	/**
+	 * @return cantidad de transferencias esperando la etapa de validacion.
+	 * */
+	public int getValidationQueueDepth() {
+		return this.validationQueue.size();
+	}
+
+	/**
+	 * @return cantidad de transferencias esperando la etapa de saldos.
+	 * */
+	public int getMutationQueueDepth() {
+		return this.mutationQueue.size();
+	}
+
+	/**
+	 * @return cantidad de transferencias esperando la etapa de historial y aviso.
+	 * */
+	public int getHistoryQueueDepth() {
+		return this.historyQueue.size();
+	}
+
+	/**
+	 * Deja de aceptar transferencias, espera a que se procesen las ya enviadas y detiene las etapas.
+	 * */
+	@Override
+	public void close() {
+		synchronized(this) {
+			if(this.closed)
+				return;
+
+			this.closed = true;
+			putUninterruptibly(this.validationQueue, END);
+		}
+
+		for(Thread stage : this.stages) {
+			try {
+				stage.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Etapa de validacion: valida los numeros de cuenta y el monto; las transferencias no validas se completan
+	 * de inmediato y las validas pasan a la etapa de saldos.
+	 * */
+	private void validate() {
+		Job job;
+
+		while((job = takeUninterruptibly(this.validationQueue)) != END) {
+			try {
+				job.originKey = Account.encode(job.originAccountNumber);
+				job.destinyKey = Account.encode(job.destinyAccountNumber);
+			} catch (RuntimeException e) {
+				job.result.completeExceptionally(e);
+				continue;
+			}
+
+			if((job.originKey < 0) || (job.destinyKey < 0) || (job.amount < this.minAmount) || (job.amount > this.maxAmount))
+				job.result.complete(TransferResult.invalidRequest());
+			else
+				putUninterruptibly(this.mutationQueue, job);
+		}
+
+		putUninterruptibly(this.mutationQueue, END);
+	}
+
+	/**
+	 * Etapa de saldos: un unico hilo aplica las transferencias a los saldos en orden, con los candados de ambas
+	 * cuentas tomados, y las registra. No guarda el historial ni espera al registro. Si una transferencia falla
+	 * por un error inesperado, su resultado se completa con el error y la etapa sigue con las demas.
+	 * */
+	private void mutate() {
+		Job job;
+
+		while((job = takeUninterruptibly(this.mutationQueue)) != END) {
+			try {
+				applyBalances(job);
+			} catch (RuntimeException e) {
+				job.result.completeExceptionally(e);
+				continue;
+			}
+
+			putUninterruptibly(this.historyQueue, job);
+		}
+
+		putUninterruptibly(this.historyQueue, END);
+	}
+
+	/**
+	 * Aplica una transferencia a los saldos y la registra, dejando su resultado en job.outcome.
+	 * */
+	private void applyBalances(Job job) {
+		Account origin = this.bank.getAccount(job.originKey);
+		Account destiny = this.bank.getAccount(job.destinyKey);
+
+		if((origin == null) || (destiny == null)) {
+			job.outcome = TransferResult.accountNotFound();
+		}
+		else {
+			MutationLog log = this.bank.getMutationLog();
+			ReentrantLock first = this.bank.lockOf(job.originKey);
+			ReentrantLock second = this.bank.lockOf(job.destinyKey);
+
+			//Mismo orden de candados que Bank.transactionBetweenAccounts
+			if(this.bank.indexOf(job.originKey) > this.bank.indexOf(job.destinyKey)) {
+				ReentrantLock aux = first;
+				first = second;
+				second = aux;
+			}
+
+			first.lock();
+			second.lock();
+			try {
+				if((this.bank.getAccount(job.originKey) != origin) || (this.bank.getAccount(job.destinyKey) != destiny)) {
+					job.outcome = TransferResult.accountNotFound();
+				}
+				else {
+					if(log != null)
+						log.checkWritable();
+
+					//El mismo dia con que se abona se guarda en el registro, asi la reconstruccion lo aplica igual
+					int epochDay = TransactionHistory.currentEpochDay();
+					BalanceVersions.Commit commit = this.bank.getVersions().begin(origin, destiny);
+					try {
+						job.charged = origin.withdrawForTransfer(job.amount);
+						destiny.depositForTransfer(job.amount, epochDay);
+					} finally {
+						this.bank.getVersions().commit(commit, origin, destiny);
+					}
+					job.origin = origin;
+					job.destiny = destiny;
+					job.outcome = TransferResult.done();
+
+					if(log != null)
+						job.sequence = log.logTransfer(origin.getAccountNumber(), destiny.getAccountNumber(), job.amount, epochDay);
+				}
+			} catch (ExcessiveTransactionAmount e) {
+				job.outcome = TransferResult.excessiveAmount(e);
+			} finally {
+				second.unlock();
+				first.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Etapa de historial y aviso: guarda las transferencias realizadas en el historial de ambas cuentas, espera a
+	 * que su registro se guarde y completa su resultado.
+	 * */
+	private void record() {
+		Job job;
+
+		while((job = takeUninterruptibly(this.historyQueue)) != END) {
+			try {
+				if(job.origin != null) {
+					addTransaction(job.origin, job.originKey, -job.charged, job.destiny);
+					addTransaction(job.destiny, job.destinyKey, job.amount, job.origin);
+
+					if(job.sequence != 0)
+						this.bank.getMutationLog().awaitCommit(job.sequence);
+				}
+
+				job.result.complete(job.outcome);
+			} catch (RuntimeException e) {
+				job.result.completeExceptionally(e);
+			}
+		}
+	}
+
+	/**
+	 * Guarda una transaccion en el historial de la cuenta, con el candado de la cuenta tomado.
+	 * */
+	private void addTransaction(Account account, int accountKey, int amount, Account asociatedAccount) {
+		ReentrantLock lock = this.bank.lockOf(accountKey);
+
+		lock.lock();
+		try {
+			account.addTransaction(amount, asociatedAccount);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Agrega un elemento a la cola, esperando si esta llena aunque el hilo se interrumpa.
+	 * */
+	private static void putUninterruptibly(ArrayBlockingQueue<Job> queue, Job job) {
+		boolean interrupted = false;
+
+		while(true) {
+			try {
+				queue.put(job);
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if(interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Obtiene un elemento de la cola, esperando si esta vacia aunque el hilo se interrumpa.
+	 * */
+	private static Job takeUninterruptibly(ArrayBlockingQueue<Job> queue) {
+		boolean interrupted = false;
+		Job job;
+
+		while(true) {
+			try {
+				job = queue.take();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if(interrupted)
+			Thread.currentThread().interrupt();
+
+		return job;
+	}
+}
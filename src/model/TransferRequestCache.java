@@ -0,0 +1,185 @@
+package model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clase que guarda los resultados de las transferencias realizadas con un identificador de solicitud, para que
+ * un reintento con el mismo identificador obtenga el resultado original sin volver a mover el dinero.
+ * El cache tiene capacidad fija: se separa en segmentos, cada uno con su propio candado y un mapa en orden de
+ * insercion; al llenarse un segmento se descarta su resultado terminado mas antiguo, y los resultados terminados
+ * mas antiguos que el tiempo de expiracion se descartan al consultarlos o al agregar uno nuevo.
+ * Las solicitudes que aun se realizan nunca se descartan (un segmento puede superar su capacidad mientras
+ * tanto), asi un reintento concurrente no puede volver a realizar la transferencia; espera su resultado.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+class TransferRequestCache {
+
+	public static final int DEFAULT_CAPACITY = 65536;		//Cantidad de resultados que se guardan por defecto.
+	public static final long DEFAULT_EXPIRATION_MILLIS = 10 * 60 * 1000;	//Tiempo de expiracion por defecto (10 minutos).
+
+	private static final int SEGMENTS = 64;					//Cantidad de segmentos del cache (potencia de 2).
+
+	/**
+	 * Clase que guarda el resultado de una solicitud y el momento en que se registro.
+	 * */
+	private static final class Entry {
+		final CompletableFuture<TransferResult> result;		//Resultado de la transferencia, se completa al terminarla.
+		final long createdNanos;							//Momento en que se registro la solicitud.
+
+		Entry(CompletableFuture<TransferResult> result, long createdNanos) {
+			this.result = result;
+			this.createdNanos = createdNanos;
+		}
+	}
+
+	/**
+	 * Clase que modela un segmento del cache, en orden de insercion.
+	 * */
+	private static final class Segment extends LinkedHashMap<String, Entry> {
+		private static final long serialVersionUID = 1L;
+
+		final ReentrantLock lock;							//Candado del segmento.
+		final int capacity;									//Cantidad maxima de resultados terminados del segmento.
+
+		Segment(int capacity) {
+			super(16, 0.75f, false);
+			this.lock = new ReentrantLock();
+			this.capacity = capacity;
+		}
+	}
+
+	private Segment[] segments;								//Segmentos del cache, se elige uno segun el identificador.
+	private long expirationNanos;							//Tiempo que se guarda cada resultado.
+
+	/**
+	 * Constructor, crea el cache vacio.
+	 * @param capacity cantidad maxima de resultados guardados, se reparte entre los segmentos.
+	 * @param expirationMillis milisegundos que se guarda cada resultado.
+	 * */
+	TransferRequestCache(int capacity, long expirationMillis) {
+		if((capacity <= 0) || (expirationMillis <= 0))
+			throw new IllegalArgumentException("La capacidad y el tiempo de expiracion deben ser positivos");
+
+		this.segments = new Segment[SEGMENTS];
+		this.expirationNanos = TimeUnit.MILLISECONDS.toNanos(expirationMillis);
+
+		for(int i = 0; i < SEGMENTS; ++i)
+			this.segments[i] = new Segment(Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS));
+	}
+
+	/**
+	 * Registra una solicitud si no esta registrada (o si su resultado expiro). Si se registra, el llamador debe
+	 * realizar la transferencia y completar el resultado ingresado.
+	 * @param requestId identificador de la solicitud.
+	 * @param pending resultado de la solicitud, aun sin completar.
+	 * @return null si la solicitud se registro, o el resultado (posiblemente aun no terminado) de la solicitud
+	 * registrada anteriormente.
+	 * */
+	CompletableFuture<TransferResult> claim(String requestId, CompletableFuture<TransferResult> pending) {
+		Segment segment = segmentOf(requestId);
+		long now = System.nanoTime();
+
+		segment.lock.lock();
+		try {
+			expire(segment, now);
+
+			Entry entry = segment.get(requestId);
+			if(entry != null)
+				return entry.result;
+
+			segment.put(requestId, new Entry(pending, now));
+			evict(segment);
+			return null;
+		} finally {
+			segment.lock.unlock();
+		}
+	}
+
+	/**
+	 * Descarta una solicitud registrada con claim, por ejemplo si su transferencia fallo por un error inesperado,
+	 * para que un reintento la vuelva a realizar.
+	 * @param requestId identificador de la solicitud.
+	 * @param pending resultado con el que se registro la solicitud, no se descarta si ya se reemplazo por otro.
+	 * */
+	void discard(String requestId, CompletableFuture<TransferResult> pending) {
+		Segment segment = segmentOf(requestId);
+
+		segment.lock.lock();
+		try {
+			Entry entry = segment.get(requestId);
+
+			if((entry != null) && (entry.result == pending))
+				segment.remove(requestId);
+		} finally {
+			segment.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return cantidad de resultados guardados, incluyendo los que aun no se descartan por expiracion.
+	 * */
+	int size() {
+		int size = 0;
+
+		for(Segment segment : this.segments) {
+			segment.lock.lock();
+			try {
+				size += segment.size();
+			} finally {
+				segment.lock.unlock();
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Descarta las entradas terminadas y expiradas del segmento, se debe llamar con el candado del segmento
+	 * tomado. Como las entradas estan en orden de insercion, basta con revisar las mas antiguas.
+	 * */
+	private void expire(Segment segment, long now) {
+		Iterator<Entry> iterator = segment.values().iterator();
+
+		while(iterator.hasNext()) {
+			Entry entry = iterator.next();
+
+			if(now - entry.createdNanos < this.expirationNanos)
+				break;
+
+			if(entry.result.isDone())
+				iterator.remove();
+		}
+	}
+
+	/**
+	 * Descarta las entradas terminadas mas antiguas mientras el segmento supere su capacidad, se debe llamar con
+	 * el candado del segmento tomado. Las entradas que aun se realizan se saltan.
+	 * */
+	private static void evict(Segment segment) {
+		Iterator<Entry> iterator = segment.values().iterator();
+		int excess = segment.size() - segment.capacity;
+
+		while((excess > 0) && iterator.hasNext()) {
+			if(iterator.next().result.isDone()) {
+				iterator.remove();
+				--excess;
+			}
+		}
+	}
+
+	/**
+	 * @return segmento que guarda la solicitud ingresada.
+	 * */
+	private Segment segmentOf(String requestId) {
+		int hash = requestId.hashCode();
+
+		return this.segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+	}
+}
@@ -0,0 +1,80 @@
+package model;
+
+import exceptions.*;
+
+/**
+ * Clase que guarda el resultado de una transferencia: si se realizo, o el motivo por el que no se realizo.
+ * 
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class TransferResult {
+
+	private static final TransferResult DONE = new TransferResult(TransferStatus.DONE, null);
+	private static final TransferResult ACCOUNT_NOT_FOUND = new TransferResult(TransferStatus.ACCOUNT_NOT_FOUND, null);
+	private static final TransferResult INVALID_REQUEST = new TransferResult(TransferStatus.INVALID_REQUEST, null);
+	
+	private TransferStatus status;					//Estado final de la transferencia.
+	private ExcessiveTransactionAmount error;		//Excepcion disparada por la transferencia, null si no hubo.
+	
+	/**
+	 * Constructor, establece el estado y la excepcion asociada al resultado.
+	 * @param status estado final de la transferencia.
+	 * @param error excepcion disparada por la transferencia, puede ser null.
+	 * */
+	private TransferResult(TransferStatus status, ExcessiveTransactionAmount error) {
+		this.status = status;
+		this.error = error;
+	}
+	
+	/**
+	 * @return resultado de una transferencia realizada correctamente.
+	 * */
+	public static TransferResult done() {
+		return DONE;
+	}
+	
+	/**
+	 * @return resultado de una transferencia en la que alguna de las cuentas no existe.
+	 * */
+	public static TransferResult accountNotFound() {
+		return ACCOUNT_NOT_FOUND;
+	}
+	
+	/**
+	 * @return resultado de una transferencia rechazada por un numero de cuenta o un monto no validos.
+	 * */
+	public static TransferResult invalidRequest() {
+		return INVALID_REQUEST;
+	}
+	
+	/**
+	 * @param error excepcion disparada al exceder el saldo de la cuenta de origen.
+	 * @return resultado de una transferencia rechazada por monto excesivo.
+	 * */
+	public static TransferResult excessiveAmount(ExcessiveTransactionAmount error) {
+		return new TransferResult(TransferStatus.EXCESSIVE_AMOUNT, error);
+	}
+	
+	/**
+	 * @return true si la transferencia se realizo, false en caso contrario.
+	 * */
+	public boolean isSuccessful() {
+		return this.status == TransferStatus.DONE;
+	}
+	
+	/**
+	 * @return estado final de la transferencia.
+	 * */
+	public TransferStatus getStatus() {
+		return this.status;
+	}
+	
+	/**
+	 * @return excepcion disparada por la transferencia, null si no hubo.
+	 * */
+	public ExcessiveTransactionAmount getError() {
+		return this.error;
+	}
+}
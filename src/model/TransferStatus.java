@@ -0,0 +1,5 @@
+package model;
+
+public enum TransferStatus {
+	DONE, EXCESSIVE_AMOUNT, ACCOUNT_NOT_FOUND, INVALID_REQUEST
+}
@@ -0,0 +1,123 @@
+package persistence;
+
+/**
+ * Clase que guarda el resumen de una carga masiva: cuantas filas se leyeron, cuantas se cargaron de cada tipo,
+ * cuantas se rechazaron y cuanto tiempo tomo la carga.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class BulkLoadReport {
+
+	private long bytes;						//Bytes del archivo cargado.
+	private long rows;						//Filas leidas, sin contar lineas vacias ni comentarios.
+	private long accounts;					//Cuentas agregadas al banco.
+	private long addressees;				//Destinatarios agregados al cliente.
+	private long rejected;					//Filas rechazadas.
+	private int chunks;						//Partes en las que se dividio el archivo.
+	private long elapsedNanos;				//Nanosegundos que duro la carga completa.
+
+	/**
+	 * Constructor, crea un resumen sin filas.
+	 * */
+	BulkLoadReport() {
+	}
+
+	/**
+	 * Suma los resultados de una parte del archivo.
+	 * @param counts filas, cuentas, destinatarios y rechazos de la parte, en ese orden.
+	 * */
+	void add(long[] counts) {
+		this.rows += counts[0];
+		this.accounts += counts[1];
+		this.addressees += counts[2];
+		this.rejected += counts[3];
+	}
+
+	/**
+	 * @param bytes bytes del archivo cargado.
+	 * @param chunks partes en las que se dividio el archivo.
+	 * */
+	void setFile(long bytes, int chunks) {
+		this.bytes = bytes;
+		this.chunks = chunks;
+	}
+
+	/**
+	 * @param elapsedNanos nanosegundos que duro la carga completa.
+	 * */
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return bytes del archivo cargado.
+	 * */
+	public long getBytes() {
+		return this.bytes;
+	}
+
+	/**
+	 * @return filas leidas, sin contar lineas vacias ni comentarios.
+	 * */
+	public long getRows() {
+		return this.rows;
+	}
+
+	/**
+	 * @return cuentas agregadas al banco.
+	 * */
+	public long getAccounts() {
+		return this.accounts;
+	}
+
+	/**
+	 * @return destinatarios agregados al cliente.
+	 * */
+	public long getAddressees() {
+		return this.addressees;
+	}
+
+	/**
+	 * @return filas rechazadas, escritas en el archivo de rechazos.
+	 * */
+	public long getRejected() {
+		return this.rejected;
+	}
+
+	/**
+	 * @return partes en las que se dividio el archivo.
+	 * */
+	public int getChunks() {
+		return this.chunks;
+	}
+
+	/**
+	 * @return nanosegundos que duro la carga completa.
+	 * */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+
+	/**
+	 * @return filas procesadas por segundo, cargadas o rechazadas.
+	 * */
+	public double getRowsPerSecond() {
+		return (this.elapsedNanos == 0) ? 0 : this.rows * 1e9 / this.elapsedNanos;
+	}
+
+	/**
+	 * @return megabytes del archivo procesados por segundo.
+	 * */
+	public double getMegabytesPerSecond() {
+		return (this.elapsedNanos == 0) ? 0 : this.bytes * 1e9 / (1024.0 * 1024.0 * this.elapsedNanos);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d filas (%d cuentas, %d destinatarios, %d rechazadas) en %.3f s: %.0f filas/s, %.1f MB/s",
+							 this.rows, this.accounts, this.addressees, this.rejected, this.elapsedNanos / 1e9,
+							 getRowsPerSecond(), getMegabytesPerSecond());
+	}
+}
@@ -0,0 +1,574 @@
+package persistence;
+
+import exceptions.*;
+import model.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Clase que carga masivamente cuentas y destinatarios desde un archivo de texto delimitado por comas. El archivo
+ * se mapea en memoria y se divide en partes que terminan en un fin de linea; las partes se procesan en paralelo,
+ * validando los numeros directamente sobre los bytes mapeados, y las cuentas se agregan al banco por lotes. Los
+ * destinatarios se cargan en una segunda pasada sobre las mismas partes, cuando ya existen todas las cuentas
+ * del archivo.
+ *
+ * Formato de cada linea (las lineas vacias y las que comienzan con '#' se ignoran):
+ * C,numero,saldo[,parametro]	cuenta; el tipo se obtiene del ultimo digito del numero, el parametro es el costo
+ * 								de mantencion de una cuenta corriente o la rentabilidad (0.01 = 1%) de una de ahorro.
+ * D,numero,nombre[,favorito]	destinatario del cliente del banco; favorito es 1 o 0, la cuenta debe existir.
+ *
+ * Las lineas rechazadas se escriben en el archivo de rechazos como "motivo<TAB>linea original", en el orden en
+ * que se procesan.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class BulkLoader {
+
+	public static final int DEFAULT_CHUNK_BYTES = 16 * 1024 * 1024;	//Bytes maximos por parte del archivo.
+	public static final int DEFAULT_BATCH_SIZE = 1024;				//Cuentas o destinatarios por lote.
+
+	private static final int MIN_CHUNK_BYTES = 64 * 1024;			//Bytes minimos por parte, salvo la ultima.
+	private static final int MAX_CHUNK_BYTES = 1 << 30;				//Bytes maximos por parte (se mapea con un int).
+	private static final int CHUNKS_PER_THREAD = 4;					//Partes por hilo, para repartir mejor la carga.
+	private static final int REJECT_BUFFER = 64 * 1024;				//Capacidad del buffer de rechazos de cada parte.
+	private static final int MAX_NAME_BYTES = 256;					//Bytes maximos del nombre de un destinatario.
+	private static final long INVALID = Long.MIN_VALUE;				//Resultado de un numero no valido.
+
+	private static final byte[] UNKNOWN_RECORD = ascii("tipo de registro desconocido");
+	private static final byte[] WRONG_NUMBER = ascii("numero de cuenta no valido");
+	private static final byte[] WRONG_BALANCE = ascii("saldo no valido");
+	private static final byte[] WRONG_PARAMETER = ascii("parametro no valido");
+	private static final byte[] WRONG_FIELDS = ascii("cantidad de campos no valida");
+	private static final byte[] DUPLICATED_ACCOUNT = ascii("la cuenta ya existe");
+	private static final byte[] MISSING_ACCOUNT = ascii("la cuenta no existe");
+	private static final byte[] WRONG_NAME = ascii("nombre no valido");
+	private static final byte[] WRONG_FAVORITE = ascii("favorito no valido");
+	private static final byte[] DUPLICATED_ADDRESSEE = ascii("el destinatario ya existe");
+	private static final byte[] MISSING_CLIENT = ascii("el banco no tiene cliente");
+
+	private Bank bank;												//Banco en el que se cargan los datos.
+	private ForkJoinPool pool;										//Pool en el que se procesan las partes.
+	private int chunkBytes;											//Bytes maximos por parte del archivo.
+	private int batchSize;											//Cuentas o destinatarios por lote.
+
+	/**
+	 * Constructor, usa el pool comun de fork-join y los valores por defecto.
+	 * @param bank banco en el que se cargan los datos.
+	 * */
+	public BulkLoader(Bank bank) {
+		this(bank, ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructor, establece todos los atributos de la clase.
+	 * @param bank banco en el que se cargan los datos.
+	 * @param pool pool en el que se procesan las partes del archivo.
+	 * @param chunkBytes bytes maximos por parte; con archivos pequeños se usan partes menores para ocupar
+	 * todos los hilos del pool.
+	 * @param batchSize cuentas o destinatarios que se agregan por lote.
+	 * */
+	public BulkLoader(Bank bank, ForkJoinPool pool, int chunkBytes, int batchSize) {
+		if((chunkBytes < 1) || (batchSize < 1))
+			throw new IllegalArgumentException("El tamaño de las partes y de los lotes debe ser positivo");
+
+		this.bank = bank;
+		this.pool = pool;
+		this.chunkBytes = Math.min(chunkBytes, MAX_CHUNK_BYTES);
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Carga las cuentas y destinatarios del archivo ingresado.
+	 * @param file archivo a cargar.
+	 * @param rejectsFile archivo donde se escriben las lineas rechazadas, se reemplaza si existe.
+	 * @return resumen de la carga.
+	 * */
+	public BulkLoadReport load(Path file, Path rejectsFile) throws IOException {
+		long start = System.nanoTime();
+		BulkLoadReport report = new BulkLoadReport();
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+			FileChannel rejects = FileChannel.open(rejectsFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+												   StandardOpenOption.TRUNCATE_EXISTING)) {
+			long[] bounds = split(channel);
+			int chunks = bounds.length - 1;
+			MappedByteBuffer[] maps = new MappedByteBuffer[chunks];
+
+			for(int i = 0; i < chunks; ++i)
+				maps[i] = channel.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]);
+
+			report.setFile(channel.size(), chunks);
+
+			//Primero las cuentas de todas las partes, asi los destinatarios encuentran cualquier cuenta del archivo
+			run(maps, rejects, false, report);
+			run(maps, rejects, true, report);
+		}
+
+		report.setElapsedNanos(System.nanoTime() - start);
+		return report;
+	}
+
+	/**
+	 * Procesa todas las partes en paralelo y suma sus resultados al resumen.
+	 * @param addressees false para cargar las cuentas, true para cargar los destinatarios.
+	 * */
+	private void run(MappedByteBuffer[] maps, FileChannel rejects, boolean addressees, BulkLoadReport report) throws IOException {
+		List<Callable<long[]>> tasks = new ArrayList<Callable<long[]>>(maps.length);
+
+		for(MappedByteBuffer map : maps)
+			tasks.add(new ChunkTask(map.duplicate(), rejects, addressees));
+
+		for(Future<long[]> future : this.pool.invokeAll(tasks)) {
+			try {
+				report.add(future.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Se interrumpio la carga", e);
+			} catch (ExecutionException e) {
+				if(e.getCause() instanceof IOException)
+					throw (IOException) e.getCause();
+				throw new IllegalStateException("Fallo la carga de una parte del archivo", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Divide el archivo en partes de aproximadamente el mismo tamaño, cada una termina justo despues de un fin
+	 * de linea (o al final del archivo), por lo que ninguna linea queda repartida entre dos partes.
+	 * @return posiciones de inicio de cada parte, seguidas del largo del archivo.
+	 * */
+	private long[] split(FileChannel channel) throws IOException {
+		long size = channel.size();
+		long target = Math.max(MIN_CHUNK_BYTES, size / (CHUNKS_PER_THREAD * (long) this.pool.getParallelism()));
+		long chunk = Math.min(this.chunkBytes, target);
+		ByteBuffer probe = ByteBuffer.allocate(4096);
+		long[] bounds = new long[16];
+		int count = 0;
+
+		bounds[count++] = 0;
+
+		for(long next = chunk; next < size; ) {
+			long end = nextLine(channel, next - 1, probe);
+
+			if(end >= size)
+				break;
+			if(end - bounds[count - 1] > Integer.MAX_VALUE)
+				throw new IOException("Una linea del archivo es demasiado larga");
+
+			if(count == bounds.length)
+				bounds = Arrays.copyOf(bounds, 2 * count);
+			bounds[count++] = end;
+			next = end + chunk;
+		}
+
+		if(size - bounds[count - 1] > Integer.MAX_VALUE)
+			throw new IOException("Una linea del archivo es demasiado larga");
+
+		long[] result = Arrays.copyOf(bounds, count + 1);
+		result[count] = size;
+		return result;
+	}
+
+	/**
+	 * @return posicion siguiente al primer fin de linea desde la posicion ingresada, el largo del archivo si no hay.
+	 * */
+	private static long nextLine(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+		while(true) {
+			probe.clear();
+
+			int read = channel.read(probe, position);
+			if(read < 0)
+				return channel.size();
+
+			for(int i = 0; i < read; ++i) {
+				if(probe.get(i) == '\n')
+					return position + i + 1;
+			}
+
+			position += read;
+		}
+	}
+
+	/**
+	 * Tarea que procesa una parte del archivo: recorre sus lineas, valida los registros del tipo que le
+	 * corresponde y los agrega por lotes. Los rechazos se juntan en un buffer propio y se escriben al archivo de
+	 * rechazos cuando se llena y al terminar.
+	 * */
+	private class ChunkTask implements Callable<long[]> {
+
+		private ByteBuffer map;										//Bytes de la parte del archivo.
+		private FileChannel rejects;								//Archivo de rechazos, compartido por las tareas.
+		private boolean addressees;									//Indica si la tarea carga destinatarios en vez de cuentas.
+		private ByteBuffer rejected;								//Rechazos que aun no se escriben.
+		private long[] counts;										//Filas, cuentas, destinatarios y rechazos de la parte.
+		private ArrayList<Account> accountBatch;					//Cuentas del lote en construccion.
+		private ArrayList<Addressee> addresseeBatch;				//Destinatarios del lote en construccion.
+		private int[] lineStarts;									//Inicio de la linea de cada elemento del lote.
+		private int[] lineEnds;										//Fin de la linea de cada elemento del lote.
+		private byte[] name;										//Espacio para copiar el nombre de un destinatario.
+
+		ChunkTask(ByteBuffer map, FileChannel rejects, boolean addressees) {
+			this.map = map;
+			this.rejects = rejects;
+			this.addressees = addressees;
+			this.counts = new long[4];
+		}
+
+		@Override
+		public long[] call() throws IOException {
+			int limit = this.map.limit();
+			int start = 0;
+
+			this.rejected = ByteBuffer.allocate(REJECT_BUFFER);
+			this.lineStarts = new int[batchSize];
+			this.lineEnds = new int[batchSize];
+			if(this.addressees) {
+				this.addresseeBatch = new ArrayList<Addressee>(batchSize);
+				this.name = new byte[MAX_NAME_BYTES];
+			}
+			else {
+				this.accountBatch = new ArrayList<Account>(batchSize);
+			}
+
+			while(start < limit) {
+				int end = start;
+				while((end < limit) && (this.map.get(end) != '\n'))
+					++end;
+
+				int next = end + 1;
+				if((end > start) && (this.map.get(end - 1) == '\r'))
+					--end;
+
+				if((end > start) && (this.map.get(start) != '#'))
+					line(start, end);
+
+				start = next;
+			}
+
+			if(this.addressees)
+				flushAddressees();
+			else
+				flushAccounts();
+			flushRejected();
+
+			return this.counts;
+		}
+
+		/**
+		 * Procesa una linea no vacia, si es del tipo de registro que corresponde a la tarea.
+		 * */
+		private void line(int start, int end) throws IOException {
+			byte record = this.map.get(start);
+			boolean known = ((record == 'C') || (record == 'D')) && (end > start + 1) && (this.map.get(start + 1) == ',');
+
+			//Los registros desconocidos se cuentan y rechazan solo en la pasada de las cuentas
+			if(!known) {
+				if(!this.addressees) {
+					this.counts[0]++;
+					reject(UNKNOWN_RECORD, start, end);
+				}
+				return;
+			}
+
+			if((record == 'D') != this.addressees)
+				return;
+
+			this.counts[0]++;
+
+			//El numero de cuenta ocupa 10 bytes y siempre va seguido de otro campo
+			int key = ((end > start + 12) && (this.map.get(start + 12) == ',')) ? Account.encode(this.map, start + 2) : -1;
+			if(key < 0) {
+				reject(WRONG_NUMBER, start, end);
+				return;
+			}
+
+			if(this.addressees)
+				addressee(key, start, end);
+			else
+				account(key, start, end);
+		}
+
+		/**
+		 * Valida una linea de cuenta y la agrega al lote.
+		 * */
+		private void account(int key, int start, int end) throws IOException {
+			int balanceEnd = fieldEnd(start + 13, end);
+			long balance = parseLong(start + 13, balanceEnd);
+
+			if(balance == INVALID) {
+				reject(WRONG_BALANCE, start, end);
+				return;
+			}
+
+			boolean hasParameter = balanceEnd < end;
+			int parameterEnd = hasParameter ? fieldEnd(balanceEnd + 1, end) : end;
+
+			if(parameterEnd < end) {
+				reject(WRONG_FIELDS, start, end);
+				return;
+			}
+
+			Account account;
+
+			try {
+				if(Account.getTypeAccount(key) == TypeAccount.RUT_ACCOUNT) {
+					long cost = hasParameter ? parseLong(balanceEnd + 1, end) : 5_000;
+
+					if((cost < 0) || (cost > Integer.MAX_VALUE)) {
+						reject(WRONG_PARAMETER, start, end);
+						return;
+					}
+					account = new CurrentAccount(balance, Account.decode(key), (int) cost);
+				}
+				else {
+					double percentage = hasParameter ? parseDecimal(balanceEnd + 1, end) : Double.NaN;
+
+					if(hasParameter && Double.isNaN(percentage)) {
+						reject(WRONG_PARAMETER, start, end);
+						return;
+					}
+					account = hasParameter ? new SavingAccount(balance, Account.decode(key), percentage)
+										   : new SavingAccount(balance, Account.decode(key));
+				}
+			} catch (WrongAccountNumber e) {
+				//El numero ya se valido al codificarlo
+				reject(WRONG_NUMBER, start, end);
+				return;
+			}
+
+			this.lineStarts[this.accountBatch.size()] = start;
+			this.lineEnds[this.accountBatch.size()] = end;
+			this.accountBatch.add(account);
+
+			if(this.accountBatch.size() == batchSize)
+				flushAccounts();
+		}
+
+		/**
+		 * Valida una linea de destinatario y la agrega al lote.
+		 * */
+		private void addressee(int key, int start, int end) throws IOException {
+			int nameEnd = fieldEnd(start + 13, end);
+			int length = nameEnd - (start + 13);
+
+			if((length == 0) || (length > MAX_NAME_BYTES)) {
+				reject(WRONG_NAME, start, end);
+				return;
+			}
+
+			boolean favorite = false;
+
+			if(nameEnd < end) {
+				byte flag = this.map.get(nameEnd + 1);
+
+				if((end != nameEnd + 2) || ((flag != '0') && (flag != '1'))) {
+					reject(WRONG_FAVORITE, start, end);
+					return;
+				}
+				favorite = flag == '1';
+			}
+
+			Account account = bank.getAccount(key);
+			if(account == null) {
+				reject(MISSING_ACCOUNT, start, end);
+				return;
+			}
+
+			this.map.get(start + 13, this.name, 0, length);
+
+			this.lineStarts[this.addresseeBatch.size()] = start;
+			this.lineEnds[this.addresseeBatch.size()] = end;
+			this.addresseeBatch.add(new Addressee(account, new String(this.name, 0, length, StandardCharsets.UTF_8), favorite));
+
+			if(this.addresseeBatch.size() == batchSize)
+				flushAddressees();
+		}
+
+		/**
+		 * Agrega al banco el lote de cuentas y rechaza las que ya existian.
+		 * */
+		private void flushAccounts() throws IOException {
+			if(this.accountBatch.isEmpty())
+				return;
+
+			boolean[] added = bank.addAccounts(this.accountBatch);
+
+			for(int i = 0; i < added.length; ++i) {
+				if(added[i])
+					this.counts[1]++;
+				else
+					reject(DUPLICATED_ACCOUNT, this.lineStarts[i], this.lineEnds[i]);
+			}
+
+			this.accountBatch.clear();
+		}
+
+		/**
+		 * Agrega al cliente del banco el lote de destinatarios y rechaza los que ya existian. Se agregan con el
+		 * cliente sincronizado, igual que en el controlador HTTP.
+		 * */
+		private void flushAddressees() throws IOException {
+			if(this.addresseeBatch.isEmpty())
+				return;
+
+			Client client = bank.getClient();
+			int size = this.addresseeBatch.size();
+			boolean[] added = new boolean[size];
+
+			if(client != null) {
+				synchronized(client) {
+					for(int i = 0; i < size; ++i) {
+						Addressee addressee = this.addresseeBatch.get(i);
+
+						if(!client.existsAddressee(addressee.getAccountNumber())) {
+							client.addAddressee(addressee);
+							added[i] = true;
+						}
+					}
+				}
+			}
+
+			for(int i = 0; i < size; ++i) {
+				if(added[i])
+					this.counts[2]++;
+				else
+					reject((client == null) ? MISSING_CLIENT : DUPLICATED_ADDRESSEE, this.lineStarts[i], this.lineEnds[i]);
+			}
+
+			this.addresseeBatch.clear();
+		}
+
+		/**
+		 * Agrega una linea rechazada al buffer de rechazos, precedida del motivo.
+		 * */
+		private void reject(byte[] reason, int start, int end) throws IOException {
+			this.counts[3]++;
+
+			if(this.rejected.remaining() < reason.length + 1)
+				flushRejected();
+			this.rejected.put(reason);
+			this.rejected.put((byte) '\t');
+
+			for(int i = start; i < end; ++i) {
+				if(!this.rejected.hasRemaining())
+					flushRejected();
+				this.rejected.put(this.map.get(i));
+			}
+
+			if(!this.rejected.hasRemaining())
+				flushRejected();
+			this.rejected.put((byte) '\n');
+		}
+
+		/**
+		 * Escribe el buffer de rechazos al final del archivo de rechazos. Las tareas escriben de a una, asi el
+		 * contenido de un buffer no se mezcla con el de otra tarea.
+		 * */
+		private void flushRejected() throws IOException {
+			this.rejected.flip();
+
+			synchronized(this.rejects) {
+				while(this.rejected.hasRemaining())
+					this.rejects.write(this.rejected);
+			}
+
+			this.rejected.clear();
+		}
+
+		/**
+		 * @return posicion de la coma que termina el campo que comienza en la posicion ingresada, o el fin de la
+		 * linea si es el ultimo campo.
+		 * */
+		private int fieldEnd(int start, int end) {
+			int position = start;
+
+			while((position < end) && (this.map.get(position) != ','))
+				++position;
+
+			return position;
+		}
+
+		/**
+		 * Lee un entero con signo opcional, de hasta 18 digitos.
+		 * @return entero leido, INVALID si el campo esta vacio o tiene otros caracteres.
+		 * */
+		private long parseLong(int start, int end) {
+			boolean negative = (start < end) && (this.map.get(start) == '-');
+			int position = negative ? start + 1 : start;
+
+			if((position == end) || (end - position > 18))
+				return INVALID;
+
+			long value = 0;
+
+			for(; position < end; ++position) {
+				int digit = this.map.get(position) - '0';
+
+				if((digit < 0) || (digit > 9))
+					return INVALID;
+
+				value = 10 * value + digit;
+			}
+
+			return negative ? -value : value;
+		}
+
+		/**
+		 * Lee un numero decimal positivo con punto opcional ("0.015"), de hasta 18 digitos.
+		 * @return numero leido, NaN si el campo esta vacio o tiene otros caracteres.
+		 * */
+		private double parseDecimal(int start, int end) {
+			long mantissa = 0;
+			int digits = 0;
+			int decimals = -1;
+
+			for(int position = start; position < end; ++position) {
+				byte character = this.map.get(position);
+
+				if((character == '.') && (decimals < 0)) {
+					decimals = 0;
+					continue;
+				}
+
+				int digit = character - '0';
+
+				if((digit < 0) || (digit > 9) || (++digits > 18))
+					return Double.NaN;
+
+				mantissa = 10 * mantissa + digit;
+				if(decimals >= 0)
+					++decimals;
+			}
+
+			if(digits == 0)
+				return Double.NaN;
+
+			double value = mantissa;
+			for(int i = 0; i < decimals; ++i)
+				value /= 10;
+
+			return value;
+		}
+	}
+
+	/**
+	 * @return bytes ASCII del texto ingresado.
+	 * */
+	private static byte[] ascii(String text) {
+		return text.getBytes(StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,616 @@
+package persistence;
+
+import exceptions.*;
+import model.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Clase que modela un registro de escritura anticipada (write-ahead journal) de las modificaciones del banco.
+ * Las modificaciones se agregan al final de un archivo binario a traves de un FileChannel, y se guardan en
+ * grupos: un hilo escritor junta todos los registros que llegan mientras se escribe el grupo anterior (o durante
+ * el tiempo de espera configurado) y los guarda con una sola escritura y un solo fsync.
+ *
+ * Formato de cada registro: largo del cuerpo (int), CRC32 del cuerpo (int) y el cuerpo, que contiene el numero
+ * de secuencia (long), el tipo de registro (byte) y los datos propios del tipo. Las transferencias se registran
+ * con su fecha (DATED_TRANSFER), asi al reconstruirlas los depositos se acumulan en el mes en que se hicieron;
+ * los registros TRANSFER de versiones anteriores se aplican con la fecha actual. Si el ultimo registro del archivo
+ * quedo incompleto o corrupto (por ejemplo por una caida durante la escritura) se descarta al abrir el archivo.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class Journal implements MutationLog, AutoCloseable {
+
+	public static final byte ADD_ACCOUNT = 1;			//Tipo de registro: cuenta agregada.
+	public static final byte REMOVE_ACCOUNT = 2;		//Tipo de registro: cuenta eliminada.
+	public static final byte TRANSFER = 3;				//Tipo de registro: transferencia entre cuentas.
+	public static final byte IMPOSITION = 4;			//Tipo de registro: imposicion de una cuenta.
+	public static final byte DATED_TRANSFER = 5;		//Tipo de registro: transferencia con su fecha (TRANSFER no la guarda).
+	public static final byte PREPARE = 6;				//Tipo de registro: reserva de una transferencia entre particiones.
+	public static final byte COMMIT = 7;				//Tipo de registro: confirmacion de una transferencia entre particiones.
+	public static final byte ABORT = 8;					//Tipo de registro: anulacion de una transferencia entre particiones.
+
+	private static final int HEADER_BYTES = 8;			//Bytes del largo y del CRC de cada registro.
+	static final int NUMBER_BYTES = 10;					//Bytes de un numero de cuenta.
+	static final int ACCOUNT_BYTES = NUMBER_BYTES + 16;	//Bytes de los datos de un registro ADD_ACCOUNT.
+	private static final int INITIAL_BUFFER = 64 * 1024;	//Capacidad inicial de los buffers de grupo.
+
+	private FileChannel channel;						//Canal del archivo del registro.
+	private long groupDelayNanos;						//Tiempo que se espera para juntar registros antes de escribir.
+	private boolean forceToDisk;						//Indica si cada grupo se guarda con fsync.
+	private boolean waitForCommit;						//Indica si las operaciones esperan a que su registro se guarde.
+
+	private ReentrantLock lock;							//Candado del buffer de grupo y de los numeros de secuencia.
+	private Condition pending;							//Se señala cuando hay registros por escribir.
+	private Condition committed;						//Se señala cuando se termina de escribir un grupo.
+	private ByteBuffer group;							//Registros que aun no se escriben.
+	private ByteBuffer spare;							//Buffer libre que se intercambia con el de grupo al escribir.
+	private CRC32 crc;									//Calculo del CRC de los registros.
+	private int recordStart;							//Posicion en el buffer de grupo del registro en construccion.
+	private long lastSequence;							//Ultimo numero de secuencia asignado.
+	private long committedSequence;						//Ultimo numero de secuencia guardado.
+	private volatile IOException failure;				//Error de escritura, si ocurrio alguno; despues no se aceptan mas registros.
+	private boolean running;							//Indica si el hilo escritor sigue activo.
+	private Thread writer;								//Hilo que escribe los grupos.
+
+	/**
+	 * Constructor, abre el registro con los valores por defecto: sin espera para juntar registros, fsync en cada
+	 * grupo y las operaciones esperan a que su registro se guarde.
+	 * @param file archivo del registro.
+	 * */
+	public Journal(Path file) throws IOException {
+		this(file, 0, true, true);
+	}
+
+	/**
+	 * Constructor, abre (o crea) el archivo del registro, descarta un posible registro final incompleto y
+	 * obtiene el ultimo numero de secuencia guardado.
+	 * @param file archivo del registro.
+	 * @param groupDelayMicros microsegundos que se espera para juntar mas registros en un grupo (mas latencia,
+	 * menos escrituras).
+	 * @param forceToDisk true si cada grupo se guarda con fsync, false si basta con entregarlo al sistema operativo.
+	 * @param waitForCommit true si las operaciones del banco esperan a que su registro se guarde, false si
+	 * continuan sin esperar (se pueden perder las ultimas operaciones ante una caida).
+	 * */
+	public Journal(Path file, long groupDelayMicros, boolean forceToDisk, boolean waitForCommit) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.groupDelayNanos = TimeUnit.MICROSECONDS.toNanos(groupDelayMicros);
+		this.forceToDisk = forceToDisk;
+		this.waitForCommit = waitForCommit;
+		this.lock = new ReentrantLock();
+		this.pending = this.lock.newCondition();
+		this.committed = this.lock.newCondition();
+		this.group = ByteBuffer.allocate(INITIAL_BUFFER);
+		this.spare = ByteBuffer.allocate(INITIAL_BUFFER);
+		this.crc = new CRC32();
+
+		//Se recorre el archivo para obtener el ultimo registro valido y se descarta lo que venga despues
+		long end = readRecords(null, Long.MAX_VALUE);
+		this.channel.truncate(end);
+		this.channel.position(end);
+		this.committedSequence = this.lastSequence;
+
+		this.running = true;
+		this.writer = new Thread(this::writeGroups, "bank-journal");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Reconstruye el banco aplicando todos los registros guardados. Se debe llamar antes de establecer el
+	 * registro en el banco, para que las modificaciones reconstruidas no se registren de nuevo.
+	 * @param bank banco a reconstruir.
+	 * @return ultimo numero de secuencia aplicado.
+	 * */
+	public long replay(Bank bank) throws IOException {
+		return replay(bank, 0);
+	}
+
+	/**
+	 * Reconstruye el banco aplicando los registros guardados posteriores al numero de secuencia ingresado.
+	 * Mientras se aplican, el almacenamiento de historial del banco se desconecta: las transacciones que salen
+	 * del historial en memoria al reconstruirlo ya las guardo en ese almacenamiento el proceso que escribio el
+	 * registro, y guardarlas otra vez las duplicaria en los segmentos. Solo se pierden las que ese proceso
+	 * no alcanzo a escribir antes de una caida.
+	 * @param bank banco a reconstruir.
+	 * @param afterSequence se aplican solo los registros con un numero de secuencia mayor.
+	 * @return ultimo numero de secuencia aplicado.
+	 * */
+	public long replay(Bank bank, long afterSequence) throws IOException {
+		HistoryStore historyStore = bank.getHistoryStore();
+
+		this.lock.lock();
+		try {
+			bank.setHistoryStore(null);
+			readRecords(bank, afterSequence);
+			return this.lastSequence;
+		} finally {
+			bank.setHistoryStore(historyStore);
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long getLastSequence() {
+		this.lock.lock();
+		try {
+			return this.lastSequence;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return ultimo numero de secuencia guardado.
+	 * */
+	public long getCommittedSequence() {
+		this.lock.lock();
+		try {
+			return this.committedSequence;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logAddAccount(Account account) {
+		this.lock.lock();
+		try {
+			ByteBuffer buffer = begin(ADD_ACCOUNT, ACCOUNT_BYTES);
+			putAccount(buffer, account, account.getBalance());
+
+			return end(buffer);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logRemoveAccount(String accountNumber) {
+		this.lock.lock();
+		try {
+			ByteBuffer buffer = begin(REMOVE_ACCOUNT, NUMBER_BYTES);
+			putAccountNumber(buffer, accountNumber);
+
+			return end(buffer);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logTransfer(String originAccountNumber, String destinyAccountNumber, int amount, int epochDay) {
+		this.lock.lock();
+		try {
+			ByteBuffer buffer = begin(DATED_TRANSFER, 2 * NUMBER_BYTES + 8);
+			putAccountNumber(buffer, originAccountNumber);
+			putAccountNumber(buffer, destinyAccountNumber);
+			buffer.putInt(amount);
+			buffer.putInt(epochDay);
+
+			return end(buffer);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logImposition(String accountNumber, long delta) {
+		this.lock.lock();
+		try {
+			ByteBuffer buffer = begin(IMPOSITION, NUMBER_BYTES + 8);
+			putAccountNumber(buffer, accountNumber);
+			buffer.putLong(delta);
+
+			return end(buffer);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logPrepare(long transferId, String originAccountNumber, String destinyAccountNumber, int reserved) {
+		this.lock.lock();
+		try {
+			ByteBuffer buffer = begin(PREPARE, 8 + 2 * NUMBER_BYTES + 4);
+			buffer.putLong(transferId);
+			putAccountNumber(buffer, originAccountNumber);
+			putAccountNumber(buffer, destinyAccountNumber);
+			buffer.putInt(reserved);
+
+			return end(buffer);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logCommit(long transferId, String accountNumber, int amount) {
+		return logDecision(COMMIT, transferId, accountNumber, amount);
+	}
+
+	@Override
+	public long logAbort(long transferId, String accountNumber, int amount) {
+		return logDecision(ABORT, transferId, accountNumber, amount);
+	}
+
+	/**
+	 * Registra la confirmacion o anulacion de una transferencia entre particiones.
+	 * @param type COMMIT o ABORT.
+	 * @return numero de secuencia del registro.
+	 * */
+	private long logDecision(byte type, long transferId, String accountNumber, int amount) {
+		this.lock.lock();
+		try {
+			ByteBuffer buffer = begin(type, 8 + NUMBER_BYTES + 4);
+			buffer.putLong(transferId);
+			putAccountNumber(buffer, accountNumber);
+			buffer.putInt(amount);
+
+			return end(buffer);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public void awaitCommit(long sequence) {
+		if(!this.waitForCommit)
+			return;
+
+		this.lock.lock();
+		try {
+			while((this.committedSequence < sequence) && (this.failure == null))
+				this.committed.awaitUninterruptibly();
+
+			if(this.committedSequence < sequence)
+				throw new UncheckedIOException("No se pudo guardar el registro", this.failure);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public void checkWritable() {
+		IOException failure = this.failure;
+
+		if(failure != null)
+			throw new UncheckedIOException("El registro dejo de guardar modificaciones", failure);
+	}
+
+	/**
+	 * Escribe los registros pendientes, detiene el hilo escritor y cierra el archivo.
+	 * */
+	@Override
+	public void close() throws IOException {
+		this.lock.lock();
+		try {
+			this.running = false;
+			this.pending.signal();
+		} finally {
+			this.lock.unlock();
+		}
+
+		try {
+			this.writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		this.channel.close();
+	}
+
+	/**
+	 * Comienza un nuevo registro en el buffer de grupo, se debe llamar con el candado tomado.
+	 * @param type tipo de registro.
+	 * @param payloadBytes cantidad de bytes de los datos propios del tipo.
+	 * @return buffer de grupo, posicionado al inicio de los datos propios del tipo.
+	 * @throws UncheckedIOException si ya fallo una escritura, el hilo escritor termino y el registro no se guardaria.
+	 * */
+	private ByteBuffer begin(byte type, int payloadBytes) {
+		int recordBytes = HEADER_BYTES + 9 + payloadBytes;
+
+		checkWritable();
+
+		//Si el registro no cabe en el buffer de grupo, se reemplaza por uno mas grande
+		if(this.group.remaining() < recordBytes) {
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * this.group.capacity(), this.group.position() + recordBytes));
+			this.group.flip();
+			larger.put(this.group);
+			this.group = larger;
+		}
+
+		this.recordStart = this.group.position();
+		this.group.position(this.recordStart + HEADER_BYTES);
+		this.group.putLong(++this.lastSequence);
+		this.group.put(type);
+
+		return this.group;
+	}
+
+	/**
+	 * Termina el registro actual del buffer de grupo escribiendo su largo y su CRC, y avisa al hilo escritor.
+	 * @param buffer buffer de grupo.
+	 * @return numero de secuencia del registro.
+	 * */
+	private long end(ByteBuffer buffer) {
+		int bodyStart = this.recordStart + HEADER_BYTES;
+		int bodyBytes = buffer.position() - bodyStart;
+
+		this.crc.reset();
+		this.crc.update(buffer.array(), bodyStart, bodyBytes);
+		buffer.putInt(this.recordStart, bodyBytes);
+		buffer.putInt(this.recordStart + 4, (int) this.crc.getValue());
+
+		this.pending.signal();
+
+		return this.lastSequence;
+	}
+
+	/**
+	 * Metodo del hilo escritor, espera que haya registros pendientes, los escribe en grupo y avisa a las
+	 * operaciones que esperaban por ellos.
+	 * */
+	private void writeGroups() {
+		while(true) {
+			ByteBuffer toWrite;
+			long groupSequence;
+
+			this.lock.lock();
+			try {
+				while((this.group.position() == 0) && this.running)
+					this.pending.awaitUninterruptibly();
+
+				if((this.group.position() == 0) && !this.running)
+					return;
+			} finally {
+				this.lock.unlock();
+			}
+
+			//Se espera un momento para que mas registros se unan al grupo
+			if(this.groupDelayNanos > 0)
+				LockSupport.parkNanos(this.groupDelayNanos);
+
+			this.lock.lock();
+			try {
+				toWrite = this.group;
+				groupSequence = this.lastSequence;
+				this.group = this.spare;
+			} finally {
+				this.lock.unlock();
+			}
+
+			IOException error = null;
+			try {
+				toWrite.flip();
+				while(toWrite.hasRemaining())
+					this.channel.write(toWrite);
+
+				if(this.forceToDisk)
+					this.channel.force(false);
+			} catch (IOException e) {
+				error = e;
+			}
+
+			toWrite.clear();
+
+			this.lock.lock();
+			try {
+				this.spare = toWrite;
+
+				if(error == null) {
+					this.committedSequence = groupSequence;
+				}
+				else {
+					//Los registros que se juntaron mientras se escribia tampoco se van a guardar
+					this.failure = error;
+					this.group.clear();
+				}
+
+				this.committed.signalAll();
+			} finally {
+				this.lock.unlock();
+			}
+
+			if(error != null)
+				return;
+		}
+	}
+
+	/**
+	 * Recorre los registros validos del archivo desde el inicio, actualizando el ultimo numero de secuencia.
+	 * @param bank banco en el que se aplican los registros, null si solo se quiere recorrer el archivo.
+	 * @param afterSequence se aplican solo los registros con un numero de secuencia mayor.
+	 * @return posicion del archivo donde termina el ultimo registro valido.
+	 * */
+	private long readRecords(Bank bank, long afterSequence) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		ByteBuffer body = ByteBuffer.allocate(256);
+		long position = 0;
+		long size = this.channel.size();
+
+		while(position + HEADER_BYTES <= size) {
+			header.clear();
+			readFully(header, position);
+
+			int length = header.getInt(0);
+			int checksum = header.getInt(4);
+
+			if((length < 9) || (length > body.capacity()) || (position + HEADER_BYTES + length > size))
+				break;
+
+			body.clear().limit(length);
+			readFully(body, position + HEADER_BYTES);
+
+			this.crc.reset();
+			this.crc.update(body.array(), 0, length);
+			if((int) this.crc.getValue() != checksum)
+				break;
+
+			body.flip();
+			long sequence = body.getLong();
+			byte type = body.get();
+
+			if((bank != null) && (sequence > afterSequence))
+				apply(bank, type, body);
+
+			this.lastSequence = sequence;
+			position += HEADER_BYTES + length;
+		}
+
+		return position;
+	}
+
+	/**
+	 * Lee desde el archivo hasta llenar el buffer ingresado.
+	 * */
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			int read = this.channel.read(buffer, position);
+
+			if(read < 0)
+				throw new IOException("Fin de archivo inesperado");
+
+			position += read;
+		}
+	}
+
+	/**
+	 * Aplica un registro sobre el banco.
+	 * @param bank banco en el que se aplica el registro.
+	 * @param type tipo de registro.
+	 * @param body buffer posicionado al inicio de los datos propios del tipo.
+	 * */
+	static void apply(Bank bank, byte type, ByteBuffer body) {
+		switch(type)
+		{
+			case ADD_ACCOUNT : {
+				String accountNumber = getAccountNumber(body);
+				long balance = body.getLong();
+				long parameter = body.getLong();
+
+				try {
+					if(Account.getTypeAccount(accountNumber) == TypeAccount.RUT_ACCOUNT)
+						bank.addAccount(new CurrentAccount(balance, accountNumber, (int) parameter));
+					else
+						bank.addAccount(new SavingAccount(balance, accountNumber, Double.longBitsToDouble(parameter)));
+				} catch (WrongAccountNumber e) {
+					//Solo se registran cuentas validas, por lo que no deberia ocurrir
+				}
+				break;
+			}
+			case REMOVE_ACCOUNT : {
+				bank.removeAccount(getAccountNumber(body));
+				break;
+			}
+			case TRANSFER : {
+				int origin = getAccountKey(body);
+				int destiny = getAccountKey(body);
+
+				try {
+					bank.transactionBetweenAccounts(origin, destiny, body.getInt());
+				} catch (ExcessiveTransactionAmount e) {
+					//Solo se registran transferencias realizadas, por lo que no deberia ocurrir
+				}
+				break;
+			}
+			case DATED_TRANSFER : {
+				int origin = getAccountKey(body);
+				int destiny = getAccountKey(body);
+				int amount = body.getInt();
+
+				try {
+					bank.replayTransfer(origin, destiny, amount, body.getInt());
+				} catch (ExcessiveTransactionAmount e) {
+					//Solo se registran transferencias realizadas, por lo que no deberia ocurrir
+				}
+				break;
+			}
+			case PREPARE : {
+				long transferId = body.getLong();
+				int origin = getAccountKey(body);
+				int destiny = getAccountKey(body);
+
+				bank.replayPrepare(transferId, origin, destiny, body.getInt());
+				break;
+			}
+			case COMMIT :
+			case ABORT : {
+				long transferId = body.getLong();
+				int account = getAccountKey(body);
+
+				bank.replayDecision(transferId, account, body.getInt(), type == COMMIT);
+				break;
+			}
+			case IMPOSITION : {
+				Account account = bank.getAccount(getAccountKey(body));
+				long delta = body.getLong();
+
+				if(account != null)
+					account.setBalance(account.getBalance() + delta);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Escribe los datos de un registro ADD_ACCOUNT: numero de cuenta, saldo y la configuracion propia del tipo
+	 * de cuenta.
+	 * @param buffer buffer en el que se escribe.
+	 * @param account cuenta agregada.
+	 * @param balance saldo que se registra para la cuenta.
+	 * */
+	static void putAccount(ByteBuffer buffer, Account account, long balance) {
+		putAccountNumber(buffer, account.getAccountNumber());
+		buffer.putLong(balance);
+
+		//Se guarda la configuracion propia de cada tipo de cuenta
+		if(account instanceof CurrentAccount)
+			buffer.putLong(((CurrentAccount) account).getMaintenanceCost());
+		else if(account instanceof SavingAccount)
+			buffer.putLong(Double.doubleToLongBits(((SavingAccount) account).getProfitabilityPercentage()));
+		else
+			buffer.putLong(0);
+	}
+
+	/**
+	 * Escribe un numero de cuenta en el buffer, usando un byte por caracter.
+	 * */
+	static void putAccountNumber(ByteBuffer buffer, String accountNumber) {
+		for(int i = 0; i < NUMBER_BYTES; ++i)
+			buffer.put((byte) accountNumber.charAt(i));
+	}
+
+	/**
+	 * Lee un numero de cuenta del buffer y lo retorna codificado, sin crear un String.
+	 * @return numero de cuenta codificado, -1 si no es valido.
+	 * */
+	private static int getAccountKey(ByteBuffer buffer) {
+		int accountKey = Account.encode(buffer, buffer.position());
+		buffer.position(buffer.position() + NUMBER_BYTES);
+
+		return accountKey;
+	}
+
+	/**
+	 * Lee un numero de cuenta del buffer.
+	 * */
+	private static String getAccountNumber(ByteBuffer buffer) {
+		String accountNumber = new String(buffer.array(), buffer.position(), NUMBER_BYTES, StandardCharsets.US_ASCII);
+		buffer.position(buffer.position() + NUMBER_BYTES);
+
+		return accountNumber;
+	}
+}
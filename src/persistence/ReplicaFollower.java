@@ -0,0 +1,209 @@
+package persistence;
+
+import model.*;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+
+/**
+ * Clase que modela un banco seguidor: recibe desde un Replicator las modificaciones del banco principal a traves
+ * de una conexion local y las aplica en el mismo orden sobre su propio banco, que solo se ofrece para consultas.
+ * Despues de aplicar cada grupo de mensajes recibidos confirma al principal el ultimo numero de secuencia
+ * aplicado.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class ReplicaFollower implements AutoCloseable {
+
+	private static final int BUFFER_BYTES = 64 * 1024;	//Capacidad del buffer de entrada.
+	private static final int MAX_MESSAGE = 256;			//Largo maximo de un mensaje, sin contar el largo.
+
+	private Bank bank;									//Banco en el que se aplican las modificaciones.
+	private ServerSocketChannel server;					//Canal que acepta la conexion del principal.
+	private Thread applier;								//Hilo que recibe y aplica las modificaciones.
+	private volatile boolean running;					//Indica si el seguidor sigue activo.
+	private volatile SocketChannel channel;				//Conexion con el principal, null si no hay.
+	private volatile long appliedSequence;				//Ultimo numero de secuencia aplicado.
+	private volatile long appliedMessages;				//Cantidad de mensajes aplicados.
+	private volatile long lagMillis;					//Retraso del ultimo mensaje aplicado.
+	private volatile long maxLagMillis;					//Mayor retraso de un mensaje aplicado.
+
+	/**
+	 * Constructor, crea el servidor del seguidor, aun sin iniciarlo.
+	 * @param bank banco en el que se aplican las modificaciones, debe estar vacio y sin otras modificaciones.
+	 * @param port puerto del servidor, 0 para elegir uno libre.
+	 * */
+	public ReplicaFollower(Bank bank, int port) throws IOException {
+		this.bank = bank;
+		this.server = ServerSocketChannel.open();
+		this.server.bind(new InetSocketAddress("127.0.0.1", port));
+	}
+
+	/**
+	 * Inicia el hilo que acepta la conexion del principal y aplica sus modificaciones.
+	 * */
+	public void start() {
+		this.running = true;
+		this.applier = new Thread(this::receive, "bank-replica");
+		this.applier.setDaemon(true);
+		this.applier.start();
+	}
+
+	/**
+	 * @return direccion en la que escucha el seguidor, para crear el Replicator del principal.
+	 * */
+	public InetSocketAddress getAddress() throws IOException {
+		return (InetSocketAddress) this.server.getLocalAddress();
+	}
+
+	/**
+	 * @return cuenta asociada al numero de cuenta ingresado, null si no existe. No se debe modificar.
+	 * */
+	public Account getAccount(String accountNumber) {
+		return this.bank.getAccount(accountNumber);
+	}
+
+	/**
+	 * @return cantidad de cuentas del seguidor.
+	 * */
+	public int getAccountCount() {
+		return this.bank.getAccountCount();
+	}
+
+	/**
+	 * @param lowerLimit saldo minimo (inclusivo).
+	 * @param upperLimit saldo maximo (inclusivo).
+	 * @return cuentas del seguidor con saldo dentro del rango, de menor a mayor saldo. No se deben modificar.
+	 * */
+	public ArrayList<Account> getAccountBalanceRank(long lowerLimit, long upperLimit) {
+		return this.bank.getAccountBalanceRank(lowerLimit, upperLimit);
+	}
+
+	/**
+	 * @return ultimo numero de secuencia aplicado.
+	 * */
+	public long getAppliedSequence() {
+		return this.appliedSequence;
+	}
+
+	/**
+	 * @return cantidad de mensajes aplicados, incluyendo los del estado inicial.
+	 * */
+	public long getAppliedMessages() {
+		return this.appliedMessages;
+	}
+
+	/**
+	 * @return milisegundos entre que se registro en el principal y se aplico el ultimo mensaje aplicado.
+	 * */
+	public long getLagMillis() {
+		return this.lagMillis;
+	}
+
+	/**
+	 * @return mayor cantidad de milisegundos entre que se registro en el principal y se aplico un mensaje.
+	 * */
+	public long getMaxLagMillis() {
+		return this.maxLagMillis;
+	}
+
+	/**
+	 * @return true si el principal esta conectado.
+	 * */
+	public boolean isConnected() {
+		return this.channel != null;
+	}
+
+	/**
+	 * Detiene el seguidor y cierra la conexion con el principal. El banco conserva las modificaciones aplicadas.
+	 * */
+	@Override
+	public void close() throws IOException {
+		this.running = false;
+		this.server.close();
+
+		SocketChannel channel = this.channel;
+		if(channel != null)
+			channel.close();
+
+		if(this.applier != null) {
+			try {
+				this.applier.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Metodo del hilo del seguidor, acepta la conexion del principal y aplica sus mensajes hasta que se cierre.
+	 * Se acepta una sola conexion: el estado inicial que envia el principal supone un banco vacio.
+	 * */
+	private void receive() {
+		ByteBuffer input = ByteBuffer.allocate(BUFFER_BYTES);
+		ByteBuffer ack = ByteBuffer.allocate(8);
+
+		try(SocketChannel channel = this.server.accept()) {
+			channel.socket().setTcpNoDelay(true);
+			this.channel = channel;
+
+			while(this.running && (channel.read(input) >= 0)) {
+				long before = this.appliedMessages;
+
+				apply(input);
+
+				//Se confirma solo si se aplico algo desde la ultima confirmacion
+				if(this.appliedMessages != before) {
+					ack.clear();
+					ack.putLong(0, this.appliedSequence);
+					while(ack.hasRemaining())
+						channel.write(ack);
+				}
+			}
+		} catch (IOException e) {
+			//El principal cerro la conexion o se detuvo el seguidor
+		} finally {
+			this.channel = null;
+		}
+	}
+
+	/**
+	 * Aplica los mensajes completos del buffer de entrada; los mensajes incompletos quedan al inicio del buffer.
+	 * */
+	private void apply(ByteBuffer input) throws IOException {
+		input.flip();
+
+		while(input.remaining() >= 4) {
+			int length = input.getInt(input.position());
+
+			if((length < 17) || (length > MAX_MESSAGE))
+				throw new IOException("Largo de mensaje no valido: " + length);
+
+			if(input.remaining() < 4 + length)
+				break;
+
+			int end = input.position() + 4 + length;
+
+			input.getInt();
+			long sequence = input.getLong();
+			long timestamp = input.getLong();
+			byte type = input.get();
+
+			Journal.apply(this.bank, type, input);
+			input.position(end);
+
+			long lag = Math.max(0, System.currentTimeMillis() - timestamp);
+			this.lagMillis = lag;
+			this.maxLagMillis = Math.max(this.maxLagMillis, lag);
+			this.appliedSequence = sequence;
+			++this.appliedMessages;
+		}
+
+		input.compact();
+	}
+}
@@ -0,0 +1,545 @@
+package persistence;
+
+import model.*;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clase que replica las modificaciones del banco principal en un banco seguidor (ReplicaFollower) a traves de
+ * una conexion local. Se establece como registro de modificaciones del banco y envuelve al registro que ya
+ * tuviera (por ejemplo un Journal): cada modificacion se entrega primero a ese registro, y se envia al seguidor
+ * solo cuando el registro la guardo, por lo que el seguidor nunca ve modificaciones que se podrian perder.
+ * Al conectarse se envia el estado de todas las cuentas y luego las modificaciones posteriores, en orden.
+ * Un hilo envia las modificaciones en grupos y otro recibe las confirmaciones del seguidor, con las que se
+ * calcula el retraso de la replicacion.
+ *
+ * Formato de cada mensaje: largo (int, bytes que siguen), numero de secuencia (long), hora en que se registro
+ * en milisegundos (long), tipo de registro (byte) y los datos propios del tipo, igual que en Journal.
+ * El seguidor responde con el ultimo numero de secuencia aplicado (long).
+ *
+ * El replicador se debe crear sin operaciones en curso sobre el banco (por ejemplo al iniciar la aplicacion,
+ * despues de reconstruirlo desde el registro), igual que al establecer cualquier registro de modificaciones.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class Replicator implements MutationLog, AutoCloseable {
+
+	private static final int FRAME_HEADER = 21;			//Bytes del largo, la secuencia, la hora y el tipo.
+	private static final int INITIAL_BUFFER = 64 * 1024;	//Capacidad inicial de los buffers de grupo.
+
+	private Bank bank;									//Banco replicado.
+	private MutationLog inner;							//Registro envuelto, null si no hay.
+	private SocketChannel channel;						//Conexion con el seguidor.
+
+	private ReentrantLock lock;							//Candado del buffer de grupo y de los numeros de secuencia.
+	private Condition pending;							//Se señala cuando hay mensajes por enviar.
+	private Condition acknowledged;						//Se señala cuando llega una confirmacion del seguidor.
+	private ByteBuffer group;							//Mensajes que aun no se envian.
+	private ByteBuffer spare;							//Buffer libre que se intercambia con el de grupo al enviar.
+	private long lastSequence;							//Ultimo numero de secuencia registrado.
+	private long sentSequence;							//Ultimo numero de secuencia enviado al seguidor.
+	private long acknowledgedSequence;					//Ultimo numero de secuencia aplicado por el seguidor.
+	private long sentMessages;							//Cantidad de mensajes enviados.
+	private long sentBytes;								//Cantidad de bytes enviados.
+	private IOException failure;						//Error de la conexion, si ocurrio alguno.
+	private boolean running;							//Indica si el hilo que envia sigue activo.
+	private Thread sender;								//Hilo que envia los mensajes.
+	private Thread receiver;							//Hilo que recibe las confirmaciones.
+
+	/**
+	 * Constructor, se conecta con el seguidor, se establece como registro de modificaciones del banco, envia el
+	 * estado de todas las cuentas e inicia los hilos de envio y de confirmaciones.
+	 * @param bank banco a replicar.
+	 * @param follower direccion del seguidor.
+	 * */
+	public Replicator(Bank bank, InetSocketAddress follower) throws IOException {
+		this.bank = bank;
+		this.inner = bank.getMutationLog();
+		this.channel = SocketChannel.open(follower);
+		this.channel.socket().setTcpNoDelay(true);
+		this.lock = new ReentrantLock();
+		this.pending = this.lock.newCondition();
+		this.acknowledged = this.lock.newCondition();
+		this.group = ByteBuffer.allocate(INITIAL_BUFFER);
+		this.spare = ByteBuffer.allocate(INITIAL_BUFFER);
+		this.lastSequence = (this.inner != null) ? this.inner.getLastSequence() : 0;
+
+		//Desde aqui se registran todas las modificaciones; la copia incluye justo las registradas hasta su secuencia
+		bank.setMutationLog(this);
+		BankCheckpoint state = bank.captureAll();
+
+		this.lock.lock();
+		try {
+			this.group = initialState(state, this.group);
+		} finally {
+			this.lock.unlock();
+		}
+
+		this.running = true;
+		this.sender = new Thread(this::sendGroups, "bank-replication-sender");
+		this.receiver = new Thread(this::receiveAcknowledgements, "bank-replication-ack");
+
+		for(Thread thread : new Thread[] {this.sender, this.receiver}) {
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	@Override
+	public long logAddAccount(Account account) {
+		this.lock.lock();
+		try {
+			long sequence = (this.inner != null) ? this.inner.logAddAccount(account) : this.lastSequence + 1;
+			ByteBuffer buffer = begin(sequence, Journal.ADD_ACCOUNT, Journal.ACCOUNT_BYTES);
+			Journal.putAccount(buffer, account, account.getBalance());
+
+			return end(sequence);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logRemoveAccount(String accountNumber) {
+		this.lock.lock();
+		try {
+			long sequence = (this.inner != null) ? this.inner.logRemoveAccount(accountNumber) : this.lastSequence + 1;
+			ByteBuffer buffer = begin(sequence, Journal.REMOVE_ACCOUNT, Journal.NUMBER_BYTES);
+			Journal.putAccountNumber(buffer, accountNumber);
+
+			return end(sequence);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logTransfer(String originAccountNumber, String destinyAccountNumber, int amount, int epochDay) {
+		this.lock.lock();
+		try {
+			long sequence = (this.inner != null) ? this.inner.logTransfer(originAccountNumber, destinyAccountNumber, amount, epochDay) : this.lastSequence + 1;
+			ByteBuffer buffer = begin(sequence, Journal.DATED_TRANSFER, 2 * Journal.NUMBER_BYTES + 8);
+			Journal.putAccountNumber(buffer, originAccountNumber);
+			Journal.putAccountNumber(buffer, destinyAccountNumber);
+			buffer.putInt(amount);
+			buffer.putInt(epochDay);
+
+			return end(sequence);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logPrepare(long transferId, String originAccountNumber, String destinyAccountNumber, int reserved) {
+		this.lock.lock();
+		try {
+			long sequence = (this.inner != null) ? this.inner.logPrepare(transferId, originAccountNumber, destinyAccountNumber, reserved) : this.lastSequence + 1;
+			ByteBuffer buffer = begin(sequence, Journal.PREPARE, 8 + 2 * Journal.NUMBER_BYTES + 4);
+			buffer.putLong(transferId);
+			Journal.putAccountNumber(buffer, originAccountNumber);
+			Journal.putAccountNumber(buffer, destinyAccountNumber);
+			buffer.putInt(reserved);
+
+			return end(sequence);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logCommit(long transferId, String accountNumber, int amount) {
+		this.lock.lock();
+		try {
+			long sequence = (this.inner != null) ? this.inner.logCommit(transferId, accountNumber, amount) : this.lastSequence + 1;
+			ByteBuffer buffer = begin(sequence, Journal.COMMIT, 8 + Journal.NUMBER_BYTES + 4);
+			buffer.putLong(transferId);
+			Journal.putAccountNumber(buffer, accountNumber);
+			buffer.putInt(amount);
+
+			return end(sequence);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logAbort(long transferId, String accountNumber, int amount) {
+		this.lock.lock();
+		try {
+			long sequence = (this.inner != null) ? this.inner.logAbort(transferId, accountNumber, amount) : this.lastSequence + 1;
+			ByteBuffer buffer = begin(sequence, Journal.ABORT, 8 + Journal.NUMBER_BYTES + 4);
+			buffer.putLong(transferId);
+			Journal.putAccountNumber(buffer, accountNumber);
+			buffer.putInt(amount);
+
+			return end(sequence);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long logImposition(String accountNumber, long delta) {
+		this.lock.lock();
+		try {
+			long sequence = (this.inner != null) ? this.inner.logImposition(accountNumber, delta) : this.lastSequence + 1;
+			ByteBuffer buffer = begin(sequence, Journal.IMPOSITION, Journal.NUMBER_BYTES + 8);
+			Journal.putAccountNumber(buffer, accountNumber);
+			buffer.putLong(delta);
+
+			return end(sequence);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long getLastSequence() {
+		this.lock.lock();
+		try {
+			return this.lastSequence;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Espera solo al registro envuelto: la replicacion es asincrona y no retrasa las operaciones del banco.
+	 * */
+	@Override
+	public void awaitCommit(long sequence) {
+		if(this.inner != null)
+			this.inner.awaitCommit(sequence);
+	}
+
+	@Override
+	public void checkWritable() {
+		//Un error de la conexion no detiene al banco, solo el del registro envuelto
+		if(this.inner != null)
+			this.inner.checkWritable();
+	}
+
+	/**
+	 * @return ultimo numero de secuencia enviado al seguidor.
+	 * */
+	public long getSentSequence() {
+		this.lock.lock();
+		try {
+			return this.sentSequence;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return ultimo numero de secuencia aplicado por el seguidor.
+	 * */
+	public long getAcknowledgedSequence() {
+		this.lock.lock();
+		try {
+			return this.acknowledgedSequence;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return cantidad de modificaciones registradas que el seguidor aun no aplica.
+	 * */
+	public long getLagRecords() {
+		this.lock.lock();
+		try {
+			return this.lastSequence - this.acknowledgedSequence;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return cantidad de mensajes enviados al seguidor, incluyendo los del estado inicial.
+	 * */
+	public long getSentMessages() {
+		this.lock.lock();
+		try {
+			return this.sentMessages;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return cantidad de bytes enviados al seguidor.
+	 * */
+	public long getSentBytes() {
+		this.lock.lock();
+		try {
+			return this.sentBytes;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return error de la conexion con el seguidor, null si no ha ocurrido ninguno.
+	 * */
+	public IOException getFailure() {
+		this.lock.lock();
+		try {
+			return this.failure;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Espera hasta que el seguidor aplique la modificacion con el numero de secuencia ingresado (y todas las
+	 * anteriores), o hasta que se acabe el tiempo.
+	 * @param sequence numero de secuencia a esperar.
+	 * @param timeoutMillis tiempo maximo de espera en milisegundos.
+	 * @return true si el seguidor la aplico, false si se acabo el tiempo o fallo la conexion.
+	 * */
+	public boolean awaitReplication(long sequence, long timeoutMillis) {
+		long remaining = timeoutMillis * 1000000L;
+
+		this.lock.lock();
+		try {
+			while((this.acknowledgedSequence < sequence) && (this.failure == null) && (remaining > 0)) {
+				try {
+					remaining = this.acknowledged.awaitNanos(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+
+			return this.acknowledgedSequence >= sequence;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Deja de replicar: restablece el registro envuelto en el banco, envia los mensajes pendientes y cierra la
+	 * conexion. No cierra el registro envuelto.
+	 * */
+	@Override
+	public void close() throws IOException {
+		if(this.bank.getMutationLog() == this)
+			this.bank.setMutationLog(this.inner);
+
+		this.lock.lock();
+		try {
+			this.running = false;
+			this.pending.signal();
+		} finally {
+			this.lock.unlock();
+		}
+
+		try {
+			this.sender.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		this.channel.close();
+
+		try {
+			this.receiver.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Arma el buffer de grupo inicial: un mensaje ADD_ACCOUNT por cada cuenta de la copia, con el numero de
+	 * secuencia de la copia, seguido de los mensajes ya registrados que la copia no incluye. Se debe llamar con
+	 * el candado tomado.
+	 * @param state copia del estado de todas las cuentas.
+	 * @param registered mensajes registrados desde que se establecio el replicador.
+	 * @return nuevo buffer de grupo.
+	 * */
+	private ByteBuffer initialState(BankCheckpoint state, ByteBuffer registered) {
+		int frameBytes = FRAME_HEADER + Journal.ACCOUNT_BYTES;
+		ByteBuffer buffer = ByteBuffer.allocate(Math.max(INITIAL_BUFFER, state.getAccountCount() * frameBytes + registered.position()));
+		long now = System.currentTimeMillis();
+
+		for(int i = 0; i < state.getAccountCount(); ++i) {
+			buffer.putInt(frameBytes - 4).putLong(state.getSequence()).putLong(now).put(Journal.ADD_ACCOUNT);
+			Journal.putAccount(buffer, state.getAccount(i), state.getBalance(i));
+		}
+
+		//Los mensajes con secuencia hasta la de la copia ya estan incluidos en los saldos copiados
+		registered.flip();
+		while(registered.hasRemaining()) {
+			int length = registered.getInt(registered.position());
+			long sequence = registered.getLong(registered.position() + 4);
+
+			if(sequence > state.getSequence())
+				buffer.put(registered.duplicate().limit(registered.position() + 4 + length));
+
+			registered.position(registered.position() + 4 + length);
+		}
+
+		return buffer;
+	}
+
+	/**
+	 * Comienza un nuevo mensaje en el buffer de grupo, se debe llamar con el candado tomado.
+	 * @param sequence numero de secuencia de la modificacion.
+	 * @param type tipo de registro.
+	 * @param payloadBytes cantidad de bytes de los datos propios del tipo.
+	 * @return buffer de grupo, posicionado al inicio de los datos propios del tipo.
+	 * */
+	private ByteBuffer begin(long sequence, byte type, int payloadBytes) {
+		int frameBytes = FRAME_HEADER + payloadBytes;
+
+		//Si el mensaje no cabe en el buffer de grupo, se reemplaza por uno mas grande
+		if(this.group.remaining() < frameBytes) {
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * this.group.capacity(), this.group.position() + frameBytes));
+			this.group.flip();
+			larger.put(this.group);
+			this.group = larger;
+		}
+
+		return this.group.putInt(frameBytes - 4).putLong(sequence).putLong(System.currentTimeMillis()).put(type);
+	}
+
+	/**
+	 * Termina el mensaje actual del buffer de grupo y avisa al hilo que envia.
+	 * @param sequence numero de secuencia de la modificacion.
+	 * @return numero de secuencia de la modificacion.
+	 * */
+	private long end(long sequence) {
+		this.lastSequence = sequence;
+
+		//Si ya se dejo de replicar el mensaje no se va a enviar, no se acumula
+		if(this.failure != null)
+			this.group.clear();
+
+		this.pending.signal();
+
+		return sequence;
+	}
+
+	/**
+	 * Metodo del hilo que envia, espera que haya mensajes pendientes y que el registro envuelto los guarde, y
+	 * los envia en grupo al seguidor.
+	 * */
+	private void sendGroups() {
+		while(true) {
+			ByteBuffer toSend;
+			long groupSequence;
+
+			this.lock.lock();
+			try {
+				while((this.group.position() == 0) && this.running)
+					this.pending.awaitUninterruptibly();
+
+				if(this.group.position() == 0)
+					return;
+
+				toSend = this.group;
+				groupSequence = this.lastSequence;
+				this.group = this.spare;
+			} finally {
+				this.lock.unlock();
+			}
+
+			IOException error = null;
+			int messages = countMessages(toSend);
+			int bytes = toSend.position();
+
+			try {
+				//Solo se envian modificaciones ya guardadas por el registro envuelto
+				if(this.inner != null)
+					this.inner.awaitCommit(groupSequence);
+
+				toSend.flip();
+				while(toSend.hasRemaining())
+					this.channel.write(toSend);
+			} catch (IOException e) {
+				error = e;
+			} catch (RuntimeException e) {
+				error = new IOException("No se pudo guardar el registro", e);
+			}
+
+			toSend.clear();
+
+			this.lock.lock();
+			try {
+				this.spare = toSend;
+
+				if(error == null) {
+					this.sentSequence = groupSequence;
+					this.sentMessages += messages;
+					this.sentBytes += bytes;
+				}
+				else {
+					//Se deja de replicar, el banco sigue funcionando con el registro envuelto
+					this.failure = error;
+					this.running = false;
+					this.group.clear();
+					this.acknowledged.signalAll();
+				}
+			} finally {
+				this.lock.unlock();
+			}
+
+			if(error != null) {
+				if(this.bank.getMutationLog() == this)
+					this.bank.setMutationLog(this.inner);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Metodo del hilo de confirmaciones, lee el ultimo numero de secuencia aplicado por el seguidor hasta que se
+	 * cierre la conexion.
+	 * */
+	private void receiveAcknowledgements() {
+		ByteBuffer buffer = ByteBuffer.allocate(8);
+
+		try {
+			while(true) {
+				buffer.clear();
+				while(buffer.hasRemaining()) {
+					if(this.channel.read(buffer) < 0)
+						return;
+				}
+
+				long sequence = buffer.getLong(0);
+
+				this.lock.lock();
+				try {
+					this.acknowledgedSequence = Math.max(this.acknowledgedSequence, sequence);
+					this.acknowledged.signalAll();
+				} finally {
+					this.lock.unlock();
+				}
+			}
+		} catch (IOException e) {
+			//La conexion se cerro al detener la replicacion
+		}
+	}
+
+	/**
+	 * @param buffer buffer de grupo, en modo escritura.
+	 * @return cantidad de mensajes del buffer.
+	 * */
+	private static int countMessages(ByteBuffer buffer) {
+		int count = 0;
+
+		for(int position = 0; position < buffer.position(); position += 4 + buffer.getInt(position))
+			++count;
+
+		return count;
+	}
+}
@@ -0,0 +1,501 @@
+package persistence;
+
+import model.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clase que guarda las transacciones antiguas del historial de las cuentas en archivos de segmentos de solo
+ * agregado, uno o mas por cuenta, dentro de un directorio. Cada segmento guarda una cantidad fija de transacciones,
+ * por lo que la transaccion numero n de una cuenta esta en el segmento n / SEGMENT_ENTRIES.
+ * Las transacciones entregadas se guardan en un buffer en memoria y un hilo escritor las escribe en grupo, asi
+ * las transferencias no esperan al disco. El buffer tiene un tamaño maximo: si se llena porque el disco no
+ * alcanza a escribir al ritmo de las transferencias, append espera a que el hilo escritor lo vacie. Las lecturas
+ * que incluyen transacciones aun no escritas esperan a que el hilo escritor las guarde.
+ *
+ * El hilo escritor ordena cada grupo por cuenta (manteniendo el orden de cada una), escribe las transacciones
+ * seguidas de una cuenta con una sola escritura por segmento y guarda en disco (fsync) los segmentos escritos
+ * antes de informarlas como escritas.
+ *
+ * Formato de un segmento ("history-<cuenta>-<segmento>.seg"): transacciones de largo fijo con el monto (int),
+ * el dia (int) y el numero codificado de la cuenta asociada (int). Si la ultima transaccion de un segmento quedo
+ * incompleta (por ejemplo por una caida durante la escritura) se descarta al abrir el directorio.
+ *
+ * Los segmentos no guardan de que transferencia viene cada transaccion, por lo que no pueden detectar una
+ * transaccion repetida: Journal.replay desconecta el almacenamiento del banco mientras reconstruye, para que
+ * las transacciones que vuelven a salir del historial en memoria no se agreguen de nuevo a los segmentos.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class SegmentHistoryStore implements HistoryStore, AutoCloseable {
+
+	public static final int SEGMENT_ENTRIES = 4096;		//Cantidad de transacciones de cada segmento.
+
+	private static final int ENTRY_BYTES = 12;			//Bytes de una transaccion en un segmento.
+	private static final int PENDING_BYTES = 16;		//Bytes de una transaccion en el buffer de pendientes.
+	private static final int INITIAL_BUFFER = 64 * 1024;	//Capacidad inicial de los buffers de pendientes.
+	private static final int MAX_BUFFER = 16 * 1024 * 1024;	//Capacidad maxima de los buffers de pendientes.
+	private static final int OPEN_SEGMENTS = 64;		//Cantidad maxima de segmentos abiertos por el hilo escritor.
+	private static final int READ_SEGMENTS = 64;		//Cantidad maxima de segmentos abiertos para lectura.
+	private static final int READ_ATTEMPTS = 3;			//Intentos de lectura de un segmento si otro hilo cierra su canal.
+	private static final String PREFIX = "history-";	//Prefijo de los nombres de archivo.
+	private static final String SUFFIX = ".seg";		//Sufijo de los nombres de archivo.
+
+	/**
+	 * Clase que guarda el estado del historial guardado de una cuenta.
+	 * */
+	private static class Segments {
+		private long appended;							//Transacciones entregadas, escritas o no (con el candado tomado).
+		private long written;							//Transacciones escritas en los segmentos (con el candado tomado).
+		private long position;							//Transacciones escritas, solo la usa el hilo escritor.
+	}
+
+	private Path directory;								//Directorio de los segmentos.
+	private ConcurrentHashMap<Integer, Segments> accounts;	//Estado del historial guardado de cada cuenta.
+	private LinkedHashMap<Path, FileChannel> channels;	//Segmentos abiertos por el hilo escritor, del menos al mas usado.
+	private ArrayList<FileChannel> dirty;				//Segmentos escritos por el grupo actual que aun no se guardan en disco.
+	private LinkedHashMap<Path, FileChannel> readChannels;	//Segmentos abiertos para lectura, del menos al mas usado.
+	private ReentrantLock readLock;						//Candado de los segmentos abiertos para lectura.
+
+	private ReentrantLock lock;							//Candado del buffer de pendientes y de los contadores.
+	private Condition pending;							//Se señala cuando hay transacciones por escribir.
+	private Condition written;							//Se señala cuando se termina de escribir un grupo (y se libera el buffer).
+	private ByteBuffer group;							//Transacciones que aun no se escriben.
+	private ByteBuffer spare;							//Buffer libre que se intercambia con el de pendientes al escribir.
+	private IOException failure;						//Error de escritura, si ocurrio alguno.
+	private boolean running;							//Indica si el hilo escritor sigue activo.
+	private Thread writer;								//Hilo que escribe los segmentos.
+
+	/**
+	 * Constructor, abre (o crea) el directorio de los segmentos y obtiene la cantidad de transacciones guardadas
+	 * de cada cuenta.
+	 * @param directory directorio de los segmentos.
+	 * */
+	public SegmentHistoryStore(Path directory) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		this.accounts = new ConcurrentHashMap<Integer, Segments>();
+		this.channels = new LinkedHashMap<Path, FileChannel>(16, 0.75f, true);
+		this.dirty = new ArrayList<FileChannel>();
+		this.readChannels = new LinkedHashMap<Path, FileChannel>(16, 0.75f, true);
+		this.readLock = new ReentrantLock();
+		this.lock = new ReentrantLock();
+		this.pending = this.lock.newCondition();
+		this.written = this.lock.newCondition();
+		this.group = ByteBuffer.allocate(INITIAL_BUFFER);
+		this.spare = ByteBuffer.allocate(INITIAL_BUFFER);
+
+		loadSegments();
+
+		this.running = true;
+		this.writer = new Thread(this::writeGroups, "bank-history");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	@Override
+	public void append(int accountKey, int amount, int day, int counterparty) {
+		this.lock.lock();
+		try {
+			//Si el buffer de pendientes llego a su maximo, se espera a que el hilo escritor lo tome
+			while((this.group.position() + PENDING_BYTES > MAX_BUFFER) && (this.failure == null) && this.running)
+				this.written.awaitUninterruptibly();
+
+			//Si el hilo escritor fallo o se cerro el almacenamiento, las transacciones ya no se pueden guardar
+			if((this.failure != null) || !this.running)
+				return;
+
+			//Si la transaccion no cabe en el buffer de pendientes, se reemplaza por uno mas grande
+			if(this.group.remaining() < PENDING_BYTES) {
+				ByteBuffer larger = ByteBuffer.allocate(Math.min(2 * this.group.capacity(), MAX_BUFFER));
+				this.group.flip();
+				larger.put(this.group);
+				this.group = larger;
+			}
+
+			this.group.putInt(accountKey).putInt(amount).putInt(day).putInt(counterparty);
+			segmentsOf(accountKey).appended++;
+
+			this.pending.signal();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public long count(int accountKey) {
+		Segments segments = this.accounts.get(accountKey);
+
+		if(segments == null)
+			return 0;
+
+		this.lock.lock();
+		try {
+			return segments.appended;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public int read(int accountKey, long from, int[] amounts, int[] days, int[] counterparties, int length) {
+		Segments segments = this.accounts.get(accountKey);
+
+		if((segments == null) || (from < 0) || (length <= 0))
+			return 0;
+
+		//Se espera a que las transacciones pedidas esten escritas
+		long end;
+		this.lock.lock();
+		try {
+			end = Math.min(from + length, segments.appended);
+
+			while((segments.written < end) && (this.failure == null))
+				this.written.awaitUninterruptibly();
+
+			if(segments.written < end)
+				throw new UncheckedIOException("No se pudo guardar el historial", this.failure);
+		} finally {
+			this.lock.unlock();
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(end - from, 0), SEGMENT_ENTRIES) * ENTRY_BYTES);
+		int read = 0;
+
+		//Se lee segmento por segmento
+		while(from + read < end) {
+			long index = from + read;
+			int offset = (int) (index % SEGMENT_ENTRIES);
+			int entries = (int) Math.min(end - index, SEGMENT_ENTRIES - offset);
+
+			buffer.clear().limit(entries * ENTRY_BYTES);
+			readSegment(segmentFile(accountKey, index / SEGMENT_ENTRIES), buffer, (long) offset * ENTRY_BYTES);
+
+			buffer.flip();
+			for(int i = 0; i < entries; ++i, ++read) {
+				amounts[read] = buffer.getInt();
+				days[read] = buffer.getInt();
+				counterparties[read] = buffer.getInt();
+			}
+		}
+
+		return read;
+	}
+
+	/**
+	 * Escribe las transacciones pendientes, detiene el hilo escritor y cierra los segmentos.
+	 * */
+	@Override
+	public void close() throws IOException {
+		this.lock.lock();
+		try {
+			this.running = false;
+			this.pending.signal();
+			this.written.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+
+		try {
+			this.writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		for(FileChannel channel : this.channels.values())
+			channel.close();
+
+		this.channels.clear();
+
+		this.readLock.lock();
+		try {
+			for(FileChannel channel : this.readChannels.values())
+				channel.close();
+
+			this.readChannels.clear();
+		} finally {
+			this.readLock.unlock();
+		}
+	}
+
+	/**
+	 * Obtiene el estado del historial guardado de una cuenta, creandolo si no existe.
+	 * */
+	private Segments segmentsOf(int accountKey) {
+		Segments segments = this.accounts.get(accountKey);
+
+		if(segments == null) {
+			segments = new Segments();
+			this.accounts.put(accountKey, segments);
+		}
+
+		return segments;
+	}
+
+	/**
+	 * Metodo del hilo escritor, espera que haya transacciones pendientes, las agrega al final de los segmentos
+	 * de cada cuenta y avisa a las lecturas que esperaban por ellas.
+	 * */
+	private void writeGroups() {
+		ByteBuffer run = ByteBuffer.allocate(SEGMENT_ENTRIES * ENTRY_BYTES);
+		long[] order = new long[INITIAL_BUFFER / PENDING_BYTES];
+
+		while(true) {
+			ByteBuffer toWrite;
+
+			this.lock.lock();
+			try {
+				while((this.group.position() == 0) && this.running)
+					this.pending.awaitUninterruptibly();
+
+				if((this.group.position() == 0) && !this.running)
+					return;
+
+				toWrite = this.group;
+				this.group = this.spare;
+			} finally {
+				this.lock.unlock();
+			}
+
+			int count = toWrite.position() / PENDING_BYTES;
+
+			if(order.length < count)
+				order = new long[Math.max(count, 2 * order.length)];
+
+			//Se ordenan por cuenta y luego por posicion en el grupo, asi cada cuenta mantiene el orden de llegada
+			for(int i = 0; i < count; ++i)
+				order[i] = ((long) toWrite.getInt(i * PENDING_BYTES) << 32) | i;
+
+			Arrays.sort(order, 0, count);
+
+			IOException error = null;
+			try {
+				int i = 0;
+
+				while(i < count) {
+					int accountKey = (int) (order[i] >>> 32);
+					Segments segments = this.accounts.get(accountKey);
+					long index = segments.position;
+					int room = (int) (SEGMENT_ENTRIES - index % SEGMENT_ENTRIES);
+
+					//Transacciones seguidas de la cuenta que caben en el segmento actual
+					run.clear();
+					while((i < count) && ((int) (order[i] >>> 32) == accountKey) && (room > 0)) {
+						int record = (int) order[i] * PENDING_BYTES;
+
+						run.putInt(toWrite.getInt(record + 4)).putInt(toWrite.getInt(record + 8)).putInt(toWrite.getInt(record + 12));
+						++i;
+						--room;
+					}
+					run.flip();
+
+					int entries = run.remaining() / ENTRY_BYTES;
+					FileChannel channel = channelOf(accountKey, index / SEGMENT_ENTRIES);
+					long position = (index % SEGMENT_ENTRIES) * ENTRY_BYTES;
+
+					while(run.hasRemaining())
+						position += channel.write(run, position);
+
+					if(!this.dirty.contains(channel))
+						this.dirty.add(channel);
+
+					segments.position = index + entries;
+				}
+
+				for(FileChannel channel : this.dirty)
+					channel.force(false);
+
+				this.dirty.clear();
+			} catch (IOException e) {
+				error = e;
+			}
+
+			this.lock.lock();
+			try {
+				//Se publican las transacciones escritas del grupo
+				for(int i = 0; i < count; ++i) {
+					Segments segments = this.accounts.get(toWrite.getInt(i * PENDING_BYTES));
+					segments.written = segments.position;
+				}
+
+				toWrite.clear();
+				this.spare = toWrite;
+
+				if(error != null)
+					this.failure = error;
+
+				this.written.signalAll();
+			} finally {
+				this.lock.unlock();
+			}
+
+			if(error != null)
+				return;
+		}
+	}
+
+	/**
+	 * Obtiene el canal de escritura de un segmento, abriendolo si no esta abierto. Si hay demasiados segmentos
+	 * abiertos se cierra el menos usado.
+	 * @param accountKey numero codificado de la cuenta.
+	 * @param segment numero del segmento.
+	 * @return canal del segmento.
+	 * */
+	private FileChannel channelOf(int accountKey, long segment) throws IOException {
+		Path file = segmentFile(accountKey, segment);
+		FileChannel channel = this.channels.get(file);
+
+		if(channel == null) {
+			if(this.channels.size() >= OPEN_SEGMENTS) {
+				Map.Entry<Path, FileChannel> eldest = this.channels.entrySet().iterator().next();
+
+				//Si el grupo actual lo escribio, se guarda en disco antes de cerrarlo
+				if(this.dirty.remove(eldest.getValue()))
+					eldest.getValue().force(false);
+
+				eldest.getValue().close();
+				this.channels.remove(eldest.getKey());
+			}
+
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			this.channels.put(file, channel);
+		}
+
+		return channel;
+	}
+
+	/**
+	 * Lee transacciones de un segmento hasta llenar el buffer, con un canal de lectura compartido. Si otro hilo
+	 * cierra el canal mientras se lee (porque lo desaloja o porque el hilo que leia se interrumpio), se vuelve a
+	 * leer con un canal nuevo.
+	 * @param file segmento a leer.
+	 * @param buffer buffer a llenar, desde su posicion hasta su limite.
+	 * @param position posicion del archivo desde la que se lee.
+	 * */
+	private void readSegment(Path file, ByteBuffer buffer, long position) {
+		int start = buffer.position();
+
+		for(int attempt = 1; ; ++attempt) {
+			try {
+				buffer.position(start);
+				readFully(readChannelOf(file), buffer, position);
+				return;
+			} catch (ClosedByInterruptException e) {
+				throw new UncheckedIOException("Se interrumpio la lectura del historial", e);
+			} catch (ClosedChannelException e) {
+				if(attempt >= READ_ATTEMPTS)
+					throw new UncheckedIOException("No se pudo leer el historial", e);
+			} catch (IOException e) {
+				throw new UncheckedIOException("No se pudo leer el historial", e);
+			}
+		}
+	}
+
+	/**
+	 * Obtiene el canal de lectura de un segmento, abriendolo si no esta abierto (o si se cerro). Si hay
+	 * demasiados segmentos abiertos se cierra el menos usado.
+	 * @param file segmento a leer.
+	 * @return canal del segmento.
+	 * */
+	private FileChannel readChannelOf(Path file) throws IOException {
+		this.readLock.lock();
+		try {
+			FileChannel channel = this.readChannels.get(file);
+
+			if((channel == null) || !channel.isOpen()) {
+				if((channel == null) && (this.readChannels.size() >= READ_SEGMENTS)) {
+					Map.Entry<Path, FileChannel> eldest = this.readChannels.entrySet().iterator().next();
+					eldest.getValue().close();
+					this.readChannels.remove(eldest.getKey());
+				}
+
+				channel = FileChannel.open(file, StandardOpenOption.READ);
+				this.readChannels.put(file, channel);
+			}
+
+			return channel;
+		} finally {
+			this.readLock.unlock();
+		}
+	}
+
+	/**
+	 * Recorre los segmentos del directorio, obtiene la cantidad de transacciones guardadas de cada cuenta y
+	 * descarta una posible transaccion final incompleta.
+	 * */
+	private void loadSegments() throws IOException {
+		try(DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, PREFIX + "*" + SUFFIX)) {
+			for(Path file : files) {
+				String name = file.getFileName().toString();
+				String[] parts = name.substring(PREFIX.length(), name.length() - SUFFIX.length()).split("-");
+				int accountKey;
+				long segment;
+
+				try {
+					accountKey = Integer.parseInt(parts[0]);
+					segment = Long.parseLong(parts[1]);
+				} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+					continue;
+				}
+
+				long entries = Files.size(file) / ENTRY_BYTES;
+				long count = segment * SEGMENT_ENTRIES + entries;
+				Segments segments = segmentsOf(accountKey);
+
+				if(count > segments.position)
+					segments.position = count;
+
+				if(Files.size(file) != entries * ENTRY_BYTES) {
+					try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+						channel.truncate(entries * ENTRY_BYTES);
+					}
+				}
+			}
+		} catch (NoSuchFileException e) {
+			return;
+		}
+
+		for(Segments segments : this.accounts.values()) {
+			segments.appended = segments.position;
+			segments.written = segments.position;
+		}
+	}
+
+	/**
+	 * Lee desde el archivo hasta llenar el buffer ingresado.
+	 * */
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+
+			if(read < 0)
+				throw new IOException("Fin de archivo inesperado");
+
+			position += read;
+		}
+	}
+
+	/**
+	 * @return ruta del segmento ingresado de una cuenta.
+	 * */
+	private Path segmentFile(int accountKey, long segment) {
+		return this.directory.resolve(PREFIX + accountKey + "-" + segment + SUFFIX);
+	}
+}
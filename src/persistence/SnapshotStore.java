@@ -0,0 +1,410 @@
+package persistence;
+
+import exceptions.*;
+import model.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clase que guarda y carga puntos de control (snapshots) binarios del banco en un directorio.
+ * Un punto de control completo contiene todas las cuentas y el cliente; un punto de control incremental (delta)
+ * solo contiene las cuentas que cambiaron y las que se eliminaron desde el punto de control anterior, junto con
+ * el cliente completo: sus destinatarios (por ejemplo los cargados con BulkLoader) no pasan por el registro de
+ * modificaciones, por lo que cada punto de control los guarda. Para
+ * reconstruir el banco se carga el ultimo punto de control completo y los incrementales posteriores, todos
+ * leidos a traves de archivos mapeados en memoria, y luego se aplica el registro de modificaciones desde el
+ * numero de secuencia retornado.
+ *
+ * Formato de un archivo: numero magico (int), version (int), tipo (byte), numero de secuencia del registro (long),
+ * cantidad de cuentas (int), cuentas de largo fijo (numero de cuenta, saldo, configuracion y acumulador de
+ * depositos del mes de las cuentas de ahorro: 34 bytes), cantidad de cuentas eliminadas (int), numeros de cuenta
+ * eliminados (10 bytes) y el cliente con sus destinatarios. Los archivos de la version 1 no tienen el acumulador
+ * (cuentas de 26 bytes), y en los de las versiones 1 y 2 solo los completos tienen el cliente; se siguen cargando.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class SnapshotStore implements AutoCloseable {
+
+	private static final int MAGIC = 0x42414E4B;		//Numero magico de los archivos ("BANK").
+	private static final int FORMAT_VERSION = 3;		//Version del formato de los archivos.
+	private static final byte FULL = 1;					//Tipo de archivo: punto de control completo.
+	private static final byte DELTA = 2;				//Tipo de archivo: punto de control incremental.
+	private static final int NUMBER_BYTES = 10;			//Bytes de un numero de cuenta.
+	private static final int ACCOUNT_BYTES = NUMBER_BYTES + 24;	//Bytes de una cuenta.
+	private static final String PREFIX = "snapshot-";	//Prefijo de los nombres de archivo.
+
+	private Path directory;								//Directorio donde se guardan los puntos de control.
+	private long lastId;								//Identificador del ultimo punto de control guardado.
+	private ScheduledExecutorService scheduler;			//Hilo que escribe los puntos de control periodicos.
+	private volatile Exception failure;					//Error del ultimo punto de control periodico, null si se guardo.
+
+	/**
+	 * Constructor, establece el directorio de los puntos de control, creandolo si no existe.
+	 * @param directory directorio de los puntos de control.
+	 * */
+	public SnapshotStore(Path directory) throws IOException {
+		this.directory = Files.createDirectories(directory);
+
+		ArrayList<Path> files = listSnapshots();
+		this.lastId = files.isEmpty() ? 0 : idOf(files.get(files.size() - 1));
+	}
+
+	/**
+	 * Escribe un punto de control del banco.
+	 * @param bank banco a guardar.
+	 * @param full true para un punto de control completo, false para uno incremental.
+	 * @return ruta del archivo escrito.
+	 * */
+	public synchronized Path checkpoint(Bank bank, boolean full) throws IOException {
+		BankCheckpoint checkpoint = bank.capture(!full);
+		byte[] client = encodeClient(bank.getClient());
+		String[] removed = checkpoint.getRemovedAccounts();
+
+		long size = 21 + (long) checkpoint.getAccountCount() * ACCOUNT_BYTES + 4 + (long) removed.length * NUMBER_BYTES + client.length;
+		Path file = this.directory.resolve(fileName(this.lastId + 1, full));
+		Path temporary = this.directory.resolve(file.getFileName() + ".tmp");
+
+		//Se escribe en un archivo temporal que se renombra al terminar, asi nunca queda un punto de control a medias
+		try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+												   StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+			buffer.putInt(MAGIC);
+			buffer.putInt(FORMAT_VERSION);
+			buffer.put(full ? FULL : DELTA);
+			buffer.putLong(checkpoint.getSequence());
+
+			buffer.putInt(checkpoint.getAccountCount());
+			for(int i = 0; i < checkpoint.getAccountCount(); ++i) {
+				Account account = checkpoint.getAccount(i);
+
+				putAccountNumber(buffer, account.getAccountNumber());
+				buffer.putLong(checkpoint.getBalance(i));
+
+				//Se guarda la configuracion propia de cada tipo de cuenta
+				if(account instanceof CurrentAccount)
+					buffer.putLong(((CurrentAccount) account).getMaintenanceCost());
+				else if(account instanceof SavingAccount)
+					buffer.putLong(Double.doubleToLongBits(((SavingAccount) account).getProfitabilityPercentage()));
+				else
+					buffer.putLong(0);
+
+				buffer.putLong(checkpoint.getMonthlyDepositsState(i));
+			}
+
+			buffer.putInt(removed.length);
+			for(String accountNumber : removed)
+				putAccountNumber(buffer, accountNumber);
+
+			buffer.put(client);
+			buffer.force();
+		}
+
+		Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+		this.lastId++;
+
+		//Con un nuevo punto de control completo, los anteriores ya no son necesarios
+		if(full) {
+			for(Path old : listSnapshots()) {
+				if(idOf(old) < this.lastId)
+					Files.delete(old);
+			}
+		}
+
+		return file;
+	}
+
+	/**
+	 * Reconstruye el banco desde el ultimo punto de control completo y los incrementales posteriores.
+	 * El banco debe estar vacio y sin registro de modificaciones.
+	 * @param bank banco a reconstruir.
+	 * @return numero de secuencia del registro de modificaciones incluido en el ultimo punto de control cargado,
+	 * el registro se debe aplicar desde ese numero; 0 si no habia puntos de control.
+	 * */
+	public long recover(Bank bank) throws IOException {
+		ArrayList<Path> files = listSnapshots();
+		long sequence = 0;
+		int first = -1;
+
+		for(int i = files.size() - 1; i >= 0; --i) {
+			if(files.get(i).getFileName().toString().endsWith(".full")) {
+				first = i;
+				break;
+			}
+		}
+
+		if(first < 0)
+			return 0;
+
+		for(int i = first; i < files.size(); ++i)
+			sequence = load(bank, files.get(i));
+
+		return sequence;
+	}
+
+	/**
+	 * Comienza a escribir puntos de control periodicos: uno incremental en cada periodo, y uno completo
+	 * cada cierta cantidad de incrementales. Si uno falla, el error queda disponible en getFailure y se sigue
+	 * intentando en los periodos siguientes.
+	 * @param bank banco a guardar.
+	 * @param periodMillis milisegundos entre cada punto de control.
+	 * @param deltasPerFull cantidad de puntos de control incrementales entre dos completos.
+	 * */
+	public synchronized void start(Bank bank, long periodMillis, int deltasPerFull) {
+		if(this.scheduler != null)
+			return;
+
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "bank-checkpoint");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		this.scheduler.scheduleWithFixedDelay(new Runnable() {
+			private int deltas = deltasPerFull;		//El primer punto de control es completo.
+
+			@Override
+			public void run() {
+				try {
+					boolean full = (this.deltas >= deltasPerFull);
+
+					checkpoint(bank, full);
+					this.deltas = full ? 0 : this.deltas + 1;
+					failure = null;
+				} catch (IOException | RuntimeException e) {
+					//Los cambios copiados se perdieron junto con el archivo, el siguiente debe ser completo. Una
+					//excepcion que saliera de run cancelaria todos los puntos de control siguientes
+					this.deltas = deltasPerFull;
+					failure = e;
+				}
+			}
+		}, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Detiene los puntos de control periodicos.
+	 * */
+	@Override
+	public synchronized void close() {
+		if(this.scheduler != null) {
+			this.scheduler.shutdown();
+			this.scheduler = null;
+		}
+	}
+
+	/**
+	 * @return error del ultimo punto de control periodico, null si se guardo o si aun no se ha intentado ninguno.
+	 * */
+	public Exception getFailure() {
+		return this.failure;
+	}
+
+	/**
+	 * Carga un punto de control sobre el banco.
+	 * @param bank banco a reconstruir.
+	 * @param file archivo del punto de control.
+	 * @return numero de secuencia del registro incluido en el punto de control.
+	 * */
+	private static long load(Bank bank, Path file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			int version = (buffer.getInt() == MAGIC) ? buffer.getInt() : -1;
+
+			if((version < 1) || (version > FORMAT_VERSION))
+				throw new IOException("Punto de control no valido: " + file);
+
+			byte type = buffer.get();
+			long sequence = buffer.getLong();
+			int accounts = buffer.getInt();
+
+			for(int i = 0; i < accounts; ++i) {
+				String accountNumber = getAccountNumber(buffer);
+				long balance = buffer.getLong();
+				long parameter = buffer.getLong();
+				long deposits = (version > 1) ? buffer.getLong() : 0;
+				Account account = bank.getAccount(accountNumber);
+
+				if(account == null) {
+					try {
+						if(Account.getTypeAccount(accountNumber) == TypeAccount.RUT_ACCOUNT)
+							account = new CurrentAccount(balance, accountNumber, (int) parameter);
+						else
+							account = new SavingAccount(balance, accountNumber, Double.longBitsToDouble(parameter));
+					} catch (WrongAccountNumber e) {
+						throw new IOException("Numero de cuenta no valido en " + file);
+					}
+
+					bank.addAccount(account);
+				}
+				else
+					account.setBalance(balance);
+
+				if(account instanceof SavingAccount)
+					((SavingAccount) account).setMonthlyDepositsState(deposits);
+			}
+
+			int removed = buffer.getInt();
+			for(int i = 0; i < removed; ++i)
+				bank.removeAccount(getAccountNumber(buffer));
+
+			if((type == FULL) || (version > 2))
+				bank.setClient(decodeClient(buffer, bank));
+
+			return sequence;
+		}
+	}
+
+	/**
+	 * Codifica el cliente: nombre, rut, numeros de sus cuentas y sus destinatarios (numero de cuenta, nombre
+	 * y si es favorito).
+	 * @param client cliente a codificar.
+	 * @return bytes del cliente.
+	 * */
+	private static byte[] encodeClient(Client client) {
+		ArrayList<Addressee> addressees = client.getAddressees();
+		byte[] name = bytesOf(client.getName());
+		byte[] rut = bytesOf(client.getRut());
+		byte[][] names = new byte[addressees.size()][];
+		int size = (2 + name.length) + (2 + rut.length) + 2 * NUMBER_BYTES + 4;
+
+		for(int i = 0; i < names.length; ++i) {
+			names[i] = bytesOf(addressees.get(i).getName());
+			size += NUMBER_BYTES + 2 + names[i].length + 1;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		putString(buffer, name);
+		putString(buffer, rut);
+		putAccountNumber(buffer, client.getAccount(TypeAccount.RUT_ACCOUNT).getAccountNumber());
+		putAccountNumber(buffer, client.getAccount(TypeAccount.SAVING_ACCOUNT).getAccountNumber());
+		buffer.putInt(names.length);
+
+		for(int i = 0; i < names.length; ++i) {
+			putAccountNumber(buffer, addressees.get(i).getAccountNumber());
+			putString(buffer, names[i]);
+			buffer.put((byte) (addressees.get(i).isFavorite() ? 1 : 0));
+		}
+
+		return buffer.array();
+	}
+
+	/**
+	 * Decodifica el cliente, sus cuentas y las cuentas de sus destinatarios se buscan en el banco ya cargado.
+	 * @param buffer buffer posicionado al inicio del cliente.
+	 * @param bank banco con las cuentas ya cargadas.
+	 * @return cliente decodificado.
+	 * */
+	private static Client decodeClient(ByteBuffer buffer, Bank bank) {
+		Client client = new Client(getString(buffer), "");
+		client.setRut(getString(buffer));
+
+		for(int i = 0; i < 2; ++i) {
+			Account account = bank.getAccount(getAccountNumber(buffer));
+
+			if(account != null)
+				client.setAccount(account);
+		}
+
+		int addressees = buffer.getInt();
+		for(int i = 0; i < addressees; ++i) {
+			Account account = bank.getAccount(getAccountNumber(buffer));
+			String name = getString(buffer);
+			boolean favorite = (buffer.get() == 1);
+
+			if(account != null)
+				client.addAddressee(new Addressee(account, name, favorite));
+		}
+
+		return client;
+	}
+
+	/**
+	 * @return archivos de puntos de control del directorio, ordenados por identificador.
+	 * */
+	private ArrayList<Path> listSnapshots() throws IOException {
+		ArrayList<Path> files = new ArrayList<Path>();
+
+		try(DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, PREFIX + "*.{full,delta}")) {
+			for(Path file : stream)
+				files.add(file);
+		}
+
+		Collections.sort(files);
+		return files;
+	}
+
+	/**
+	 * @return nombre del archivo del punto de control, el identificador se rellena con ceros para ordenarlos.
+	 * */
+	private static String fileName(long id, boolean full) {
+		return String.format("%s%016d.%s", PREFIX, id, full ? "full" : "delta");
+	}
+
+	/**
+	 * @return identificador del punto de control a partir del nombre del archivo.
+	 * */
+	private static long idOf(Path file) {
+		String name = file.getFileName().toString();
+
+		return Long.parseLong(name.substring(PREFIX.length(), name.indexOf('.')));
+	}
+
+	/**
+	 * @return bytes en UTF-8 del texto ingresado, sin bytes si es null.
+	 * */
+	private static byte[] bytesOf(String string) {
+		return (string == null) ? new byte[0] : string.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Escribe un texto en el buffer precedido por su largo.
+	 * */
+	private static void putString(ByteBuffer buffer, byte[] string) {
+		buffer.putShort((short) string.length);
+		buffer.put(string);
+	}
+
+	/**
+	 * Lee un texto precedido por su largo desde el buffer.
+	 * */
+	private static String getString(ByteBuffer buffer) {
+		byte[] string = new byte[buffer.getShort() & 0xFFFF];
+		buffer.get(string);
+
+		return new String(string, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Escribe un numero de cuenta en el buffer, usando un byte por caracter.
+	 * */
+	private static void putAccountNumber(ByteBuffer buffer, String accountNumber) {
+		for(int i = 0; i < NUMBER_BYTES; ++i)
+			buffer.put((byte) accountNumber.charAt(i));
+	}
+
+	/**
+	 * Lee un numero de cuenta desde el buffer.
+	 * */
+	private static String getAccountNumber(ByteBuffer buffer) {
+		byte[] accountNumber = new byte[NUMBER_BYTES];
+		buffer.get(accountNumber);
+
+		return new String(accountNumber, StandardCharsets.US_ASCII);
+	}
+}
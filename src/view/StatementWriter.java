@@ -0,0 +1,266 @@
+package view;
+
+import model.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Clase que escribe la cartola (estado de cuenta) de una cuenta en formato CSV o JSON directamente a un canal,
+ * desde la transaccion mas antigua a la mas reciente, incluyendo las guardadas en el almacenamiento del banco.
+ * El historial se lee por bloques en columnas y cada fila se escribe byte a byte en un buffer que se reutiliza:
+ * no se crean Strings ni objetos por transaccion, la escritura comienza con el primer bloque y la memoria usada
+ * no depende del largo del historial.
+ * La cartola incluye las transacciones que tenia la cuenta al comenzar a escribirla.
+ * Un escritor se puede reutilizar para varias cartolas, pero no desde varios hilos a la vez.
+ *
+ * CSV:  date,amount,counterparty (una fila por transaccion, counterparty vacio si no hay cuenta asociada).
+ * JSON: {"accountNumber", "type", "balance", "transactions": [{"date", "amount", "counterparty"}, ...]}.
+ *
+ * @author DanSantos
+ * @version 16-10-2026
+ * */
+
+public class StatementWriter {
+
+	public static final int DEFAULT_BUFFER = 16 * 1024;	//Capacidad por defecto del buffer de escritura.
+
+	private static final int CHUNK = 512;				//Transacciones que se leen del historial por vez.
+	private static final int MAX_ROW = 96;				//Bytes maximos de una fila, en ambos formatos.
+
+	private static final byte[] CSV_HEADER = ascii("date,amount,counterparty\n");
+	private static final byte[] JSON_ACCOUNT = ascii("{\"accountNumber\":\"");
+	private static final byte[] JSON_TYPE = ascii("\",\"type\":\"");
+	private static final byte[] JSON_BALANCE = ascii("\",\"balance\":");
+	private static final byte[] JSON_TRANSACTIONS = ascii(",\"transactions\":[");
+	private static final byte[] JSON_DATE = ascii("{\"date\":\"");
+	private static final byte[] JSON_AMOUNT = ascii("\",\"amount\":");
+	private static final byte[] JSON_COUNTERPARTY = ascii(",\"counterparty\":");
+	private static final byte[] JSON_NULL = ascii("null");
+	private static final byte[] JSON_END = ascii("]}\n");
+
+	private ByteBuffer buffer;							//Buffer de escritura, se reutiliza para todas las filas.
+	private int[] amounts;								//Montos del bloque leido.
+	private int[] days;									//Dias del bloque leido.
+	private int[] counterparties;						//Cuentas asociadas del bloque leido.
+	private byte[] digits;								//Espacio para escribir los digitos de un numero.
+
+	/**
+	 * Constructor, crea el escritor con el buffer por defecto.
+	 * */
+	public StatementWriter() {
+		this(DEFAULT_BUFFER);
+	}
+
+	/**
+	 * Constructor, crea el escritor con un buffer de la capacidad ingresada.
+	 * @param bufferBytes capacidad del buffer de escritura.
+	 * */
+	public StatementWriter(int bufferBytes) {
+		this.buffer = ByteBuffer.allocateDirect(Math.max(bufferBytes, 2 * MAX_ROW));
+		this.amounts = new int[CHUNK];
+		this.days = new int[CHUNK];
+		this.counterparties = new int[CHUNK];
+		this.digits = new byte[20];
+	}
+
+	/**
+	 * Escribe la cartola de la cuenta en formato CSV.
+	 * @param account cuenta de la cartola.
+	 * @param channel canal de destino, en modo bloqueante.
+	 * @return cantidad de transacciones escritas.
+	 * */
+	public long writeCsv(Account account, WritableByteChannel channel) throws IOException {
+		TransactionHistory history = account.getTransactionHistory();
+		long total = history.fullCount();
+		long written = 0;
+
+		this.buffer.clear();
+		this.buffer.put(CSV_HEADER);
+
+		while(written < total) {
+			int read = history.read(written, this.amounts, this.days, this.counterparties, (int) Math.min(CHUNK, total - written));
+
+			if(read == 0)
+				break;
+
+			for(int i = 0; i < read; ++i) {
+				ensureRoom(channel);
+				putDate(this.days[i]);
+				this.buffer.put((byte) ',');
+				putLong(this.amounts[i]);
+				this.buffer.put((byte) ',');
+				if(this.counterparties[i] != 0)
+					putAccountNumber(this.counterparties[i]);
+				this.buffer.put((byte) '\n');
+			}
+
+			written += read;
+		}
+
+		flush(channel);
+		return written;
+	}
+
+	/**
+	 * Escribe la cartola de la cuenta en formato JSON.
+	 * @param account cuenta de la cartola.
+	 * @param channel canal de destino, en modo bloqueante.
+	 * @return cantidad de transacciones escritas.
+	 * */
+	public long writeJson(Account account, WritableByteChannel channel) throws IOException {
+		TransactionHistory history = account.getTransactionHistory();
+		long total = history.fullCount();
+		long written = 0;
+
+		this.buffer.clear();
+		this.buffer.put(JSON_ACCOUNT);
+		putAccountNumber(account.getAccountKey());
+		this.buffer.put(JSON_TYPE);
+		putAscii(account.getTypeAccount().name());
+		this.buffer.put(JSON_BALANCE);
+		putLong(account.getBalance());
+		this.buffer.put(JSON_TRANSACTIONS);
+
+		while(written < total) {
+			int read = history.read(written, this.amounts, this.days, this.counterparties, (int) Math.min(CHUNK, total - written));
+
+			if(read == 0)
+				break;
+
+			for(int i = 0; i < read; ++i) {
+				ensureRoom(channel);
+				if(written + i > 0)
+					this.buffer.put((byte) ',');
+				this.buffer.put(JSON_DATE);
+				putDate(this.days[i]);
+				this.buffer.put(JSON_AMOUNT);
+				putLong(this.amounts[i]);
+				this.buffer.put(JSON_COUNTERPARTY);
+				if(this.counterparties[i] != 0) {
+					this.buffer.put((byte) '"');
+					putAccountNumber(this.counterparties[i]);
+					this.buffer.put((byte) '"');
+				}
+				else {
+					this.buffer.put(JSON_NULL);
+				}
+				this.buffer.put((byte) '}');
+			}
+
+			written += read;
+		}
+
+		ensureRoom(channel);
+		this.buffer.put(JSON_END);
+		flush(channel);
+		return written;
+	}
+
+	/**
+	 * Si no queda espacio para una fila completa, envia el contenido del buffer al canal.
+	 * */
+	private void ensureRoom(WritableByteChannel channel) throws IOException {
+		if(this.buffer.remaining() < MAX_ROW)
+			flush(channel);
+	}
+
+	/**
+	 * Envia todo el contenido del buffer al canal y lo deja vacio.
+	 * */
+	private void flush(WritableByteChannel channel) throws IOException {
+		this.buffer.flip();
+		while(this.buffer.hasRemaining())
+			channel.write(this.buffer);
+		this.buffer.clear();
+	}
+
+	/**
+	 * Escribe un numero entero en decimal.
+	 * */
+	private void putLong(long value) {
+		//Long.MIN_VALUE no tiene positivo, se escribe su ultimo digito aparte
+		if(value == Long.MIN_VALUE) {
+			putLong(value / 10);
+			this.buffer.put((byte) '8');
+			return;
+		}
+
+		if(value < 0) {
+			this.buffer.put((byte) '-');
+			value = -value;
+		}
+
+		int length = 0;
+		do {
+			this.digits[length++] = (byte) ('0' + (value % 10));
+			value /= 10;
+		} while(value != 0);
+
+		while(length > 0)
+			this.buffer.put(this.digits[--length]);
+	}
+
+	/**
+	 * Escribe un numero de cuenta codificado con el formato "12345678-1", igual que Account.decode.
+	 * */
+	private void putAccountNumber(int accountKey) {
+		int body = accountKey / 10;
+
+		for(int divisor = 10000000; divisor > 0; divisor /= 10)
+			this.buffer.put((byte) ('0' + (body / divisor) % 10));
+
+		this.buffer.put((byte) '-');
+		this.buffer.put((byte) ('0' + accountKey % 10));
+	}
+
+	/**
+	 * Escribe un dia (dias desde 1970-01-01) con el formato "aaaa-mm-dd", sin crear un LocalDate. Usa la
+	 * conversion de dias a fecha del calendario gregoriano en eras de 400 años, para los años 0 a 9999.
+	 * */
+	private void putDate(int epochDay) {
+		long days = epochDay + 719468L;								//Dias desde el 0000-03-01
+		long era = Math.floorDiv(days, 146097L);
+		long dayOfEra = days - era * 146097L;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long shiftedMonth = (5 * dayOfYear + 2) / 153;				//Meses desde marzo
+		long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+		long month = (shiftedMonth < 10) ? shiftedMonth + 3 : shiftedMonth - 9;
+		long year = yearOfEra + era * 400 + ((month <= 2) ? 1 : 0);
+
+		putPadded(year, 4);
+		this.buffer.put((byte) '-');
+		putPadded(month, 2);
+		this.buffer.put((byte) '-');
+		putPadded(day, 2);
+	}
+
+	/**
+	 * Escribe un numero positivo con la cantidad de digitos ingresada, completando con ceros a la izquierda.
+	 * */
+	private void putPadded(long value, int width) {
+		for(int i = width - 1; i >= 0; --i) {
+			this.digits[i] = (byte) ('0' + (value % 10));
+			value /= 10;
+		}
+
+		this.buffer.put(this.digits, 0, width);
+	}
+
+	/**
+	 * Escribe un texto que solo contiene caracteres ASCII, como el nombre de un tipo de cuenta.
+	 * */
+	private void putAscii(CharSequence text) {
+		for(int i = 0; i < text.length(); ++i)
+			this.buffer.put((byte) text.charAt(i));
+	}
+
+	/**
+	 * @return bytes ASCII del texto ingresado.
+	 * */
+	private static byte[] ascii(String text) {
+		return text.getBytes(StandardCharsets.US_ASCII);
+	}
+}